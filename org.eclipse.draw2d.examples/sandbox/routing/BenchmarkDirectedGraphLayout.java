@@ -0,0 +1,74 @@
+/*******************************************************************************
+ * Copyright (c) 2026 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package routing;
+
+import java.util.Random;
+
+import org.eclipse.draw2d.graph.DirectedGraph;
+import org.eclipse.draw2d.graph.DirectedGraphLayout;
+import org.eclipse.draw2d.graph.Edge;
+import org.eclipse.draw2d.graph.Node;
+
+/**
+ * Measures the time taken by the {@link DirectedGraphLayout} to lay out
+ * random graphs with an increasing number of nodes. Edges often span several
+ * ranks, so that most of them are routed around their neighbors by a
+ * {@link org.eclipse.draw2d.graph.ShortestPathRouter} whose obstacles are
+ * widened far to the left or the right. The average time of a layout is
+ * printed for each size.
+ */
+public class BenchmarkDirectedGraphLayout {
+
+private static final int[] NODES = { 50, 100, 200, 400 };
+private static final int EDGES_PER_NODE = 2;
+private static final int MAX_SPAN = 24;
+private static final int RUNS = 5;
+
+public static void main(String[] args) {
+	// warm up
+	run(50, false);
+	for (int i = 0; i < NODES.length; i++)
+		run(NODES[i], true);
+}
+
+private static void run(int nodeCount, boolean print) {
+	long total = 0;
+	for (int r = 0; r < RUNS; r++) {
+		DirectedGraph graph = createGraph(new Random(r), nodeCount);
+		long start = System.currentTimeMillis();
+		new DirectedGraphLayout().visit(graph);
+		total += System.currentTimeMillis() - start;
+	}
+	if (print)
+		System.out.println(nodeCount + " nodes, " + nodeCount * EDGES_PER_NODE
+				+ " edges: layout " + total / RUNS + " ms");
+}
+
+private static DirectedGraph createGraph(Random random, int nodeCount) {
+	DirectedGraph graph = new DirectedGraph();
+	Node[] nodes = new Node[nodeCount];
+	for (int i = 0; i < nodeCount; i++) {
+		nodes[i] = new Node(new Integer(i));
+		nodes[i].width = 40 + random.nextInt(60);
+		nodes[i].height = 20 + random.nextInt(20);
+		graph.nodes.add(nodes[i]);
+	}
+	// edges only go from lower to higher indices, which keeps the graph acyclic
+	for (int i = 0; i < nodeCount * EDGES_PER_NODE; i++) {
+		int source = random.nextInt(nodeCount - 1);
+		int span = 1 + random.nextInt(Math.min(MAX_SPAN, nodeCount - 1
+				- source));
+		graph.edges.add(new Edge(nodes[source], nodes[source + span]));
+	}
+	return graph;
+}
+
+}
@@ -0,0 +1,83 @@
+/*******************************************************************************
+ * Copyright (c) 2026 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package routing;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.eclipse.draw2d.geometry.Point;
+import org.eclipse.draw2d.geometry.Rectangle;
+import org.eclipse.draw2d.graph.Path;
+import org.eclipse.draw2d.graph.ShortestPathRouter;
+
+/**
+ * Measures the time taken by the {@link ShortestPathRouter} to route a diagram
+ * with an increasing number of obstacles. For each size, the time of the
+ * initial solve and the average time of re-solving after moving a single
+ * obstacle (as when a node is dragged) are printed. The number of solver
+ * threads may be passed as the first argument.
+ */
+public class BenchmarkShortestPathRouter {
+
+private static final int[] OBSTACLES = { 50, 100, 200, 500 };
+private static final int PATHS_PER_OBSTACLE = 4;
+private static final int MOVES = 10;
+
+public static void main(String[] args) {
+	int threads = args.length > 0 ? Integer.parseInt(args[0]) : 1;
+	// warm up
+	run(50, threads, false);
+	for (int i = 0; i < OBSTACLES.length; i++)
+		run(OBSTACLES[i], threads, true);
+}
+
+private static void run(int obstacleCount, int threads, boolean print) {
+	Random random = new Random(0);
+	int size = (int)Math.sqrt(obstacleCount) * 120 + 200;
+	ShortestPathRouter router = new ShortestPathRouter();
+	router.setSolverThreads(threads);
+
+	List obstacles = new ArrayList();
+	for (int i = 0; i < obstacleCount; i++) {
+		Rectangle rect = new Rectangle(random.nextInt(size), random.nextInt(size),
+				20 + random.nextInt(60), 20 + random.nextInt(60));
+		obstacles.add(rect);
+		router.addObstacle(rect);
+	}
+	for (int i = 0; i < obstacleCount * PATHS_PER_OBSTACLE; i++)
+		router.addPath(new Path(
+				new Point(random.nextInt(size), random.nextInt(size)),
+				new Point(random.nextInt(size), random.nextInt(size))));
+
+	long start = System.currentTimeMillis();
+	router.solve();
+	long solve = System.currentTimeMillis() - start;
+
+	start = System.currentTimeMillis();
+	for (int i = 0; i < MOVES; i++) {
+		int index = random.nextInt(obstacles.size());
+		Rectangle oldBounds = (Rectangle)obstacles.get(index);
+		Rectangle newBounds = oldBounds.getTranslated(random.nextInt(100) - 50,
+				random.nextInt(100) - 50);
+		router.updateObstacle(oldBounds, newBounds);
+		obstacles.set(index, newBounds);
+		router.solve();
+	}
+	long move = (System.currentTimeMillis() - start) / MOVES;
+
+	if (print)
+		System.out.println(obstacleCount + " obstacles, "
+				+ obstacleCount * PATHS_PER_OBSTACLE + " paths: solve "
+				+ solve + " ms, move " + move + " ms");
+}
+
+}
@@ -0,0 +1,156 @@
+/*******************************************************************************
+ * Copyright (c) 2026 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.draw2d.test;
+
+import junit.framework.TestCase;
+
+import org.eclipse.swt.SWT;
+import org.eclipse.swt.graphics.Image;
+import org.eclipse.swt.widgets.Canvas;
+import org.eclipse.swt.widgets.Control;
+import org.eclipse.swt.widgets.Shell;
+
+import org.eclipse.draw2d.BufferedGraphicsSource;
+import org.eclipse.draw2d.Graphics;
+import org.eclipse.draw2d.geometry.Rectangle;
+
+public class BufferedGraphicsSourceTest extends TestCase {
+
+	/**
+	 * The number of underused updates after which the buffer is released.
+	 */
+	private static final int SHRINK_DELAY = 100;
+
+	private static class TestSource extends BufferedGraphicsSource {
+		TestSource(Control c) {
+			super(c);
+		}
+
+		Image image() {
+			return getImage();
+		}
+	}
+
+	private Shell shell;
+	private Canvas canvas;
+	private TestSource source;
+
+	protected void setUp() throws Exception {
+		shell = new Shell();
+		canvas = new Canvas(shell, SWT.NONE);
+		canvas.setSize(500, 400);
+		source = new TestSource(canvas);
+	}
+
+	protected void tearDown() throws Exception {
+		shell.dispose();
+	}
+
+	private void paint(int width, int height) {
+		Rectangle region = new Rectangle(0, 0, width, height);
+		Graphics graphics = source.getGraphics(region);
+		assertNotNull(graphics);
+		graphics.dispose();
+		source.flushGraphics(region);
+	}
+
+	private void assertBufferSize(int width, int height) {
+		assertNotNull(source.image());
+		assertEquals(width, source.image().getBounds().width);
+		assertEquals(height, source.image().getBounds().height);
+	}
+
+	public void testBufferReused() {
+		paint(100, 80);
+		Image image = source.image();
+		assertEquals(1, source.getReallocationCount());
+		paint(100, 80);
+		paint(60, 80);
+		paint(100, 30);
+		assertSame(image, source.image());
+		assertFalse(image.isDisposed());
+		assertEquals(1, source.getReallocationCount());
+	}
+
+	public void testGeometricGrowth() {
+		paint(10, 10);
+		assertBufferSize(10, 10);
+		paint(15, 12);
+		assertBufferSize(20, 20);
+		assertEquals(2, source.getReallocationCount());
+		paint(18, 20);
+		assertEquals(2, source.getReallocationCount());
+		paint(300, 150);
+		assertBufferSize(300, 150);
+		// never larger than the control
+		paint(310, 300);
+		assertBufferSize(500, 300);
+		assertEquals(4, source.getReallocationCount());
+	}
+
+	public void testShrinkAfterDelay() {
+		paint(400, 400);
+		Image image = source.image();
+		for (int i = 1; i < SHRINK_DELAY; i++)
+			paint(10, 10);
+		assertSame(image, source.image());
+
+		// a larger update starts the delay again
+		paint(300, 300);
+		for (int i = 1; i < SHRINK_DELAY; i++)
+			paint(10, 10);
+		assertSame(image, source.image());
+		paint(10, 10);
+		assertNull(source.image());
+		assertTrue(image.isDisposed());
+
+		paint(10, 10);
+		assertBufferSize(10, 10);
+	}
+
+	public void testDispose() {
+		paint(100, 100);
+		Image image = source.image();
+		source.dispose();
+		assertNull(source.image());
+		assertTrue(image.isDisposed());
+		assertNull(source.getGraphics(new Rectangle(0, 0, 10, 10)));
+		assertNull(source.image());
+		// disposing again, or the control, does nothing
+		source.dispose();
+		canvas.dispose();
+	}
+
+	public void testReleasedWithControl() {
+		paint(100, 100);
+		Image image = source.image();
+		canvas.dispose();
+		assertNull(source.image());
+		assertTrue(image.isDisposed());
+	}
+
+	public void testRightToLeft() {
+		Canvas mirrored = new Canvas(shell, SWT.RIGHT_TO_LEFT);
+		mirrored.setSize(500, 400);
+		source = new TestSource(mirrored);
+		paint(10, 10);
+		assertBufferSize(10, 10);
+		// the width always matches the painted region
+		paint(15, 12);
+		assertBufferSize(15, 12);
+		paint(15, 5);
+		assertEquals(2, source.getReallocationCount());
+		paint(10, 10);
+		assertBufferSize(10, 10);
+		assertEquals(3, source.getReallocationCount());
+	}
+
+}
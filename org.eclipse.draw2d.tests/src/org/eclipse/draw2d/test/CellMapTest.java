@@ -0,0 +1,80 @@
+/*******************************************************************************
+ * Copyright (c) 2026 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.draw2d.test;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.Random;
+
+import junit.framework.TestCase;
+
+import org.eclipse.draw2d.geometry.Point;
+import org.eclipse.draw2d.internal.CellMap;
+
+public class CellMapTest extends TestCase {
+
+	public void testSameAsHashMap() {
+		Random random = new Random(0);
+		CellMap cells = new CellMap();
+		Map expected = new HashMap();
+		for (int i = 0; i < 20000; i++) {
+			// a small range of cells, including negative ones, so that the
+			// same cells are put and removed many times
+			int column = random.nextInt(41) - 20;
+			int row = random.nextInt(41) - 20;
+			Point key = new Point(column, row);
+			if (random.nextInt(3) == 0) {
+				assertEquals(expected.remove(key), cells.remove(column, row));
+			} else {
+				Integer value = new Integer(i);
+				expected.put(key, value);
+				cells.put(column, row, value);
+			}
+			assertEquals(expected.size(), cells.size());
+			if (i % 100 == 0)
+				assertSameCells(expected, cells);
+		}
+		assertSameCells(expected, cells);
+		cells.clear();
+		assertEquals(0, cells.size());
+		assertNull(cells.get(0, 0));
+	}
+
+	public void testExtremeCells() {
+		CellMap cells = new CellMap();
+		cells.put(Integer.MIN_VALUE, Integer.MAX_VALUE, "a");
+		cells.put(Integer.MAX_VALUE, Integer.MIN_VALUE, "b");
+		cells.put(-1, -1, "c");
+		assertEquals("a", cells.get(Integer.MIN_VALUE, Integer.MAX_VALUE));
+		assertEquals("b", cells.get(Integer.MAX_VALUE, Integer.MIN_VALUE));
+		assertEquals("c", cells.get(-1, -1));
+		assertNull(cells.get(-1, 0));
+		assertEquals("c", cells.remove(-1, -1));
+		assertNull(cells.remove(-1, -1));
+		assertEquals(2, cells.size());
+	}
+
+	private static void assertSameCells(Map expected, CellMap cells) {
+		int count = 0;
+		for (int slot = 0; slot < cells.getCapacity(); slot++) {
+			Object value = cells.getValueAt(slot);
+			if (value == null)
+				continue;
+			count++;
+			Point key = new Point(cells.getColumnAt(slot),
+					cells.getRowAt(slot));
+			assertEquals(expected.get(key), value);
+			assertEquals(value, cells.get(key.x, key.y));
+		}
+		assertEquals(expected.size(), count);
+	}
+
+}
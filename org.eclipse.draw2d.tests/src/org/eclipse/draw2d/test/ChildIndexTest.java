@@ -0,0 +1,82 @@
+/*******************************************************************************
+ * Copyright (c) 2026 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.draw2d.test;
+
+import java.util.Collections;
+
+import junit.framework.TestCase;
+
+import org.eclipse.draw2d.Figure;
+import org.eclipse.draw2d.IFigure;
+import org.eclipse.draw2d.geometry.Rectangle;
+
+public class ChildIndexTest extends TestCase {
+
+	private Figure container;
+
+	protected void setUp() throws Exception {
+		container = new Figure();
+		container.setBounds(new Rectangle(-5000, -5000, 10000, 10000));
+		container.setChildIndexEnabled(true);
+	}
+
+	private IFigure addChild(int x, int y, int w, int h) {
+		Figure child = new Figure();
+		child.setBounds(new Rectangle(x, y, w, h));
+		container.add(child);
+		return child;
+	}
+
+	public void testFindFigureAtUsesZOrder() {
+		IFigure bottom = addChild(100, 100, 100, 100);
+		IFigure top = addChild(150, 150, 100, 100);
+		assertSame(bottom, container.findFigureAt(120, 120));
+		assertSame(top, container.findFigureAt(160, 160));
+		assertSame(container, container.findFigureAt(3000, 3000));
+
+		container.remove(top);
+		container.add(top, 0);
+		assertSame(bottom, container.findFigureAt(160, 160));
+	}
+
+	public void testFindFigureAtExcluding() {
+		IFigure bottom = addChild(100, 100, 100, 100);
+		IFigure top = addChild(150, 150, 100, 100);
+		assertSame(bottom, container.findFigureAtExcluding(160, 160,
+				Collections.singleton(top)));
+	}
+
+	public void testIndexFollowsBounds() {
+		IFigure child = addChild(-1000, -1000, 50, 50);
+		assertSame(child, container.findFigureAt(-990, -990));
+
+		child.setBounds(new Rectangle(2000, 2000, 50, 50));
+		assertSame(container, container.findFigureAt(-990, -990));
+		assertSame(child, container.findFigureAt(2010, 2010));
+
+		child.translate(-4000, 0);
+		assertSame(child, container.findFigureAt(-1990, 2010));
+	}
+
+	public void testLargeAndRemovedChildren() {
+		IFigure large = addChild(-4000, -4000, 8000, 8000);
+		IFigure small = addChild(10, 10, 10, 10);
+		assertSame(small, container.findFigureAt(15, 15));
+		assertSame(large, container.findFigureAt(3000, -3000));
+
+		container.remove(small);
+		assertSame(large, container.findFigureAt(15, 15));
+
+		container.setChildIndexEnabled(false);
+		assertSame(large, container.findFigureAt(15, 15));
+	}
+
+}
@@ -0,0 +1,129 @@
+/*******************************************************************************
+ * Copyright (c) 2026 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.draw2d.test;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+import junit.framework.TestCase;
+
+import org.eclipse.draw2d.DeferredUpdateManager;
+import org.eclipse.draw2d.Figure;
+import org.eclipse.draw2d.IFigure;
+import org.eclipse.draw2d.UpdateListener;
+import org.eclipse.draw2d.geometry.Rectangle;
+
+public class DamageRegionTest extends TestCase implements UpdateListener {
+
+	private DeferredUpdateManager manager;
+	private IFigure root;
+	private List damaged;
+	private List dirtyFigures;
+	private int uncontained;
+
+	protected void setUp() throws Exception {
+		manager = new DeferredUpdateManager() {
+			protected void sendUpdateRequest() {
+				// updates are performed explicitly
+			}
+		};
+		root = new Figure();
+		root.setBounds(new Rectangle(0, 0, 1000, 1000));
+		manager.setRoot(root);
+		manager.addUpdateListener(this);
+		damaged = new ArrayList();
+		dirtyFigures = new ArrayList();
+		uncontained = 0;
+	}
+
+	private IFigure addChild(int x, int y) {
+		IFigure child = new Figure();
+		child.setBounds(new Rectangle(x, y, 20, 20));
+		root.add(child);
+		return child;
+	}
+
+	public void testSingleRegionByDefault() {
+		manager.addDirtyRegion(addChild(0, 0), 0, 0, 20, 20);
+		manager.addDirtyRegion(addChild(980, 980), 980, 980, 20, 20);
+		manager.performUpdate();
+		assertEquals(1, damaged.size());
+		assertEquals(new Rectangle(0, 0, 1000, 1000), damaged.get(0));
+	}
+
+	public void testDistantRegionsRepairedSeparately() {
+		manager.setDamageRegionLimit(4);
+		IFigure topLeft = addChild(0, 0);
+		IFigure bottomRight = addChild(980, 980);
+		manager.addDirtyRegion(topLeft, 0, 0, 20, 20);
+		manager.addDirtyRegion(bottomRight, 980, 980, 20, 20);
+		manager.performUpdate();
+		assertEquals(2, damaged.size());
+		assertTrue(damaged.contains(new Rectangle(0, 0, 20, 20)));
+		assertTrue(damaged.contains(new Rectangle(980, 980, 20, 20)));
+		assertEquals(2, dirtyFigures.size());
+	}
+
+	public void testOverlappingRegionsMerged() {
+		manager.setDamageRegionLimit(4);
+		manager.addDirtyRegion(addChild(100, 100), 100, 100, 20, 20);
+		manager.addDirtyRegion(addChild(110, 110), 110, 110, 20, 20);
+		manager.performUpdate();
+		assertEquals(1, damaged.size());
+		assertEquals(new Rectangle(100, 100, 30, 30), damaged.get(0));
+	}
+
+	public void testLimitIsRespected() {
+		manager.setDamageRegionLimit(2);
+		manager.addDirtyRegion(addChild(0, 0), 0, 0, 20, 20);
+		manager.addDirtyRegion(addChild(0, 980), 0, 980, 20, 20);
+		manager.addDirtyRegion(addChild(980, 980), 980, 980, 20, 20);
+		manager.performUpdate();
+		assertEquals(2, damaged.size());
+		assertEquals(3, dirtyFigures.size());
+	}
+
+	public void testManyDisjointRegions() {
+		manager.setDamageRegionLimit(3);
+		List children = new ArrayList();
+		for (int x = 0; x < 20; x++)
+			for (int y = 0; y < 20; y++) {
+				IFigure child = addChild(x * 50, y * 50);
+				children.add(child);
+				manager.addDirtyRegion(child, x * 50, y * 50, 5, 5);
+			}
+		manager.performUpdate();
+		assertTrue(damaged.size() <= 3);
+		for (int i = 0; i < damaged.size(); i++)
+			for (int j = i + 1; j < damaged.size(); j++)
+				assertFalse(((Rectangle) damaged.get(i))
+						.intersects((Rectangle) damaged.get(j)));
+		// every dirty figure is reported once, with a region containing it
+		assertEquals(children.size(), dirtyFigures.size());
+		assertTrue(dirtyFigures.containsAll(children));
+		assertEquals(0, uncontained);
+	}
+
+	public void notifyPainting(Rectangle damage, Map dirtyRegions) {
+		damaged.add(damage.getCopy());
+		dirtyFigures.addAll(dirtyRegions.keySet());
+		for (Iterator iter = dirtyRegions.values().iterator(); iter.hasNext();)
+			if (!damage.contains((Rectangle) iter.next()))
+				uncontained++;
+	}
+
+	public void notifyValidating() {
+		// nothing
+	}
+
+}
@@ -60,5 +60,17 @@ public class Draw2dTestSuite extends TestSuite {
 		addTest(new TestSuite(ScalablePolygonShapeTest.class));
 		addTest(new TestSuite(LayerTest.class));
 		addTest(new TestSuite(ShapeTest.class));
+		addTest(new TestSuite(ChildIndexTest.class));
+		addTest(new TestSuite(DamageRegionTest.class));
+		addTest(new TestSuite(ValidationQueueTest.class));
+		addTest(new TestSuite(IncrementalDirectedGraphLayoutTest.class));
+		addTest(new TestSuite(LayoutStepListenerTest.class));
+		addTest(new TestSuite(RankAssignmentTest.class));
+		addTest(new TestSuite(ScaledFontCacheTest.class));
+		addTest(new TestSuite(FreeformExtentTest.class));
+		addTest(new TestSuite(CellMapTest.class));
+		addTest(new TestSuite(BufferedGraphicsSourceTest.class));
+		addTest(new TestSuite(VertexHeapTest.class));
+		addTest(new TestSuite(ObstacleIndexTest.class));
 	}
 }
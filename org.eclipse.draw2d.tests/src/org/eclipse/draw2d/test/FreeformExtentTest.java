@@ -0,0 +1,196 @@
+/*******************************************************************************
+ * Copyright (c) 2026 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.draw2d.test;
+
+import java.util.List;
+import java.util.Random;
+
+import junit.framework.TestCase;
+
+import org.eclipse.draw2d.Figure;
+import org.eclipse.draw2d.FreeformLayer;
+import org.eclipse.draw2d.FreeformListener;
+import org.eclipse.draw2d.IFigure;
+import org.eclipse.draw2d.geometry.Rectangle;
+
+/**
+ * Tests that the freeform extent, which is kept up to date as the children
+ * are added, moved and removed, always equals the union of the children's
+ * bounds computed again.
+ */
+public class FreeformExtentTest extends TestCase {
+
+	private FreeformLayer layer;
+
+	private int notifications;
+
+	private Rectangle lastExtent;
+
+	protected void setUp() throws Exception {
+		layer = new FreeformLayer();
+		layer.addFreeformListener(new FreeformListener() {
+			public void notifyFreeformExtentChanged() {
+				notifications++;
+			}
+		});
+	}
+
+	public void testNoChildren() {
+		assertEquals(new Rectangle(0, 0, 0, 0), layer.getFreeformExtent());
+	}
+
+	public void testMoveOutward() {
+		IFigure left = addChild(0, 0, 10, 10);
+		addChild(50, 50, 10, 10);
+		assertExtent();
+		left.setBounds(new Rectangle(-20, -5, 10, 10));
+		assertExtent();
+		assertEquals(new Rectangle(-20, -5, 80, 65), layer.getFreeformExtent());
+	}
+
+	public void testMoveOffEdge() {
+		IFigure left = addChild(0, 0, 10, 10);
+		addChild(50, 50, 10, 10);
+		assertExtent();
+		// the child on the left and top edges moves inside
+		left.setBounds(new Rectangle(30, 30, 10, 10));
+		assertExtent();
+		assertEquals(new Rectangle(30, 30, 30, 30), layer.getFreeformExtent());
+	}
+
+	public void testShrinkOffEdge() {
+		IFigure big = addChild(0, 0, 100, 100);
+		addChild(20, 20, 10, 10);
+		assertExtent();
+		big.setBounds(new Rectangle(0, 0, 40, 40));
+		assertExtent();
+		assertEquals(new Rectangle(0, 0, 40, 40), layer.getFreeformExtent());
+		// no longer on the left and top edges either
+		big.setBounds(new Rectangle(25, 25, 1, 1));
+		assertExtent();
+		assertEquals(new Rectangle(20, 20, 10, 10), layer.getFreeformExtent());
+	}
+
+	public void testEdgeSharedByTwoChildren() {
+		IFigure first = addChild(0, 0, 10, 10);
+		addChild(0, 20, 10, 10);
+		assertExtent();
+		// the other child is still on the left edge
+		first.setBounds(new Rectangle(5, 0, 10, 10));
+		assertExtent();
+		assertEquals(new Rectangle(0, 0, 15, 30), layer.getFreeformExtent());
+	}
+
+	public void testUnchangedExtentNotFired() {
+		IFigure first = addChild(0, 0, 10, 10);
+		IFigure second = addChild(0, 20, 10, 10);
+		addChild(0, 40, 50, 10);
+		assertExtent();
+		Rectangle extent = layer.getFreeformExtent();
+		// the other children are still on the left edge
+		first.setBounds(new Rectangle(5, 0, 10, 10));
+		assertEquals(0, notifications);
+		assertSame(extent, layer.getFreeformExtent());
+		layer.remove(second);
+		assertEquals(0, notifications);
+		assertSame(extent, layer.getFreeformExtent());
+		assertExtent();
+
+		first.setBounds(new Rectangle(20, 20, 10, 10));
+		assertEquals(1, notifications);
+		assertExtent();
+	}
+
+	public void testRemoveFromEdge() {
+		addChild(0, 0, 10, 10);
+		IFigure right = addChild(50, 50, 10, 10);
+		addChild(20, 20, 10, 10);
+		assertExtent();
+		layer.remove(right);
+		assertExtent();
+		assertEquals(new Rectangle(0, 0, 30, 30), layer.getFreeformExtent());
+	}
+
+	public void testEmptyBounds() {
+		IFigure child = addChild(0, 0, 10, 10);
+		addChild(50, 50, 10, 10);
+		assertExtent();
+		child.setBounds(new Rectangle(-30, -30, 0, 0));
+		assertExtent();
+		child.setBounds(new Rectangle(20, 20, 5, 5));
+		assertExtent();
+		addChild(100, 100, 0, 10);
+		assertExtent();
+	}
+
+	public void testRandomChanges() {
+		Random random = new Random(0);
+		for (int i = 0; i < 5000; i++) {
+			List children = layer.getChildren();
+			int operation = random.nextInt(10);
+			if (operation < 2 || children.isEmpty()) {
+				addChild(random.nextInt(200) - 100, random.nextInt(200) - 100,
+						random.nextInt(4) == 0 ? 0 : random.nextInt(30),
+						random.nextInt(30));
+			} else if (operation < 3) {
+				layer.remove((IFigure) children.get(random.nextInt(children
+						.size())));
+			} else {
+				IFigure child = (IFigure) children.get(random.nextInt(children
+						.size()));
+				Rectangle bounds = child.getBounds();
+				if (operation < 8)
+					child.setBounds(new Rectangle(bounds.x
+							+ random.nextInt(21) - 10, bounds.y
+							+ random.nextInt(21) - 10, bounds.width,
+							bounds.height));
+				else
+					child.setBounds(new Rectangle(bounds.x, bounds.y,
+							random.nextInt(30), random.nextInt(30)));
+			}
+			// the extent is not always queried between two changes
+			if (random.nextInt(3) == 0)
+				assertExtent();
+		}
+	}
+
+	private IFigure addChild(int x, int y, int width, int height) {
+		IFigure child = new Figure();
+		child.setBounds(new Rectangle(x, y, width, height));
+		layer.add(child);
+		return child;
+	}
+
+	/**
+	 * Checks that the extent equals the union of the children's bounds, and
+	 * that the listeners were told if it changed since the last check.
+	 */
+	private void assertExtent() {
+		List children = layer.getChildren();
+		Rectangle expected = new Rectangle(0, 0, 0, 0);
+		for (int i = 0; i < children.size(); i++) {
+			Rectangle bounds = ((IFigure) children.get(i)).getBounds();
+			if (i == 0)
+				expected = bounds.getCopy();
+			else
+				expected.union(bounds);
+		}
+		Rectangle extent = layer.getFreeformExtent();
+		assertEquals(expected, extent);
+		if (lastExtent != null && !lastExtent.equals(extent))
+			assertTrue(notifications > 0);
+		// an unchanged extent is cached
+		assertSame(extent, layer.getFreeformExtent());
+		notifications = 0;
+		lastExtent = extent.getCopy();
+	}
+
+}
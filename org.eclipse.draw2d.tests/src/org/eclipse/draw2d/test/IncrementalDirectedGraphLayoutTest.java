@@ -0,0 +1,180 @@
+/*******************************************************************************
+ * Copyright (c) 2026 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.draw2d.test;
+
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Map;
+import java.util.Set;
+
+import junit.framework.TestCase;
+
+import org.eclipse.draw2d.graph.DirectedGraph;
+import org.eclipse.draw2d.graph.DirectedGraphLayout;
+import org.eclipse.draw2d.graph.Edge;
+import org.eclipse.draw2d.graph.IncrementalDirectedGraphLayout;
+import org.eclipse.draw2d.graph.LayoutStepEvent;
+import org.eclipse.draw2d.graph.LayoutStepListener;
+import org.eclipse.draw2d.graph.Node;
+
+public class IncrementalDirectedGraphLayoutTest extends TestCase {
+
+	/**
+	 * The edges of a small flow diagram, as pairs of node names.
+	 */
+	private static final String[][] EDGES = { { "a", "b" }, { "a", "c" },
+			{ "a", "d" }, { "b", "e" }, { "c", "e" }, { "c", "f" },
+			{ "d", "g" }, { "e", "h" }, { "f", "h" }, { "g", "h" },
+			{ "b", "i" }, { "i", "h" } };
+
+	private DirectedGraph graph;
+	private Map nodes;
+	private Set steps = new HashSet();
+
+	private LayoutStepListener stepRecorder = new LayoutStepListener() {
+		public void stepPerformed(LayoutStepEvent event) {
+			steps.add(event.getStepName());
+		}
+	};
+
+	private void layout(DirectedGraphLayout layout) {
+		steps.clear();
+		layout.visit(graph);
+	}
+
+	private void buildGraph(String[][] extraEdges) {
+		graph = new DirectedGraph();
+		nodes = new HashMap();
+		addEdges(EDGES);
+		addEdges(extraEdges);
+	}
+
+	private void addEdges(String[][] edges) {
+		for (int i = 0; i < edges.length; i++)
+			graph.edges.add(new Edge(getNode(edges[i][0]), getNode(edges[i][1])));
+	}
+
+	private Node getNode(String name) {
+		Node node = (Node) nodes.get(name);
+		if (node == null) {
+			node = new Node(name);
+			nodes.put(name, node);
+			graph.nodes.add(node);
+		}
+		return node;
+	}
+
+	private Map getLocations() {
+		Map locations = new HashMap();
+		for (int i = 0; i < graph.nodes.size(); i++) {
+			Node node = graph.nodes.getNode(i);
+			locations.put(node.data, new int[] { node.x, node.y });
+		}
+		return locations;
+	}
+
+	private void assertStable(Map before) {
+		for (int i = 0; i < graph.nodes.size(); i++) {
+			Node n1 = graph.nodes.getNode(i);
+			int[] l1 = (int[]) before.get(n1.data);
+			if (l1 == null)
+				continue;
+			assertEquals("rank of " + n1.data, l1[1], n1.y);
+			for (int j = 0; j < graph.nodes.size(); j++) {
+				Node n2 = graph.nodes.getNode(j);
+				int[] l2 = (int[]) before.get(n2.data);
+				if (l2 != null && l1[1] == l2[1] && l1[0] < l2[0])
+					assertTrue("order of " + n1.data + " and " + n2.data,
+							n1.x < n2.x);
+			}
+		}
+	}
+
+	public void testFirstLayoutMatchesDirectedGraphLayout() {
+		buildGraph(new String[0][]);
+		new DirectedGraphLayout().visit(graph);
+		Map expected = getLocations();
+
+		buildGraph(new String[0][]);
+		new IncrementalDirectedGraphLayout().visit(graph);
+		assertLocations(expected);
+	}
+
+	public void testRelayoutUnchangedGraph() {
+		IncrementalDirectedGraphLayout layout = new IncrementalDirectedGraphLayout();
+		buildGraph(new String[0][]);
+		layout.visit(graph);
+		Map before = getLocations();
+
+		buildGraph(new String[0][]);
+		layout.visit(graph);
+		assertLocations(before);
+	}
+
+	public void testAddedNodeKeepsOthersStable() {
+		IncrementalDirectedGraphLayout layout = new IncrementalDirectedGraphLayout();
+		buildGraph(new String[0][]);
+		layout.visit(graph);
+		Map before = getLocations();
+
+		buildGraph(new String[][] { { "c", "x" }, { "x", "h" } });
+		layout.visit(graph);
+		assertStable(before);
+	}
+
+	public void testAddedEdgePushesNodesDown() {
+		IncrementalDirectedGraphLayout layout = new IncrementalDirectedGraphLayout();
+		buildGraph(new String[0][]);
+		layout.visit(graph);
+
+		buildGraph(new String[][] { { "e", "g" } });
+		layout.visit(graph);
+		Node e = getNode("e"), g = getNode("g"), h = getNode("h");
+		assertTrue(g.y > e.y);
+		assertTrue(h.y > g.y);
+	}
+
+	public void testClearPreviousLayout() {
+		IncrementalDirectedGraphLayout layout = new IncrementalDirectedGraphLayout();
+		buildGraph(new String[0][]);
+		layout.visit(graph);
+
+		layout.clearPreviousLayout();
+		layout.addStepListener(stepRecorder);
+		buildGraph(new String[0][]);
+		layout(layout);
+		assertTrue(steps.contains("RankAssignmentSolver"));
+		assertFalse(steps.contains("WarmStartRankSolver"));
+	}
+
+	public void testWarmStartSteps() {
+		IncrementalDirectedGraphLayout layout = new IncrementalDirectedGraphLayout();
+		layout.addStepListener(stepRecorder);
+		buildGraph(new String[0][]);
+		layout(layout);
+		assertTrue(steps.contains("RankAssignmentSolver"));
+
+		buildGraph(new String[0][]);
+		layout(layout);
+		assertTrue(steps.contains("WarmStartRankSolver"));
+		assertFalse(steps.contains("RankAssignmentSolver"));
+	}
+
+	private void assertLocations(Map expected) {
+		for (int i = 0; i < graph.nodes.size(); i++) {
+			Node node = graph.nodes.getNode(i);
+			int[] location = (int[]) expected.get(node.data);
+			assertEquals("x of " + node.data, location[0], node.x);
+			assertEquals("y of " + node.data, location[1], node.y);
+		}
+	}
+
+}
@@ -0,0 +1,142 @@
+/*******************************************************************************
+ * Copyright (c) 2026 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.draw2d.test;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import junit.framework.TestCase;
+
+import org.eclipse.draw2d.graph.CompoundDirectedGraph;
+import org.eclipse.draw2d.graph.CompoundDirectedGraphLayout;
+import org.eclipse.draw2d.graph.DirectedGraph;
+import org.eclipse.draw2d.graph.DirectedGraphLayout;
+import org.eclipse.draw2d.graph.Edge;
+import org.eclipse.draw2d.graph.LayoutStepEvent;
+import org.eclipse.draw2d.graph.LayoutStepListener;
+import org.eclipse.draw2d.graph.Node;
+import org.eclipse.draw2d.graph.Subgraph;
+
+public class LayoutStepListenerTest extends TestCase {
+
+	private List events = new ArrayList();
+
+	private LayoutStepListener listener = new LayoutStepListener() {
+		public void stepPerformed(LayoutStepEvent event) {
+			events.add(event);
+		}
+	};
+
+	private LayoutStepEvent getEvent(String stepName, boolean revisit) {
+		for (int i = 0; i < events.size(); i++) {
+			LayoutStepEvent event = (LayoutStepEvent) events.get(i);
+			if (event.getStepName().equals(stepName)
+					&& event.isRevisit() == revisit)
+				return event;
+		}
+		fail("No event for " + stepName);
+		return null;
+	}
+
+	private DirectedGraph createGraph(DirectedGraph graph) {
+		Node[] nodes = new Node[8];
+		for (int i = 0; i < nodes.length; i++) {
+			nodes[i] = new Node("n" + i);
+			graph.nodes.add(nodes[i]);
+		}
+		for (int i = 1; i < nodes.length; i++) {
+			graph.edges.add(new Edge(nodes[(i - 1) / 2], nodes[i]));
+			// long edges which require virtual nodes
+			if (i > 3)
+				graph.edges.add(new Edge(nodes[0], nodes[i]));
+		}
+		return graph;
+	}
+
+	public void testEventsFollowSteps() {
+		DirectedGraphLayout layout = new DirectedGraphLayout();
+		layout.addStepListener(listener);
+		DirectedGraph graph = createGraph(new DirectedGraph());
+		layout.visit(graph);
+
+		// every step is visited once, and revisited in the reverse order
+		assertFalse(events.isEmpty());
+		assertEquals(0, events.size() % 2);
+		List names = new ArrayList();
+		for (int i = 0; i < events.size() / 2; i++) {
+			LayoutStepEvent visit = (LayoutStepEvent) events.get(i);
+			LayoutStepEvent revisit = (LayoutStepEvent) events.get(events
+					.size() - 1 - i);
+			assertFalse(visit.isRevisit());
+			assertFalse(names.contains(visit.getStepName()));
+			names.add(visit.getStepName());
+			assertEquals(visit.getStepName(), revisit.getStepName());
+			assertTrue(revisit.isRevisit());
+			assertSame(layout, visit.getSource());
+			assertSame(graph, visit.getGraph());
+		}
+		// the ranks are assigned once the cycles are broken, and populated
+		// before the crossings are minimized
+		int breakCycles = names.indexOf("BreakCycles");
+		int populateRanks = names.indexOf("PopulateRanks");
+		int minCross = names.indexOf("MinCross");
+		assertTrue(breakCycles >= 0);
+		assertTrue(breakCycles < names.indexOf("RankAssignmentSolver"));
+		assertTrue(breakCycles < populateRanks);
+		assertTrue(populateRanks < minCross);
+	}
+
+	public void testIterationsAndSizes() {
+		DirectedGraphLayout layout = new DirectedGraphLayout();
+		layout.addStepListener(listener);
+		DirectedGraph graph = createGraph(new DirectedGraph());
+		layout.visit(graph);
+
+		assertTrue(getEvent("MinCross", false).getIterations() > 0);
+		assertTrue(getEvent("RankAssignmentSolver", false).getIterations() >= 0);
+		assertEquals(0, getEvent("PopulateRanks", true).getIterations());
+
+		// virtual nodes are added by PopulateRanks and removed on revisit
+		assertEquals(8, getEvent("BreakCycles", false).getNodeCount());
+		assertTrue(getEvent("PopulateRanks", false).getNodeCount() > 8);
+		assertEquals(8, getEvent("PopulateRanks", true).getNodeCount());
+		assertEquals(11, getEvent("PopulateRanks", true).getEdgeCount());
+	}
+
+	public void testCompoundLayout() {
+		CompoundDirectedGraphLayout layout = new CompoundDirectedGraphLayout();
+		layout.addStepListener(listener);
+		CompoundDirectedGraph graph = new CompoundDirectedGraph();
+		Subgraph subgraph = new Subgraph("s");
+		Node a = new Node("a", subgraph);
+		Node b = new Node("b", subgraph);
+		Node c = new Node("c", subgraph);
+		graph.nodes.add(subgraph);
+		graph.nodes.add(a);
+		graph.nodes.add(b);
+		graph.nodes.add(c);
+		graph.edges.add(new Edge(a, b));
+		graph.edges.add(new Edge(b, c));
+		layout.visit(graph);
+
+		assertNotNull(getEvent("ConvertCompoundGraph", false));
+		assertNotNull(getEvent("SortSubgraphs", true));
+	}
+
+	public void testRemoveListener() {
+		DirectedGraphLayout layout = new DirectedGraphLayout();
+		layout.addStepListener(listener);
+		layout.removeStepListener(listener);
+		layout.visit(createGraph(new DirectedGraph()));
+		assertTrue(events.isEmpty());
+	}
+
+}
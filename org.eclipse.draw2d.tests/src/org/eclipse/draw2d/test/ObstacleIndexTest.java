@@ -0,0 +1,294 @@
+/*******************************************************************************
+ * Copyright (c) 2026 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.draw2d.test;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import junit.framework.TestCase;
+
+import org.eclipse.draw2d.geometry.Point;
+import org.eclipse.draw2d.geometry.Rectangle;
+
+/**
+ * Tests that the grid used by the shortest path router to find the obstacles
+ * near a point, an area or a segment returns every obstacle a scan of all of
+ * them finds, including obstacles too large for the grid, obstacles at
+ * negative coordinates and after obstacles have been removed. The index is
+ * internal to its package, so it is driven through reflection.
+ */
+public class ObstacleIndexTest extends TestCase {
+
+	private static final String PACKAGE = "org.eclipse.draw2d.graph."; //$NON-NLS-1$
+
+	private Object index;
+	private Method add, remove, getObstaclesAt, getObstaclesIntersecting,
+			getObstaclesAlong;
+	private Constructor newObstacle, newVertex, newSegment;
+	private final List obstacles = new ArrayList();
+
+	protected void setUp() throws Exception {
+		Class indexClass = Class.forName(PACKAGE + "ObstacleIndex"); //$NON-NLS-1$
+		Class obstacleClass = Class.forName(PACKAGE + "Obstacle"); //$NON-NLS-1$
+		Class vertexClass = Class.forName(PACKAGE + "Vertex"); //$NON-NLS-1$
+		Class segmentClass = Class.forName(PACKAGE + "Segment"); //$NON-NLS-1$
+		Class routerClass = Class.forName(PACKAGE + "ShortestPathRouter"); //$NON-NLS-1$
+		index = constructor(indexClass, new Class[0]).newInstance(
+				new Object[0]);
+		add = method(indexClass, "add", new Class[] { obstacleClass }); //$NON-NLS-1$
+		remove = method(indexClass, "remove", new Class[] { obstacleClass }); //$NON-NLS-1$
+		getObstaclesAt = method(indexClass, "getObstaclesAt", //$NON-NLS-1$
+				new Class[] { Point.class, Point.class });
+		getObstaclesIntersecting = method(indexClass,
+				"getObstaclesIntersecting", new Class[] { Rectangle.class }); //$NON-NLS-1$
+		getObstaclesAlong = method(indexClass, "getObstaclesAlong", //$NON-NLS-1$
+				new Class[] { segmentClass, int.class });
+		newObstacle = constructor(obstacleClass, new Class[] {
+				Rectangle.class, routerClass });
+		newVertex = constructor(vertexClass, new Class[] { int.class,
+				int.class, obstacleClass });
+		newSegment = constructor(segmentClass, new Class[] { vertexClass,
+				vertexClass });
+	}
+
+	private static Constructor constructor(Class type, Class[] parameters)
+			throws NoSuchMethodException {
+		Constructor constructor = type.getDeclaredConstructor(parameters);
+		constructor.setAccessible(true);
+		return constructor;
+	}
+
+	private static Method method(Class type, String name, Class[] parameters)
+			throws NoSuchMethodException {
+		Method method = type.getDeclaredMethod(name, parameters);
+		method.setAccessible(true);
+		return method;
+	}
+
+	private static Object invoke(Method method, Object target,
+			Object[] arguments) throws Exception {
+		try {
+			return method.invoke(target, arguments);
+		} catch (InvocationTargetException e) {
+			throw (Exception) e.getTargetException();
+		}
+	}
+
+	private Rectangle add(int x, int y, int width, int height)
+			throws Exception {
+		Rectangle obstacle = (Rectangle) newObstacle.newInstance(new Object[] {
+				new Rectangle(x, y, width, height), null });
+		invoke(add, index, new Object[] { obstacle });
+		obstacles.add(obstacle);
+		return obstacle;
+	}
+
+	private void remove(Rectangle obstacle) throws Exception {
+		invoke(remove, index, new Object[] { obstacle });
+		for (int i = 0; i < obstacles.size(); i++)
+			if (obstacles.get(i) == obstacle) {
+				obstacles.remove(i);
+				return;
+			}
+		fail();
+	}
+
+	private List getObstaclesAt(Point p1, Point p2) throws Exception {
+		return (List) invoke(getObstaclesAt, index, new Object[] { p1, p2 });
+	}
+
+	private List getObstaclesIntersecting(Rectangle rect) throws Exception {
+		return (List) invoke(getObstaclesIntersecting, index,
+				new Object[] { rect });
+	}
+
+	private List getObstaclesAlong(Point start, Point end, int distance)
+			throws Exception {
+		Object segment = newSegment.newInstance(new Object[] {
+				newVertex.newInstance(new Object[] { new Integer(start.x),
+						new Integer(start.y), null }),
+				newVertex.newInstance(new Object[] { new Integer(end.x),
+						new Integer(end.y), null }) });
+		return (List) invoke(getObstaclesAlong, index, new Object[] {
+				segment, new Integer(distance) });
+	}
+
+	/**
+	 * Checks that the candidates hold each obstacle in the index at most once,
+	 * no other obstacle, and at least the given ones.
+	 */
+	private void assertCandidates(String message, List expected,
+			List candidates) {
+		Map current = new IdentityHashMap();
+		for (int i = 0; i < obstacles.size(); i++)
+			current.put(obstacles.get(i), obstacles.get(i));
+		Map found = new IdentityHashMap();
+		for (int i = 0; i < candidates.size(); i++) {
+			Object obstacle = candidates.get(i);
+			assertTrue(message, current.containsKey(obstacle));
+			assertNull(message, found.put(obstacle, obstacle));
+		}
+		for (int i = 0; i < expected.size(); i++)
+			assertTrue(message + ", missing " + expected.get(i),
+					found.containsKey(expected.get(i)));
+	}
+
+	private void assertQueries(Random random, int queries) throws Exception {
+		for (int q = 0; q < queries; q++) {
+			Point p1 = randomPoint(random);
+			Point p2 = randomPoint(random);
+			List expected = new ArrayList();
+			for (int i = 0; i < obstacles.size(); i++) {
+				Rectangle obstacle = (Rectangle) obstacles.get(i);
+				if (obstacle.contains(p1) || obstacle.contains(p2))
+					expected.add(obstacle);
+			}
+			assertCandidates("at " + p1 + ", " + p2, expected,
+					getObstaclesAt(p1, p2));
+
+			Rectangle rect = new Rectangle(p1, new Point(p1.x
+					+ random.nextInt(300), p1.y + random.nextInt(300)));
+			expected.clear();
+			for (int i = 0; i < obstacles.size(); i++) {
+				Rectangle obstacle = (Rectangle) obstacles.get(i);
+				if (rect.intersects(obstacle))
+					expected.add(obstacle);
+			}
+			assertCandidates("intersecting " + rect, expected,
+					getObstaclesIntersecting(rect));
+
+			// mostly short segments, which are the ones searched in the grid
+			if (random.nextInt(4) != 0)
+				p2 = new Point(p1.x + random.nextInt(400) - 200, p1.y
+						+ random.nextInt(400) - 200);
+			if (random.nextInt(8) == 0)
+				p2.x = p1.x;
+			else if (random.nextInt(8) == 0)
+				p2.y = p1.y;
+			int distance = random.nextInt(3);
+			expected.clear();
+			for (int i = 0; i < obstacles.size(); i++) {
+				Rectangle obstacle = (Rectangle) obstacles.get(i);
+				if (isWithin(p1, p2, obstacle, distance))
+					expected.add(obstacle);
+			}
+			assertCandidates("along " + p1 + ", " + p2 + ", " + distance,
+					expected, getObstaclesAlong(p1, p2, distance));
+		}
+	}
+
+	private static Point randomPoint(Random random) {
+		return new Point(random.nextInt(2400) - 1200,
+				random.nextInt(2400) - 1200);
+	}
+
+	/**
+	 * Returns <code>true</code> if the segment comes within the given distance
+	 * of the obstacle, by clipping the segment to the widened obstacle.
+	 */
+	private static boolean isWithin(Point start, Point end,
+			Rectangle obstacle, int distance) {
+		double[] bounds = { obstacle.x - distance,
+				obstacle.right() - 1 + distance, obstacle.y - distance,
+				obstacle.bottom() - 1 + distance };
+		double[] origin = { start.x, start.y };
+		double[] delta = { end.x - start.x, end.y - start.y };
+		double t0 = 0, t1 = 1;
+		for (int axis = 0; axis < 2; axis++) {
+			double min = bounds[axis * 2], max = bounds[axis * 2 + 1];
+			if (delta[axis] == 0) {
+				if (origin[axis] < min || origin[axis] > max)
+					return false;
+				continue;
+			}
+			double a = (min - origin[axis]) / delta[axis];
+			double b = (max - origin[axis]) / delta[axis];
+			t0 = Math.max(t0, Math.min(a, b));
+			t1 = Math.min(t1, Math.max(a, b));
+		}
+		return t0 <= t1;
+	}
+
+	public void testEmpty() throws Exception {
+		assertTrue(getObstaclesAt(new Point(0, 0), new Point(10, 10))
+				.isEmpty());
+		assertTrue(getObstaclesIntersecting(new Rectangle(-5, -5, 100, 100))
+				.isEmpty());
+		assertTrue(getObstaclesAlong(new Point(-50, 0), new Point(50, 0), 1)
+				.isEmpty());
+	}
+
+	public void testSameCandidatesAsScan() throws Exception {
+		Random random = new Random(0);
+		for (int i = 0; i < 400; i++) {
+			Point location = randomPoint(random);
+			add(location.x, location.y, 1 + random.nextInt(80),
+					1 + random.nextInt(80));
+		}
+		assertQueries(random, 300);
+	}
+
+	public void testOversizedAndNegative() throws Exception {
+		Random random = new Random(1);
+		for (int i = 0; i < 300; i++)
+			add(-random.nextInt(1000) - 40, -random.nextInt(1000) - 40,
+					1 + random.nextInt(40), 1 + random.nextInt(40));
+		// more than MAX_CELLS cells, in both directions and at the origin
+		add(-1100, -1100, 2000, 2000);
+		add(-1000, 100, 2000, 30);
+		add(100, -1000, 30, 2000);
+		add(-64, -64, 64 * 8 + 1, 64 * 8 + 1);
+		// on the cell boundaries around the origin
+		add(-1, -1, 1, 1);
+		add(-64, 0, 64, 1);
+		add(0, -64, 1, 64);
+		assertQueries(random, 300);
+	}
+
+	public void testRemove() throws Exception {
+		Random random = new Random(2);
+		List added = new ArrayList();
+		for (int i = 0; i < 300; i++) {
+			Point location = randomPoint(random);
+			added.add(add(location.x, location.y, 1 + random.nextInt(60),
+					1 + random.nextInt(60)));
+			if (i % 50 == 0)
+				added.add(add(location.x, location.y, 1500, 1500));
+			// an equal but distinct obstacle
+			if (i % 30 == 0)
+				added.add(add(location.x, location.y, 10, 10));
+		}
+		for (int i = 0; i < added.size(); i += 2)
+			remove((Rectangle) added.get(i));
+		assertQueries(random, 200);
+
+		// the obstacles are updated by removing and adding them again
+		for (int i = 0; i < 100; i++) {
+			Rectangle obstacle = (Rectangle) obstacles.get(random
+					.nextInt(obstacles.size()));
+			remove(obstacle);
+			Point location = randomPoint(random);
+			add(location.x, location.y, obstacle.width, obstacle.height);
+		}
+		assertQueries(random, 200);
+
+		while (!obstacles.isEmpty())
+			remove((Rectangle) obstacles.get(obstacles.size() - 1));
+		testEmpty();
+	}
+
+}
@@ -0,0 +1,122 @@
+/*******************************************************************************
+ * Copyright (c) 2026 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.draw2d.test;
+
+import java.util.Random;
+
+import junit.framework.TestCase;
+
+import org.eclipse.draw2d.graph.DirectedGraph;
+import org.eclipse.draw2d.graph.DirectedGraphLayout;
+import org.eclipse.draw2d.graph.Edge;
+import org.eclipse.draw2d.graph.LayoutStepEvent;
+import org.eclipse.draw2d.graph.LayoutStepListener;
+import org.eclipse.draw2d.graph.Node;
+
+public class RankAssignmentTest extends TestCase {
+
+	private int pivots;
+
+	private DirectedGraph createGraph() {
+		Random random = new Random(1);
+		DirectedGraph graph = new DirectedGraph();
+		Node[] nodes = new Node[300];
+		for (int i = 0; i < nodes.length; i++) {
+			nodes[i] = new Node(new Integer(i));
+			graph.nodes.add(nodes[i]);
+		}
+		for (int i = 1; i < nodes.length; i++) {
+			for (int j = random.nextInt(2); j >= 0; j--) {
+				Node source = nodes[Math.max(0, i - 1 - random.nextInt(20))];
+				Edge edge = new Edge(source, nodes[i]);
+				edge.weight = 1 + random.nextInt(3);
+				graph.edges.add(edge);
+			}
+		}
+		return graph;
+	}
+
+	private int layout(DirectedGraph graph) {
+		DirectedGraphLayout layout = new DirectedGraphLayout();
+		layout.addStepListener(new LayoutStepListener() {
+			public void stepPerformed(LayoutStepEvent event) {
+				if (event.getStepName().equals("RankAssignmentSolver")
+						&& !event.isRevisit())
+					pivots = event.getIterations();
+			}
+		});
+		layout.visit(graph);
+
+		// all nodes have the same height, so ranks follow y
+		int rankHeight = Integer.MAX_VALUE;
+		for (int i = 0; i < graph.edges.size(); i++) {
+			Edge e = graph.edges.getEdge(i);
+			int dy = e.target.y - e.source.y;
+			assertTrue(dy > 0);
+			rankHeight = Math.min(rankHeight, dy);
+		}
+		int length = 0;
+		for (int i = 0; i < graph.edges.size(); i++) {
+			Edge e = graph.edges.getEdge(i);
+			length += e.weight * (e.target.y - e.source.y) / rankHeight;
+		}
+		return length;
+	}
+
+	public void testUnlimited() {
+		int length = layout(createGraph());
+		assertTrue(pivots > 1);
+
+		DirectedGraph graph = createGraph();
+		graph.setSimplexIterationLimit(1);
+		int limitedLength = layout(graph);
+		assertEquals(1, pivots);
+		assertTrue(length < limitedLength);
+	}
+
+	public void testIterationLimit() {
+		DirectedGraph graph = createGraph();
+		graph.setSimplexIterationLimit(5);
+		layout(graph);
+		assertEquals(5, pivots);
+	}
+
+	/**
+	 * Graphs with several components are solved as a forest, whose root may be
+	 * moved by the solver instead of the trees.
+	 */
+	public void testForest() {
+		for (int seed = 0; seed < 50; seed++) {
+			Random random = new Random(seed);
+			DirectedGraph graph = new DirectedGraph();
+			Node[] nodes = new Node[50];
+			for (int i = 0; i < nodes.length; i++) {
+				nodes[i] = new Node(new Integer(i));
+				graph.nodes.add(nodes[i]);
+			}
+			for (int i = 0; i < 100; i++) {
+				int source = random.nextInt(nodes.length - 1);
+				int span = 1 + random.nextInt(Math.min(24, nodes.length - 1
+						- source));
+				graph.edges.add(new Edge(nodes[source], nodes[source + span]));
+			}
+			layout(graph);
+		}
+	}
+
+	public void testTimeLimit() {
+		DirectedGraph graph = createGraph();
+		graph.setSimplexTimeLimit(1000000);
+		int length = layout(graph);
+		assertEquals(layout(createGraph()), length);
+	}
+
+}
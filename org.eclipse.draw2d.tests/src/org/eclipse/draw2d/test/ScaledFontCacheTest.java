@@ -0,0 +1,201 @@
+/*******************************************************************************
+ * Copyright (c) 2026 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.draw2d.test;
+
+import junit.framework.TestCase;
+
+import org.eclipse.draw2d.SWTGraphics;
+import org.eclipse.draw2d.ScaledFontCache;
+import org.eclipse.draw2d.ScaledGraphics;
+import org.eclipse.swt.SWT;
+import org.eclipse.swt.graphics.Font;
+import org.eclipse.swt.graphics.GC;
+import org.eclipse.swt.graphics.Image;
+import org.eclipse.swt.widgets.Display;
+
+public class ScaledFontCacheTest extends TestCase {
+
+	private Display display;
+	private ScaledFontCache cache;
+	private Font base;
+
+	protected void setUp() throws Exception {
+		display = Display.getDefault();
+		cache = ScaledFontCache.getCache(display);
+		// dispose all the unused fonts left by other tests
+		cache.setCapacity(0);
+		cache.resetCounts();
+		base = new Font(display, "Tahoma", 8, SWT.NORMAL); //$NON-NLS-1$
+	}
+
+	protected void tearDown() throws Exception {
+		cache.setCapacity(ScaledFontCache.DEFAULT_CAPACITY);
+		base.dispose();
+	}
+
+	public void testSameCacheForDisplay() {
+		assertSame(cache, ScaledFontCache.getCache(display));
+	}
+
+	public void testReferenceCounting() {
+		int size = cache.size();
+		Font first = cache.acquireFont(base, 13);
+		Font second = cache.acquireFont(base, 13);
+		assertSame(first, second);
+		assertEquals(13, first.getFontData()[0].getHeight());
+		assertEquals(1, cache.getMissCount());
+		assertEquals(1, cache.getHitCount());
+		assertEquals(size + 1, cache.size());
+
+		// still acquired once
+		cache.releaseFont(first);
+		assertFalse(first.isDisposed());
+		assertEquals(size + 1, cache.size());
+
+		// unused, and beyond the capacity
+		cache.releaseFont(second);
+		assertTrue(first.isDisposed());
+		assertEquals(size, cache.size());
+
+		try {
+			cache.releaseFont(first);
+			fail("A font can not be released more often than acquired");
+		} catch (IllegalArgumentException e) {
+			// expected
+		}
+	}
+
+	public void testReleaseUnknownFont() {
+		try {
+			cache.releaseFont(base);
+			fail("Only acquired fonts can be released");
+		} catch (IllegalArgumentException e) {
+			// expected
+		}
+		assertFalse(base.isDisposed());
+	}
+
+	public void testAcquiredFontsAreNotEvicted() {
+		Font first = cache.acquireFont(base, 14);
+		Font second = cache.acquireFont(base, 15);
+		cache.setCapacity(0);
+		assertFalse(first.isDisposed());
+		assertFalse(second.isDisposed());
+
+		cache.releaseFont(second);
+		assertTrue(second.isDisposed());
+		assertFalse(first.isDisposed());
+		cache.releaseFont(first);
+		assertTrue(first.isDisposed());
+	}
+
+	public void testEvictionOfLeastRecentlyUsed() {
+		cache.setCapacity(2);
+		Font[] fonts = new Font[3];
+		for (int i = 0; i < fonts.length; i++) {
+			fonts[i] = cache.acquireFont(base, 20 + i);
+			cache.releaseFont(fonts[i]);
+		}
+		assertTrue(fonts[0].isDisposed());
+		assertFalse(fonts[1].isDisposed());
+		assertFalse(fonts[2].isDisposed());
+
+		// using the font of height 21 makes 22 the least recently used
+		assertSame(fonts[1], cache.acquireFont(base, 21));
+		cache.releaseFont(fonts[1]);
+		Font last = cache.acquireFont(base, 23);
+		cache.releaseFont(last);
+		assertFalse(fonts[1].isDisposed());
+		assertTrue(fonts[2].isDisposed());
+		assertFalse(last.isDisposed());
+
+		// an evicted font is created again
+		Font again = cache.acquireFont(base, 20);
+		assertNotSame(fonts[0], again);
+		assertFalse(again.isDisposed());
+		cache.releaseFont(again);
+	}
+
+	public void testSetCapacityDisposesUnusedFonts() {
+		cache.setCapacity(10);
+		Font[] fonts = new Font[5];
+		for (int i = 0; i < fonts.length; i++) {
+			fonts[i] = cache.acquireFont(base, 30 + i);
+			cache.releaseFont(fonts[i]);
+		}
+		Font acquired = cache.acquireFont(base, 40);
+		for (int i = 0; i < fonts.length; i++)
+			assertFalse(fonts[i].isDisposed());
+
+		cache.setCapacity(1);
+		for (int i = 0; i < fonts.length - 1; i++)
+			assertTrue(fonts[i].isDisposed());
+		assertFalse(fonts[fonts.length - 1].isDisposed());
+		assertFalse(acquired.isDisposed());
+		cache.releaseFont(acquired);
+		assertTrue(fonts[fonts.length - 1].isDisposed());
+		assertFalse(acquired.isDisposed());
+	}
+
+	public void testDisposedBaseFont() {
+		cache.setCapacity(10);
+		Font disposed = new Font(display, "Tahoma", 8, SWT.NORMAL); //$NON-NLS-1$
+		Font zoomed = cache.acquireFont(disposed, 16);
+		cache.releaseFont(zoomed);
+		disposed.dispose();
+
+		// a new base font may reuse the handle of the disposed one
+		Font other = new Font(display, "Tahoma", 8, SWT.NORMAL); //$NON-NLS-1$
+		try {
+			Font replacement = cache.acquireFont(other, 16);
+			assertNotSame(zoomed, replacement);
+			assertFalse(replacement.isDisposed());
+			cache.releaseFont(replacement);
+		} finally {
+			other.dispose();
+		}
+	}
+
+	public void testSharedByScaledGraphics() {
+		// an image can only have one GC at a time
+		Image image1 = new Image(display, 10, 10);
+		Image image2 = new Image(display, 10, 10);
+		GC gc1 = new GC(image1);
+		GC gc2 = new GC(image2);
+		try {
+			SWTGraphics swt1 = new SWTGraphics(gc1);
+			SWTGraphics swt2 = new SWTGraphics(gc2);
+			ScaledGraphics scaled1 = new ScaledGraphics(swt1);
+			ScaledGraphics scaled2 = new ScaledGraphics(swt2);
+			scaled1.scale(2);
+			scaled2.scale(2);
+			scaled1.setFont(base);
+			scaled2.setFont(base);
+			Font zoomed = swt1.getFont();
+			assertSame(zoomed, swt2.getFont());
+			assertEquals(16, zoomed.getFontData()[0].getHeight());
+
+			// released by each graphics when it is disposed
+			scaled1.dispose();
+			assertFalse(zoomed.isDisposed());
+			scaled2.dispose();
+			assertTrue(zoomed.isDisposed());
+			swt1.dispose();
+			swt2.dispose();
+		} finally {
+			gc1.dispose();
+			gc2.dispose();
+			image1.dispose();
+			image2.dispose();
+		}
+	}
+
+}
@@ -10,6 +10,10 @@
  *******************************************************************************/
 package org.eclipse.draw2d.test;
 
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
 import junit.framework.TestCase;
 
 import org.eclipse.draw2d.geometry.Point;
@@ -235,6 +239,17 @@ public class ShortestPathRoutingTest extends TestCase {
 				right.x > point.x);
 	}
 
+	private void doAssertSamePoints(List expected, List actual) {
+		for (int i = 0; i < expected.size(); i++) {
+			PointList expectedPoints = ((Path) expected.get(i)).getPoints();
+			PointList actualPoints = ((Path) actual.get(i)).getPoints();
+			assertEquals(expectedPoints.size(), actualPoints.size());
+			for (int j = 0; j < expectedPoints.size(); j++)
+				assertEquals(expectedPoints.getPoint(j),
+						actualPoints.getPoint(j));
+		}
+	}
+
 	private void doAssertRight(Point pt1, Point pt2, Rectangle r) {
 		assertTrue("Both points " + pt1 + " " + pt2
 				+ " should bend to the right of the rectangle. " + r,
@@ -609,6 +624,52 @@ public class ShortestPathRoutingTest extends TestCase {
 		doTestOffsetShrink();
 	}
 
+	public void testParallelSolve() {
+		ShortestPathRouter parallel = new ShortestPathRouter();
+		parallel.setSolverThreads(4);
+		List serialPaths = new ArrayList();
+		List parallelPaths = new ArrayList();
+		List obstacles = new ArrayList();
+
+		Random random = new Random(0);
+		for (int i = 0; i < 60; i++) {
+			Rectangle obstacle = new Rectangle(random.nextInt(1000),
+					random.nextInt(1000), 20 + random.nextInt(60),
+					20 + random.nextInt(60));
+			obstacles.add(obstacle);
+			routing.addObstacle(obstacle.getCopy());
+			parallel.addObstacle(obstacle.getCopy());
+		}
+		for (int i = 0; i < 80; i++) {
+			Point start = new Point(random.nextInt(1000), random.nextInt(1000));
+			Point end = new Point(random.nextInt(1000), random.nextInt(1000));
+			Path path = new Path(start, end);
+			serialPaths.add(path);
+			routing.addPath(path);
+			path = new Path(start, end);
+			if (i % 10 == 0) {
+				PointList bendpoints = new PointList();
+				bendpoints.addPoint(random.nextInt(1000), random.nextInt(1000));
+				path.setBendPoints(bendpoints);
+				((Path) serialPaths.get(i)).setBendPoints(bendpoints);
+			}
+			parallelPaths.add(path);
+			parallel.addPath(path);
+		}
+
+		routing.solve();
+		parallel.solve();
+		doAssertSamePoints(serialPaths, parallelPaths);
+
+		Rectangle oldBounds = (Rectangle) obstacles.get(0);
+		Rectangle newBounds = oldBounds.getTranslated(40, 40);
+		routing.updateObstacle(oldBounds, newBounds);
+		parallel.updateObstacle(oldBounds, newBounds);
+		routing.solve();
+		parallel.solve();
+		doAssertSamePoints(serialPaths, parallelPaths);
+	}
+
 	public void testQuadBendHit() {
 		routing.addObstacle(quadBendBottom.getCopy());
 		routing.addObstacle(quadBendMiddleHit.getCopy());
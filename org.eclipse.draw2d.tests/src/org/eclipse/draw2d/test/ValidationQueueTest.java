@@ -0,0 +1,104 @@
+/*******************************************************************************
+ * Copyright (c) 2026 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.draw2d.test;
+
+import junit.framework.TestCase;
+
+import org.eclipse.draw2d.DeferredUpdateManager;
+import org.eclipse.draw2d.Figure;
+import org.eclipse.draw2d.UpdateManager;
+
+public class ValidationQueueTest extends TestCase {
+
+	private DeferredUpdateManager manager;
+	private Figure root;
+	private CountingFigure parent;
+	private CountingFigure child;
+
+	private class CountingFigure extends Figure {
+		int layouts;
+
+		protected boolean isValidationRoot() {
+			return true;
+		}
+
+		protected void layout() {
+			layouts++;
+			// laying out a figure invalidates its children, as most layouts
+			// would by changing their bounds
+			for (int i = 0; i < getChildren().size(); i++)
+				((Figure) getChildren().get(i)).invalidate();
+		}
+	}
+
+	protected void setUp() throws Exception {
+		manager = new DeferredUpdateManager() {
+			protected void sendUpdateRequest() {
+				// validation is performed explicitly
+			}
+		};
+		root = new Figure() {
+			public UpdateManager getUpdateManager() {
+				return manager;
+			}
+		};
+		parent = new CountingFigure();
+		child = new CountingFigure();
+		root.add(parent);
+		parent.add(child);
+		manager.performValidation();
+		parent.layouts = child.layouts = 0;
+	}
+
+	public void testDuplicatesIgnored() {
+		for (int i = 0; i < 1000; i++)
+			child.revalidate();
+		manager.performValidation();
+		assertEquals(1, child.layouts);
+		assertEquals(0, parent.layouts);
+	}
+
+	public void testDescendantValidatedTwiceWithoutPruning() {
+		child.revalidate();
+		parent.revalidate();
+		manager.performValidation();
+		assertEquals(1, parent.layouts);
+		assertEquals(2, child.layouts);
+	}
+
+	public void testQueuedDescendantsPruned() {
+		manager.setPruneQueuedDescendants(true);
+		child.revalidate();
+		parent.revalidate();
+		manager.performValidation();
+		assertEquals(1, parent.layouts);
+		assertEquals(1, child.layouts);
+	}
+
+	public void testRevalidationDuringValidation() {
+		CountingFigure sibling = new CountingFigure() {
+			protected void layout() {
+				super.layout();
+				if (layouts == 1)
+					child.revalidate();
+			}
+		};
+		root.add(sibling);
+		manager.performValidation();
+		child.layouts = sibling.layouts = 0;
+
+		child.revalidate();
+		sibling.revalidate();
+		manager.performValidation();
+		assertEquals(2, child.layouts);
+	}
+
+}
@@ -0,0 +1,202 @@
+/*******************************************************************************
+ * Copyright (c) 2026 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.draw2d.test;
+
+import java.lang.reflect.Constructor;
+import java.lang.reflect.Field;
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Method;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import junit.framework.TestCase;
+
+/**
+ * Tests the priority queue used to label the visibility graph of the shortest
+ * path router. The heap and its vertices are internal to their package, so
+ * they are driven through reflection.
+ */
+public class VertexHeapTest extends TestCase {
+
+	private static final String PACKAGE = "org.eclipse.draw2d.graph."; //$NON-NLS-1$
+
+	private Object heap;
+	private Method push, pop, decreased, isEmpty, clear, resetLabel;
+	private Constructor newVertex;
+	private Field cost, heapIndex;
+
+	protected void setUp() throws Exception {
+		Class heapClass = Class.forName(PACKAGE + "VertexHeap"); //$NON-NLS-1$
+		Class vertexClass = Class.forName(PACKAGE + "Vertex"); //$NON-NLS-1$
+		Class obstacleClass = Class.forName(PACKAGE + "Obstacle"); //$NON-NLS-1$
+		Constructor newHeap = heapClass.getDeclaredConstructor(new Class[0]);
+		newHeap.setAccessible(true);
+		heap = newHeap.newInstance(new Object[0]);
+		push = method(heapClass, "push", vertexClass); //$NON-NLS-1$
+		pop = method(heapClass, "pop", null); //$NON-NLS-1$
+		decreased = method(heapClass, "decreased", vertexClass); //$NON-NLS-1$
+		isEmpty = method(heapClass, "isEmpty", null); //$NON-NLS-1$
+		clear = method(heapClass, "clear", null); //$NON-NLS-1$
+		resetLabel = method(vertexClass, "resetLabel", null); //$NON-NLS-1$
+		newVertex = vertexClass.getDeclaredConstructor(new Class[] {
+				int.class, int.class, obstacleClass });
+		newVertex.setAccessible(true);
+		cost = vertexClass.getDeclaredField("cost"); //$NON-NLS-1$
+		cost.setAccessible(true);
+		heapIndex = vertexClass.getDeclaredField("heapIndex"); //$NON-NLS-1$
+		heapIndex.setAccessible(true);
+	}
+
+	private static Method method(Class type, String name, Class parameter)
+			throws NoSuchMethodException {
+		Method method = type.getDeclaredMethod(name,
+				parameter == null ? new Class[0] : new Class[] { parameter });
+		method.setAccessible(true);
+		return method;
+	}
+
+	private Object invoke(Method method, Object target, Object argument)
+			throws Exception {
+		try {
+			return method.invoke(target, argument == null ? new Object[0]
+					: new Object[] { argument });
+		} catch (InvocationTargetException e) {
+			throw (Exception) e.getTargetException();
+		}
+	}
+
+	private Object vertex(int id, double value) throws Exception {
+		Object vertex = newVertex.newInstance(new Object[] { new Integer(id),
+				new Integer(0), null });
+		cost.setDouble(vertex, value);
+		return vertex;
+	}
+
+	private void push(Object vertex) throws Exception {
+		invoke(push, heap, vertex);
+	}
+
+	private Object pop() throws Exception {
+		return invoke(pop, heap, null);
+	}
+
+	private boolean isEmpty() throws Exception {
+		return ((Boolean) invoke(isEmpty, heap, null)).booleanValue();
+	}
+
+	private void decrease(Object vertex, double value) throws Exception {
+		cost.setDouble(vertex, value);
+		invoke(decreased, heap, vertex);
+	}
+
+	private double cost(Object vertex) throws Exception {
+		return cost.getDouble(vertex);
+	}
+
+	private int heapIndex(Object vertex) throws Exception {
+		return heapIndex.getInt(vertex);
+	}
+
+	/**
+	 * Pops the heap until it is empty, checking that the vertices come out in
+	 * the order of their cost and are all taken from the given list.
+	 */
+	private void assertPoppedInOrder(List vertices) throws Exception {
+		double previous = Double.NEGATIVE_INFINITY;
+		List remaining = new ArrayList(vertices);
+		while (!isEmpty()) {
+			Object vertex = pop();
+			assertEquals(-1, heapIndex(vertex));
+			assertTrue(cost(vertex) >= previous);
+			assertEquals(minimumCost(remaining), cost(vertex), 0);
+			assertTrue(remaining.remove(vertex));
+			previous = cost(vertex);
+		}
+		assertTrue(remaining.isEmpty());
+	}
+
+	private double minimumCost(List vertices) throws Exception {
+		double minimum = Double.POSITIVE_INFINITY;
+		for (int i = 0; i < vertices.size(); i++)
+			minimum = Math.min(minimum, cost(vertices.get(i)));
+		return minimum;
+	}
+
+	public void testPopInCostOrder() throws Exception {
+		assertTrue(isEmpty());
+		Random random = new Random(0);
+		List vertices = new ArrayList();
+		// more than the initial capacity, with ties
+		for (int i = 0; i < 200; i++) {
+			Object vertex = vertex(i, random.nextInt(50));
+			vertices.add(vertex);
+			push(vertex);
+			assertTrue(heapIndex(vertex) >= 0);
+		}
+		assertFalse(isEmpty());
+		assertPoppedInOrder(vertices);
+	}
+
+	public void testDecreaseKey() throws Exception {
+		Random random = new Random(1);
+		List queued = new ArrayList();
+		for (int i = 0; i < 100; i++) {
+			Object vertex = vertex(i, 1000 + random.nextInt(1000));
+			queued.add(vertex);
+			push(vertex);
+		}
+		for (int step = 0; step < 300; step++) {
+			if (random.nextInt(3) == 0) {
+				Object vertex = pop();
+				assertEquals(minimumCost(queued), cost(vertex), 0);
+				assertTrue(queued.remove(vertex));
+			} else {
+				Object vertex = queued.get(random.nextInt(queued.size()));
+				decrease(vertex, cost(vertex) - random.nextInt(500));
+			}
+			if (queued.isEmpty())
+				break;
+		}
+		assertPoppedInOrder(queued);
+	}
+
+	public void testReuseAfterResetLabel() throws Exception {
+		List vertices = new ArrayList();
+		for (int i = 0; i < 20; i++) {
+			Object vertex = vertex(i, 20 - i);
+			vertices.add(vertex);
+			push(vertex);
+		}
+		assertEquals(1, cost(pop()), 0);
+		assertEquals(2, cost(pop()), 0);
+		// the labeling stops early and clears the heap
+		invoke(clear, heap, null);
+		assertTrue(isEmpty());
+		for (int i = 0; i < vertices.size(); i++) {
+			Object vertex = vertices.get(i);
+			assertEquals(-1, heapIndex(vertex));
+			invoke(resetLabel, vertex, null);
+			assertEquals(0, cost(vertex), 0);
+		}
+
+		// the next labeling uses the same vertices with other costs
+		for (int i = 0; i < vertices.size(); i++) {
+			Object vertex = vertices.get(i);
+			cost.setDouble(vertex, i % 7);
+			push(vertex);
+		}
+		decrease(vertices.get(19), -1);
+		assertSame(vertices.get(19), pop());
+		assertPoppedInOrder(vertices.subList(0, 19));
+	}
+
+}
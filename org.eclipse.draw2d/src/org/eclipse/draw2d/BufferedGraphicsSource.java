@@ -12,6 +12,8 @@ package org.eclipse.draw2d;
 
 import org.eclipse.swt.SWT;
 import org.eclipse.swt.SWTError;
+import org.eclipse.swt.events.DisposeEvent;
+import org.eclipse.swt.events.DisposeListener;
 import org.eclipse.swt.graphics.GC;
 import org.eclipse.swt.graphics.Image;
 import org.eclipse.swt.widgets.Canvas;
@@ -20,13 +22,36 @@ import org.eclipse.swt.widgets.Control;
 
 import org.eclipse.draw2d.geometry.Rectangle;
 
-class BufferedGraphicsSource implements GraphicsSource {
+/**
+ * A graphics source which paints into an off-screen image and copies the
+ * painted region onto the control when flushed.
+ * <P>
+ * The image is kept between updates and reused as long as it is large enough
+ * for the region being painted. When a larger image is needed, it is grown
+ * geometrically (up to the size of the control) so that a series of growing
+ * damaged regions does not allocate a new image every time. An image which is
+ * much larger than the recently painted regions is released lazily.
+ * 
+ * @since 3.11
+ */
+public class BufferedGraphicsSource implements GraphicsSource {
+
+	/**
+	 * The number of consecutive updates using less than a quarter of the
+	 * buffer after which the buffer is released.
+	 */
+	private static final int SHRINK_DELAY = 100;
 
 	private Image imageBuffer;
 	private GC imageGC;
 	private GC controlGC;
 	private Control control;
+	private DisposeListener disposeListener;
 	private Rectangle inUse;
+	private int bufferWidth;
+	private int bufferHeight;
+	private int underusedCount;
+	private int reallocationCount;
 
 	/**
 	 * Constructs a new buffered graphics source using the given control.
@@ -37,6 +62,37 @@ class BufferedGraphicsSource implements GraphicsSource {
 	 */
 	public BufferedGraphicsSource(Control c) {
 		control = c;
+		disposeListener = new DisposeListener() {
+			public void widgetDisposed(DisposeEvent e) {
+				dispose();
+			}
+		};
+		control.addDisposeListener(disposeListener);
+	}
+
+	/**
+	 * Releases the image buffer and stops listening to the control, which
+	 * happens automatically when the control is disposed. A disposed source
+	 * provides no graphics; it should be disposed when it is replaced by
+	 * another one for the same control.
+	 * 
+	 * @since 3.11
+	 */
+	public void dispose() {
+		if (control == null)
+			return;
+		if (!control.isDisposed())
+			control.removeDisposeListener(disposeListener);
+		control = null;
+		releaseBuffer();
+	}
+
+	private void releaseBuffer() {
+		if (imageBuffer != null && imageGC == null) {
+			imageBuffer.dispose();
+			imageBuffer = null;
+			bufferWidth = bufferHeight = 0;
+		}
 	}
 
 	/**
@@ -59,13 +115,14 @@ class BufferedGraphicsSource implements GraphicsSource {
 		/*
 		 * The imageBuffer may be null if double-buffering was not successful.
 		 */
-		if (imageBuffer != null) {
+		if (imageGC != null) {
 			imageGC.dispose();
+			imageGC = null;
 			controlGC.drawImage(getImage(), 0, 0, inUse.width, inUse.height,
 					inUse.x, inUse.y, inUse.width, inUse.height);
-			imageBuffer.dispose();
-			imageBuffer = null;
-			imageGC = null;
+			if (underusedCount >= SHRINK_DELAY || control == null
+					|| control.isDisposed())
+				releaseBuffer();
 		}
 		controlGC.dispose();
 		controlGC = null;
@@ -87,23 +144,14 @@ class BufferedGraphicsSource implements GraphicsSource {
 		if (inUse.isEmpty())
 			return null;
 
-		/*
-		 * Bugzilla 53632 - Attempts to create large images on some platforms
-		 * will fail. When this happens, do not use double-buffering for
-		 * painting.
-		 */
-		try {
-			imageBuffer = new Image(null, inUse.width, inUse.height);
-		} catch (SWTError noMoreHandles) {
-			imageBuffer = null;
-		} catch (IllegalArgumentException tooBig) {
-			imageBuffer = null;
-		}
+		prepareBuffer(ptSWT.x, ptSWT.y);
 
 		controlGC = new GC(control, control.getStyle()
 				& (SWT.RIGHT_TO_LEFT | SWT.LEFT_TO_RIGHT));
 		Graphics graphics;
 		if (imageBuffer != null) {
+			// A new GC is used for every update, so that no state set while
+			// painting leaks into the next update
 			imageGC = new GC(imageBuffer, control.getStyle()
 					& (SWT.RIGHT_TO_LEFT | SWT.LEFT_TO_RIGHT));
 			imageGC.setBackground(controlGC.getBackground());
@@ -122,6 +170,17 @@ class BufferedGraphicsSource implements GraphicsSource {
 		return graphics;
 	}
 
+	/**
+	 * Returns the number of times the image buffer has been (re)allocated. This
+	 * is intended for diagnostics only.
+	 * 
+	 * @return the number of image buffer allocations
+	 * @since 3.11
+	 */
+	public int getReallocationCount() {
+		return reallocationCount;
+	}
+
 	/**
 	 * Returns the current image buffer or <code>null</code>.
 	 * 
@@ -142,4 +201,50 @@ class BufferedGraphicsSource implements GraphicsSource {
 		return imageGC;
 	}
 
+	/**
+	 * Ensures that the image buffer is at least as large as the region in use.
+	 * The buffer is grown geometrically, but never beyond the size of the
+	 * control.
+	 */
+	private void prepareBuffer(int controlWidth, int controlHeight) {
+		if ((control.getStyle() & SWT.RIGHT_TO_LEFT) != 0) {
+			// A mirrored GC maps the painted region relative to the right edge
+			// of the image, so the buffer has to match the region exactly
+			controlWidth = inUse.width;
+			if (imageBuffer != null && bufferWidth != inUse.width)
+				releaseBuffer();
+		}
+		if (imageBuffer != null && inUse.width <= bufferWidth
+				&& inUse.height <= bufferHeight) {
+			if ((long) inUse.width * inUse.height * 4 < (long) bufferWidth
+					* bufferHeight)
+				underusedCount++;
+			else
+				underusedCount = 0;
+			return;
+		}
+
+		int width = Math.max(inUse.width,
+				Math.min(controlWidth, Math.max(bufferWidth * 2, inUse.width)));
+		int height = Math.max(inUse.height, Math.min(controlHeight,
+				Math.max(bufferHeight * 2, inUse.height)));
+		releaseBuffer();
+		underusedCount = 0;
+		/*
+		 * Bugzilla 53632 - Attempts to create large images on some platforms
+		 * will fail. When this happens, do not use double-buffering for
+		 * painting.
+		 */
+		try {
+			imageBuffer = new Image(null, width, height);
+			bufferWidth = width;
+			bufferHeight = height;
+			reallocationCount++;
+		} catch (SWTError noMoreHandles) {
+			imageBuffer = null;
+		} catch (IllegalArgumentException tooBig) {
+			imageBuffer = null;
+		}
+	}
+
 }
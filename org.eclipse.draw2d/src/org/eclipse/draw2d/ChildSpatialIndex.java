@@ -0,0 +1,298 @@
+/*******************************************************************************
+ * Copyright (c) 2026 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.draw2d;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.draw2d.geometry.Rectangle;
+import org.eclipse.draw2d.internal.CellMap;
+
+/**
+ * A uniform grid over the bounds of a figure's children. The grid is used by
+ * {@link Figure} to limit painting and hit-testing to the children which may
+ * intersect the area of interest. Candidates are always returned in the
+ * z-order of the host's children list.
+ * <P>
+ * The index keeps itself up to date by listening to the children's
+ * {@link FigureListener#figureMoved(IFigure) figureMoved} notifications.
+ * Children covering a large number of cells are kept in a separate list and
+ * are returned by every query.
+ *
+ * @since 3.11
+ */
+class ChildSpatialIndex implements FigureListener {
+
+	/**
+	 * The default width and height of a grid cell.
+	 */
+	static final int DEFAULT_CELL_SIZE = 256;
+
+	/**
+	 * The amount by which a child's bounds are expanded when indexed. This
+	 * allows for figures like {@link Polyline} which accept hits slightly
+	 * outside of their bounds.
+	 */
+	private static final int PADDING = 8;
+
+	/**
+	 * Children spanning more cells than this are not stored in the grid.
+	 */
+	private static final int MAX_CELLS = 64;
+
+	private static final Comparator Z_ORDER = new Comparator() {
+		public int compare(Object o1, Object o2) {
+			return ((Entry) o1).order - ((Entry) o2).order;
+		}
+	};
+
+	private static class Entry {
+		final IFigure figure;
+		int x1, y1, x2, y2;
+		boolean large;
+		int order;
+		int visit;
+
+		Entry(IFigure figure) {
+			this.figure = figure;
+		}
+	}
+
+	private final IFigure host;
+	private final int cellSize;
+	private final CellMap cells = new CellMap();
+	private final Map entries = new HashMap();
+	private final List largeEntries = new ArrayList();
+	private final Rectangle query = new Rectangle();
+	private int visit;
+
+	/**
+	 * Creates a new index for the children of the given figure.
+	 *
+	 * @param host
+	 *            the figure whose children are indexed
+	 * @param cellSize
+	 *            the width and height of a grid cell
+	 */
+	ChildSpatialIndex(IFigure host, int cellSize) {
+		this.host = host;
+		this.cellSize = cellSize;
+		List children = host.getChildren();
+		for (int i = 0; i < children.size(); i++)
+			add((IFigure) children.get(i));
+	}
+
+	/**
+	 * Adds the given child to the index and starts tracking its bounds.
+	 *
+	 * @param child
+	 *            the child which has been added to the host
+	 */
+	void add(IFigure child) {
+		if (entries.containsKey(child))
+			return;
+		Entry entry = new Entry(child);
+		entries.put(child, entry);
+		insert(entry);
+		child.addFigureListener(this);
+	}
+
+	/**
+	 * Removes the given child from the index and stops tracking its bounds.
+	 *
+	 * @param child
+	 *            the child which has been removed from the host
+	 */
+	void remove(IFigure child) {
+		Entry entry = (Entry) entries.remove(child);
+		if (entry == null)
+			return;
+		delete(entry);
+		child.removeFigureListener(this);
+	}
+
+	/**
+	 * Stops tracking all children. The index must not be used afterwards.
+	 */
+	void dispose() {
+		Iterator iter = entries.keySet().iterator();
+		while (iter.hasNext())
+			((IFigure) iter.next()).removeFigureListener(this);
+		entries.clear();
+		cells.clear();
+		largeEntries.clear();
+	}
+
+	/**
+	 * @see FigureListener#figureMoved(IFigure)
+	 */
+	public void figureMoved(IFigure source) {
+		Entry entry = (Entry) entries.get(source);
+		if (entry == null)
+			return;
+		delete(entry);
+		insert(entry);
+	}
+
+	/**
+	 * Returns the children whose bounds may contain the given point, in
+	 * z-order (bottom-most first). The point is in the coordinate system of
+	 * the children.
+	 *
+	 * @param x
+	 *            the x coordinate
+	 * @param y
+	 *            the y coordinate
+	 * @return the candidate children
+	 */
+	List getChildrenAt(int x, int y) {
+		query.setBounds(x, y, 1, 1);
+		return getChildrenIntersecting(query);
+	}
+
+	/**
+	 * Returns the children whose bounds may intersect the given rectangle, in
+	 * z-order (bottom-most first). The rectangle is in the coordinate system
+	 * of the children.
+	 *
+	 * @param rect
+	 *            the area of interest
+	 * @return the candidate children
+	 */
+	List getChildrenIntersecting(Rectangle rect) {
+		List children = host.getChildren();
+		// Children added or removed directly through the live children list
+		// are picked up here.
+		if (entries.size() != children.size())
+			rebuild();
+		if (rect.isEmpty())
+			return Collections.EMPTY_LIST;
+
+		visit++;
+		List result = new ArrayList();
+		for (int i = 0; i < largeEntries.size(); i++) {
+			Entry entry = (Entry) largeEntries.get(i);
+			entry.visit = visit;
+			result.add(entry);
+		}
+		int x1 = toCell(rect.x), y1 = toCell(rect.y);
+		int x2 = toCell(rect.x + rect.width - 1);
+		int y2 = toCell(rect.y + rect.height - 1);
+		if ((long) (x2 - x1 + 1) * (y2 - y1 + 1) > cells.size()) {
+			// The query covers more cells than are populated
+			for (int slot = 0; slot < cells.getCapacity(); slot++) {
+				List cell = (List) cells.getValueAt(slot);
+				if (cell == null)
+					continue;
+				int cx = cells.getColumnAt(slot), cy = cells.getRowAt(slot);
+				if (cx >= x1 && cx <= x2 && cy >= y1 && cy <= y2)
+					collect(cell, result);
+			}
+		} else {
+			for (int cx = x1; cx <= x2; cx++)
+				for (int cy = y1; cy <= y2; cy++) {
+					List cell = (List) cells.get(cx, cy);
+					if (cell != null)
+						collect(cell, result);
+				}
+		}
+		sortByZOrder(result, children);
+		for (int i = 0; i < result.size(); i++)
+			result.set(i, ((Entry) result.get(i)).figure);
+		return result;
+	}
+
+	private void collect(List cell, List result) {
+		for (int i = 0; i < cell.size(); i++) {
+			Entry entry = (Entry) cell.get(i);
+			if (entry.visit != visit) {
+				entry.visit = visit;
+				result.add(entry);
+			}
+		}
+	}
+
+	private void sortByZOrder(List result, List children) {
+		for (int i = 0; i < result.size(); i++) {
+			Entry entry = (Entry) result.get(i);
+			if (entry.order >= children.size()
+					|| children.get(entry.order) != entry.figure) {
+				// The children have been reordered or removed since the
+				// indices were last recorded
+				for (int j = 0; j < children.size(); j++) {
+					Entry e = (Entry) entries.get(children.get(j));
+					if (e != null)
+						e.order = j;
+				}
+				break;
+			}
+		}
+		Collections.sort(result, Z_ORDER);
+	}
+
+	private void rebuild() {
+		dispose();
+		List children = host.getChildren();
+		for (int i = 0; i < children.size(); i++)
+			add((IFigure) children.get(i));
+	}
+
+	private void insert(Entry entry) {
+		Rectangle r = entry.figure.getBounds();
+		entry.x1 = toCell(r.x - PADDING);
+		entry.y1 = toCell(r.y - PADDING);
+		entry.x2 = toCell(r.x + r.width + PADDING);
+		entry.y2 = toCell(r.y + r.height + PADDING);
+		entry.large = (long) (entry.x2 - entry.x1 + 1)
+				* (entry.y2 - entry.y1 + 1) > MAX_CELLS;
+		if (entry.large) {
+			largeEntries.add(entry);
+			return;
+		}
+		for (int cx = entry.x1; cx <= entry.x2; cx++)
+			for (int cy = entry.y1; cy <= entry.y2; cy++) {
+				List cell = (List) cells.get(cx, cy);
+				if (cell == null) {
+					cell = new ArrayList(4);
+					cells.put(cx, cy, cell);
+				}
+				cell.add(entry);
+			}
+	}
+
+	private void delete(Entry entry) {
+		if (entry.large) {
+			largeEntries.remove(entry);
+			return;
+		}
+		for (int cx = entry.x1; cx <= entry.x2; cx++)
+			for (int cy = entry.y1; cy <= entry.y2; cy++) {
+				List cell = (List) cells.get(cx, cy);
+				if (cell != null) {
+					cell.remove(entry);
+					if (cell.isEmpty())
+						cells.remove(cx, cy);
+				}
+			}
+	}
+
+	private int toCell(int coordinate) {
+		if (coordinate >= 0)
+			return coordinate / cellSize;
+		return (coordinate + 1) / cellSize - 1;
+	}
+
+}
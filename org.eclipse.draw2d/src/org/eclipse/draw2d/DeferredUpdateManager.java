@@ -12,6 +12,7 @@ package org.eclipse.draw2d;
 
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
@@ -47,9 +48,12 @@ public class DeferredUpdateManager extends UpdateManager {
 
 	private Rectangle damage;
 	private Map dirtyRegions = new HashMap();
+	private int damageRegionLimit = 1;
 
 	private GraphicsSource graphicsSource;
 	private List invalidFigures = new ArrayList();
+	private Map queuedFigures = new IdentityHashMap();
+	private boolean pruneQueuedDescendants;
 	private IFigure root;
 	private boolean updateQueued;
 
@@ -128,12 +132,113 @@ public class DeferredUpdateManager extends UpdateManager {
 	 *            the invalid figure
 	 */
 	public synchronized void addInvalidFigure(IFigure f) {
-		if (invalidFigures.contains(f))
+		if (queuedFigures.containsKey(f))
 			return;
 		queueWork();
+		queuedFigures.put(f, f);
 		invalidFigures.add(f);
 	}
 
+	/**
+	 * Adds the given damaged area to the list of disjoint damage regions,
+	 * merging it with existing regions where painting them together is not
+	 * more expensive than painting them separately. If there are then more
+	 * regions than the given limit, the pair of regions wasting the least area
+	 * is merged, so that the list never holds more than <code>limit</code>
+	 * regions, and the time taken to add an area depends on the limit rather
+	 * than on the number of areas added before.
+	 */
+	private static void addDamageRegion(List regions, Rectangle region,
+			int limit) {
+		boolean merged;
+		do {
+			merged = false;
+			for (int i = 0; i < regions.size(); i++) {
+				Rectangle other = (Rectangle) regions.get(i);
+				if (other.intersects(region)
+						|| getMergeCost(other, region) <= 0) {
+					regions.remove(i);
+					region.union(other);
+					merged = true;
+					break;
+				}
+			}
+		} while (merged);
+		regions.add(region);
+		if (regions.size() <= limit)
+			return;
+
+		// Merge the pair of regions wasting the least area
+		int first = 0, second = 1;
+		long best = Long.MAX_VALUE;
+		for (int i = 0; i < regions.size(); i++)
+			for (int j = i + 1; j < regions.size(); j++) {
+				long cost = getMergeCost((Rectangle) regions.get(i),
+						(Rectangle) regions.get(j));
+				if (cost < best) {
+					best = cost;
+					first = i;
+					second = j;
+				}
+			}
+		Rectangle union = (Rectangle) regions.remove(second);
+		union.union((Rectangle) regions.remove(first));
+		// leaves at most limit - 1 other regions
+		addDamageRegion(regions, union, limit);
+	}
+
+	/**
+	 * Returns the area which would be painted in vain if the two regions were
+	 * painted as their union.
+	 */
+	private static long getMergeCost(Rectangle r1, Rectangle r2) {
+		long width = Math.max(r1.right(), r2.right()) - Math.min(r1.x, r2.x);
+		long height = Math.max(r1.bottom(), r2.bottom()) - Math.min(r1.y, r2.y);
+		return width * height - (long) r1.width * r1.height - (long) r2.width
+				* r2.height;
+	}
+
+	/**
+	 * Returns the portion of the given dirty region of the figure which is
+	 * visible, in the coordinates of the root figure.
+	 */
+	private static Rectangle getContribution(IFigure figure,
+			Rectangle contribution) {
+		IFigure walker = figure.getParent();
+		// A figure can't paint beyond its own bounds
+		contribution.intersect(figure.getBounds());
+		while (!contribution.isEmpty() && walker != null) {
+			walker.translateToParent(contribution);
+			contribution.intersect(walker.getBounds());
+			walker = walker.getParent();
+		}
+		return contribution;
+	}
+
+	/**
+	 * Returns whether the given queued figure will be validated as part of the
+	 * validation of one of its ancestors. This is the case if an ancestor is
+	 * queued as well, and all figures on the way up to it are invalid.
+	 */
+	private boolean isCoveredByQueuedAncestor(IFigure figure) {
+		for (IFigure walker = figure.getParent(); walker instanceof Figure
+				&& !((Figure) walker).isValid(); walker = walker.getParent())
+			if (queuedFigures.containsKey(walker))
+				return true;
+		return false;
+	}
+
+	/**
+	 * Returns the maximum number of disjoint regions repaired separately.
+	 * 
+	 * @return the damage region limit
+	 * @see #setDamageRegionLimit(int)
+	 * @since 3.11
+	 */
+	public int getDamageRegionLimit() {
+		return damageRegionLimit;
+	}
+
 	/**
 	 * Returns a Graphics object for the given region.
 	 * 
@@ -215,13 +320,17 @@ public class DeferredUpdateManager extends UpdateManager {
 			IFigure fig;
 			validating = true;
 			fireValidating();
+			if (pruneQueuedDescendants)
+				removeQueuedDescendants();
 			for (int i = 0; i < invalidFigures.size(); i++) {
 				fig = (IFigure) invalidFigures.get(i);
 				invalidFigures.set(i, null);
+				queuedFigures.remove(fig);
 				fig.validate();
 			}
 		} finally {
 			invalidFigures.clear();
+			queuedFigures.clear();
 			validating = false;
 		}
 	}
@@ -274,28 +383,40 @@ public class DeferredUpdateManager extends UpdateManager {
 		graphicsSource.flushGraphics(damage);
 	}
 
+	/**
+	 * Removes the figures from the validation queue which will be validated by
+	 * a queued ancestor anyway, so that each subtree is laid out only once.
+	 */
+	private void removeQueuedDescendants() {
+		List remaining = new ArrayList(invalidFigures.size());
+		for (int i = 0; i < invalidFigures.size(); i++) {
+			IFigure fig = (IFigure) invalidFigures.get(i);
+			if (isCoveredByQueuedAncestor(fig))
+				queuedFigures.remove(fig);
+			else
+				remaining.add(fig);
+		}
+		invalidFigures = remaining;
+	}
+
 	/**
 	 * Repaints the dirty regions on the update queue and calls
 	 * {@link UpdateManager#firePainting(Rectangle, Map)}, unless there are no
 	 * dirty regions.
 	 */
 	protected void repairDamage() {
+		if (damageRegionLimit > 1) {
+			repairDamageRegions();
+			return;
+		}
 		Iterator keys = dirtyRegions.keySet().iterator();
 		Rectangle contribution;
 		IFigure figure;
-		IFigure walker;
 
 		while (keys.hasNext()) {
 			figure = (IFigure) keys.next();
-			walker = figure.getParent();
-			contribution = (Rectangle) dirtyRegions.get(figure);
-			// A figure can't paint beyond its own bounds
-			contribution.intersect(figure.getBounds());
-			while (!contribution.isEmpty() && walker != null) {
-				walker.translateToParent(contribution);
-				contribution.intersect(walker.getBounds());
-				walker = walker.getParent();
-			}
+			contribution = getContribution(figure,
+					(Rectangle) dirtyRegions.get(figure));
 			if (damage == null)
 				damage = new Rectangle(contribution);
 			else
@@ -319,6 +440,67 @@ public class DeferredUpdateManager extends UpdateManager {
 		damage = null;
 	}
 
+	/**
+	 * Repaints the dirty regions as up to {@link #getDamageRegionLimit()}
+	 * disjoint regions. The root figure is painted once per region, and
+	 * {@link UpdateManager#firePainting(Rectangle, Map)} is called once per
+	 * region with the dirty regions contributing to it.
+	 */
+	private void repairDamageRegions() {
+		if (dirtyRegions.isEmpty())
+			return;
+		Map oldRegions = dirtyRegions;
+		dirtyRegions = new HashMap();
+
+		List regions = new ArrayList();
+		Map clipped = new HashMap();
+		Iterator keys = oldRegions.keySet().iterator();
+		while (keys.hasNext()) {
+			IFigure figure = (IFigure) keys.next();
+			Rectangle contribution = getContribution(figure,
+					(Rectangle) oldRegions.get(figure));
+			if (contribution.isEmpty())
+				clipped.put(figure, contribution);
+			else
+				addDamageRegion(regions, contribution.getCopy(),
+						damageRegionLimit);
+		}
+
+		if (regions.isEmpty()) {
+			firePainting(new Rectangle(), clipped);
+			return;
+		}
+
+		// Every contribution lies within exactly one of the regions
+		Map[] contributions = new Map[regions.size()];
+		for (int i = 0; i < contributions.length; i++)
+			contributions[i] = new HashMap();
+		contributions[0].putAll(clipped);
+		keys = oldRegions.keySet().iterator();
+		while (keys.hasNext()) {
+			IFigure figure = (IFigure) keys.next();
+			Rectangle contribution = (Rectangle) oldRegions.get(figure);
+			if (contribution.isEmpty())
+				continue;
+			for (int i = 0; i < regions.size(); i++)
+				if (((Rectangle) regions.get(i)).contains(contribution)) {
+					contributions[i].put(figure, contribution);
+					break;
+				}
+		}
+
+		for (int i = 0; i < regions.size(); i++) {
+			damage = (Rectangle) regions.get(i);
+			firePainting(damage, contributions[i]);
+			Graphics graphics = getGraphics(damage);
+			if (graphics != null) {
+				root.paint(graphics);
+				releaseGraphics(graphics);
+			}
+		}
+		damage = null;
+	}
+
 	/**
 	 * Adds the given runnable and queues an update if an update is not under
 	 * progress.
@@ -332,6 +514,45 @@ public class DeferredUpdateManager extends UpdateManager {
 			queueWork();
 	}
 
+	/**
+	 * Sets the maximum number of disjoint regions which are repaired
+	 * separately during an update. With the default limit of 1 all dirty
+	 * regions are unioned into a single damaged rectangle. With a higher limit,
+	 * dirty regions which are far apart are painted separately, and only
+	 * merged while painting their union is not more expensive than painting
+	 * them one by one, or while there are more regions than the limit. Each
+	 * region is reported to the {@link UpdateListener}s in a separate call to
+	 * {@link UpdateListener#notifyPainting(Rectangle, Map)}, along with the
+	 * dirty regions it contains.
+	 * 
+	 * @param limit
+	 *            the maximum number of damage regions, at least 1
+	 * @since 3.11
+	 */
+	public void setDamageRegionLimit(int limit) {
+		if (limit < 1)
+			throw new IllegalArgumentException();
+		damageRegionLimit = limit;
+	}
+
+	/**
+	 * Sets whether queued invalid figures which have a queued, invalid ancestor
+	 * are dropped before validation. Such figures are validated as part of
+	 * their ancestor's validation, so dropping them avoids laying out a subtree
+	 * repeatedly when many figures are revalidated at once, e.g. during a bulk
+	 * model update. This relies on {@link IFigure#validate()} validating the
+	 * invalid children, as {@link Figure#validate()} does. It is disabled by
+	 * default.
+	 * 
+	 * @param value
+	 *            <code>true</code> to drop queued descendants of queued
+	 *            figures
+	 * @since 3.11
+	 */
+	public void setPruneQueuedDescendants(boolean value) {
+		pruneQueuedDescendants = value;
+	}
+
 	/**
 	 * Sets the graphics source.
 	 * 
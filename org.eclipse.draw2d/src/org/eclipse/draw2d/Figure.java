@@ -79,6 +79,8 @@ public class Figure implements IFigure {
 
 	private List children = Collections.EMPTY_LIST;
 
+	private ChildSpatialIndex childIndex;
+
 	/**
 	 * This Figure's preferred size.
 	 */
@@ -155,6 +157,9 @@ public class Figure implements IFigure {
 			children.add(index, figure);
 		figure.setParent(this);
 
+		if (childIndex != null)
+			childIndex.add(figure);
+
 		if (layoutManager != null)
 			layoutManager.setConstraint(figure, constraint);
 
@@ -349,10 +354,13 @@ public class Figure implements IFigure {
 
 		x = PRIVATE_POINT.x;
 		y = PRIVATE_POINT.y;
+		List candidates = children;
+		if (childIndex != null)
+			candidates = childIndex.getChildrenAt(x, y);
 		IFigure fig;
-		for (int i = children.size(); i > 0;) {
+		for (int i = candidates.size(); i > 0;) {
 			i--;
-			fig = (IFigure) children.get(i);
+			fig = (IFigure) candidates.get(i);
 			if (fig.isVisible()) {
 				fig = fig.findFigureAt(x, y, search);
 				if (fig != null)
@@ -447,10 +455,14 @@ public class Figure implements IFigure {
 		if (!getClientArea(Rectangle.SINGLETON).contains(PRIVATE_POINT))
 			return null;
 
+		List candidates = children;
+		if (childIndex != null)
+			candidates = childIndex.getChildrenAt(PRIVATE_POINT.x,
+					PRIVATE_POINT.y);
 		IFigure fig;
-		for (int i = children.size(); i > 0;) {
+		for (int i = candidates.size(); i > 0;) {
 			i--;
-			fig = (IFigure) children.get(i);
+			fig = (IFigure) candidates.get(i);
 			if (fig.isVisible() && fig.isEnabled()) {
 				if (fig.containsPoint(PRIVATE_POINT.x, PRIVATE_POINT.y)) {
 					fig = fig.findMouseEventTargetAt(PRIVATE_POINT.x,
@@ -993,6 +1005,18 @@ public class Figure implements IFigure {
 		}
 	}
 
+	/**
+	 * Returns <code>true</code> if this Figure maintains a spatial index over
+	 * the bounds of its children.
+	 * 
+	 * @return <code>true</code> if the children are spatially indexed
+	 * @see #setChildIndexEnabled(boolean)
+	 * @since 3.11
+	 */
+	public boolean isChildIndexEnabled() {
+		return childIndex != null;
+	}
+
 	/**
 	 * @see IFigure#isCoordinateSystem()
 	 */
@@ -1151,8 +1175,14 @@ public class Figure implements IFigure {
 	 * @since 2.0
 	 */
 	protected void paintChildren(Graphics graphics) {
-		for (int i = 0; i < children.size(); i++) {
-			IFigure child = (IFigure) children.get(i);
+		List candidates = children;
+		// A clipping strategy may clip children outside of their bounds, so
+		// the index can only be consulted for the default behaviour
+		if (childIndex != null && clippingStrategy == null)
+			candidates = childIndex.getChildrenIntersecting(graphics
+					.getClip(new Rectangle()));
+		for (int i = 0; i < candidates.size(); i++) {
+			IFigure child = (IFigure) candidates.get(i);
 			if (child.isVisible()) {
 				// determine clipping areas for child
 				Rectangle[] clipping = null;
@@ -1275,6 +1305,8 @@ public class Figure implements IFigure {
 		figure.erase();
 		figure.setParent(null);
 		children.remove(figure);
+		if (childIndex != null)
+			childIndex.remove(figure);
 		revalidate();
 	}
 
@@ -1526,6 +1558,39 @@ public class Figure implements IFigure {
 		}
 	}
 
+	/**
+	 * Enables or disables a spatial index over the bounds of this Figure's
+	 * children. When enabled, {@link #paintChildren(Graphics)} only visits the
+	 * children intersecting the clip region, and the hit-testing methods (
+	 * {@link #findFigureAt(int, int, TreeSearch)},
+	 * {@link #findMouseEventTargetAt(int, int)}) only visit the children which
+	 * may contain the point in question. The children are still visited in
+	 * their z-order.
+	 * <P>
+	 * The index is worthwhile for containers with a large number of children
+	 * that are spread out, like a {@link FreeformLayer} holding the nodes of a
+	 * diagram. It assumes that children neither paint nor accept points
+	 * outside of their bounds, and that they notify their
+	 * {@link FigureListener}s whenever their bounds change. Children must be
+	 * added and removed using {@link #add(IFigure, Object, int)} and
+	 * {@link #remove(IFigure)}.
+	 * 
+	 * @param value
+	 *            <code>true</code> to index the children
+	 * @since 3.11
+	 */
+	public void setChildIndexEnabled(boolean value) {
+		if (value == isChildIndexEnabled())
+			return;
+		if (value)
+			childIndex = new ChildSpatialIndex(this,
+					ChildSpatialIndex.DEFAULT_CELL_SIZE);
+		else {
+			childIndex.dispose();
+			childIndex = null;
+		}
+	}
+
 	/**
 	 * Sets the direction of any {@link Orientable} children. Allowable values
 	 * for <code>dir</code> are found in {@link PositionConstants}.
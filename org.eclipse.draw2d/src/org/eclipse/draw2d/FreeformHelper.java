@@ -10,48 +10,101 @@
  *******************************************************************************/
 package org.eclipse.draw2d;
 
+import java.util.IdentityHashMap;
 import java.util.List;
+import java.util.Map;
 
 import org.eclipse.draw2d.geometry.Insets;
 import org.eclipse.draw2d.geometry.Rectangle;
 
+/**
+ * Computes the freeform extent of a {@link FreeformFigure} from its children.
+ * <P>
+ * The union of the children's bounds is kept up to date as children are
+ * added, moved and removed. A child which moves outward only grows the union,
+ * and the union is only computed again when a child which was on one of its
+ * edges moves inward or is removed. The host is only told that its extent
+ * changed when the union changed.
+ */
 class FreeformHelper implements FreeformListener {
 
 	class ChildTracker implements FigureListener {
 		public void figureMoved(IFigure source) {
-			invalidate();
+			childMoved(source);
 		}
 	}
 
 	private FreeformFigure host;
 	private Rectangle freeformExtent;
+	/**
+	 * The union of the children's bounds, or null if there are no children.
+	 * Only valid if childrenExtentValid is true.
+	 */
+	private Rectangle childrenExtent;
+	private boolean childrenExtentValid;
+	/** Maps the children which are not FreeformFigures to their last bounds. */
+	private Map childBounds = new IdentityHashMap();
 	private FigureListener figureListener = new ChildTracker();
 
 	FreeformHelper(FreeformFigure host) {
 		this.host = host;
 	}
 
-	public Rectangle getFreeformExtent() {
-		if (freeformExtent != null)
-			return freeformExtent;
+	private void childMoved(IFigure child) {
+		Rectangle oldBounds = (Rectangle) childBounds.get(child);
+		if (oldBounds == null)
+			return;
+		Rectangle bounds = child.getBounds();
+		if (!childrenExtentValid || oldBounds.isEmpty() || bounds.isEmpty()) {
+			oldBounds.setBounds(bounds);
+			invalidate();
+			return;
+		}
+		boolean leavesEdge = leavesEdge(oldBounds, bounds);
+		oldBounds.setBounds(bounds);
+		if (leavesEdge)
+			recompute(null);
+		else
+			grow(bounds);
+	}
+
+	/**
+	 * Returns the union of the bounds of the host's children other than the
+	 * given one, or null if there are none.
+	 */
+	private Rectangle computeChildrenExtent(IFigure excluded) {
+		Rectangle extent = null;
 		Rectangle r;
 		List children = host.getChildren();
 		for (int i = 0; i < children.size(); i++) {
 			IFigure child = (IFigure) children.get(i);
+			if (child == excluded)
+				continue;
 			if (child instanceof FreeformFigure)
 				r = ((FreeformFigure) child).getFreeformExtent();
 			else
 				r = child.getBounds();
-			if (freeformExtent == null)
-				freeformExtent = r.getCopy();
+			if (extent == null)
+				extent = r.getCopy();
 			else
-				freeformExtent.union(r);
+				extent.union(r);
+		}
+		return extent;
+	}
+
+	public Rectangle getFreeformExtent() {
+		if (freeformExtent != null)
+			return freeformExtent;
+		if (!childrenExtentValid) {
+			childrenExtent = computeChildrenExtent(null);
+			childrenExtentValid = true;
 		}
 		Insets insets = host.getInsets();
-		if (freeformExtent == null)
+		if (childrenExtent == null)
 			freeformExtent = new Rectangle(0, 0, insets.getWidth(),
 					insets.getHeight());
 		else {
+			freeformExtent = childrenExtent.getCopy();
 			host.translateToParent(freeformExtent);
 			freeformExtent.expand(insets);
 		}
@@ -60,16 +113,72 @@ class FreeformHelper implements FreeformListener {
 		return freeformExtent;
 	}
 
+	/**
+	 * Adds the given non-empty bounds to the union of the children's bounds,
+	 * telling the host if the union grew.
+	 */
+	private void grow(Rectangle bounds) {
+		if (childrenExtent.contains(bounds))
+			return;
+		childrenExtent.union(bounds);
+		freeformExtent = null;
+		fireExtentChanged();
+	}
+
 	public void hookChild(IFigure child) {
-		invalidate();
-		if (child instanceof FreeformFigure)
+		if (child instanceof FreeformFigure) {
+			invalidate();
 			((FreeformFigure) child).addFreeformListener(this);
-		else
+		} else {
+			Rectangle bounds = child.getBounds().getCopy();
+			childBounds.put(child, bounds);
+			if (childrenExtentValid && childrenExtent != null
+					&& !bounds.isEmpty())
+				grow(bounds);
+			else
+				invalidate();
 			child.addFigureListener(figureListener);
+		}
+	}
+
+	/**
+	 * Computes the union of the children's bounds again, leaving out the
+	 * given child which is being removed, and tells the host only if the
+	 * union changed.
+	 */
+	private void recompute(IFigure removed) {
+		Rectangle extent = computeChildrenExtent(removed);
+		if (extent == null ? childrenExtent == null : extent
+				.equals(childrenExtent))
+			return;
+		childrenExtent = extent;
+		freeformExtent = null;
+		fireExtentChanged();
 	}
 
 	void invalidate() {
+		childrenExtentValid = false;
 		freeformExtent = null;
+		fireExtentChanged();
+	}
+
+	/**
+	 * Returns whether the old bounds of a child were on an edge of the union
+	 * of the children's bounds, which its new bounds no longer reach. A child
+	 * which was removed has no new bounds.
+	 */
+	private boolean leavesEdge(Rectangle oldBounds, Rectangle bounds) {
+		Rectangle extent = childrenExtent;
+		return oldBounds.x == extent.x && (bounds == null || bounds.x > extent.x)
+				|| oldBounds.y == extent.y
+				&& (bounds == null || bounds.y > extent.y)
+				|| oldBounds.right() == extent.right()
+				&& (bounds == null || bounds.right() < extent.right())
+				|| oldBounds.bottom() == extent.bottom()
+				&& (bounds == null || bounds.bottom() < extent.bottom());
+	}
+
+	private void fireExtentChanged() {
 		host.fireExtentChanged();
 		if (host.getParent() != null)
 			host.getParent().revalidate();
@@ -96,11 +205,18 @@ class FreeformHelper implements FreeformListener {
 	}
 
 	public void unhookChild(IFigure child) {
-		invalidate();
-		if (child instanceof FreeformFigure)
+		if (child instanceof FreeformFigure) {
+			invalidate();
 			((FreeformFigure) child).removeFreeformListener(this);
-		else
+		} else {
+			Rectangle bounds = (Rectangle) childBounds.remove(child);
+			if (!childrenExtentValid || bounds == null || bounds.isEmpty())
+				invalidate();
+			else if (leavesEdge(bounds, null))
+				// the child is still one of the host's children
+				recompute(child);
 			child.removeFigureListener(figureListener);
+		}
 	}
 
 }
@@ -58,6 +58,7 @@ public class LightweightSystem {
 	private IFigure root;
 	private EventDispatcher dispatcher;
 	private UpdateManager manager = new DeferredUpdateManager();
+	private BufferedGraphicsSource bufferedSource;
 	private int ignoreResize;
 
 	/**
@@ -229,12 +230,18 @@ public class LightweightSystem {
 		if (canvas == c)
 			return;
 		canvas = c;
+		// the buffer of the previous control is not needed any more
+		if (bufferedSource != null) {
+			bufferedSource.dispose();
+			bufferedSource = null;
+		}
 		if ((c.getStyle() & SWT.DOUBLE_BUFFERED) != 0)
 			getUpdateManager().setGraphicsSource(
 					new NativeGraphicsSource(canvas));
-		else
-			getUpdateManager().setGraphicsSource(
-					new BufferedGraphicsSource(canvas));
+		else {
+			bufferedSource = new BufferedGraphicsSource(canvas);
+			getUpdateManager().setGraphicsSource(bufferedSource);
+		}
 		getEventDispatcher().setControl(c);
 		addListeners();
 
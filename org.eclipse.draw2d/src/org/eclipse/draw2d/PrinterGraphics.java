@@ -50,6 +50,14 @@ public class PrinterGraphics extends ScaledGraphics {
 		return new Font(printer, data);
 	}
 
+	/**
+	 * The zoomed fonts belong to the printer, so they are not shared with the
+	 * graphics of the display.
+	 */
+	ScaledFontCache getSharedFontCache() {
+		return null;
+	}
+
 	private Image printerImage(Image image) {
 		Image result = (Image) imageCache.get(image);
 		if (result != null)
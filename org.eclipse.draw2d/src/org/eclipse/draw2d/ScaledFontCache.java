@@ -0,0 +1,305 @@
+/*******************************************************************************
+ * Copyright (c) 2026 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.draw2d;
+
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import org.eclipse.swt.graphics.Font;
+import org.eclipse.swt.graphics.FontData;
+import org.eclipse.swt.widgets.Display;
+
+/**
+ * A cache of the zoomed fonts used by {@link ScaledGraphics}, shared by all
+ * the graphics of a display and kept across paints and zoom levels. Fonts are
+ * keyed by their base font and zoomed height.
+ * <P>
+ * A zoomed font is acquired by a graphics for as long as it paints with it,
+ * and released when the graphics is disposed. The cache keeps at most
+ * {@link #getCapacity()} fonts which are not acquired, and disposes the least
+ * recently used ones beyond that. Acquired fonts are never disposed. The
+ * {@link FontData} of the base fonts is cached in the same way. All fonts are
+ * disposed with the display.
+ * <P>
+ * The cache must only be used from the display's thread.
+ *
+ * @since 3.11
+ */
+public final class ScaledFontCache {
+
+	/**
+	 * The default number of unused fonts kept by a cache.
+	 */
+	public static final int DEFAULT_CAPACITY = 64;
+
+	private static final Map caches = new HashMap();
+
+	private static class Key {
+		final Font font;
+		final int height;
+
+		Key(Font font, int height) {
+			this.font = font;
+			this.height = height;
+		}
+
+		public boolean equals(Object obj) {
+			Key key = (Key) obj;
+			return key.font.equals(font) && key.height == height;
+		}
+
+		public int hashCode() {
+			return font.hashCode() ^ height;
+		}
+	}
+
+	private static class Entry {
+		final Key key;
+		final Font zoomedFont;
+		int references;
+		boolean cached = true;
+
+		Entry(Key key, Font zoomedFont) {
+			this.key = key;
+			this.zoomedFont = zoomedFont;
+		}
+	}
+
+	private final Display display;
+	/** Maps each Key to its Entry, from the least recently used. */
+	private final LinkedHashMap entries = new LinkedHashMap(16, 0.75f, true);
+	/** Maps the acquired zoomed fonts to their Entry. */
+	private final Map acquired = new IdentityHashMap();
+	/** Maps the base fonts to their FontData, from the least recently used. */
+	private final LinkedHashMap fontData = new LinkedHashMap(16, 0.75f, true);
+	private int capacity = DEFAULT_CAPACITY;
+	private int hits;
+	private int misses;
+	private boolean disposed;
+
+	/**
+	 * Returns the cache of the given display, creating it on first use.
+	 *
+	 * @param display
+	 *            the display
+	 * @return the cache of the display
+	 */
+	public static ScaledFontCache getCache(final Display display) {
+		synchronized (caches) {
+			ScaledFontCache cache = (ScaledFontCache) caches.get(display);
+			if (cache == null) {
+				cache = new ScaledFontCache(display);
+				caches.put(display, cache);
+				final ScaledFontCache disposedCache = cache;
+				display.disposeExec(new Runnable() {
+					public void run() {
+						synchronized (caches) {
+							caches.remove(display);
+						}
+						disposedCache.dispose();
+					}
+				});
+			}
+			return cache;
+		}
+	}
+
+	private ScaledFontCache(Display display) {
+		this.display = display;
+	}
+
+	/**
+	 * Returns the given font with the given height, and keeps it from being
+	 * disposed until it is {@link #releaseFont(Font) released}. Each call must
+	 * be matched by a release.
+	 *
+	 * @param font
+	 *            the base font
+	 * @param height
+	 *            the height of the zoomed font, in points
+	 * @return the zoomed font
+	 */
+	public Font acquireFont(Font font, int height) {
+		if (disposed)
+			throw new IllegalStateException("Font cache has been disposed"); //$NON-NLS-1$
+		Key key = new Key(font, height);
+		Entry entry = (Entry) entries.get(key);
+		// a disposed base font may share its handle with a new font
+		if (entry != null && entry.key.font.isDisposed()) {
+			uncache(entry);
+			entry = null;
+		}
+		if (entry != null) {
+			hits++;
+		} else {
+			misses++;
+			FontData data = font.getFontData()[0];
+			data.setHeight(height);
+			entry = new Entry(key, new Font(display, data));
+			entries.put(key, entry);
+		}
+		if (entry.references++ == 0)
+			acquired.put(entry.zoomedFont, entry);
+		return entry.zoomedFont;
+	}
+
+	/**
+	 * Releases a font returned by {@link #acquireFont(Font, int)}. Once it is
+	 * no longer acquired, it may be disposed to keep the cache within its
+	 * capacity.
+	 *
+	 * @param zoomedFont
+	 *            the zoomed font
+	 */
+	public void releaseFont(Font zoomedFont) {
+		Entry entry = (Entry) acquired.get(zoomedFont);
+		if (entry == null)
+			throw new IllegalArgumentException("Font is not acquired"); //$NON-NLS-1$
+		if (--entry.references > 0)
+			return;
+		acquired.remove(zoomedFont);
+		if (!entry.cached || disposed)
+			zoomedFont.dispose();
+		else
+			trim();
+	}
+
+	/**
+	 * Returns the FontData of the given font, as returned first by
+	 * {@link Font#getFontData()}. It must not be modified.
+	 *
+	 * @param font
+	 *            the font
+	 * @return the font's data
+	 */
+	public FontData getFontData(Font font) {
+		Object[] cached = (Object[]) fontData.get(font);
+		if (cached != null && cached[0] == font)
+			return (FontData) cached[1];
+		FontData data = font.getFontData()[0];
+		fontData.put(font, new Object[] { font, data });
+		if (fontData.size() > capacity) {
+			Iterator iter = fontData.keySet().iterator();
+			iter.next();
+			iter.remove();
+		}
+		return data;
+	}
+
+	/**
+	 * Returns the number of unused fonts kept by this cache.
+	 *
+	 * @return the capacity
+	 */
+	public int getCapacity() {
+		return capacity;
+	}
+
+	/**
+	 * Sets the number of unused fonts kept by this cache, disposing the least
+	 * recently used fonts beyond it.
+	 *
+	 * @param capacity
+	 *            the capacity, at least 0
+	 */
+	public void setCapacity(int capacity) {
+		if (capacity < 0)
+			throw new IllegalArgumentException("Capacity must not be negative"); //$NON-NLS-1$
+		this.capacity = capacity;
+		trim();
+		while (fontData.size() > capacity) {
+			Iterator iter = fontData.keySet().iterator();
+			iter.next();
+			iter.remove();
+		}
+	}
+
+	/**
+	 * Returns the number of zoomed fonts currently cached, acquired or not.
+	 *
+	 * @return the number of fonts
+	 */
+	public int size() {
+		return entries.size();
+	}
+
+	/**
+	 * Returns the number of calls to {@link #acquireFont(Font, int)} which
+	 * found the font in the cache.
+	 *
+	 * @return the number of hits
+	 */
+	public int getHitCount() {
+		return hits;
+	}
+
+	/**
+	 * Returns the number of calls to {@link #acquireFont(Font, int)} which had
+	 * to create the font.
+	 *
+	 * @return the number of misses
+	 */
+	public int getMissCount() {
+		return misses;
+	}
+
+	/**
+	 * Resets the hit and miss counts to 0.
+	 */
+	public void resetCounts() {
+		hits = 0;
+		misses = 0;
+	}
+
+	/**
+	 * Disposes the least recently used fonts which are not acquired, until at
+	 * most {@link #capacity} of them are left.
+	 */
+	private void trim() {
+		int unused = entries.size() - acquired.size();
+		for (Iterator iter = entries.values().iterator(); unused > capacity
+				&& iter.hasNext();) {
+			Entry entry = (Entry) iter.next();
+			if (entry.references == 0) {
+				iter.remove();
+				entry.cached = false;
+				entry.zoomedFont.dispose();
+				unused--;
+			}
+		}
+	}
+
+	/**
+	 * Removes the entry from the cache. Its font is disposed now if it is not
+	 * acquired, or else when it is released.
+	 */
+	private void uncache(Entry entry) {
+		entries.remove(entry.key);
+		entry.cached = false;
+		if (entry.references == 0)
+			entry.zoomedFont.dispose();
+	}
+
+	private void dispose() {
+		disposed = true;
+		for (Iterator iter = entries.values().iterator(); iter.hasNext();) {
+			Entry entry = (Entry) iter.next();
+			if (entry.references == 0)
+				entry.zoomedFont.dispose();
+		}
+		entries.clear();
+		fontData.clear();
+	}
+
+}
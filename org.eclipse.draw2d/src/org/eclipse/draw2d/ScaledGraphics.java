@@ -192,6 +192,7 @@ public class ScaledGraphics extends Graphics {
 	private Map fontCache = new HashMap();
 	private Map fontDataCache = new HashMap();
 	private FontKey fontKey = new FontKey();
+	private ScaledFontCache sharedFontCache;
 	private double fractionalX;
 	private double fractionalY;
 	private Graphics graphics;
@@ -277,13 +278,16 @@ public class ScaledGraphics extends Graphics {
 			popState();
 		}
 
-		// Dispose fonts
+		// Release or dispose fonts
 		Iterator iter = fontCache.values().iterator();
 		while (iter.hasNext()) {
 			Font font = ((Font) iter.next());
-			font.dispose();
+			if (sharedFontCache != null)
+				sharedFontCache.releaseFont(font);
+			else
+				font.dispose();
 		}
-
+		fontCache.clear();
 	}
 
 	/** @see Graphics#drawArc(int, int, int, int, int, int) */
@@ -520,9 +524,17 @@ public class ScaledGraphics extends Graphics {
 			return font;
 		}
 		key = new FontKey(key.font, key.height);
-		FontData data = key.font.getFontData()[0];
-		data.setHeight(key.height);
-		Font zoomedFont = createFont(data);
+		// the fonts acquired so far were all released to the same cache
+		if (fontCache.isEmpty())
+			sharedFontCache = getSharedFontCache();
+		Font zoomedFont;
+		if (sharedFontCache != null) {
+			zoomedFont = sharedFontCache.acquireFont(key.font, key.height);
+		} else {
+			FontData data = key.font.getFontData()[0];
+			data.setHeight(key.height);
+			zoomedFont = createFont(data);
+		}
 		fontCache.put(key, zoomedFont);
 		return zoomedFont;
 	}
@@ -530,12 +542,23 @@ public class ScaledGraphics extends Graphics {
 	FontData getCachedFontData(Font f) {
 		FontData data = (FontData) fontDataCache.get(f);
 		if (data == null) {
-			data = f.getFontData()[0];
+			ScaledFontCache shared = getSharedFontCache();
+			data = shared != null ? shared.getFontData(f) : f.getFontData()[0];
 			fontDataCache.put(f, data);
 		}
 		return data;
 	}
 
+	/**
+	 * Returns the cache of zoomed fonts shared with the other graphics of the
+	 * current display, or <code>null</code> if this graphics creates and
+	 * disposes its own fonts with {@link #createFont(FontData)}.
+	 */
+	ScaledFontCache getSharedFontCache() {
+		Display display = Display.getCurrent();
+		return display != null ? ScaledFontCache.getCache(display) : null;
+	}
+
 	/** @see Graphics#getClip(Rectangle) */
 	public Rectangle getClip(Rectangle rect) {
 		graphics.getClip(rect);
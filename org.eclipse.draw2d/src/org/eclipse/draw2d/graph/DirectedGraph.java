@@ -54,12 +54,37 @@ public class DirectedGraph {
 
 	Node forestRoot;
 	Insets margin = new Insets();
+	private int simplexIterationLimit;
+	private long simplexTimeLimit;
 	int[] rankLocations;
 	int[][] cellLocations;
 	int tensorStrength;
 	int tensorSize;
 	Dimension size = new Dimension();
 
+	/**
+	 * Returns the maximum number of iterations of the network simplex method.
+	 * 
+	 * @return the iteration limit, or <code>0</code> if there is no limit
+	 * @see #setSimplexIterationLimit(int)
+	 * @since 3.11
+	 */
+	public int getSimplexIterationLimit() {
+		return simplexIterationLimit;
+	}
+
+	/**
+	 * Returns the maximum time in milliseconds spent in each run of the network
+	 * simplex method.
+	 * 
+	 * @return the time limit, or <code>0</code> if there is no limit
+	 * @see #setSimplexTimeLimit(long)
+	 * @since 3.11
+	 */
+	public long getSimplexTimeLimit() {
+		return simplexTimeLimit;
+	}
+
 	/**
 	 * Returns the default padding for nodes.
 	 * 
@@ -211,6 +236,36 @@ public class DirectedGraph {
 		this.margin = insets;
 	}
 
+	/**
+	 * Sets the maximum number of iterations of the network simplex method,
+	 * which is used to assign the ranks of the nodes and their horizontal
+	 * placement. When the limit is reached, the layout continues with the best
+	 * solution found so far, which is valid but may have longer edges than
+	 * necessary. The default is <code>0</code>, meaning no limit.
+	 * 
+	 * @param limit
+	 *            the iteration limit, or <code>0</code> for no limit
+	 * @since 3.11
+	 */
+	public void setSimplexIterationLimit(int limit) {
+		this.simplexIterationLimit = limit;
+	}
+
+	/**
+	 * Sets the maximum time in milliseconds spent in each run of the network
+	 * simplex method, which is used to assign the ranks of the nodes and their
+	 * horizontal placement. When the time is exceeded, the layout continues
+	 * with the best solution found so far. The default is <code>0</code>,
+	 * meaning no limit.
+	 * 
+	 * @param millis
+	 *            the time limit, or <code>0</code> for no limit
+	 * @since 3.11
+	 */
+	public void setSimplexTimeLimit(long millis) {
+		this.simplexTimeLimit = millis;
+	}
+
 	public Dimension getLayoutSize() {
 		return size;
 	}
@@ -71,6 +71,7 @@ import java.util.List;
 public class DirectedGraphLayout {
 
 	List steps = new ArrayList();
+	private List listeners = new ArrayList();
 
 	/**
 	 * @since 3.1
@@ -93,6 +94,29 @@ public class DirectedGraphLayout {
 		steps.add(new HorizontalPlacement());
 	}
 
+	/**
+	 * Adds a listener which is notified as each step of the layout is
+	 * performed.
+	 * 
+	 * @param listener
+	 *            the listener to add
+	 * @since 3.11
+	 */
+	public void addStepListener(LayoutStepListener listener) {
+		listeners.add(listener);
+	}
+
+	/**
+	 * Removes the given step listener.
+	 * 
+	 * @param listener
+	 *            the listener to remove
+	 * @since 3.11
+	 */
+	public void removeStepListener(LayoutStepListener listener) {
+		listeners.remove(listener);
+	}
+
 	/**
 	 * Lays out the given graph
 	 * 
@@ -102,14 +126,36 @@ public class DirectedGraphLayout {
 	public void visit(DirectedGraph graph) {
 		if (graph.nodes.isEmpty())
 			return;
-		for (int i = 0; i < steps.size(); i++) {
-			GraphVisitor visitor = (GraphVisitor) steps.get(i);
-			visitor.visit(graph);
-		}
-		for (int i = steps.size() - 1; i >= 0; i--) {
-			GraphVisitor visitor = (GraphVisitor) steps.get(i);
+		visit(graph, steps);
+	}
+
+	void visit(DirectedGraph graph, List steps) {
+		for (int i = 0; i < steps.size(); i++)
+			perform((GraphVisitor) steps.get(i), graph, false);
+		for (int i = steps.size() - 1; i >= 0; i--)
+			perform((GraphVisitor) steps.get(i), graph, true);
+	}
+
+	private void perform(GraphVisitor visitor, DirectedGraph graph,
+			boolean revisit) {
+		visitor.iterations = 0;
+		long start = System.currentTimeMillis();
+		if (revisit)
 			visitor.revisit(graph);
+		else
+			visitor.visit(graph);
+		long time = System.currentTimeMillis() - start;
+		if (!listeners.isEmpty()) {
+			LayoutStepEvent event = new LayoutStepEvent(this, graph,
+					getStepName(visitor), revisit, time, visitor.iterations);
+			for (int i = 0; i < listeners.size(); i++)
+				((LayoutStepListener) listeners.get(i)).stepPerformed(event);
 		}
 	}
 
+	private static String getStepName(Object step) {
+		String name = step.getClass().getName();
+		return name.substring(name.lastIndexOf('.') + 1);
+	}
+
 }
@@ -18,6 +18,13 @@ package org.eclipse.draw2d.graph;
  */
 abstract class GraphVisitor {
 
+	/**
+	 * The number of iterations performed by the most recent visit or revisit,
+	 * as reported to {@link LayoutStepListener}s. Reset by the layout before
+	 * each call.
+	 */
+	int iterations;
+
 	/**
 	 * Act on the given directed graph.
 	 * 
@@ -395,6 +395,8 @@ class HorizontalPlacement extends SpanningTreeVisitor {
 	public void visit(DirectedGraph g) {
 		graph = g;
 		prime = new DirectedGraph();
+		prime.setSimplexIterationLimit(g.getSimplexIterationLimit());
+		prime.setSimplexTimeLimit(g.getSimplexTimeLimit());
 		prime.nodes.add(graphLeft = new Node(null));
 		prime.nodes.add(graphRight = new Node(null));
 		if (g.tensorStrength != 0)
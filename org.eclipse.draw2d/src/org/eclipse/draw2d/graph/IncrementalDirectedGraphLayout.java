@@ -0,0 +1,127 @@
+/*******************************************************************************
+ * Copyright (c) 2026 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.draw2d.graph;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.draw2d.PositionConstants;
+
+/**
+ * A <code>DirectedGraphLayout</code> which uses the result of its previous
+ * layout as the starting point for the next one. This is intended for graphs
+ * which are rebuilt from a model after a small change, such as adding or
+ * removing a node, where laying out the whole graph again would move nodes
+ * which the change did not affect.
+ * <P>
+ * After each layout, the rank and the position within its rank of every node
+ * with a {@link Node#data data} object are remembered. When the next graph is
+ * laid out, the nodes are matched to the previous ones by their data objects
+ * using <code>equals()</code>, and:
+ * <UL>
+ * <LI>each matched node keeps its previous rank, unless an incoming edge
+ * requires it to be pushed further down. New nodes are given the minimum rank
+ * allowed by their edges. The ranking is not optimized further.
+ * <LI>matched nodes keep their previous relative order within their ranks.
+ * Crossing reduction only places new nodes and the virtual nodes of long edges
+ * among them. Ranks containing nodes with a
+ * {@link Node#setRowConstraint(int) row constraint} are ordered as usual.
+ * <LI>x coordinates are assigned by the regular horizontal placement, which
+ * reproduces the previous coordinates where the ranks and orders are
+ * unchanged.
+ * </UL>
+ * If none of the nodes match, or there is no previous layout, the graph is
+ * laid out from scratch exactly as with <code>DirectedGraphLayout</code>.
+ * 
+ * @since 3.11
+ */
+public class IncrementalDirectedGraphLayout extends DirectedGraphLayout {
+
+	/**
+	 * The rank and position of a node in a previous layout.
+	 */
+	static class Hint {
+		final int rank;
+		final int position;
+
+		Hint(int rank, int position) {
+			this.rank = rank;
+			this.position = position;
+		}
+	}
+
+	private Map hints;
+	private Map previous = new HashMap();
+	private List warmStartSteps;
+
+	void init() {
+		super.init();
+		hints = new IdentityHashMap();
+		warmStartSteps = new ArrayList();
+		warmStartSteps.add(new TransposeMetrics());
+		warmStartSteps.add(new BreakCycles());
+		warmStartSteps.add(new RouteEdges());
+		warmStartSteps.add(new WarmStartRankSolver(hints));
+		warmStartSteps.add(new PopulateRanks());
+		warmStartSteps.add(new VerticalPlacement());
+		warmStartSteps.add(new PinPreviousOrder(hints));
+		warmStartSteps.add(new MinCross());
+		warmStartSteps.add(new LocalOptimizer());
+		warmStartSteps.add(new HorizontalPlacement());
+	}
+
+	/**
+	 * Discards the remembered layout, so that the next graph is laid out from
+	 * scratch.
+	 */
+	public void clearPreviousLayout() {
+		previous.clear();
+	}
+
+	/**
+	 * Lays out the given graph, starting from the previous layout if any of
+	 * its nodes were laid out before.
+	 * 
+	 * @param graph
+	 *            the graph to layout
+	 */
+	public void visit(DirectedGraph graph) {
+		if (graph.nodes.isEmpty())
+			return;
+		for (int i = 0; i < graph.nodes.size(); i++) {
+			Node node = graph.nodes.getNode(i);
+			if (node.data != null) {
+				Hint hint = (Hint) previous.get(node.data);
+				if (hint != null)
+					hints.put(node, hint);
+			}
+		}
+		try {
+			visit(graph, hints.isEmpty() ? steps : warmStartSteps);
+		} finally {
+			hints.clear();
+		}
+
+		// positions are remembered in the coordinates used during the layout
+		boolean transposed = graph.getDirection() != PositionConstants.SOUTH;
+		previous.clear();
+		for (int i = 0; i < graph.nodes.size(); i++) {
+			Node node = graph.nodes.getNode(i);
+			if (node.data != null)
+				previous.put(node.data, new Hint(node.rank, transposed ? node.y
+						: node.x));
+		}
+	}
+
+}
@@ -105,7 +105,7 @@ class InitialRankSolver extends GraphVisitor {
 		}
 	}
 
-	private void assignMinimumRank(Node node) {
+	void assignMinimumRank(Node node) {
 		int rank = 0;
 		Edge e;
 		for (int i1 = 0; i1 < node.incoming.size(); i1++) {
@@ -0,0 +1,133 @@
+/*******************************************************************************
+ * Copyright (c) 2026 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.draw2d.graph;
+
+/**
+ * An event describing a single step of a {@link DirectedGraphLayout}. Each
+ * step of a layout is performed in two phases: it is first visited in order,
+ * and then revisited in reverse order to undo its temporary changes to the
+ * graph. An event is sent at the end of each phase.
+ * 
+ * @see LayoutStepListener
+ * @since 3.11
+ */
+public class LayoutStepEvent extends java.util.EventObject {
+
+	private final DirectedGraph graph;
+	private final String stepName;
+	private final boolean revisit;
+	private final long time;
+	private final int iterations;
+	private final int nodeCount;
+	private final int edgeCount;
+
+	/**
+	 * Constructs a new event.
+	 * 
+	 * @param source
+	 *            the layout performing the step
+	 * @param graph
+	 *            the graph being laid out
+	 * @param stepName
+	 *            the name of the step
+	 * @param revisit
+	 *            <code>true</code> if the step was revisited
+	 * @param time
+	 *            the time taken in milliseconds
+	 * @param iterations
+	 *            the number of iterations performed
+	 */
+	public LayoutStepEvent(DirectedGraphLayout source, DirectedGraph graph,
+			String stepName, boolean revisit, long time, int iterations) {
+		super(source);
+		this.graph = graph;
+		this.stepName = stepName;
+		this.revisit = revisit;
+		this.time = time;
+		this.iterations = iterations;
+		nodeCount = graph.nodes.size();
+		edgeCount = graph.edges.size();
+	}
+
+	/**
+	 * Returns the number of edges in the graph at the end of the step. This
+	 * includes edges added temporarily by the layout, such as the edges
+	 * between virtual nodes.
+	 * 
+	 * @return the number of edges
+	 */
+	public int getEdgeCount() {
+		return edgeCount;
+	}
+
+	/**
+	 * Returns the graph being laid out.
+	 * 
+	 * @return the graph
+	 */
+	public DirectedGraph getGraph() {
+		return graph;
+	}
+
+	/**
+	 * Returns the number of iterations performed by the step, or
+	 * <code>0</code> if the step does not iterate. This is the number of pivots
+	 * for the network simplex rank assignment, the number of passes up and down
+	 * the ranks for crossing reduction, and the number of swaps for the local
+	 * optimization of the node order.
+	 * 
+	 * @return the number of iterations
+	 */
+	public int getIterations() {
+		return iterations;
+	}
+
+	/**
+	 * Returns the number of nodes in the graph at the end of the step. This
+	 * includes nodes added temporarily by the layout, such as the virtual
+	 * nodes of edges which span several ranks.
+	 * 
+	 * @return the number of nodes
+	 */
+	public int getNodeCount() {
+		return nodeCount;
+	}
+
+	/**
+	 * Returns the name of the step, which is the unqualified name of the
+	 * class implementing it.
+	 * 
+	 * @return the name of the step
+	 */
+	public String getStepName() {
+		return stepName;
+	}
+
+	/**
+	 * Returns the time taken by the step in milliseconds.
+	 * 
+	 * @return the time taken
+	 */
+	public long getTime() {
+		return time;
+	}
+
+	/**
+	 * Returns <code>true</code> if the step was revisited, or
+	 * <code>false</code> if it was visited.
+	 * 
+	 * @return <code>true</code> for the revisit of a step
+	 */
+	public boolean isRevisit() {
+		return revisit;
+	}
+
+}
@@ -0,0 +1,31 @@
+/*******************************************************************************
+ * Copyright (c) 2026 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.draw2d.graph;
+
+/**
+ * A listener interface for observing the steps of a
+ * {@link DirectedGraphLayout}, for example to find out which step is the most
+ * expensive for a given graph.
+ * 
+ * @see DirectedGraphLayout#addStepListener(LayoutStepListener)
+ * @since 3.11
+ */
+public interface LayoutStepListener {
+
+	/**
+	 * Called when a step of the layout has been visited or revisited.
+	 * 
+	 * @param event
+	 *            the event describing the step
+	 */
+	void stepPerformed(LayoutStepEvent event);
+
+}
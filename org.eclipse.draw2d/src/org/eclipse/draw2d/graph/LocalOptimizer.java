@@ -103,6 +103,7 @@ class LocalOptimizer extends GraphVisitor {
 					Node nextNode = rank.getNode(n + 1);
 					if (shouldSwap(currentNode, nextNode)) {
 						swapNodes(currentNode, nextNode, rank);
+						iterations++;
 						flag = true;
 						n = Math.max(0, n - 2);
 					}
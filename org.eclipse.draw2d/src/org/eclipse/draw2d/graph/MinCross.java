@@ -40,6 +40,7 @@ class MinCross extends GraphVisitor {
 	void solve() {
 		Rank rank;
 		for (int loop = 0; loop < MAX; loop++) {
+			iterations++;
 			for (int row = 1; row < g.ranks.size(); row++) {
 				rank = g.ranks.getRank(row);
 				sorter.sortRankIncoming(g, rank, row, (double) loop / MAX);
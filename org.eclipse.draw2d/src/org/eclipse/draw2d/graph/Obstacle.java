@@ -26,6 +26,11 @@ import org.eclipse.draw2d.geometry.Rectangle;
 class Obstacle extends Rectangle {
 
 	boolean exclude;
+	/**
+	 * The sequence number given by the {@link ObstacleIndex} this obstacle was
+	 * added to.
+	 */
+	int order;
 	Vertex topLeft, topRight, bottomLeft, bottomRight, center;
 	private ShortestPathRouter router;
 
@@ -57,6 +62,17 @@ class Obstacle extends Rectangle {
 		return router.getSpacing();
 	}
 
+	/**
+	 * Returns the largest distance by which the vertices of this obstacle are
+	 * currently grown.
+	 * 
+	 * @return the growth of this obstacle
+	 */
+	int getGrowth() {
+		return Math.max(Math.max(topLeft.getGrowth(), topRight.getGrowth()),
+				Math.max(bottomLeft.getGrowth(), bottomRight.getGrowth()));
+	}
+
 	private void growVertex(Vertex vertex) {
 		if (vertex.totalCount > 0)
 			vertex.grow();
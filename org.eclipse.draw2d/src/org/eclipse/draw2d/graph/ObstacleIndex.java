@@ -0,0 +1,297 @@
+/*******************************************************************************
+ * Copyright (c) 2026 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.draw2d.graph;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.eclipse.draw2d.geometry.Point;
+import org.eclipse.draw2d.geometry.Rectangle;
+import org.eclipse.draw2d.internal.CellMap;
+
+/**
+ * A uniform grid over the bounds of the obstacles used by the
+ * {@link ShortestPathRouter}. The grid limits the obstacles tested against a
+ * segment or an area to those in the cells it passes through, so that the cost
+ * of these tests depends on the local density of obstacles rather than on
+ * their total number.
+ * <P>
+ * Queries return their candidates in no particular order. Every obstacle is
+ * given a sequence number when it is added, which follows the order of the
+ * router's list of obstacles. {@link #isBefore(Obstacle, Obstacle)} compares
+ * these numbers, so that callers can pick the same obstacle as a search of the
+ * whole list would have found first.
+ * <P>
+ * Obstacles spanning more than {@link #MAX_CELLS} cells, such as the widened
+ * neighbors used when routing the long edges of a {@link DirectedGraph}, are
+ * not put in the grid. They are kept in a separate list which is added to the
+ * result of every query. A query which would walk more cells than there are
+ * obstacles in the grid returns all obstacles instead, so that it never costs
+ * much more than a search of the whole list.
+ *
+ * @since 3.11
+ */
+class ObstacleIndex {
+
+	/**
+	 * The width and height of a grid cell.
+	 */
+	static final int CELL_SIZE = 64;
+
+	/**
+	 * The largest number of cells an obstacle is put in.
+	 */
+	static final int MAX_CELLS = 64;
+
+	private static class Entry {
+		final Obstacle obstacle;
+		int x1, y1, x2, y2;
+		int visit;
+		/** The position in the list of all obstacles. */
+		int index;
+		/** The position in the list of oversized obstacles, or -1. */
+		int oversizedIndex = -1;
+
+		Entry(Obstacle obstacle) {
+			this.obstacle = obstacle;
+		}
+	}
+
+	private final CellMap cells = new CellMap();
+	private final Map entries = new IdentityHashMap();
+	/** All obstacles, in no particular order. */
+	private final List obstacles = new ArrayList();
+	private final List oversized = new ArrayList();
+	private int nextOrder;
+	private int visit;
+	/**
+	 * The range of cells which have held an obstacle since the grid was last
+	 * empty.
+	 */
+	private int minCellX, minCellY, maxCellX, maxCellY;
+
+	/**
+	 * Adds the given obstacle to the index. The obstacle is ordered after all
+	 * obstacles already in the index.
+	 *
+	 * @param obs
+	 *            the obstacle
+	 */
+	void add(Obstacle obs) {
+		Entry entry = new Entry(obs);
+		obs.order = nextOrder++;
+		entries.put(obs, entry);
+		entry.index = obstacles.size();
+		obstacles.add(obs);
+		entry.x1 = toCell(obs.x);
+		entry.y1 = toCell(obs.y);
+		entry.x2 = toCell(obs.right());
+		entry.y2 = toCell(obs.bottom());
+		long cellCount = (long) (entry.x2 - entry.x1 + 1)
+				* (entry.y2 - entry.y1 + 1);
+		if (cellCount > MAX_CELLS) {
+			entry.oversizedIndex = oversized.size();
+			oversized.add(obs);
+			return;
+		}
+		if (cells.size() == 0) {
+			minCellX = entry.x1;
+			minCellY = entry.y1;
+			maxCellX = entry.x2;
+			maxCellY = entry.y2;
+		} else {
+			minCellX = Math.min(minCellX, entry.x1);
+			minCellY = Math.min(minCellY, entry.y1);
+			maxCellX = Math.max(maxCellX, entry.x2);
+			maxCellY = Math.max(maxCellY, entry.y2);
+		}
+		for (int cx = entry.x1; cx <= entry.x2; cx++)
+			for (int cy = entry.y1; cy <= entry.y2; cy++) {
+				List cell = (List) cells.get(cx, cy);
+				if (cell == null) {
+					cell = new ArrayList(4);
+					cells.put(cx, cy, cell);
+				}
+				cell.add(entry);
+			}
+	}
+
+	/**
+	 * Returns <code>true</code> if the first obstacle was added to the index
+	 * before the second one.
+	 *
+	 * @param obs1
+	 *            the first obstacle
+	 * @param obs2
+	 *            the second obstacle
+	 * @return <code>true</code> if the first obstacle comes first
+	 */
+	boolean isBefore(Obstacle obs1, Obstacle obs2) {
+		return obs1.order < obs2.order;
+	}
+
+	/**
+	 * Removes the given obstacle from the index. This takes constant time for
+	 * an oversized obstacle, and otherwise time in the order of the number of
+	 * obstacles in its cells.
+	 *
+	 * @param obs
+	 *            the obstacle
+	 */
+	void remove(Obstacle obs) {
+		Entry entry = (Entry) entries.remove(obs);
+		if (entry == null)
+			return;
+		Obstacle last = (Obstacle) obstacles.remove(obstacles.size() - 1);
+		if (last != obs) {
+			obstacles.set(entry.index, last);
+			((Entry) entries.get(last)).index = entry.index;
+		}
+		if (entry.oversizedIndex != -1) {
+			last = (Obstacle) oversized.remove(oversized.size() - 1);
+			if (last != obs) {
+				oversized.set(entry.oversizedIndex, last);
+				((Entry) entries.get(last)).oversizedIndex = entry.oversizedIndex;
+			}
+			return;
+		}
+		for (int cx = entry.x1; cx <= entry.x2; cx++)
+			for (int cy = entry.y1; cy <= entry.y2; cy++) {
+				List cell = (List) cells.get(cx, cy);
+				if (cell != null) {
+					cell.remove(entry);
+					if (cell.isEmpty())
+						cells.remove(cx, cy);
+				}
+			}
+	}
+
+	/**
+	 * Returns the obstacles which may contain either of the given points.
+	 *
+	 * @param p1
+	 *            the first point
+	 * @param p2
+	 *            the second point
+	 * @return the candidate obstacles
+	 */
+	List getObstaclesAt(Point p1, Point p2) {
+		if (isCheaperToSearchAll(2))
+			return obstacles;
+		visit++;
+		List result = new ArrayList(oversized);
+		collect(toCell(p1.x), toCell(p1.y), result);
+		collect(toCell(p2.x), toCell(p2.y), result);
+		return result;
+	}
+
+	/**
+	 * Returns the obstacles which may intersect the given rectangle.
+	 *
+	 * @param rect
+	 *            the rectangle
+	 * @return the candidate obstacles
+	 */
+	List getObstaclesIntersecting(Rectangle rect) {
+		int x1 = Math.max(toCell(rect.x), minCellX);
+		int y1 = Math.max(toCell(rect.y), minCellY);
+		int x2 = Math.min(toCell(rect.right()), maxCellX);
+		int y2 = Math.min(toCell(rect.bottom()), maxCellY);
+		long cellCount = (long) Math.max(0, x2 - x1 + 1)
+				* Math.max(0, y2 - y1 + 1);
+		if (isCheaperToSearchAll(cellCount))
+			return obstacles;
+		visit++;
+		List result = new ArrayList(oversized);
+		for (int cx = x1; cx <= x2; cx++)
+			for (int cy = y1; cy <= y2; cy++)
+				collect(cx, cy, result);
+		return result;
+	}
+
+	/**
+	 * Returns the obstacles which may come within the given distance of the
+	 * given segment. Only the cells crossed by the segment, widened by the
+	 * distance, are searched.
+	 *
+	 * @param segment
+	 *            the segment
+	 * @param distance
+	 *            the distance by which the segment is widened
+	 * @return the candidate obstacles
+	 */
+	List getObstaclesAlong(Segment segment, int distance) {
+		int sx = segment.start.x, sy = segment.start.y;
+		int ex = segment.end.x, ey = segment.end.y;
+		int minX = Math.min(sx, ex), maxX = Math.max(sx, ex);
+		// long segments, such as those to the vertices of oversized
+		// obstacles, are only walked within the cells holding obstacles
+		int x1 = Math.max(toCell(minX - distance), minCellX);
+		int x2 = Math.min(toCell(maxX + distance), maxCellX);
+		int rows = Math.min(toCell(Math.max(sy, ey) + distance), maxCellY)
+				- Math.max(toCell(Math.min(sy, ey) - distance), minCellY) + 1;
+		if (isCheaperToSearchAll(Math.max(0, x2 - x1 + 1) + Math.max(0, rows)))
+			return obstacles;
+		visit++;
+		List result = new ArrayList(oversized);
+		for (int cx = x1; cx <= x2; cx++) {
+			// the part of the segment within this column of cells
+			int left = Math.max(minX, cx * CELL_SIZE - distance);
+			int right = Math.min(maxX, (cx + 1) * CELL_SIZE - 1 + distance);
+			int top, bottom;
+			if (sx == ex) {
+				top = Math.min(sy, ey);
+				bottom = Math.max(sy, ey);
+			} else {
+				double slope = (double) (ey - sy) / (ex - sx);
+				double yLeft = sy + slope * (left - sx);
+				double yRight = sy + slope * (right - sx);
+				top = (int) Math.floor(Math.min(yLeft, yRight));
+				bottom = (int) Math.ceil(Math.max(yLeft, yRight));
+			}
+			int y1 = Math.max(toCell(top - distance), minCellY);
+			int y2 = Math.min(toCell(bottom + distance), maxCellY);
+			for (int cy = y1; cy <= y2; cy++)
+				collect(cx, cy, result);
+		}
+		return result;
+	}
+
+	/**
+	 * Returns <code>true</code> if walking the given number of cells would
+	 * cost more than searching all obstacles.
+	 */
+	private boolean isCheaperToSearchAll(long cellCount) {
+		return cellCount >= obstacles.size() - oversized.size();
+	}
+
+	private void collect(int cx, int cy, List result) {
+		List cell = (List) cells.get(cx, cy);
+		if (cell == null)
+			return;
+		for (int i = 0; i < cell.size(); i++) {
+			Entry entry = (Entry) cell.get(i);
+			if (entry.visit != visit) {
+				entry.visit = visit;
+				result.add(entry.obstacle);
+			}
+		}
+	}
+
+	private static int toCell(int coordinate) {
+		if (coordinate >= 0)
+			return coordinate / CELL_SIZE;
+		return (coordinate + 1) / CELL_SIZE - 1;
+	}
+
+}
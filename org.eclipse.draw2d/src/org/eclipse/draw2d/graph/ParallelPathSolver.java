@@ -0,0 +1,174 @@
+/*******************************************************************************
+ * Copyright (c) 2026 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.draw2d.graph;
+
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Solves the shortest paths of several {@link Path}s concurrently. The search
+ * for a path labels the vertices of the obstacles, so each thread works on its
+ * own copy of the obstacles. Once a path has been solved, its segments are
+ * mapped back onto the vertices of the original obstacles, which leaves the
+ * paths exactly as they would have been left by solving them one after the
+ * other.
+ *
+ * @since 3.11
+ */
+class ParallelPathSolver {
+
+	private final ShortestPathRouter router;
+	private final List obstacles;
+	private final List paths;
+	private int next;
+	private Throwable failure;
+
+	/**
+	 * Creates a new solver for the given paths.
+	 *
+	 * @param router
+	 *            the router which owns the obstacles
+	 * @param obstacles
+	 *            the obstacles to route around
+	 * @param paths
+	 *            the paths to solve
+	 */
+	ParallelPathSolver(ShortestPathRouter router, List obstacles, List paths) {
+		this.router = router;
+		this.obstacles = obstacles;
+		this.paths = paths;
+	}
+
+	/**
+	 * Solves all of the paths using the given number of threads, and returns
+	 * once every path has been solved. The excluded obstacles of every path
+	 * must have been refreshed beforehand.
+	 *
+	 * @param threadCount
+	 *            the number of threads to use
+	 */
+	void solve(int threadCount) {
+		Thread[] threads = new Thread[threadCount];
+		for (int i = 0; i < threadCount; i++) {
+			threads[i] = new Thread(new Worker(), "ShortestPathRouter solver " //$NON-NLS-1$
+					+ i);
+			threads[i].setDaemon(true);
+			threads[i].start();
+		}
+
+		boolean interrupted = false;
+		for (int i = 0; i < threadCount; i++) {
+			while (threads[i].isAlive()) {
+				try {
+					threads[i].join();
+				} catch (InterruptedException e) {
+					interrupted = true;
+				}
+			}
+		}
+		if (interrupted)
+			Thread.currentThread().interrupt();
+
+		if (failure instanceof RuntimeException)
+			throw (RuntimeException) failure;
+		if (failure instanceof Error)
+			throw (Error) failure;
+	}
+
+	private synchronized Path nextPath() {
+		if (failure != null || next == paths.size())
+			return null;
+		return (Path) paths.get(next++);
+	}
+
+	private synchronized void failed(Throwable t) {
+		if (failure == null)
+			failure = t;
+	}
+
+	/**
+	 * Solves paths with a private copy of the obstacles.
+	 */
+	private class Worker implements Runnable {
+
+		private final List copies = new ArrayList(obstacles.size());
+		private final ObstacleIndex index = new ObstacleIndex();
+		private final Map originals = new IdentityHashMap();
+		private final Map toCopies = new IdentityHashMap();
+
+		Worker() {
+			for (int i = 0; i < obstacles.size(); i++) {
+				Obstacle original = (Obstacle) obstacles.get(i);
+				Obstacle copy = new Obstacle(original, router);
+				copies.add(copy);
+				index.add(copy);
+				originals.put(copy, original);
+				toCopies.put(original, copy);
+			}
+		}
+
+		public void run() {
+			try {
+				Path path;
+				while ((path = nextPath()) != null) {
+					setExcluded(path, true);
+					ShortestPathRouter.solvePath(path, index);
+					setExcluded(path, false);
+					restoreOriginals(path);
+					for (int i = 0; i < copies.size(); i++)
+						((Obstacle) copies.get(i)).reset();
+				}
+			} catch (Throwable t) {
+				failed(t);
+			}
+		}
+
+		private void restoreOriginals(Path path) {
+			for (int i = 0; i < path.segments.size(); i++) {
+				Segment segment = (Segment) path.segments.get(i);
+				segment.start = toOriginal(segment.start);
+				segment.end = toOriginal(segment.end);
+			}
+			List visible = new ArrayList(path.visibleObstacles);
+			path.visibleObstacles.clear();
+			for (int i = 0; i < visible.size(); i++)
+				path.visibleObstacles.add(originals.get(visible.get(i)));
+			path.visibleVertices.clear();
+		}
+
+		private void setExcluded(Path path, boolean exclude) {
+			for (int i = 0; i < path.excludedObstacles.size(); i++) {
+				Obstacle copy = (Obstacle) toCopies.get(path.excludedObstacles
+						.get(i));
+				copy.exclude = exclude;
+			}
+		}
+
+		private Vertex toOriginal(Vertex vertex) {
+			Obstacle original = (Obstacle) originals.get(vertex.obs);
+			if (original == null)
+				return vertex;
+			Obstacle copy = vertex.obs;
+			if (vertex == copy.topLeft)
+				return original.topLeft;
+			if (vertex == copy.topRight)
+				return original.topRight;
+			if (vertex == copy.bottomLeft)
+				return original.bottomLeft;
+			if (vertex == copy.bottomRight)
+				return original.bottomRight;
+			return original.center;
+		}
+	}
+
+}
@@ -86,6 +86,12 @@ public class Path {
 	List segments;
 
 	private SegmentStack stack;
+	/**
+	 * The segments which were skipped because they were outside of the
+	 * threshold oval. They are kept so that the visibility graph can be
+	 * completed if the bounded search fails.
+	 */
+	private SegmentStack deferredSegments;
 	Vertex start, end;
 	private Path subPath;
 	double threshold;
@@ -103,6 +109,7 @@ public class Path {
 		points = new PointList();
 		visibleVertices = new HashSet();
 		stack = new SegmentStack();
+		deferredSegments = new SegmentStack();
 		visibleObstacles = new HashSet();
 		excludedObstacles = new ArrayList();
 	}
@@ -211,12 +218,6 @@ public class Path {
 	 */
 	private void addConnectingSegment(Segment segment, Obstacle o1,
 			Obstacle o2, boolean checkTopRight1, boolean checkTopRight2) {
-		if (threshold != 0
-				&& (segment.end.getDistance(end)
-						+ segment.end.getDistance(start) > threshold || segment.start
-						.getDistance(end) + segment.start.getDistance(start) > threshold))
-			return;
-
 		if (o2.containsProper(segment.start) || o1.containsProper(segment.end))
 			return;
 
@@ -237,6 +238,13 @@ public class Path {
 						o2.bottom() - 1))
 			return;
 
+		if (isOutsideThreshold(segment)) {
+			deferredSegments.push(o1);
+			deferredSegments.push(o2);
+			deferredSegments.push(segment);
+			return;
+		}
+
 		stack.push(o1);
 		stack.push(o2);
 		stack.push(segment);
@@ -299,36 +307,42 @@ public class Path {
 	 *            an obstacle to exclude from the search
 	 * @param exclude2
 	 *            another obstacle to exclude from the search
-	 * @param allObstacles
-	 *            the list of all obstacles
+	 * @param obstacles
+	 *            the index of all obstacles
 	 */
 	private void addSegment(Segment segment, Obstacle exclude1,
-			Obstacle exclude2, List allObstacles) {
-		if (threshold != 0
-				&& (segment.end.getDistance(end)
-						+ segment.end.getDistance(start) > threshold || segment.start
-						.getDistance(end) + segment.start.getDistance(start) > threshold))
+			Obstacle exclude2, ObstacleIndex obstacles) {
+		if (isOutsideThreshold(segment)) {
+			deferredSegments.push(exclude2);
+			deferredSegments.push(exclude1);
+			deferredSegments.push(segment);
 			return;
+		}
 
-		for (int i = 0; i < allObstacles.size(); i++) {
-			Obstacle obs = (Obstacle) allObstacles.get(i);
+		// find the first intersecting obstacle in the order they were added
+		Obstacle first = null;
+		List candidates = obstacles.getObstaclesAlong(segment, 1);
+		for (int i = 0; i < candidates.size(); i++) {
+			Obstacle obs = (Obstacle) candidates.get(i);
 
 			if (obs == exclude1 || obs == exclude2 || obs.exclude)
 				continue;
+			if (first != null && !obstacles.isBefore(obs, first))
+				continue;
 
 			if (segment.intersects(obs.x, obs.y, obs.right() - 1,
 					obs.bottom() - 1)
 					|| segment.intersects(obs.x, obs.bottom() - 1,
 							obs.right() - 1, obs.y)
 					|| obs.containsProper(segment.start)
-					|| obs.containsProper(segment.end)) {
-				if (!visibleObstacles.contains(obs))
-					addObstacle(obs);
-				return;
-			}
+					|| obs.containsProper(segment.end))
+				first = obs;
 		}
 
-		linkVertices(segment);
+		if (first == null)
+			linkVertices(segment);
+		else if (!visibleObstacles.contains(first))
+			addObstacle(first);
 	}
 
 	/**
@@ -525,17 +539,17 @@ public class Path {
 	/**
 	 * Begins the creation of the visibility graph with the first segment
 	 * 
-	 * @param allObstacles
-	 *            list of all obstacles
+	 * @param obstacles
+	 *            the index of all obstacles
 	 */
-	private void createVisibilityGraph(List allObstacles) {
+	private void createVisibilityGraph(ObstacleIndex obstacles) {
 		stack.push(null);
 		stack.push(null);
 		stack.push(new Segment(start, end));
 
 		while (!stack.isEmpty())
 			addSegment(stack.pop(), stack.popObstacle(), stack.popObstacle(),
-					allObstacles);
+					obstacles);
 	}
 
 	/**
@@ -571,6 +585,7 @@ public class Path {
 	void fullReset() {
 		visibleVertices.clear();
 		segments.clear();
+		deferredSegments.clear();
 		if (prevCostRatio == 0) {
 			double distance = start.getDistance(end);
 			threshold = distance * OVAL_CONSTANT;
@@ -584,12 +599,49 @@ public class Path {
 	 * Creates the visibility graph and returns whether or not a shortest path
 	 * could be determined.
 	 * 
-	 * @param allObstacles
-	 *            the list of all obstacles
+	 * @param obstacles
+	 *            the index of all obstacles
+	 * @return true if a shortest path was found
+	 */
+	boolean generateShortestPath(ObstacleIndex obstacles) {
+		createVisibilityGraph(obstacles);
+
+		if (visibleVertices.size() == 0)
+			return false;
+
+		return determineShortestPath();
+	}
+
+	/**
+	 * Completes the visibility graph created by a bounded call to
+	 * {@link #generateShortestPath(ObstacleIndex)} and searches it again without a
+	 * threshold. The part of the graph which was already built is reused;
+	 * only the segments which were skipped for being outside of the threshold
+	 * are added. Returns whether or not a shortest path could be determined.
+	 * 
+	 * @param obstacles
+	 *            the index of all obstacles
 	 * @return true if a shortest path was found
 	 */
-	boolean generateShortestPath(List allObstacles) {
-		createVisibilityGraph(allObstacles);
+	boolean resumeShortestPath(ObstacleIndex obstacles) {
+		threshold = 0;
+		segments.clear();
+		start.resetLabel();
+		end.resetLabel();
+		Iterator iter = visibleObstacles.iterator();
+		while (iter.hasNext()) {
+			Obstacle obs = (Obstacle) iter.next();
+			obs.topLeft.resetLabel();
+			obs.topRight.resetLabel();
+			obs.bottomLeft.resetLabel();
+			obs.bottomRight.resetLabel();
+		}
+
+		stack.addAll(deferredSegments);
+		deferredSegments.clear();
+		while (!stack.isEmpty())
+			addSegment(stack.pop(), stack.popObstacle(), stack.popObstacle(),
+					obstacles);
 
 		if (visibleVertices.size() == 0)
 			return false;
@@ -676,6 +728,20 @@ public class Path {
 		}
 	}
 
+	/**
+	 * Returns true if the given segment lies outside of the threshold oval.
+	 * 
+	 * @param segment
+	 *            the segment
+	 * @return true if the segment is outside of the threshold
+	 */
+	private boolean isOutsideThreshold(Segment segment) {
+		return threshold != 0
+				&& (segment.end.getDistance(end)
+						+ segment.end.getDistance(start) > threshold || segment.start
+						.getDistance(end) + segment.start.getDistance(start) > threshold);
+	}
+
 	/**
 	 * Returns true if this obstacle is in the visibility graph
 	 * 
@@ -688,50 +754,48 @@ public class Path {
 	}
 
 	/**
-	 * Labels the visibility graph to assist in finding the shortest path
+	 * Labels the visibility graph to assist in finding the shortest path. The
+	 * vertices are visited in order of their cost using a priority queue, and
+	 * the labeling stops as soon as the end vertex has been reached.
 	 * 
 	 * @return false if there was a gap in the visibility graph
 	 */
 	private boolean labelGraph() {
-		int numPermanentNodes = 1;
 		Vertex vertex = start;
 		Vertex neighborVertex = null;
 		vertex.isPermanent = true;
 		double newCost;
-		while (numPermanentNodes != visibleVertices.size()) {
-			List neighbors = vertex.neighbors;
-			if (neighbors == null)
-				return false;
-			// label neighbors if they have a new shortest path
-			for (int i = 0; i < neighbors.size(); i++) {
-				neighborVertex = (Vertex) neighbors.get(i);
-				if (!neighborVertex.isPermanent) {
-					newCost = vertex.cost + vertex.getDistance(neighborVertex);
-					if (neighborVertex.label == null) {
-						neighborVertex.label = vertex;
-						neighborVertex.cost = newCost;
-					} else if (neighborVertex.cost > newCost) {
-						neighborVertex.label = vertex;
-						neighborVertex.cost = newCost;
+		VertexHeap queue = new VertexHeap();
+		try {
+			while (vertex != end) {
+				List neighbors = vertex.neighbors;
+				if (neighbors == null)
+					return false;
+				// label neighbors if they have a new shortest path
+				for (int i = 0; i < neighbors.size(); i++) {
+					neighborVertex = (Vertex) neighbors.get(i);
+					if (!neighborVertex.isPermanent) {
+						newCost = vertex.cost
+								+ vertex.getDistance(neighborVertex);
+						if (neighborVertex.label == null) {
+							neighborVertex.label = vertex;
+							neighborVertex.cost = newCost;
+							queue.push(neighborVertex);
+						} else if (neighborVertex.cost > newCost) {
+							neighborVertex.label = vertex;
+							neighborVertex.cost = newCost;
+							queue.decreased(neighborVertex);
+						}
 					}
 				}
+				if (queue.isEmpty())
+					break;
+				// the next none-permanent, labeled vertex with smallest cost
+				vertex = queue.pop();
+				vertex.isPermanent = true;
 			}
-			// find the next none-permanent, labeled vertex with smallest cost
-			double smallestCost = 0;
-			Vertex tempVertex = null;
-			Iterator v = visibleVertices.iterator();
-			while (v.hasNext()) {
-				tempVertex = (Vertex) v.next();
-				if (!tempVertex.isPermanent
-						&& tempVertex.label != null
-						&& (tempVertex.cost < smallestCost || smallestCost == 0)) {
-					smallestCost = tempVertex.cost;
-					vertex = tempVertex;
-				}
-			}
-			// set the new vertex to permanent.
-			vertex.isPermanent = true;
-			numPermanentNodes++;
+		} finally {
+			queue.clear();
 		}
 		return true;
 	}
@@ -784,22 +848,24 @@ public class Path {
 	}
 
 	/**
-	 * Refreshes the exclude field on the obstacles in the list. Excludes all
-	 * obstacles that contain the start or end point for this path.
+	 * Refreshes the list of excluded obstacles. Excludes all obstacles that
+	 * contain the start or end point for this path. The exclude field of the
+	 * obstacles is not changed.
 	 * 
-	 * @param allObstacles
-	 *            list of all obstacles
+	 * @param obstacles
+	 *            the index of all obstacles
 	 */
-	void refreshExcludedObstacles(List allObstacles) {
+	void refreshExcludedObstacles(ObstacleIndex obstacles) {
 		excludedObstacles.clear();
 
-		for (int i = 0; i < allObstacles.size(); i++) {
-			Obstacle o = (Obstacle) allObstacles.get(i);
-			o.exclude = false;
+		List candidates = obstacles.getObstaclesAt(start, end);
+		for (int i = 0; i < candidates.size(); i++) {
+			Obstacle o = (Obstacle) candidates.get(i);
+			boolean exclude = false;
 
 			if (o.contains(start)) {
 				if (o.containsProper(start))
-					o.exclude = true;
+					exclude = true;
 				else {
 					/*
 					 * $TODO Check for corners. If the path begins exactly at
@@ -814,13 +880,13 @@ public class Path {
 
 			if (o.contains(end)) {
 				if (o.containsProper(end))
-					o.exclude = true;
+					exclude = true;
 				else {
 					// check for corners. See above statement.
 				}
 			}
 
-			if (o.exclude && !excludedObstacles.contains(o))
+			if (exclude && !excludedObstacles.contains(o))
 				excludedObstacles.add(o);
 		}
 	}
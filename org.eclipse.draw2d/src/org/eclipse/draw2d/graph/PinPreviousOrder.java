@@ -0,0 +1,70 @@
+/*******************************************************************************
+ * Copyright (c) 2026 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.draw2d.graph;
+
+import java.util.Map;
+
+/**
+ * Keeps the nodes of each rank in the order they had in a previous layout. The
+ * order is enforced by temporarily giving each node which was laid out before a
+ * row constraint equal to its previous position, so that crossing reduction
+ * only places the new and virtual nodes among them. Ranks which contain
+ * constraints set by the client are left alone.
+ * 
+ * @since 3.11
+ */
+class PinPreviousOrder extends GraphVisitor {
+
+	private final Map hints;
+	private NodeList pinned = new NodeList();
+
+	/**
+	 * Creates a new visitor.
+	 * 
+	 * @param hints
+	 *            maps each node which was laid out before to its
+	 *            {@link IncrementalDirectedGraphLayout.Hint}
+	 */
+	PinPreviousOrder(Map hints) {
+		this.hints = hints;
+	}
+
+	private boolean hasConstraints(Rank rank) {
+		for (int i = 0; i < rank.count(); i++)
+			if (rank.getNode(i).rowOrder != -1)
+				return true;
+		return false;
+	}
+
+	public void visit(DirectedGraph g) {
+		for (int r = 0; r < g.ranks.size(); r++) {
+			Rank rank = g.ranks.getRank(r);
+			if (hasConstraints(rank))
+				continue;
+			for (int i = 0; i < rank.count(); i++) {
+				Node node = rank.getNode(i);
+				IncrementalDirectedGraphLayout.Hint hint = (IncrementalDirectedGraphLayout.Hint) hints
+						.get(node);
+				if (hint != null) {
+					node.rowOrder = hint.position;
+					pinned.add(node);
+				}
+			}
+		}
+	}
+
+	public void revisit(DirectedGraph g) {
+		for (int i = 0; i < pinned.size(); i++)
+			pinned.getNode(i).rowOrder = -1;
+		pinned.clear();
+	}
+
+}
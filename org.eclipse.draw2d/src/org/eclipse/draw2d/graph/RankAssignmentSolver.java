@@ -16,19 +16,43 @@ import java.util.Stack;
 /**
  * Assigns the final rank assignment for a DirectedGraph with an initial
  * feasible spanning tree.
+ * <P>
+ * The network simplex method is used. The nodes of the spanning tree are
+ * numbered in postorder, so that each node records the range of numbers in its
+ * subtree, which makes testing whether a node lies in a subtree a constant-time
+ * operation. The tree edge leaving the tree is found by a cyclic search which
+ * resumes where the previous search stopped, and the cut values are updated
+ * only along the cycle formed by the entering edge. The number of iterations
+ * and the time spent may be limited on the graph.
  * 
  * @author Randy Hudson
  * @since 2.1.2
  */
 class RankAssignmentSolver extends SpanningTreeVisitor {
 
+	/**
+	 * The number of tree edges with a negative cut value examined when
+	 * searching for the edge to leave the tree.
+	 */
+	static final int SEARCH_SIZE = 30;
+
 	DirectedGraph graph;
-	EdgeList spanningTree;
-	boolean searchDirection;
+	private Edge treeEdges[];
+	private int treeEdgeCount;
+	private int searchIndex;
+	private int leaveIndex;
+	private Node nodeStack[];
+	private int indexStack[];
 
-	int depthFirstCutValue(Edge edge, int count) {
+	/**
+	 * Computes the cut value of the given tree edge from the edges of its tail,
+	 * whose other tree edges must already have correct cut values.
+	 * 
+	 * @param edge
+	 *            the tree edge
+	 */
+	void computeCutValue(Edge edge) {
 		Node n = getTreeTail(edge);
-		setTreeMin(n, count);
 		int cutvalue = 0;
 		int multiplier = (edge.target == n) ? 1 : -1;
 		EdgeList list;
@@ -37,63 +61,51 @@ class RankAssignmentSolver extends SpanningTreeVisitor {
 		Edge e;
 		for (int i = 0; i < list.size(); i++) {
 			e = list.getEdge(i);
-			if (e.tree && e != edge) {
-				count = depthFirstCutValue(e, count);
+			if (e.tree && e != edge)
 				cutvalue += (e.cut - e.weight) * multiplier;
-			} else {
+			else
 				cutvalue -= e.weight * multiplier;
-			}
 		}
 		list = n.incoming;
 		for (int i = 0; i < list.size(); i++) {
 			e = list.getEdge(i);
-			if (e.tree && e != edge) {
-				count = depthFirstCutValue(e, count);
+			if (e.tree && e != edge)
 				cutvalue -= (e.cut - e.weight) * multiplier;
-			} else {
+			else
 				cutvalue += e.weight * multiplier;
-			}
 		}
-
 		edge.cut = cutvalue;
-		if (cutvalue < 0)
-			spanningTree.add(edge);
-		setTreeMax(n, count);
-		return count + 1;
 	}
 
 	/**
-	 * returns the Edge which should be entered.
+	 * Returns the non-tree edge with the least slack which connects the
+	 * subtree rooted at the given node to the rest of the tree, in the
+	 * direction opposite to the subtree's parent edge.
 	 * 
 	 * @param branch
-	 * @return Edge
+	 *            the root of the subtree
+	 * @return the edge to enter the tree
 	 */
 	Edge enter(Node branch) {
-		Node n;
 		Edge result = null;
 		int minSlack = Integer.MAX_VALUE;
 		boolean incoming = getParentEdge(branch).target != branch;
-		// searchDirection = !searchDirection;
-		for (int i = 0; i < graph.nodes.size(); i++) {
-			if (searchDirection)
-				n = graph.nodes.getNode(i);
-			else
-				n = graph.nodes.getNode(graph.nodes.size() - 1 - i);
-			if (subtreeContains(branch, n)) {
-				EdgeList edges;
-				if (incoming)
-					edges = n.incoming;
-				else
-					edges = n.outgoing;
-				for (int j = 0; j < edges.size(); j++) {
-					Edge e = edges.getEdge(j);
-					if (!subtreeContains(branch, e.opposite(n)) && !e.tree
-							&& e.getSlack() < minSlack) {
-						result = e;
-						minSlack = e.getSlack();
-					}
+		int top = 0;
+		nodeStack[0] = branch;
+		while (top >= 0 && minSlack > 0) {
+			Node n = nodeStack[top--];
+			EdgeList edges = incoming ? n.incoming : n.outgoing;
+			for (int j = 0; j < edges.size(); j++) {
+				Edge e = edges.getEdge(j);
+				if (!e.tree && e.getSlack() < minSlack
+						&& !subtreeContains(branch, e.opposite(n))) {
+					result = e;
+					minSlack = e.getSlack();
 				}
 			}
+			EdgeList children = getSpanningTreeChildren(n);
+			for (int j = 0; j < children.size(); j++)
+				nodeStack[++top] = children.getEdge(j).opposite(n);
 		}
 		return result;
 	}
@@ -108,50 +120,81 @@ class RankAssignmentSolver extends SpanningTreeVisitor {
 
 	void initCutValues() {
 		Node root = graph.nodes.getNode(0);
-		spanningTree = new EdgeList();
-		Edge e;
-		setTreeMin(root, 1);
-		setTreeMax(root, 1);
-
-		for (int i = 0; i < root.outgoing.size(); i++) {
-			e = root.outgoing.getEdge(i);
-			if (!getSpanningTreeChildren(root).contains(e))
-				continue;
-			setTreeMax(root, depthFirstCutValue(e, getTreeMax(root)));
-		}
-		for (int i = 0; i < root.incoming.size(); i++) {
-			e = root.incoming.getEdge(i);
-			if (!getSpanningTreeChildren(root).contains(e))
-				continue;
-			setTreeMax(root, depthFirstCutValue(e, getTreeMax(root)));
+		nodeStack = new Node[graph.nodes.size()];
+		indexStack = new int[graph.nodes.size()];
+		treeEdges = new Edge[graph.nodes.size()];
+		treeEdgeCount = 0;
+		searchIndex = 0;
+
+		// A postorder traversal, so that the cut values of the edges below a
+		// node are known when the cut value of its parent edge is computed
+		int count = 1;
+		int top = 0;
+		nodeStack[0] = root;
+		indexStack[0] = 0;
+		setTreeMin(root, count);
+		while (top >= 0) {
+			Node n = nodeStack[top];
+			EdgeList children = getSpanningTreeChildren(n);
+			int i = indexStack[top];
+			if (i < children.size()) {
+				indexStack[top]++;
+				Node child = children.getEdge(i).opposite(n);
+				setTreeMin(child, count);
+				nodeStack[++top] = child;
+				indexStack[top] = 0;
+			} else {
+				setTreeMax(n, count++);
+				Edge parent = getParentEdge(n);
+				if (parent != null) {
+					computeCutValue(parent);
+					treeEdges[treeEdgeCount++] = parent;
+				}
+				top--;
+			}
 		}
 	}
 
+	/**
+	 * Returns the tree edge to leave the tree, or <code>null</code> if no tree
+	 * edge has a negative cut value. The search resumes after the edge where
+	 * the previous search stopped, and returns the most negative of the first
+	 * {@link #SEARCH_SIZE} candidates found.
+	 * 
+	 * @return the edge to leave the tree
+	 */
 	Edge leave() {
 		Edge result = null;
-		Edge e;
-		int minCut = 0;
-		int weight = -1;
-		for (int i = 0; i < spanningTree.size(); i++) {
-			e = spanningTree.getEdge(i);
-			if (e.cut < minCut) {
-				result = e;
-				minCut = result.cut;
-				weight = result.weight;
-			} else if (e.cut == minCut && e.weight > weight) {
-				result = e;
-				weight = result.weight;
+		int found = 0;
+		int i = searchIndex;
+		for (int n = 0; n < treeEdgeCount; n++) {
+			Edge e = treeEdges[i];
+			if (e.cut < 0) {
+				if (result == null || e.cut < result.cut) {
+					result = e;
+					leaveIndex = i;
+				}
+				if (++found == SEARCH_SIZE)
+					break;
 			}
+			if (++i == treeEdgeCount)
+				i = 0;
 		}
+		searchIndex = i;
 		return result;
 	}
 
 	void networkSimplexLoop() {
+		int limit = graph.getSimplexIterationLimit();
+		long deadline = Long.MAX_VALUE;
+		if (graph.getSimplexTimeLimit() > 0)
+			deadline = System.currentTimeMillis()
+					+ graph.getSimplexTimeLimit();
 		Edge leave, enter;
-		int count = 0;
-		while ((leave = leave()) != null && count < 900) {
-
-			count++;
+		while ((leave = leave()) != null) {
+			if ((limit > 0 && iterations >= limit)
+					|| System.currentTimeMillis() > deadline)
+				break;
 
 			Node leaveTail = getTreeTail(leave);
 			Node leaveHead = getTreeHead(leave);
@@ -159,12 +202,7 @@ class RankAssignmentSolver extends SpanningTreeVisitor {
 			enter = enter(leaveTail);
 			if (enter == null)
 				break;
-
-			// Break the "leave" edge from the spanning tree
-			getSpanningTreeChildren(leaveHead).remove(leave);
-			setParentEdge(leaveTail, null);
-			leave.tree = false;
-			spanningTree.remove(leave);
+			iterations++;
 
 			Node enterTail = enter.source;
 			if (!subtreeContains(leaveTail, enterTail))
@@ -172,6 +210,23 @@ class RankAssignmentSolver extends SpanningTreeVisitor {
 				enterTail = enter.target;
 			Node enterHead = enter.opposite(enterTail);
 
+			tightenEdge(enter, leaveTail);
+
+			// Only the cut values of the tree edges on the cycle formed by the
+			// entering edge change
+			int cutvalue = leave.cut;
+			Node commonAncestor = updateCutValues(enter.source, enter.target,
+					cutvalue, true);
+			updateCutValues(enter.target, enter.source, cutvalue, false);
+			enter.cut = -cutvalue;
+			leave.cut = 0;
+			int low = getTreeMin(commonAncestor);
+
+			// Break the "leave" edge from the spanning tree
+			getSpanningTreeChildren(leaveHead).remove(leave);
+			setParentEdge(leaveTail, null);
+			leave.tree = false;
+
 			// Prepare enterTail by making it the root of its sub-tree
 			updateSubgraph(enterTail);
 
@@ -179,52 +234,13 @@ class RankAssignmentSolver extends SpanningTreeVisitor {
 			getSpanningTreeChildren(enterHead).add(enter);
 			setParentEdge(enterTail, enter);
 			enter.tree = true;
+			treeEdges[leaveIndex] = enter;
 
-			repairCutValues(enter);
-
-			Node commonAncestor = enterHead;
-
-			while (!subtreeContains(commonAncestor, leaveHead)) {
-				repairCutValues(getParentEdge(commonAncestor));
-				commonAncestor = getTreeParent(commonAncestor);
-			}
-			while (leaveHead != commonAncestor) {
-				repairCutValues(getParentEdge(leaveHead));
-				leaveHead = getTreeParent(leaveHead);
-			}
-			updateMinMax(commonAncestor, getTreeMin(commonAncestor));
-			tightenEdge(enter);
-		}
-	}
-
-	void repairCutValues(Edge edge) {
-		spanningTree.remove(edge);
-		Node n = getTreeTail(edge);
-		int cutvalue = 0;
-		int multiplier = (edge.target == n) ? 1 : -1;
-		EdgeList list;
-
-		list = n.outgoing;
-		Edge e;
-		for (int i = 0; i < list.size(); i++) {
-			e = list.getEdge(i);
-			if (e.tree && e != edge)
-				cutvalue += (e.cut - e.weight) * multiplier;
-			else
-				cutvalue -= e.weight * multiplier;
+			// Renumber the nodes whose subtrees have changed
+			invalidatePath(enterHead, commonAncestor);
+			invalidatePath(leaveHead, commonAncestor);
+			updateMinMax(commonAncestor, low);
 		}
-		list = n.incoming;
-		for (int i = 0; i < list.size(); i++) {
-			e = list.getEdge(i);
-			if (e.tree && e != edge)
-				cutvalue -= (e.cut - e.weight) * multiplier;
-			else
-				cutvalue += e.weight * multiplier;
-		}
-
-		edge.cut = cutvalue;
-		if (cutvalue < 0)
-			spanningTree.add(edge);
 	}
 
 	void setTreeMax(Node n, int value) {
@@ -240,38 +256,133 @@ class RankAssignmentSolver extends SpanningTreeVisitor {
 				&& child.workingInts[1] <= parent.workingInts[1];
 	}
 
-	void tightenEdge(Edge edge) {
-		Node tail = getTreeTail(edge);
+	/**
+	 * Makes the given edge tight by moving either the subtree rooted at the
+	 * given node or the rest of the tree, whichever has fewer nodes.
+	 * 
+	 * @param edge
+	 *            the edge to tighten
+	 * @param branch
+	 *            the root of a subtree containing one end of the edge
+	 */
+	void tightenEdge(Edge edge, Node branch) {
 		int delta = edge.getSlack();
-		if (tail == edge.target)
+		if (delta == 0)
+			return;
+		if (subtreeContains(branch, edge.target))
 			delta = -delta;
-		Node n;
-		for (int i = 0; i < graph.nodes.size(); i++) {
-			n = graph.nodes.getNode(i);
-			if (subtreeContains(tail, n))
-				n.rank += delta;
+		int size = getTreeMax(branch) - getTreeMin(branch) + 1;
+		if (size * 2 <= graph.nodes.size())
+			adjustRank(branch, null, delta);
+		else
+			adjustRank(graph.nodes.getNode(0), branch, -delta);
+	}
+
+	/**
+	 * Adjusts the rank of the nodes in the subtree rooted at the given node,
+	 * leaving out the subtree rooted at <code>exclude</code>.
+	 */
+	private void adjustRank(Node root, Node exclude, int delta) {
+		int top = 0;
+		nodeStack[0] = root;
+		while (top >= 0) {
+			Node n = nodeStack[top--];
+			n.rank += delta;
+			EdgeList children = getSpanningTreeChildren(n);
+			for (int i = 0; i < children.size(); i++) {
+				Node child = children.getEdge(i).opposite(n);
+				if (child != exclude)
+					nodeStack[++top] = child;
+			}
+		}
+	}
+
+	/**
+	 * Adds the cut value of the leaving edge to, or subtracts it from, the cut
+	 * values of the tree edges on the path from <code>v</code> up to the first
+	 * node whose subtree contains <code>w</code>, which is returned.
+	 */
+	private Node updateCutValues(Node v, Node w, int cutvalue, boolean dir) {
+		while (!subtreeContains(v, w)) {
+			Edge e = getParentEdge(v);
+			if ((v == e.source) == dir)
+				e.cut += cutvalue;
+			else
+				e.cut -= cutvalue;
+			v = e.opposite(v);
 		}
+		return v;
 	}
 
+	/**
+	 * Marks the numbering of the nodes on the tree path from the given node up
+	 * to the given ancestor as out of date.
+	 */
+	private void invalidatePath(Node node, Node ancestor) {
+		while (true) {
+			setTreeMin(node, -1);
+			if (node == ancestor)
+				return;
+			node = getTreeParent(node);
+		}
+	}
+
+	/**
+	 * Numbers the nodes in the subtree rooted at the given node in postorder,
+	 * starting from the given number. A child whose subtree already starts at
+	 * the right number is unchanged, so its subtree is skipped.
+	 * 
+	 * @param root
+	 *            the root of the subtree
+	 * @param count
+	 *            the first number
+	 * @return the number following the subtree
+	 */
 	int updateMinMax(Node root, int count) {
+		int top = 0;
+		nodeStack[0] = root;
+		indexStack[0] = 0;
 		setTreeMin(root, count);
-		EdgeList edges = getSpanningTreeChildren(root);
-		for (int i = 0; i < edges.size(); i++)
-			count = updateMinMax(getTreeTail(edges.getEdge(i)), count);
-		setTreeMax(root, count);
-		return count + 1;
+		while (top >= 0) {
+			Node n = nodeStack[top];
+			EdgeList children = getSpanningTreeChildren(n);
+			int i = indexStack[top];
+			if (i < children.size()) {
+				indexStack[top]++;
+				Node child = children.getEdge(i).opposite(n);
+				if (getTreeMin(child) == count) {
+					count = getTreeMax(child) + 1;
+					continue;
+				}
+				setTreeMin(child, count);
+				nodeStack[++top] = child;
+				indexStack[top] = 0;
+			} else {
+				setTreeMax(n, count++);
+				top--;
+			}
+		}
+		return count;
 	}
 
 	void updateSubgraph(Node root) {
-		Edge flip = getParentEdge(root);
-		if (flip != null) {
-			Node rootParent = getTreeParent(root);
-			getSpanningTreeChildren(rootParent).remove(flip);
-			updateSubgraph(rootParent);
-			setParentEdge(root, null);
-			setParentEdge(rootParent, flip);
-			repairCutValues(flip);
-			getSpanningTreeChildren(root).add(flip);
+		Edge flip;
+		Node child = null;
+		Edge childEdge = null;
+		// Reverse the parent edges on the path from root to the top of its
+		// sub-tree
+		while (root != null) {
+			flip = getParentEdge(root);
+			Node rootParent = flip == null ? null : getTreeParent(root);
+			if (flip != null)
+				getSpanningTreeChildren(rootParent).remove(flip);
+			setParentEdge(root, childEdge);
+			setTreeMin(root, -1);
+			if (childEdge != null)
+				getSpanningTreeChildren(child).add(childEdge);
+			child = root;
+			childEdge = flip;
+			root = rootParent;
 		}
 	}
 
@@ -289,6 +400,9 @@ class RankAssignmentSolver extends SpanningTreeVisitor {
 		NodeList tree = new NodeList();
 		graph.nodes.resetFlags();
 		graph.forestRoot.flag = true;
+		// tightenEdge() may have moved the forest root instead of a tree, and
+		// it must still have a valid rank when it is removed
+		graph.forestRoot.rank = 0;
 		EdgeList rootEdges = graph.forestRoot.outgoing;
 		Stack stack = new Stack();
 		for (int i = 0; i < rootEdges.size(); i++) {
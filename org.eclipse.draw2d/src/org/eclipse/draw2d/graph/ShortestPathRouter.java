@@ -64,8 +64,21 @@ public class ShortestPathRouter {
 	 */
 	private static final int NUM_GROW_PASSES = 2;
 
+	/**
+	 * The minimum number of dirty paths given to each thread when solving in
+	 * parallel. Smaller batches are solved on the calling thread.
+	 */
+	private static final int MIN_PATHS_PER_THREAD = 4;
+
 	private int spacing = 4;
+	private int solverThreads = 1;
 	private boolean growPassChangedObstacles;
+	/**
+	 * The largest distance by which a vertex has been grown during the current
+	 * grow pass.
+	 */
+	private int obstacleGrowth;
+	private ObstacleIndex obstacleIndex;
 	private List orderedPaths;
 	private Map pathsToChildPaths;
 
@@ -84,6 +97,7 @@ public class ShortestPathRouter {
 		workingPaths = new ArrayList();
 		pathsToChildPaths = new HashMap();
 		userObstacles = new ArrayList();
+		obstacleIndex = new ObstacleIndex();
 	}
 
 	/**
@@ -161,8 +175,9 @@ public class ShortestPathRouter {
 
 		int xDist, yDist;
 
-		for (int o = 0; o < userObstacles.size(); o++) {
-			Obstacle obs = (Obstacle) userObstacles.get(o);
+		List candidates = obstacleIndex.getObstaclesIntersecting(r);
+		for (int o = 0; o < candidates.size(); o++) {
+			Obstacle obs = (Obstacle) candidates.get(o);
 			if (obs != vertex.obs && r.intersects(obs)) {
 				int pos = obs.getPosition(vertex);
 				if (pos == 0)
@@ -295,6 +310,17 @@ public class ShortestPathRouter {
 		return spacing;
 	}
 
+	/**
+	 * Returns the number of threads used to solve dirty paths.
+	 * 
+	 * @return the number of solver threads
+	 * @see #setSolverThreads(int)
+	 * @since 3.11
+	 */
+	public int getSolverThreads() {
+		return solverThreads;
+	}
+
 	/**
 	 * Returns the subpath for a split on the given path at the given segment.
 	 * 
@@ -329,15 +355,18 @@ public class ShortestPathRouter {
 	 */
 	private void growObstaclesPass() {
 		// grow obstacles
-		for (int i = 0; i < userObstacles.size(); i++)
-			((Obstacle) userObstacles.get(i)).growVertices();
+		obstacleGrowth = 0;
+		for (int i = 0; i < userObstacles.size(); i++) {
+			Obstacle obs = (Obstacle) userObstacles.get(i);
+			obs.growVertices();
+			obstacleGrowth = Math.max(obstacleGrowth, obs.getGrowth());
+		}
 
 		// go through paths and test segments
 		for (int i = 0; i < workingPaths.size(); i++) {
 			Path path = (Path) workingPaths.get(i);
 
-			for (int e = 0; e < path.excludedObstacles.size(); e++)
-				((Obstacle) path.excludedObstacles.get(e)).exclude = true;
+			setExcluded(path, true);
 
 			if (path.grownSegments.size() == 0) {
 				for (int s = 0; s < path.segments.size(); s++)
@@ -351,8 +380,7 @@ public class ShortestPathRouter {
 							(Segment) currentSegments.get(s), s + counter, path);
 			}
 
-			for (int e = 0; e < path.excludedObstacles.size(); e++)
-				((Obstacle) path.excludedObstacles.get(e)).exclude = false;
+			setExcluded(path, false);
 
 		}
 
@@ -369,6 +397,7 @@ public class ShortestPathRouter {
 	 */
 	private boolean internalAddObstacle(Obstacle obs) {
 		userObstacles.add(obs);
+		obstacleIndex.add(obs);
 		return testAndDirtyPaths(obs);
 	}
 
@@ -391,6 +420,7 @@ public class ShortestPathRouter {
 		}
 
 		userObstacles.remove(index);
+		obstacleIndex.remove(obs);
 
 		boolean result = false;
 		result |= dirtyPathsOn(obs.bottomLeft);
@@ -638,14 +668,6 @@ public class ShortestPathRouter {
 		return true;
 	}
 
-	/**
-	 * Resets exclude field on all obstacles
-	 */
-	private void resetObstacleExclusions() {
-		for (int i = 0; i < userObstacles.size(); i++)
-			((Obstacle) userObstacles.get(i)).exclude = false;
-	}
-
 	/**
 	 * Resets all vertices found on paths and obstacles.
 	 */
@@ -661,6 +683,38 @@ public class ShortestPathRouter {
 		}
 	}
 
+	/**
+	 * Sets the exclude field on the obstacles excluded by the given path.
+	 * 
+	 * @param path
+	 *            the path
+	 * @param exclude
+	 *            the new value of the exclude field
+	 */
+	static void setExcluded(Path path, boolean exclude) {
+		for (int i = 0; i < path.excludedObstacles.size(); i++)
+			((Obstacle) path.excludedObstacles.get(i)).exclude = exclude;
+	}
+
+	/**
+	 * Sets the number of threads used to find the shortest path of each dirty
+	 * path during {@link #solve()}. The default value is 1, which solves all
+	 * paths on the calling thread. With a larger value, the dirty paths are
+	 * distributed among that many threads; the remaining steps of the solve,
+	 * which separate the paths from each other, are always performed on the
+	 * calling thread. The solution is identical for any number of threads.
+	 * 
+	 * @param count
+	 *            the number of solver threads
+	 * @since 3.11
+	 */
+	public void setSolverThreads(int count) {
+		if (count < 1)
+			throw new IllegalArgumentException(
+					"Solver thread count must be at least 1"); //$NON-NLS-1$
+		solverThreads = count;
+	}
+
 	/**
 	 * Sets the default spacing between paths. The spacing is the minimum
 	 * distance that path should be offset from other paths or obstacles. The
@@ -736,30 +790,41 @@ public class ShortestPathRouter {
 			refreshChildrenEndpoints(path, children);
 		}
 
+		int threadCount = 1;
+		if (solverThreads > 1) {
+			int numDirty = 0;
+			for (int i = 0; i < workingPaths.size(); i++)
+				if (((Path) workingPaths.get(i)).isDirty)
+					numDirty++;
+			threadCount = Math.min(solverThreads, numDirty
+					/ MIN_PATHS_PER_THREAD);
+		}
+
+		List dirtyPaths = new ArrayList();
 		for (int i = 0; i < workingPaths.size(); i++) {
 			Path path = (Path) workingPaths.get(i);
-			path.refreshExcludedObstacles(userObstacles);
+			path.refreshExcludedObstacles(obstacleIndex);
 			if (!path.isDirty) {
 				path.resetPartial();
 				continue;
 			}
 
 			numSolved++;
-			path.fullReset();
-
-			boolean pathFoundCheck = path.generateShortestPath(userObstacles);
-			if (!pathFoundCheck || path.end.cost > path.threshold) {
-				// path not found, or path found was too long
-				resetVertices();
-				path.fullReset();
-				path.threshold = 0;
-				pathFoundCheck = path.generateShortestPath(userObstacles);
+			if (threadCount > 1) {
+				dirtyPaths.add(path);
+				continue;
 			}
-
+			setExcluded(path, true);
+			solvePath(path, obstacleIndex);
+			setExcluded(path, false);
 			resetVertices();
 		}
 
-		resetObstacleExclusions();
+		if (!dirtyPaths.isEmpty()) {
+			new ParallelPathSolver(this, userObstacles, dirtyPaths)
+					.solve(threadCount);
+			resetVertices();
+		}
 
 		if (numSolved == 0)
 			resetVertices();
@@ -767,6 +832,24 @@ public class ShortestPathRouter {
 		return numSolved;
 	}
 
+	/**
+	 * Finds the shortest path for the given path around the given obstacles.
+	 * The search is first bounded by the path's threshold. If no path is
+	 * found, or the path found is too long, the search is repeated without a
+	 * threshold, reusing the graph built so far.
+	 * 
+	 * @param path
+	 *            the path to solve
+	 * @param obstacles
+	 *            the index of the obstacles, excluded as required by the path
+	 */
+	static void solvePath(Path path, ObstacleIndex obstacles) {
+		path.fullReset();
+		if (!path.generateShortestPath(obstacles)
+				|| path.end.cost > path.threshold)
+			path.resumeShortestPath(obstacles);
+	}
+
 	/**
 	 * @since 3.0
 	 * @param path
@@ -842,41 +925,52 @@ public class ShortestPathRouter {
 	 */
 	private int testOffsetSegmentForIntersections(Segment segment, int index,
 			Path path) {
-		for (int i = 0; i < userObstacles.size(); i++) {
-			Obstacle obs = (Obstacle) userObstacles.get(i);
+		// the grown vertices of an obstacle lie within its bounds expanded by
+		// the growth, and are tested with an additional offset
+		int offset = getSpacing();
+		List candidates = obstacleIndex.getObstaclesAlong(segment,
+				obstacleGrowth + offset + 1);
+
+		// find the first obstacle in the order they were added which
+		// intersects the segment
+		Obstacle first = null;
+		Vertex vertex = null;
+		for (int i = 0; i < candidates.size(); i++) {
+			Obstacle obs = (Obstacle) candidates.get(i);
 
 			if (segment.end.obs == obs || segment.start.obs == obs
 					|| obs.exclude)
 				continue;
-			Vertex vertex = null;
+			if (first != null && !obstacleIndex.isBefore(obs, first))
+				continue;
+			Vertex candidate = null;
 
-			int offset = getSpacing();
 			if (segment.getSlope() < 0) {
 				if (segment.intersects(obs.topLeft.x - offset, obs.topLeft.y
 						- offset, obs.bottomRight.x + offset, obs.bottomRight.y
 						+ offset))
-					vertex = getNearestVertex(obs.topLeft, obs.bottomRight,
+					candidate = getNearestVertex(obs.topLeft, obs.bottomRight,
 							segment);
 				else if (segment.intersects(obs.bottomLeft.x - offset,
 						obs.bottomLeft.y + offset, obs.topRight.x + offset,
 						obs.topRight.y - offset))
-					vertex = getNearestVertex(obs.bottomLeft, obs.topRight,
+					candidate = getNearestVertex(obs.bottomLeft, obs.topRight,
 							segment);
 			} else {
 				if (segment.intersects(obs.bottomLeft.x - offset,
 						obs.bottomLeft.y + offset, obs.topRight.x + offset,
 						obs.topRight.y - offset))
-					vertex = getNearestVertex(obs.bottomLeft, obs.topRight,
+					candidate = getNearestVertex(obs.bottomLeft, obs.topRight,
 							segment);
 				else if (segment.intersects(obs.topLeft.x - offset,
 						obs.topLeft.y - offset, obs.bottomRight.x + offset,
 						obs.bottomRight.y + offset))
-					vertex = getNearestVertex(obs.topLeft, obs.bottomRight,
+					candidate = getNearestVertex(obs.topLeft, obs.bottomRight,
 							segment);
 			}
 
-			if (vertex != null) {
-				Rectangle vRect = vertex.getDeformedRectangle(offset);
+			if (candidate != null) {
+				Rectangle vRect = candidate.getDeformedRectangle(offset);
 				if (segment.end.obs != null) {
 					Rectangle endRect = segment.end
 							.getDeformedRectangle(offset);
@@ -889,32 +983,37 @@ public class ShortestPathRouter {
 					if (vRect.intersects(startRect))
 						continue;
 				}
+				first = obs;
+				vertex = candidate;
+			}
+		}
 
-				Segment newSegmentStart = new Segment(segment.start, vertex);
-				Segment newSegmentEnd = new Segment(vertex, segment.end);
+		if (vertex != null) {
+			Segment newSegmentStart = new Segment(segment.start, vertex);
+			Segment newSegmentEnd = new Segment(vertex, segment.end);
 
-				vertex.totalCount++;
-				vertex.nearestObstacleChecked = false;
+			vertex.totalCount++;
+			vertex.nearestObstacleChecked = false;
 
-				vertex.shrink();
-				checkVertexForIntersections(vertex);
-				vertex.grow();
+			vertex.shrink();
+			checkVertexForIntersections(vertex);
+			vertex.grow();
+			obstacleGrowth = Math.max(obstacleGrowth, vertex.getGrowth());
 
-				if (vertex.nearestObstacle != 0)
-					vertex.updateOffset();
+			if (vertex.nearestObstacle != 0)
+				vertex.updateOffset();
 
-				growPassChangedObstacles = true;
+			growPassChangedObstacles = true;
 
-				if (index != -1) {
-					path.grownSegments.remove(segment);
-					path.grownSegments.add(index, newSegmentStart);
-					path.grownSegments.add(index + 1, newSegmentEnd);
-				} else {
-					path.grownSegments.add(newSegmentStart);
-					path.grownSegments.add(newSegmentEnd);
-				}
-				return 1;
+			if (index != -1) {
+				path.grownSegments.remove(segment);
+				path.grownSegments.add(index, newSegmentStart);
+				path.grownSegments.add(index + 1, newSegmentEnd);
+			} else {
+				path.grownSegments.add(newSegmentStart);
+				path.grownSegments.add(newSegmentEnd);
 			}
+			return 1;
 		}
 		if (index == -1)
 			path.grownSegments.add(segment);
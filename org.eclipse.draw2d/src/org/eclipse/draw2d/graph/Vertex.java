@@ -41,6 +41,7 @@ class Vertex extends Point {
 	boolean isPermanent = false;
 	Vertex label;
 	double cost = 0;
+	int heapIndex = -1;
 
 	// for routing
 	int nearestObstacle = 0;
@@ -185,6 +186,16 @@ class Vertex extends Point {
 		return obs.getSpacing();
 	}
 
+	/**
+	 * Returns the distance by which this vertex is currently moved away from
+	 * its original position.
+	 * 
+	 * @return the current growth
+	 */
+	int getGrowth() {
+		return Math.max(Math.abs(x - origX), Math.abs(y - origY));
+	}
+
 	/**
 	 * Grows this vertex by its offset to its maximum size.
 	 */
@@ -206,6 +217,16 @@ class Vertex extends Point {
 			x -= modifier;
 	}
 
+	/**
+	 * Resets the fields used for labeling the visibility graph, leaving the
+	 * graph itself intact.
+	 */
+	void resetLabel() {
+		label = null;
+		cost = 0;
+		isPermanent = false;
+	}
+
 	/**
 	 * Shrinks this vertex to its original size.
 	 */
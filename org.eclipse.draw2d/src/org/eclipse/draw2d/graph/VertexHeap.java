@@ -0,0 +1,124 @@
+/*******************************************************************************
+ * Copyright (c) 2026 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.draw2d.graph;
+
+/**
+ * A binary min-heap of vertices ordered by their cost, used as the priority
+ * queue when labeling the visibility graph of a {@link Path}. Each vertex
+ * records its position in the heap so that its cost can be decreased in
+ * logarithmic time.
+ *
+ * @since 3.11
+ */
+class VertexHeap {
+
+	private Vertex[] heap = new Vertex[16];
+	private int size;
+
+	/**
+	 * Removes all vertices from the heap.
+	 */
+	void clear() {
+		for (int i = 0; i < size; i++) {
+			heap[i].heapIndex = -1;
+			heap[i] = null;
+		}
+		size = 0;
+	}
+
+	/**
+	 * Restores the heap order after the cost of the given vertex, which must
+	 * be in the heap, has been decreased.
+	 *
+	 * @param vertex
+	 *            the vertex whose cost has decreased
+	 */
+	void decreased(Vertex vertex) {
+		siftUp(vertex.heapIndex);
+	}
+
+	/**
+	 * Returns <code>true</code> if the heap is empty.
+	 *
+	 * @return <code>true</code> if empty
+	 */
+	boolean isEmpty() {
+		return size == 0;
+	}
+
+	/**
+	 * Adds the given vertex to the heap.
+	 *
+	 * @param vertex
+	 *            the vertex
+	 */
+	void push(Vertex vertex) {
+		if (size == heap.length) {
+			Vertex[] grown = new Vertex[size * 2];
+			System.arraycopy(heap, 0, grown, 0, size);
+			heap = grown;
+		}
+		heap[size] = vertex;
+		vertex.heapIndex = size;
+		siftUp(size++);
+	}
+
+	/**
+	 * Removes and returns the vertex with the smallest cost.
+	 *
+	 * @return the vertex with the smallest cost
+	 */
+	Vertex pop() {
+		Vertex result = heap[0];
+		result.heapIndex = -1;
+		size--;
+		if (size > 0) {
+			heap[0] = heap[size];
+			heap[0].heapIndex = 0;
+			siftDown(0);
+		}
+		heap[size] = null;
+		return result;
+	}
+
+	private void siftDown(int index) {
+		Vertex vertex = heap[index];
+		while (true) {
+			int child = 2 * index + 1;
+			if (child >= size)
+				break;
+			if (child + 1 < size && heap[child + 1].cost < heap[child].cost)
+				child++;
+			if (heap[child].cost >= vertex.cost)
+				break;
+			heap[index] = heap[child];
+			heap[index].heapIndex = index;
+			index = child;
+		}
+		heap[index] = vertex;
+		vertex.heapIndex = index;
+	}
+
+	private void siftUp(int index) {
+		Vertex vertex = heap[index];
+		while (index > 0) {
+			int parent = (index - 1) / 2;
+			if (heap[parent].cost <= vertex.cost)
+				break;
+			heap[index] = heap[parent];
+			heap[index].heapIndex = index;
+			index = parent;
+		}
+		heap[index] = vertex;
+		vertex.heapIndex = index;
+	}
+
+}
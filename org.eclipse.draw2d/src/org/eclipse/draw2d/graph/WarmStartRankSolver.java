@@ -0,0 +1,76 @@
+/*******************************************************************************
+ * Copyright (c) 2026 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.draw2d.graph;
+
+import java.util.Map;
+
+/**
+ * Assigns ranks to the nodes of a graph using the ranks they had in a previous
+ * layout. A node keeps its previous rank unless one of its incoming edges
+ * requires it to be pushed further down, so only the nodes affected by a change
+ * to the graph are moved. Nodes without a previous rank are given the minimum
+ * rank allowed by their incoming edges or, if they have none, are placed just
+ * above their nearest successor.
+ * <P>
+ * The resulting ranking is feasible but is not optimized any further, as doing
+ * so would move nodes which are not affected by the change.
+ * 
+ * @since 3.11
+ */
+class WarmStartRankSolver extends InitialRankSolver {
+
+	private final Map hints;
+
+	/**
+	 * Creates a new solver.
+	 * 
+	 * @param hints
+	 *            maps each node which was laid out before to its
+	 *            {@link IncrementalDirectedGraphLayout.Hint}
+	 */
+	WarmStartRankSolver(Map hints) {
+		this.hints = hints;
+	}
+
+	public void visit(DirectedGraph graph) {
+		super.visit(graph);
+		// Nodes may have been removed from the top of the graph
+		int min = Integer.MAX_VALUE;
+		for (int i = 0; i < graph.nodes.size(); i++) {
+			Node node = graph.nodes.getNode(i);
+			if (node != graph.forestRoot)
+				min = Math.min(min, node.rank);
+		}
+		if (min > 0)
+			for (int i = 0; i < graph.nodes.size(); i++)
+				graph.nodes.getNode(i).rank -= min;
+	}
+
+	void assignMinimumRank(Node node) {
+		super.assignMinimumRank(node);
+		IncrementalDirectedGraphLayout.Hint hint = (IncrementalDirectedGraphLayout.Hint) hints
+				.get(node);
+		if (hint != null) {
+			node.rank = Math.max(node.rank, hint.rank);
+		} else if (node.incoming.isEmpty()) {
+			int rank = Integer.MAX_VALUE;
+			for (int i = 0; i < node.outgoing.size(); i++) {
+				Edge e = node.outgoing.getEdge(i);
+				hint = (IncrementalDirectedGraphLayout.Hint) hints.get(e.target);
+				if (hint != null)
+					rank = Math.min(rank, hint.rank - e.delta);
+			}
+			if (rank != Integer.MAX_VALUE)
+				node.rank = Math.max(0, rank);
+		}
+	}
+
+}
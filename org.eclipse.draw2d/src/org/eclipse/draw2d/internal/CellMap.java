@@ -0,0 +1,198 @@
+/*******************************************************************************
+ * Copyright (c) 2026 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.draw2d.internal;
+
+/**
+ * A map from the cells of a grid, given by their column and row, to values.
+ * The cells are kept in an open addressing table of primitive keys, so that
+ * looking up a cell does not allocate. The values must not be
+ * <code>null</code>.
+ * <P>
+ * The slots of the table may be walked with {@link #getCapacity()},
+ * {@link #getValueAt(int)}, {@link #getColumnAt(int)} and
+ * {@link #getRowAt(int)}. A slot whose value is <code>null</code> is empty.
+ */
+public class CellMap {
+
+	private long[] keys = new long[16];
+	private Object[] values = new Object[16];
+	private int size;
+
+	/**
+	 * Returns the value of the given cell, or <code>null</code> if it has
+	 * none.
+	 *
+	 * @param column
+	 *            the column of the cell
+	 * @param row
+	 *            the row of the cell
+	 * @return the value or <code>null</code>
+	 */
+	public Object get(int column, int row) {
+		long key = key(column, row);
+		int mask = keys.length - 1;
+		for (int i = hash(key) & mask; values[i] != null; i = (i + 1) & mask)
+			if (keys[i] == key)
+				return values[i];
+		return null;
+	}
+
+	/**
+	 * Sets the value of the given cell.
+	 *
+	 * @param column
+	 *            the column of the cell
+	 * @param row
+	 *            the row of the cell
+	 * @param value
+	 *            the value, which must not be <code>null</code>
+	 */
+	public void put(int column, int row, Object value) {
+		if (value == null)
+			throw new IllegalArgumentException();
+		long key = key(column, row);
+		int mask = keys.length - 1;
+		int i = hash(key) & mask;
+		for (; values[i] != null; i = (i + 1) & mask)
+			if (keys[i] == key) {
+				values[i] = value;
+				return;
+			}
+		keys[i] = key;
+		values[i] = value;
+		// keep the table at most half full
+		if (++size * 2 > keys.length)
+			grow();
+	}
+
+	/**
+	 * Removes the value of the given cell.
+	 *
+	 * @param column
+	 *            the column of the cell
+	 * @param row
+	 *            the row of the cell
+	 * @return the removed value or <code>null</code>
+	 */
+	public Object remove(int column, int row) {
+		long key = key(column, row);
+		int mask = keys.length - 1;
+		int i = hash(key) & mask;
+		while (values[i] != null && keys[i] != key)
+			i = (i + 1) & mask;
+		Object value = values[i];
+		if (value == null)
+			return null;
+		values[i] = null;
+		size--;
+		// move the following entries of the run back, so that no probe
+		// sequence goes through the emptied slot
+		for (int j = (i + 1) & mask; values[j] != null; j = (j + 1) & mask) {
+			int home = hash(keys[j]) & mask;
+			if (((j - home) & mask) >= ((j - i) & mask)) {
+				keys[i] = keys[j];
+				values[i] = values[j];
+				values[j] = null;
+				i = j;
+			}
+		}
+		return value;
+	}
+
+	/**
+	 * Removes all cells.
+	 */
+	public void clear() {
+		for (int i = 0; i < values.length; i++)
+			values[i] = null;
+		size = 0;
+	}
+
+	/**
+	 * Returns the number of cells which have a value.
+	 *
+	 * @return the number of cells
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * Returns the number of slots of the table.
+	 *
+	 * @return the number of slots
+	 */
+	public int getCapacity() {
+		return values.length;
+	}
+
+	/**
+	 * Returns the value in the given slot, or <code>null</code> if the slot is
+	 * empty.
+	 *
+	 * @param slot
+	 *            the slot
+	 * @return the value or <code>null</code>
+	 */
+	public Object getValueAt(int slot) {
+		return values[slot];
+	}
+
+	/**
+	 * Returns the column of the cell in the given slot, which must not be
+	 * empty.
+	 *
+	 * @param slot
+	 *            the slot
+	 * @return the column
+	 */
+	public int getColumnAt(int slot) {
+		return (int) (keys[slot] >> 32);
+	}
+
+	/**
+	 * Returns the row of the cell in the given slot, which must not be empty.
+	 *
+	 * @param slot
+	 *            the slot
+	 * @return the row
+	 */
+	public int getRowAt(int slot) {
+		return (int) keys[slot];
+	}
+
+	private void grow() {
+		long[] oldKeys = keys;
+		Object[] oldValues = values;
+		keys = new long[oldKeys.length * 2];
+		values = new Object[oldValues.length * 2];
+		int mask = keys.length - 1;
+		for (int j = 0; j < oldValues.length; j++) {
+			if (oldValues[j] == null)
+				continue;
+			int i = hash(oldKeys[j]) & mask;
+			while (values[i] != null)
+				i = (i + 1) & mask;
+			keys[i] = oldKeys[j];
+			values[i] = oldValues[j];
+		}
+	}
+
+	private static long key(int column, int row) {
+		return ((long) column << 32) | (row & 0xFFFFFFFFL);
+	}
+
+	private static int hash(long key) {
+		long h = key * 0x9E3779B97F4A7C15L;
+		return (int) (h ^ (h >>> 32));
+	}
+
+}
@@ -0,0 +1,319 @@
+/*******************************************************************************
+ * Copyright (c) 2026 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.gef.test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+import junit.framework.TestCase;
+
+import org.eclipse.swt.SWT;
+import org.eclipse.swt.events.MouseEvent;
+import org.eclipse.swt.widgets.Display;
+import org.eclipse.swt.widgets.Event;
+import org.eclipse.swt.widgets.Shell;
+
+import org.eclipse.draw2d.Figure;
+import org.eclipse.draw2d.IFigure;
+import org.eclipse.draw2d.geometry.Point;
+import org.eclipse.draw2d.geometry.Rectangle;
+
+import org.eclipse.gef.DefaultEditDomain;
+import org.eclipse.gef.EditPart;
+import org.eclipse.gef.EditPartFactory;
+import org.eclipse.gef.Request;
+import org.eclipse.gef.RequestConstants;
+import org.eclipse.gef.commands.Command;
+import org.eclipse.gef.editparts.AbstractGraphicalEditPart;
+import org.eclipse.gef.editpolicies.AbstractEditPolicy;
+import org.eclipse.gef.requests.ChangeBoundsRequest;
+import org.eclipse.gef.tools.AbstractTool;
+import org.eclipse.gef.tools.DragEditPartsTracker;
+import org.eclipse.gef.ui.parts.GraphicalViewerImpl;
+
+/**
+ * Tests a {@link DragEditPartsTracker} whose command is deferred: the mouse
+ * moves are coalesced into one update per display frame, the queued update is
+ * flushed on drop, and the executed command is built for the final move
+ * delta.
+ */
+public class DeferredDragTest extends TestCase {
+
+	private static final long TIMEOUT = 5000;
+
+	private static final Object CONTENTS = "contents"; //$NON-NLS-1$
+	private static final Object CHILD = "child"; //$NON-NLS-1$
+
+	/**
+	 * A command which records the move delta it was built for.
+	 */
+	private class MoveCommand extends Command {
+		final Point delta;
+
+		MoveCommand(Point delta) {
+			this.delta = delta.getCopy();
+			built.add(this);
+		}
+
+		public void execute() {
+			executed.add(this);
+		}
+	}
+
+	private class MovePolicy extends AbstractEditPolicy {
+		public Command getCommand(Request request) {
+			if (RequestConstants.REQ_MOVE.equals(request.getType()))
+				return new MoveCommand(((ChangeBoundsRequest) request)
+						.getMoveDelta());
+			return null;
+		}
+
+		public boolean understandsRequest(Request request) {
+			return RequestConstants.REQ_MOVE.equals(request.getType());
+		}
+	}
+
+	private class TestEditPart extends AbstractGraphicalEditPart {
+		protected IFigure createFigure() {
+			IFigure figure = new Figure();
+			if (getModel() == CHILD)
+				figure.setBounds(new Rectangle(100, 100, 20, 20));
+			else
+				figure.setBounds(new Rectangle(0, 0, 400, 400));
+			return figure;
+		}
+
+		protected void createEditPolicies() {
+			if (getModel() == CHILD)
+				installEditPolicy("move", new MovePolicy()); //$NON-NLS-1$
+		}
+
+		protected List getModelChildren() {
+			if (getModel() == CONTENTS)
+				return Collections.singletonList(CHILD);
+			return Collections.EMPTY_LIST;
+		}
+	}
+
+	/**
+	 * Counts the updates of the drag, and always targets the parent of the
+	 * dragged edit part, so that the figures need not be laid out.
+	 */
+	private class TestTracker extends DragEditPartsTracker {
+		int updates;
+		Point updatedDelta;
+
+		TestTracker(EditPart sourceEditPart) {
+			super(sourceEditPart);
+		}
+
+		void autoexpose() {
+			handleAutoexpose();
+		}
+
+		protected void showSourceFeedback() {
+			updates++;
+			updatedDelta = ((ChangeBoundsRequest) getTargetRequest())
+					.getMoveDelta().getCopy();
+			super.showSourceFeedback();
+		}
+
+		protected boolean updateTargetUnderMouse() {
+			EditPart target = getSourceEditPart().getParent();
+			boolean changed = getTargetEditPart() != target;
+			setTargetEditPart(target);
+			return changed;
+		}
+	}
+
+	private Shell shell;
+	private GraphicalViewerImpl viewer;
+	private TestTracker tracker;
+	private final List built = new ArrayList();
+	private final List executed = new ArrayList();
+
+	protected void setUp() throws Exception {
+		shell = new Shell();
+		shell.setSize(500, 500);
+		viewer = new GraphicalViewerImpl();
+		viewer.createControl(shell);
+		viewer.getControl().setBounds(0, 0, 400, 400);
+		DefaultEditDomain domain = new DefaultEditDomain(null);
+		domain.addViewer(viewer);
+		viewer.setEditPartFactory(new EditPartFactory() {
+			public EditPart createEditPart(EditPart context, Object model) {
+				TestEditPart part = new TestEditPart();
+				part.setModel(model);
+				return part;
+			}
+		});
+		viewer.setContents(CONTENTS);
+		EditPart child = (EditPart) viewer.getContents().getChildren().get(0);
+
+		tracker = new TestTracker(child);
+		tracker.setProperties(Collections.singletonMap(
+				AbstractTool.PROPERTY_UNLOAD_WHEN_FINISHED, Boolean.FALSE));
+		tracker.setCommandDeferred(true);
+		domain.setActiveTool(tracker);
+	}
+
+	protected void tearDown() throws Exception {
+		shell.dispose();
+	}
+
+	public void testMovesAreCoalesced() {
+		startDrag();
+		drag(130, 110);
+		drag(140, 120);
+		drag(150, 140);
+		assertEquals(0, tracker.updates);
+		assertTrue(built.isEmpty());
+
+		awaitUpdates(1);
+		assertEquals(new Point(40, 30), tracker.updatedDelta);
+		assertEquals(1, built.size());
+
+		// the drag command is not built again for the same target
+		drag(160, 150);
+		drag(170, 155);
+		awaitUpdates(2);
+		assertEquals(new Point(60, 45), tracker.updatedDelta);
+		assertEquals(1, built.size());
+	}
+
+	public void testFlushOnButtonUp() {
+		startDrag();
+		drag(130, 110);
+		drag(150, 140);
+		tracker.mouseUp(mouseEvent(150, 140), viewer);
+		assertEquals(0, tracker.updates);
+		assertExecuted(new Point(40, 30));
+
+		// a queued update does nothing once the drag is over
+		dispatchEvents();
+		assertEquals(0, tracker.updates);
+		assertEquals(1, executed.size());
+	}
+
+	public void testFlushOnCommitDrag() {
+		startDrag();
+		drag(130, 110);
+		drag(150, 140);
+		tracker.commitDrag();
+		assertEquals(0, tracker.updates);
+		assertExecuted(new Point(40, 30));
+	}
+
+	public void testCommandUsesFinalDelta() {
+		startDrag();
+		drag(130, 110);
+		awaitUpdates(1);
+		assertEquals(1, built.size());
+		assertEquals(new Point(20, 0), ((MoveCommand) built.get(0)).delta);
+
+		drag(150, 140);
+		awaitUpdates(2);
+		drag(170, 160);
+		tracker.mouseUp(mouseEvent(170, 160), viewer);
+		// the command shown during the drag was built for the first delta,
+		// but the executed one is built again for the last one
+		assertExecuted(new Point(60, 50));
+	}
+
+	public void testAutoexposeIsDeferred() {
+		startDrag();
+		drag(130, 110);
+		awaitUpdates(1);
+
+		tracker.autoexpose();
+		tracker.autoexpose();
+		assertEquals(1, tracker.updates);
+		awaitUpdates(2);
+		dispatchEvents();
+		assertEquals(2, tracker.updates);
+	}
+
+	public void testNotDeferred() {
+		tracker.setCommandDeferred(false);
+		startDrag();
+		drag(130, 110);
+		assertEquals(1, tracker.updates);
+		drag(150, 140);
+		assertEquals(2, tracker.updates);
+		assertEquals(new Point(40, 30), tracker.updatedDelta);
+		assertEquals(2, built.size());
+		tracker.mouseUp(mouseEvent(150, 140), viewer);
+		assertEquals(1, executed.size());
+		assertEquals(new Point(40, 30), ((MoveCommand) executed.get(0)).delta);
+	}
+
+	private void assertExecuted(Point delta) {
+		assertEquals(1, executed.size());
+		MoveCommand command = (MoveCommand) executed.get(0);
+		assertSame(built.get(built.size() - 1), command);
+		assertEquals(delta, command.delta);
+	}
+
+	private void startDrag() {
+		tracker.mouseDown(mouseEvent(110, 110), viewer);
+	}
+
+	private void drag(int x, int y) {
+		tracker.mouseDrag(mouseEvent(x, y), viewer);
+	}
+
+	private MouseEvent mouseEvent(int x, int y) {
+		Event event = new Event();
+		event.widget = viewer.getControl();
+		event.display = shell.getDisplay();
+		event.x = x;
+		event.y = y;
+		event.button = 1;
+		event.stateMask = SWT.BUTTON1;
+		return new MouseEvent(event);
+	}
+
+	/**
+	 * Runs the event loop until the drag was updated the given number of
+	 * times.
+	 */
+	private void awaitUpdates(int count) {
+		Display display = shell.getDisplay();
+		long end = System.currentTimeMillis() + TIMEOUT;
+		while (tracker.updates < count && System.currentTimeMillis() < end) {
+			if (!display.readAndDispatch())
+				sleep(5);
+		}
+		assertEquals(count, tracker.updates);
+	}
+
+	/**
+	 * Runs the event loop for longer than a queued update takes.
+	 */
+	private void dispatchEvents() {
+		Display display = shell.getDisplay();
+		long end = System.currentTimeMillis() + 100;
+		while (System.currentTimeMillis() < end) {
+			if (!display.readAndDispatch())
+				sleep(5);
+		}
+	}
+
+	private static void sleep(long millis) {
+		try {
+			Thread.sleep(millis);
+		} catch (InterruptedException e) {
+			// keep dispatching
+		}
+	}
+
+}
@@ -11,6 +11,7 @@
 
 package org.eclipse.gef.test;
 
+import java.util.Collections;
 import java.util.List;
 
 import junit.framework.TestCase;
@@ -163,6 +164,10 @@ public class DragEditPartsTrackerTest extends TestCase {
 		public List createOperationSet() {
 			return super.createOperationSet();
 		}
+
+		public boolean isCommandDeferred() {
+			return super.isCommandDeferred();
+		}
 	};
 
 	public void test_createOperationSet() {
@@ -176,4 +181,17 @@ public class DragEditPartsTrackerTest extends TestCase {
 		dept.deactivate();
 	}
 
+	public void test_commandDeferredProperty() {
+		TestDragEditPartsTracker dept = new TestDragEditPartsTracker(
+				new TestGraphicalEditPart());
+		assertFalse(dept.isCommandDeferred());
+
+		dept.setProperties(Collections.singletonMap(
+				DragEditPartsTracker.PROPERTY_COMMAND_DEFERRED, Boolean.TRUE));
+		assertTrue(dept.isCommandDeferred());
+
+		dept.setCommandDeferred(false);
+		assertFalse(dept.isCommandDeferred());
+	}
+
 }
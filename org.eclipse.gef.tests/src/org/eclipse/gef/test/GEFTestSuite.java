@@ -31,6 +31,9 @@ public class GEFTestSuite extends TestSuite {
 		addTest(new TestSuite(PaletteCustomizerTest.class));
 		addTest(new TestSuite(ToolUtilitiesTest.class));
 		addTest(new TestSuite(DragEditPartsTrackerTest.class));
+		addTest(new TestSuite(DeferredDragTest.class));
+		addTest(new TestSuite(SnapToGeometryTest.class));
+		addTest(new TestSuite(MarqueeSelectionToolTest.class));
 		addTest(new TestSuite(CommandStackTest.class));
 	}
 
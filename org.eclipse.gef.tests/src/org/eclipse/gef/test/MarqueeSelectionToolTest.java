@@ -0,0 +1,303 @@
+/*******************************************************************************
+ * Copyright (c) 2026 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.gef.test;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import junit.framework.TestCase;
+
+import org.eclipse.swt.widgets.Shell;
+
+import org.eclipse.draw2d.ChopboxAnchor;
+import org.eclipse.draw2d.Connection;
+import org.eclipse.draw2d.ConnectionAnchor;
+import org.eclipse.draw2d.Figure;
+import org.eclipse.draw2d.IFigure;
+import org.eclipse.draw2d.XYLayout;
+import org.eclipse.draw2d.geometry.Point;
+import org.eclipse.draw2d.geometry.Rectangle;
+
+import org.eclipse.gef.ConnectionEditPart;
+import org.eclipse.gef.EditPart;
+import org.eclipse.gef.EditPartFactory;
+import org.eclipse.gef.GraphicalEditPart;
+import org.eclipse.gef.NodeEditPart;
+import org.eclipse.gef.Request;
+import org.eclipse.gef.RequestConstants;
+import org.eclipse.gef.editparts.AbstractConnectionEditPart;
+import org.eclipse.gef.editparts.AbstractGraphicalEditPart;
+import org.eclipse.gef.editpolicies.AbstractEditPolicy;
+import org.eclipse.gef.tools.MarqueeSelectionTool;
+import org.eclipse.gef.ui.parts.GraphicalViewerImpl;
+
+/**
+ * Tests that the {@link MarqueeSelectionTool}, which only tests the edit parts
+ * whose figures intersect the marquee, selects the same edit parts as testing
+ * all of them, for every marquee behavior.
+ */
+public class MarqueeSelectionToolTest extends TestCase {
+
+	private static final int[] BEHAVIORS = {
+			MarqueeSelectionTool.BEHAVIOR_NODES_CONTAINED,
+			MarqueeSelectionTool.BEHAVIOR_NODES_TOUCHED,
+			MarqueeSelectionTool.BEHAVIOR_NODES_CONTAINED_AND_RELATED_CONNECTIONS,
+			MarqueeSelectionTool.BEHAVIOR_NODES_TOUCHED_AND_RELATED_CONNECTIONS,
+			MarqueeSelectionTool.BEHAVIOR_CONNECTIONS_CONTAINED,
+			MarqueeSelectionTool.BEHAVIOR_CONNECTIONS_TOUCHED };
+
+	private static class Node {
+		final Rectangle bounds;
+		final List sourceConnections = new ArrayList();
+		final List targetConnections = new ArrayList();
+
+		Node(Rectangle bounds) {
+			this.bounds = bounds;
+		}
+	}
+
+	private static class Link {
+		Link(Node source, Node target) {
+			source.sourceConnections.add(this);
+			target.targetConnections.add(this);
+		}
+	}
+
+	/**
+	 * Makes its host the target of the marquee request.
+	 */
+	private static class SelectionPolicy extends AbstractEditPolicy {
+		public EditPart getTargetEditPart(Request request) {
+			if (RequestConstants.REQ_SELECTION.equals(request.getType()))
+				return getHost();
+			return null;
+		}
+	}
+
+	private static class ContentsEditPart extends AbstractGraphicalEditPart {
+		protected IFigure createFigure() {
+			IFigure figure = new Figure();
+			figure.setLayoutManager(new XYLayout());
+			return figure;
+		}
+
+		protected void createEditPolicies() {
+			// do nothing
+		}
+
+		protected List getModelChildren() {
+			return (List) getModel();
+		}
+	}
+
+	private static class NodeEditPartImpl extends AbstractGraphicalEditPart
+			implements NodeEditPart {
+		protected IFigure createFigure() {
+			return new Figure();
+		}
+
+		protected void createEditPolicies() {
+			installEditPolicy("selection", new SelectionPolicy()); //$NON-NLS-1$
+		}
+
+		protected List getModelSourceConnections() {
+			return ((Node) getModel()).sourceConnections;
+		}
+
+		protected List getModelTargetConnections() {
+			return ((Node) getModel()).targetConnections;
+		}
+
+		protected void refreshVisuals() {
+			((GraphicalEditPart) getParent()).setLayoutConstraint(this,
+					getFigure(), ((Node) getModel()).bounds);
+		}
+
+		public ConnectionAnchor getSourceConnectionAnchor(
+				ConnectionEditPart connection) {
+			return new ChopboxAnchor(getFigure());
+		}
+
+		public ConnectionAnchor getSourceConnectionAnchor(Request request) {
+			return new ChopboxAnchor(getFigure());
+		}
+
+		public ConnectionAnchor getTargetConnectionAnchor(
+				ConnectionEditPart connection) {
+			return new ChopboxAnchor(getFigure());
+		}
+
+		public ConnectionAnchor getTargetConnectionAnchor(Request request) {
+			return new ChopboxAnchor(getFigure());
+		}
+	}
+
+	private static class LinkEditPart extends AbstractConnectionEditPart {
+		protected void createEditPolicies() {
+			installEditPolicy("selection", new SelectionPolicy()); //$NON-NLS-1$
+		}
+	}
+
+	/**
+	 * Selects with a given marquee rectangle, and tells which edit parts are
+	 * selectable at all.
+	 */
+	private static class TestMarqueeSelectionTool extends MarqueeSelectionTool {
+		private Rectangle marquee;
+
+		Collection select(Rectangle marquee) {
+			this.marquee = marquee;
+			return calculateMarqueeSelectedEditParts();
+		}
+
+		boolean isSelectable(GraphicalEditPart editPart) {
+			return isMarqueeSelectable(editPart);
+		}
+
+		protected Rectangle getCurrentMarqueeSelectionRectangle() {
+			return marquee;
+		}
+	}
+
+	private Shell shell;
+	private GraphicalViewerImpl viewer;
+	private final List nodeParts = new ArrayList();
+	private final List linkParts = new ArrayList();
+
+	protected void setUp() throws Exception {
+		shell = new Shell();
+		shell.setSize(700, 700);
+		viewer = new GraphicalViewerImpl();
+		viewer.createControl(shell);
+		viewer.getControl().setBounds(0, 0, 600, 600);
+		viewer.setEditPartFactory(new EditPartFactory() {
+			public EditPart createEditPart(EditPart context, Object model) {
+				EditPart part;
+				if (model instanceof Node) {
+					part = new NodeEditPartImpl();
+					nodeParts.add(part);
+				} else if (model instanceof Link) {
+					part = new LinkEditPart();
+					linkParts.add(part);
+				} else
+					part = new ContentsEditPart();
+				part.setModel(model);
+				return part;
+			}
+		});
+	}
+
+	protected void tearDown() throws Exception {
+		shell.dispose();
+	}
+
+	public void testSameSelectionAsTestingAllEditParts() {
+		Random random = new Random(0);
+		List nodes = new ArrayList();
+		for (int i = 0; i < 150; i++) {
+			int x = random.nextInt(640) - 40;
+			int y = random.nextInt(640) - 40;
+			nodes.add(new Node(new Rectangle(x, y, 5 + random.nextInt(40),
+					5 + random.nextInt(40))));
+		}
+		// empty, and spanning the whole diagram
+		nodes.add(new Node(new Rectangle(300, 300, 0, 0)));
+		nodes.add(new Node(new Rectangle(250, 120, 0, 30)));
+		nodes.add(new Node(new Rectangle(-10, -10, 620, 620)));
+		for (int i = 0; i < 120; i++)
+			new Link((Node) nodes.get(random.nextInt(nodes.size())),
+					(Node) nodes.get(random.nextInt(nodes.size())));
+		viewer.setContents(nodes);
+		viewer.flush();
+		assertEquals(nodes.size(), nodeParts.size());
+		assertEquals(120, linkParts.size());
+
+		TestMarqueeSelectionTool tool = new TestMarqueeSelectionTool();
+		tool.setViewer(viewer);
+		for (int b = 0; b < BEHAVIORS.length; b++) {
+			tool.setMarqueeBehavior(BEHAVIORS[b]);
+			int selected = 0;
+			for (int i = 0; i < 300; i++) {
+				Rectangle marquee = new Rectangle(new Point(
+						random.nextInt(700) - 50, random.nextInt(700) - 50),
+						new Point(random.nextInt(700) - 50,
+								random.nextInt(700) - 50));
+				if (i % 10 == 0)
+					marquee.width = 0;
+				Set expected = select(tool, BEHAVIORS[b], marquee);
+				assertEquals("behavior " + BEHAVIORS[b] + ", marquee "
+						+ marquee, expected, new HashSet(tool.select(marquee)));
+				selected += expected.size();
+			}
+			// the marquees do select something
+			assertTrue(selected > 0);
+		}
+	}
+
+	/**
+	 * Returns the edit parts which a marquee selects in the default mode, by
+	 * testing all the edit parts.
+	 */
+	private Set select(TestMarqueeSelectionTool tool, int behavior,
+			Rectangle marquee) {
+		Set primary = new HashSet();
+		boolean connections = behavior == MarqueeSelectionTool.BEHAVIOR_CONNECTIONS_CONTAINED
+				|| behavior == MarqueeSelectionTool.BEHAVIOR_CONNECTIONS_TOUCHED;
+		boolean touched = behavior == MarqueeSelectionTool.BEHAVIOR_NODES_TOUCHED
+				|| behavior == MarqueeSelectionTool.BEHAVIOR_NODES_TOUCHED_AND_RELATED_CONNECTIONS
+				|| behavior == MarqueeSelectionTool.BEHAVIOR_CONNECTIONS_TOUCHED;
+		List candidates = connections ? linkParts : nodeParts;
+		for (Iterator iter = candidates.iterator(); iter.hasNext();) {
+			GraphicalEditPart part = (GraphicalEditPart) iter.next();
+			if (!tool.isSelectable(part))
+				continue;
+			IFigure figure = part.getFigure();
+			Rectangle bounds = figure.getBounds().getCopy();
+			figure.translateToAbsolute(bounds);
+			boolean included;
+			if (connections) {
+				Rectangle relative = marquee.getCopy();
+				figure.translateToRelative(relative);
+				if (!marquee.intersects(bounds))
+					included = false;
+				else if (touched)
+					included = ((Connection) figure).getPoints().intersects(
+							relative);
+				else
+					included = relative.contains(((Connection) figure)
+							.getPoints().getBounds());
+			} else if (touched)
+				included = marquee.intersects(bounds);
+			else
+				included = marquee.contains(bounds);
+			if (included)
+				primary.add(part);
+		}
+
+		Set selection = new HashSet(primary);
+		if (behavior == MarqueeSelectionTool.BEHAVIOR_NODES_CONTAINED_AND_RELATED_CONNECTIONS
+				|| behavior == MarqueeSelectionTool.BEHAVIOR_NODES_TOUCHED_AND_RELATED_CONNECTIONS) {
+			for (Iterator iter = linkParts.iterator(); iter.hasNext();) {
+				ConnectionEditPart link = (ConnectionEditPart) iter.next();
+				if (primary.contains(link.getSource())
+						&& primary.contains(link.getTarget()))
+					selection.add(link);
+			}
+		}
+		return selection;
+	}
+
+}
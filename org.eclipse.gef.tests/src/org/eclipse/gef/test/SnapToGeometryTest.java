@@ -0,0 +1,233 @@
+/*******************************************************************************
+ * Copyright (c) 2026 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.gef.test;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import junit.framework.TestCase;
+
+import org.eclipse.draw2d.Figure;
+import org.eclipse.draw2d.IFigure;
+import org.eclipse.draw2d.geometry.Rectangle;
+
+import org.eclipse.gef.GraphicalEditPart;
+import org.eclipse.gef.SnapToGeometry;
+import org.eclipse.gef.editparts.AbstractGraphicalEditPart;
+
+/**
+ * Tests that the search of the sorted rows and columns of
+ * {@link SnapToGeometry} finds the same correction as a scan of all the
+ * entries, and that helpers do not share the entries they may change.
+ */
+public class SnapToGeometryTest extends TestCase {
+
+	private static class TestEditPart extends AbstractGraphicalEditPart {
+		private final Rectangle bounds;
+
+		TestEditPart(Rectangle bounds) {
+			this.bounds = bounds;
+		}
+
+		protected IFigure createFigure() {
+			IFigure figure = new Figure();
+			figure.setBounds(bounds);
+			return figure;
+		}
+
+		protected void createEditPolicies() {
+			// do nothing
+		}
+	}
+
+	/**
+	 * Compares the search of the sorted rows, which is used for the rows
+	 * themselves, with the scan, which is used for any other array.
+	 */
+	private static class TestSnapToGeometry extends SnapToGeometry {
+		TestSnapToGeometry(GraphicalEditPart container) {
+			super(container);
+		}
+
+		void setRows(int[] types, int[] locations) {
+			rows = new Entry[types.length];
+			for (int i = 0; i < rows.length; i++)
+				rows[i] = new Entry(types[i], locations[i]) {
+				};
+		}
+
+		/**
+		 * Changes one row, in a new array as the rows are not changed in
+		 * place.
+		 */
+		void setRow(int index, int type, int location) {
+			rows = (Entry[]) rows.clone();
+			rows[index] = new Entry(type, location) {
+			};
+		}
+
+		void populate(List parts) {
+			populateRowsAndCols(parts);
+		}
+
+		Object getRows() {
+			return rows;
+		}
+
+		double search(Map extendedData, double value, int side) {
+			return getCorrectionFor(rows, extendedData, false, value, side);
+		}
+
+		double scan(Map extendedData, double value, int side) {
+			return getCorrectionFor((Entry[]) rows.clone(), extendedData,
+					false, value, side);
+		}
+
+		double searchNearAndFar(Map extendedData, double near, double far) {
+			return getCorrectionFor(rows, extendedData, false, near, far);
+		}
+
+		double scanNearAndFar(Map extendedData, double near, double far) {
+			return getCorrectionFor((Entry[]) rows.clone(), extendedData,
+					false, near, far);
+		}
+
+		double threshold() {
+			return getThreshold();
+		}
+
+		void threshold(double threshold) {
+			setThreshold(threshold);
+		}
+	}
+
+	private TestSnapToGeometry helper;
+
+	protected void setUp() throws Exception {
+		helper = new TestSnapToGeometry(new TestEditPart(new Rectangle(0, 0,
+				500, 500)));
+	}
+
+	public void testTiesAreBrokenByIndex() {
+		// both are 2 away, the scan keeps the first one
+		helper.setRows(new int[] { -1, -1 }, new int[] { 12, 8 });
+		assertCorrection(10, -1, 2);
+		helper.setRows(new int[] { -1, -1 }, new int[] { 8, 12 });
+		assertCorrection(10, -1, -2);
+
+		// the same location with several types
+		helper.setRows(new int[] { 1, 0, -1, 1 }, new int[] { 7, 7, 7, 13 });
+		assertCorrection(10, 0, -3);
+		assertCorrection(10, 1, -3);
+		assertCorrection(10, -1, -3);
+	}
+
+	public void testNegativeLocations() {
+		helper.setRows(new int[] { -1, 0, 1, -1 },
+				new int[] { -20, -12, -4, 3 });
+		assertCorrection(-10.5, 0, -1.5);
+		assertCorrection(-6, 1, 2);
+		assertCorrection(-1, -1, -3);
+		assertCorrection(-21, -1, 1);
+		assertCorrection(-30, -1, helper.threshold());
+	}
+
+	public void testCorrectionAtThreshold() {
+		helper.threshold(4);
+		helper.setRows(new int[] { -1, -1 }, new int[] { 0, 8 });
+		// neither is closer than the threshold
+		assertCorrection(4, -1, helper.threshold());
+		assertCorrection(3, -1, -3);
+		assertCorrection(5, -1, 3);
+	}
+
+	public void testSearchMatchesScan() {
+		for (int seed = 0; seed < 200; seed++) {
+			Random random = new Random(seed);
+			int count = random.nextInt(40);
+			int[] types = new int[count];
+			int[] locations = new int[count];
+			// a narrow range of locations, so that there are many ties
+			for (int i = 0; i < count; i++) {
+				types[i] = random.nextInt(3) - 1;
+				locations[i] = random.nextInt(61) - 30;
+			}
+			helper.setRows(types, locations);
+			if (random.nextBoolean())
+				helper.threshold(random.nextInt(8) + random.nextDouble());
+			for (int i = 0; i < 50; i++) {
+				double value = random.nextInt(81) - 40;
+				if (random.nextBoolean())
+					value += random.nextInt(4) / 4.0;
+				int side = random.nextInt(3) - 1;
+				String message = "seed " + seed + ", value " + value
+						+ ", side " + side;
+				Map searched = new HashMap();
+				Map scanned = new HashMap();
+				assertEquals(message, helper.scan(scanned, value, side),
+						helper.search(searched, value, side), 0);
+				assertEquals(message, scanned, searched);
+
+				double far = value + random.nextInt(40);
+				searched.clear();
+				scanned.clear();
+				assertEquals(message, helper.scanNearAndFar(scanned, value,
+						far), helper.searchNearAndFar(searched, value, far), 0);
+				assertEquals(message, scanned, searched);
+			}
+		}
+	}
+
+	public void testChangedRows() {
+		helper.setRows(new int[] { -1, -1 }, new int[] { 0, 20 });
+		assertCorrection(18, -1, 2);
+		// the rows are sorted again once a new array is assigned
+		helper.setRow(0, -1, 17);
+		assertCorrection(18, -1, -1);
+	}
+
+	public void testHelpersHaveTheirOwnRows() {
+		GraphicalEditPart container = new TestEditPart(new Rectangle(0, 0,
+				500, 500));
+		List parts = new ArrayList();
+		parts.add(new TestEditPart(new Rectangle(10, 10, 20, 20)));
+		parts.add(new TestEditPart(new Rectangle(100, 50, 20, 20)));
+
+		TestSnapToGeometry first = new TestSnapToGeometry(container);
+		first.populate(parts);
+		TestSnapToGeometry second = new TestSnapToGeometry(container);
+		second.populate(parts);
+		assertNotSame(first.getRows(), second.getRows());
+		Map extendedData = new HashMap();
+		assertEquals(2, first.search(extendedData, 8, -1), 0);
+		assertEquals(2, second.search(extendedData, 8, -1), 0);
+
+		// changing the rows of one helper does not change the other one
+		first.setRow(0, -1, 7);
+		assertEquals(-1, first.search(extendedData, 8, -1), 0);
+		assertEquals(2, second.search(extendedData, 8, -1), 0);
+		TestSnapToGeometry third = new TestSnapToGeometry(container);
+		third.populate(parts);
+		assertEquals(2, third.search(extendedData, 8, -1), 0);
+	}
+
+	private void assertCorrection(double value, int side, double expected) {
+		Map searched = new HashMap();
+		Map scanned = new HashMap();
+		assertEquals(expected, helper.scan(scanned, value, side), 0);
+		assertEquals(expected, helper.search(searched, value, side), 0);
+		assertEquals(scanned, searched);
+	}
+
+}
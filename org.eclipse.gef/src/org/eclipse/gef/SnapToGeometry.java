@@ -10,11 +10,16 @@
  *******************************************************************************/
 package org.eclipse.gef;
 
+import java.lang.ref.Reference;
+import java.lang.ref.WeakReference;
 import java.util.ArrayList;
+import java.util.Arrays;
 import java.util.Collections;
-import java.util.Iterator;
+import java.util.HashSet;
 import java.util.List;
 import java.util.Map;
+import java.util.Set;
+import java.util.WeakHashMap;
 
 import org.eclipse.draw2d.IFigure;
 import org.eclipse.draw2d.geometry.PrecisionRectangle;
@@ -40,7 +45,10 @@ import org.eclipse.gef.requests.GroupRequest;
  * <P>
  * This helper does not keep up with changes made to the container editpart.
  * Clients should instantiate a new helper each time one is requested and not
- * hold on to instances of the helper.
+ * hold on to instances of the helper. The sorted rows and columns of a
+ * container are however reused by its next helpers, each of which gets its own
+ * copy, for as long as the parts snapped to and their bounds stay the same, so
+ * that a new helper is cheap to create.
  * 
  * @since 3.0
  * @author Randy Hudson
@@ -137,6 +145,125 @@ public class SnapToGeometry extends SnapToHelper {
 		}
 	}
 
+	/**
+	 * Entries sorted by location, which remember their index in the unsorted
+	 * entries so that ties are broken as a scan of the unsorted entries would.
+	 * The sorted arrays are never modified, and are shared by the copies made
+	 * for other helpers.
+	 */
+	private static class SortedEntries {
+		/** The array of entries which were sorted. */
+		final Entry[] source;
+		/** A copy of the entries which were sorted. */
+		final Entry[] entries;
+		final int[] locations;
+		final int[] types;
+		final int[] indices;
+		final Integer[] anchors;
+
+		SortedEntries(Entry[] source) {
+			this.source = source;
+			entries = (Entry[]) source.clone();
+			long[] keys = new long[entries.length];
+			for (int i = 0; i < entries.length; i++)
+				keys[i] = ((long) entries[i].location << 32) | i;
+			Arrays.sort(keys);
+			locations = new int[keys.length];
+			types = new int[keys.length];
+			indices = new int[keys.length];
+			anchors = new Integer[keys.length];
+			for (int i = 0; i < keys.length; i++) {
+				indices[i] = (int) keys[i];
+				locations[i] = (int) (keys[i] >> 32);
+				types[i] = entries[indices[i]].type;
+			}
+		}
+
+		/**
+		 * Creates a copy of the given sorted entries for the given array,
+		 * which holds the same entries.
+		 */
+		SortedEntries(SortedEntries other, Entry[] source) {
+			this.source = source;
+			entries = other.entries;
+			locations = other.locations;
+			types = other.types;
+			indices = other.indices;
+			anchors = new Integer[locations.length];
+		}
+
+		/**
+		 * Returns whether the given array is the one which was sorted. The
+		 * array is not expected to be changed in place.
+		 */
+		boolean isSortedFrom(Entry[] source) {
+			return this.source == source;
+		}
+
+		/**
+		 * Returns the location of the given entry as an Integer, which is
+		 * created once.
+		 */
+		Integer getAnchor(int i) {
+			if (anchors[i] == null)
+				anchors[i] = new Integer(locations[i]);
+			return anchors[i];
+		}
+
+		/**
+		 * Returns the index of the first entry at or after the given location.
+		 */
+		int indexOf(double location) {
+			int low = 0;
+			int high = locations.length;
+			while (low < high) {
+				int mid = (low + high) >>> 1;
+				if (locations[mid] < location)
+					low = mid + 1;
+				else
+					high = mid;
+			}
+			return low;
+		}
+	}
+
+	/**
+	 * The rows and columns generated for a container, along with the parts and
+	 * bounds they were generated from. The parts are weakly referenced so that
+	 * the container can be collected.
+	 */
+	private static class Snapshot {
+		final Reference[] parts;
+		final int[] bounds;
+		final SortedEntries rows;
+		final SortedEntries cols;
+
+		Snapshot(List parts, int[] bounds, SortedEntries rows,
+				SortedEntries cols) {
+			this.parts = new Reference[parts.size()];
+			for (int i = 0; i < this.parts.length; i++)
+				this.parts[i] = new WeakReference(parts.get(i));
+			this.bounds = bounds;
+			this.rows = rows;
+			this.cols = cols;
+		}
+
+		boolean matches(List parts, int[] bounds) {
+			if (parts.size() != this.parts.length
+					|| !Arrays.equals(bounds, this.bounds))
+				return false;
+			for (int i = 0; i < this.parts.length; i++)
+				if (this.parts[i].get() != parts.get(i))
+					return false;
+			return true;
+		}
+	}
+
+	/**
+	 * Maps the containers to the Snapshot of their last rows and columns.
+	 */
+	private static final Map SNAPSHOTS = new WeakHashMap();
+
 	/**
 	 * The sensitivity of the snapping. Corrections greater than this value will
 	 * not occur.
@@ -148,15 +275,21 @@ public class SnapToGeometry extends SnapToHelper {
 	boolean cachedCloneBool;
 
 	/**
-	 * The horizontal rows being snapped to.
+	 * The horizontal rows being snapped to. Subclasses which change the rows
+	 * must assign a new array rather than change this one in place, as the
+	 * rows are only sorted again when a new array is assigned.
 	 */
 	protected Entry rows[];
 
 	/**
-	 * The vertical columnd being snapped to.
+	 * The vertical columnd being snapped to. Subclasses which change the
+	 * columns must assign a new array rather than change this one in place.
 	 */
 	protected Entry cols[];
 
+	private SortedEntries sortedRows;
+	private SortedEntries sortedCols;
+
 	/**
 	 * The container editpart providing the coordinates and the children to
 	 * which snapping occurs.
@@ -210,20 +343,18 @@ public class SnapToGeometry extends SnapToHelper {
 	 * @return a list of parts which should be snapped to
 	 */
 	protected List generateSnapPartsList(List exclusions) {
-		// Don't snap to any figure that is being dragged
-		List children = new ArrayList(container.getChildren());
-		children.removeAll(exclusions);
-
-		// Don't snap to hidden figures
-		List hiddenChildren = new ArrayList();
-		for (Iterator iter = children.iterator(); iter.hasNext();) {
-			GraphicalEditPart child = (GraphicalEditPart) iter.next();
-			if (!child.getFigure().isVisible())
-				hiddenChildren.add(child);
+		List children = container.getChildren();
+		Set excluded = exclusions.isEmpty() ? Collections.EMPTY_SET
+				: new HashSet(exclusions);
+		List parts = new ArrayList(children.size());
+		for (int i = 0; i < children.size(); i++) {
+			GraphicalEditPart child = (GraphicalEditPart) children.get(i);
+			// Don't snap to any figure that is being dragged, or to hidden
+			// figures
+			if (!excluded.contains(child) && child.getFigure().isVisible())
+				parts.add(child);
 		}
-		children.removeAll(hiddenChildren);
-
-		return children;
+		return parts;
 	}
 
 	/**
@@ -290,6 +421,30 @@ public class SnapToGeometry extends SnapToHelper {
 		else
 			property = vert ? KEY_EAST_ANCHOR : KEY_SOUTH_ANCHOR;
 
+		SortedEntries sorted = getSortedEntries(entries);
+		if (sorted != null) {
+			// only the entries within the threshold can improve the result
+			int best = -1;
+			double max = value + resultMag;
+			int count = sorted.locations.length;
+			for (int i = sorted.indexOf(value - resultMag); i < count
+					&& sorted.locations[i] <= max; i++) {
+				if ((sorted.types[i] == 0) != (side == 0))
+					continue;
+				double magnitude = Math.abs(value - sorted.locations[i]);
+				if (magnitude < resultMag || magnitude == resultMag
+						&& best != -1
+						&& sorted.indices[i] < sorted.indices[best]) {
+					resultMag = magnitude;
+					best = i;
+				}
+			}
+			if (best == -1)
+				return result;
+			extendedData.put(property, sorted.getAnchor(best));
+			return sorted.locations[best] - value;
+		}
+
 		for (int i = 0; i < entries.length; i++) {
 			Entry entry = entries[i];
 			double magnitude;
@@ -320,6 +475,26 @@ public class SnapToGeometry extends SnapToHelper {
 		return result;
 	}
 
+	/**
+	 * Returns the sorted entries of the rows or columns, or <code>null</code>
+	 * for other entries.
+	 */
+	private SortedEntries getSortedEntries(Entry[] entries) {
+		if (entries == null)
+			return null;
+		if (entries == rows) {
+			if (sortedRows == null || !sortedRows.isSortedFrom(rows))
+				sortedRows = new SortedEntries(rows);
+			return sortedRows;
+		}
+		if (entries == cols) {
+			if (sortedCols == null || !sortedCols.isSortedFrom(cols))
+				sortedCols = new SortedEntries(cols);
+			return sortedCols;
+		}
+		return null;
+	}
+
 	/**
 	 * Returns the rectangular contribution for the given editpart. This is the
 	 * rectangle with which snapping is performed.
@@ -344,18 +519,45 @@ public class SnapToGeometry extends SnapToHelper {
 	 *            a List of EditParts
 	 */
 	protected void populateRowsAndCols(List parts) {
+		int[] bounds = new int[parts.size() * 4];
+		for (int i = 0; i < parts.size(); i++) {
+			Rectangle r = getFigureBounds((GraphicalEditPart) parts.get(i));
+			bounds[i * 4] = r.x;
+			bounds[i * 4 + 1] = r.y;
+			bounds[i * 4 + 2] = r.width;
+			bounds[i * 4 + 3] = r.height;
+		}
+
+		// Reuse the sorted entries of the last helper if nothing changed
+		// since, and copy them so that this helper may change its own
+		Snapshot snapshot = (Snapshot) SNAPSHOTS.get(container);
+		if (snapshot != null && snapshot.matches(parts, bounds)) {
+			rows = (Entry[]) snapshot.rows.entries.clone();
+			cols = (Entry[]) snapshot.cols.entries.clone();
+			sortedRows = new SortedEntries(snapshot.rows, rows);
+			sortedCols = new SortedEntries(snapshot.cols, cols);
+			return;
+		}
+
 		rows = new Entry[parts.size() * 3];
 		cols = new Entry[parts.size() * 3];
 		for (int i = 0; i < parts.size(); i++) {
-			GraphicalEditPart child = (GraphicalEditPart) parts.get(i);
-			Rectangle bounds = getFigureBounds(child);
-			cols[i * 3] = new Entry(-1, bounds.x);
-			rows[i * 3] = new Entry(-1, bounds.y);
-			cols[i * 3 + 1] = new Entry(0, bounds.x + (bounds.width - 1) / 2);
-			rows[i * 3 + 1] = new Entry(0, bounds.y + (bounds.height - 1) / 2);
-			cols[i * 3 + 2] = new Entry(1, bounds.right() - 1);
-			rows[i * 3 + 2] = new Entry(1, bounds.bottom() - 1);
+			int x = bounds[i * 4];
+			int y = bounds[i * 4 + 1];
+			int width = bounds[i * 4 + 2];
+			int height = bounds[i * 4 + 3];
+			cols[i * 3] = new Entry(-1, x);
+			rows[i * 3] = new Entry(-1, y);
+			cols[i * 3 + 1] = new Entry(0, x + (width - 1) / 2);
+			rows[i * 3 + 1] = new Entry(0, y + (height - 1) / 2);
+			cols[i * 3 + 2] = new Entry(1, x + width - 1);
+			rows[i * 3 + 2] = new Entry(1, y + height - 1);
 		}
+		sortedRows = new SortedEntries(rows);
+		sortedCols = new SortedEntries(cols);
+		SNAPSHOTS.put(container, new Snapshot(parts, bounds,
+				new SortedEntries(sortedRows, sortedRows.entries),
+				new SortedEntries(sortedCols, sortedCols.entries)));
 	}
 
 	/**
@@ -18,6 +18,7 @@ import java.util.List;
 import org.eclipse.swt.SWT;
 import org.eclipse.swt.events.KeyEvent;
 import org.eclipse.swt.graphics.Cursor;
+import org.eclipse.swt.widgets.Display;
 
 import org.eclipse.core.runtime.Platform;
 
@@ -46,6 +47,13 @@ import org.eclipse.gef.requests.ChangeBoundsRequest;
 
 /**
  * A DragTracker that moves {@link org.eclipse.gef.EditPart EditParts}.
+ * <P>
+ * By default, the command is built again on each mouse move during the drag.
+ * When many edit parts are dragged, the command may be
+ * {@link #setCommandDeferred(boolean) deferred} instead: the drag is then
+ * updated at most once per display frame, the command shown during the drag is
+ * only built again when the target edit part or the kind of drag changes, and
+ * the command which is executed is built on drop.
  */
 public class DragEditPartsTracker extends SelectEditPartTracker {
 
@@ -67,6 +75,21 @@ public class DragEditPartsTracker extends SelectEditPartTracker {
 	 */
 	static final int MODIFIER_CONSTRAINED_MOVE = SWT.SHIFT;
 
+	/**
+	 * The property to be used in
+	 * {@link AbstractTool#setProperties(java.util.Map)} for
+	 * {@link #setCommandDeferred(boolean)}.
+	 * 
+	 * @since 3.11
+	 */
+	public static final Object PROPERTY_COMMAND_DEFERRED = "commandDeferred"; //$NON-NLS-1$
+
+	/**
+	 * The minimum time, in milliseconds, between two updates of a drag whose
+	 * command is deferred.
+	 */
+	private static final int DEFERRED_UPDATE_INTERVAL = 16;
+
 	private static final int FLAG_SOURCE_FEEDBACK = SelectEditPartTracker.MAX_FLAG << 1;
 	/** Max flag */
 	protected static final int MAX_FLAG = FLAG_SOURCE_FEEDBACK;
@@ -75,6 +98,11 @@ public class DragEditPartsTracker extends SelectEditPartTracker {
 	private SnapToHelper snapToHelper;
 	private PrecisionRectangle sourceRectangle, compoundSrcRect;
 	private boolean cloneActive;
+	private boolean commandDeferred;
+	private boolean dragUpdateQueued;
+	private Command dragCommand;
+	private EditPart dragCommandTarget;
+	private String dragCommandName;
 
 	/**
 	 * Constructs a new DragEditPartsTracker with the given source edit part.
@@ -105,6 +133,19 @@ public class DragEditPartsTracker extends SelectEditPartTracker {
 		return (key == MODIFIER_CLONE);
 	}
 
+	/**
+	 * @see org.eclipse.gef.tools.AbstractTool#applyProperty(java.lang.Object,
+	 *      java.lang.Object)
+	 */
+	protected void applyProperty(Object key, Object value) {
+		if (PROPERTY_COMMAND_DEFERRED.equals(key)) {
+			if (value instanceof Boolean)
+				setCommandDeferred(((Boolean) value).booleanValue());
+			return;
+		}
+		super.applyProperty(key, value);
+	}
+
 	private boolean acceptSHIFT(KeyEvent e) {
 		return isInState(STATE_DRAG_IN_PROGRESS | STATE_ACCESSIBLE_DRAG
 				| STATE_ACCESSIBLE_DRAG_IN_PROGRESS)
@@ -172,6 +213,7 @@ public class DragEditPartsTracker extends SelectEditPartTracker {
 	 * @see org.eclipse.gef.tools.AbstractTool#commitDrag()
 	 */
 	public void commitDrag() {
+		flushDragUpdate();
 		eraseSourceFeedback();
 		eraseTargetFeedback();
 		performDrag();
@@ -265,6 +307,10 @@ public class DragEditPartsTracker extends SelectEditPartTracker {
 		sourceRectangle = null;
 		compoundSrcRect = null;
 		snapToHelper = null;
+		dragUpdateQueued = false;
+		dragCommand = null;
+		dragCommandTarget = null;
+		dragCommandName = null;
 	}
 
 	/**
@@ -326,6 +372,25 @@ public class DragEditPartsTracker extends SelectEditPartTracker {
 		return command.unwrap();
 	}
 
+	/**
+	 * Returns the command to show during the drag. Unless the command is
+	 * deferred, this is {@link #getCommand()}. Otherwise, the command is only
+	 * built again when the target edit part or the command name has changed
+	 * since it was last built.
+	 */
+	private Command getDragCommand() {
+		if (!isCommandDeferred())
+			return getCommand();
+		String commandName = getCommandName();
+		if (dragCommand == null || dragCommandTarget != getTargetEditPart()
+				|| !commandName.equals(dragCommandName)) {
+			dragCommand = getCommand();
+			dragCommandTarget = getTargetEditPart();
+			dragCommandName = commandName;
+		}
+		return dragCommand;
+	}
+
 	/**
 	 * @see org.eclipse.gef.tools.AbstractTool#getCommandName()
 	 */
@@ -371,14 +436,33 @@ public class DragEditPartsTracker extends SelectEditPartTracker {
 	}
 
 	/**
+	 * Updates the target request and mouse target, asks to show feedback, and
+	 * sets the current command. If the command is deferred, the update is
+	 * queued instead, like during {@link #handleDragInProgress()}.
+	 * 
 	 * @see org.eclipse.gef.tools.TargetingTool#handleAutoexpose()
 	 */
 	protected void handleAutoexpose() {
+		if (queueDragUpdate())
+			return;
 		updateTargetRequest();
 		updateTargetUnderMouse();
 		showTargetFeedback();
 		showSourceFeedback();
-		setCurrentCommand(getCommand());
+		setCurrentCommand(getDragCommand());
+	}
+
+	/**
+	 * Updates the target request and mouse target of a drag whose update is
+	 * still queued, so that the drop happens at the last mouse location.
+	 */
+	private void flushDragUpdate() {
+		if (!dragUpdateQueued)
+			return;
+		dragUpdateQueued = false;
+		updateTargetRequest();
+		if (updateTargetUnderMouse())
+			updateTargetRequest();
 	}
 
 	/**
@@ -388,6 +472,7 @@ public class DragEditPartsTracker extends SelectEditPartTracker {
 	 */
 	protected boolean handleButtonUp(int button) {
 		if (stateTransition(STATE_DRAG_IN_PROGRESS, STATE_TERMINAL)) {
+			flushDragUpdate();
 			eraseSourceFeedback();
 			eraseTargetFeedback();
 			performDrag();
@@ -398,19 +483,14 @@ public class DragEditPartsTracker extends SelectEditPartTracker {
 
 	/**
 	 * Updates the target request and mouse target, asks to show feedback, and
-	 * sets the current command.
+	 * sets the current command. If the command is deferred, the update is
+	 * queued instead, so that it happens at most once per display frame.
 	 * 
 	 * @see org.eclipse.gef.tools.AbstractTool#handleDragInProgress()
 	 */
 	protected boolean handleDragInProgress() {
-		if (isInDragInProgress()) {
-			updateTargetRequest();
-			if (updateTargetUnderMouse())
-				updateTargetRequest();
-			showTargetFeedback();
-			showSourceFeedback();
-			setCurrentCommand(getCommand());
-		}
+		if (isInDragInProgress() && !queueDragUpdate())
+			updateDrag();
 		return true;
 	}
 
@@ -504,6 +584,17 @@ public class DragEditPartsTracker extends SelectEditPartTracker {
 		return false;
 	}
 
+	/**
+	 * Returns <code>true</code> if the command is deferred during the drag.
+	 * 
+	 * @return <code>true</code> if the command is deferred
+	 * @see #setCommandDeferred(boolean)
+	 * @since 3.11
+	 */
+	protected boolean isCommandDeferred() {
+		return commandDeferred;
+	}
+
 	/**
 	 * Returns true if the current drag is a clone operation.
 	 * 
@@ -532,9 +623,12 @@ public class DragEditPartsTracker extends SelectEditPartTracker {
 	}
 
 	/**
-	 * Calls {@link AbstractTool#executeCurrentCommand()}.
+	 * Calls {@link AbstractTool#executeCurrentCommand()}. If the command is
+	 * deferred, it is first built for the final request.
 	 */
 	protected void performDrag() {
+		if (isCommandDeferred())
+			setCurrentCommand(getCommand());
 		executeCurrentCommand();
 	}
 
@@ -574,6 +668,40 @@ public class DragEditPartsTracker extends SelectEditPartTracker {
 		}
 	}
 
+	/**
+	 * Queues an update of the drag if the command is deferred, unless one is
+	 * already queued.
+	 * 
+	 * @return <code>true</code> if the update is deferred
+	 */
+	private boolean queueDragUpdate() {
+		if (!isCommandDeferred() || Display.getCurrent() == null)
+			return false;
+		if (!dragUpdateQueued) {
+			dragUpdateQueued = true;
+			Display.getCurrent().timerExec(DEFERRED_UPDATE_INTERVAL,
+					new QueuedDragUpdate());
+		}
+		return true;
+	}
+
+	/**
+	 * Sets whether the command is deferred during the drag. If it is, the drag
+	 * is updated at most once per display frame, and the command shown during
+	 * the drag, which decides the cursor, is only built again when the target
+	 * edit part or the kind of drag changes. It may therefore not reflect the
+	 * latest move delta. The command which is executed is always built on
+	 * drop. This is meant for dragging many edit parts at once, whose commands
+	 * are expensive to build on each mouse move.
+	 * 
+	 * @param commandDeferred
+	 *            <code>true</code> to defer the command
+	 * @since 3.11
+	 */
+	public void setCommandDeferred(boolean commandDeferred) {
+		this.commandDeferred = commandDeferred;
+	}
+
 	/**
 	 * Enables cloning if the value is true.
 	 * 
@@ -640,6 +768,19 @@ public class DragEditPartsTracker extends SelectEditPartTracker {
 			captureSourceDimensions();
 	}
 
+	/**
+	 * Updates the target request and mouse target, asks to show feedback, and
+	 * sets the current command.
+	 */
+	private void updateDrag() {
+		updateTargetRequest();
+		if (updateTargetUnderMouse())
+			updateTargetRequest();
+		showTargetFeedback();
+		showSourceFeedback();
+		setCurrentCommand(getDragCommand());
+	}
+
 	/**
 	 * Calls {@link #repairStartLocation()} in case auto scroll is being
 	 * performed. Updates the request with the current
@@ -721,4 +862,14 @@ public class DragEditPartsTracker extends SelectEditPartTracker {
 		}
 	}
 
+	class QueuedDragUpdate implements Runnable {
+		public void run() {
+			if (!dragUpdateQueued)
+				return;
+			dragUpdateQueued = false;
+			if (isInDragInProgress())
+				updateDrag();
+		}
+	}
+
 }
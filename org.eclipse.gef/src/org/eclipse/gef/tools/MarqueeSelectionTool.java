@@ -15,6 +15,7 @@ import java.util.Collection;
 import java.util.HashSet;
 import java.util.Iterator;
 import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.Set;
 
 import org.eclipse.swt.SWT;
@@ -135,6 +136,127 @@ public class MarqueeSelectionTool extends AbstractTool {
 		}
 	}
 
+	/**
+	 * A grid of the absolute figure bounds of edit parts, which returns the
+	 * edit parts whose bounds intersect a rectangle without testing all of
+	 * them. Edit parts with empty bounds, and those whose bounds span many
+	 * cells, are always returned.
+	 */
+	private static class BoundsIndex {
+
+		/** The maximum number of cells of an indexed edit part. */
+		private static final int MAX_CELLS = 64;
+
+		private final GraphicalEditPart[] editParts;
+		private final Rectangle[] bounds;
+		private final int[] unindexed;
+		private final int[][] cells;
+		private final int originX, originY, cellSize, columns, rows;
+		/** The last query which returned each edit part. */
+		private final int[] queries;
+		private int query;
+
+		BoundsIndex(Collection editParts) {
+			this.editParts = (GraphicalEditPart[]) editParts
+					.toArray(new GraphicalEditPart[editParts.size()]);
+			bounds = new Rectangle[this.editParts.length];
+			queries = new int[this.editParts.length];
+			Rectangle extent = null;
+			for (int i = 0; i < bounds.length; i++) {
+				IFigure figure = this.editParts[i].getFigure();
+				bounds[i] = figure.getBounds().getCopy();
+				figure.translateToAbsolute(bounds[i]);
+				if (bounds[i].isEmpty())
+					continue;
+				if (extent == null)
+					extent = bounds[i].getCopy();
+				else
+					extent.union(bounds[i]);
+			}
+			if (extent == null)
+				extent = new Rectangle();
+			originX = extent.x;
+			originY = extent.y;
+			// about one cell per edit part
+			double cellArea = (double) extent.width * extent.height
+					/ Math.max(1, bounds.length);
+			cellSize = Math.max(1, (int) Math.ceil(Math.sqrt(cellArea)));
+			columns = Math.max(1, (extent.width + cellSize - 1) / cellSize);
+			rows = Math.max(1, (extent.height + cellSize - 1) / cellSize);
+
+			// count the edit parts of each cell, then fill the cells
+			int[] counts = new int[columns * rows];
+			int unindexedCount = 0;
+			for (int i = 0; i < bounds.length; i++) {
+				if (!isIndexed(bounds[i])) {
+					unindexedCount++;
+					continue;
+				}
+				Rectangle r = bounds[i];
+				for (int y = row(r.y); y <= row(r.bottom() - 1); y++)
+					for (int x = column(r.x); x <= column(r.right() - 1); x++)
+						counts[y * columns + x]++;
+			}
+			cells = new int[counts.length][];
+			for (int c = 0; c < counts.length; c++)
+				cells[c] = new int[counts[c]];
+			unindexed = new int[unindexedCount];
+			unindexedCount = 0;
+			for (int i = 0; i < bounds.length; i++) {
+				if (!isIndexed(bounds[i])) {
+					unindexed[unindexedCount++] = i;
+					continue;
+				}
+				Rectangle r = bounds[i];
+				for (int y = row(r.y); y <= row(r.bottom() - 1); y++)
+					for (int x = column(r.x); x <= column(r.right() - 1); x++) {
+						int c = y * columns + x;
+						cells[c][cells[c].length - counts[c]--] = i;
+					}
+			}
+		}
+
+		private int column(int x) {
+			return Math.max(0, Math.min(columns - 1, (x - originX) / cellSize));
+		}
+
+		private int row(int y) {
+			return Math.max(0, Math.min(rows - 1, (y - originY) / cellSize));
+		}
+
+		private boolean isIndexed(Rectangle r) {
+			return !r.isEmpty()
+					&& (long) (column(r.right() - 1) - column(r.x) + 1)
+							* (row(r.bottom() - 1) - row(r.y) + 1) <= MAX_CELLS;
+		}
+
+		/**
+		 * Returns the edit parts whose bounds intersect the given rectangle, in
+		 * absolute coordinates, along with those which are not indexed.
+		 */
+		List getCandidates(Rectangle rect) {
+			List candidates = new ArrayList();
+			for (int i = 0; i < unindexed.length; i++)
+				candidates.add(editParts[unindexed[i]]);
+			if (rect.isEmpty())
+				return candidates;
+			query++;
+			for (int y = row(rect.y); y <= row(rect.bottom() - 1); y++)
+				for (int x = column(rect.x); x <= column(rect.right() - 1); x++) {
+					int[] cell = cells[y * columns + x];
+					for (int j = 0; j < cell.length; j++) {
+						int i = cell[j];
+						if (queries[i] != query) {
+							queries[i] = query;
+							if (bounds[i].intersects(rect))
+								candidates.add(editParts[i]);
+						}
+					}
+				}
+			return candidates;
+		}
+	}
+
 	/**
 	 * This behavior selects connections that intersect the marquee rectangle.
 	 * 
@@ -216,6 +338,7 @@ public class MarqueeSelectionTool extends AbstractTool {
 	public static final int DEFAULT_MARQUEE_BEHAVIOR = BEHAVIOR_NODES_CONTAINED;
 
 	private Set allChildren = new HashSet();
+	private BoundsIndex boundsIndex;
 	private int marqueeBehavior = DEFAULT_MARQUEE_BEHAVIOR;
 	private Figure marqueeRectangleFigure;
 	private int mode;
@@ -296,6 +419,32 @@ public class MarqueeSelectionTool extends AbstractTool {
 	 * @since 3.7
 	 */
 	private Collection calculatePrimaryMarqueeSelectedEditParts() {
+		// only the edit parts whose figures intersect the marquee selection
+		// rectangle can be affected by it
+		if (boundsIndex == null)
+			boundsIndex = new BoundsIndex(getMarqueeSelectionCandidates());
+		Collection editPartsToProcess = boundsIndex
+				.getCandidates(getCurrentMarqueeSelectionRectangle());
+
+		// process the candidates and determine which are affected by the
+		// current marquee selection
+		Collection marqueeSelectedEditParts = new ArrayList();
+		for (Iterator iterator = editPartsToProcess.iterator(); iterator
+				.hasNext();) {
+			GraphicalEditPart editPart = (GraphicalEditPart) iterator.next();
+			if (isMarqueeSelectable(editPart)
+					&& isPrimaryMarqueeSelectedEditPart(editPart)) {
+				marqueeSelectedEditParts.add(editPart);
+			}
+		}
+		return marqueeSelectedEditParts;
+	}
+
+	/**
+	 * Returns the edit parts which may be directly affected by a marquee
+	 * selection, based on the current marquee behavior.
+	 */
+	private Collection getMarqueeSelectionCandidates() {
 		Collection editPartsToProcess = new HashSet();
 		if (marqueeBehavior != BEHAVIOR_CONNECTIONS_CONTAINED
 				&& marqueeBehavior != BEHAVIOR_CONNECTIONS_TOUCHED) {
@@ -313,19 +462,7 @@ public class MarqueeSelectionTool extends AbstractTool {
 							.getAllNestedConnectionEditParts((GraphicalEditPart) getCurrentViewer()
 									.getRootEditPart()));
 		}
-
-		// process all edit parts and determine which are affected by the
-		// current marquee selection
-		Collection marqueeSelectedEditParts = new ArrayList();
-		for (Iterator iterator = editPartsToProcess.iterator(); iterator
-				.hasNext();) {
-			GraphicalEditPart editPart = (GraphicalEditPart) iterator.next();
-			if (isMarqueeSelectable(editPart)
-					&& isPrimaryMarqueeSelectedEditPart(editPart)) {
-				marqueeSelectedEditParts.add(editPart);
-			}
-		}
-		return marqueeSelectedEditParts;
+		return editPartsToProcess;
 	}
 
 	/**
@@ -387,6 +524,7 @@ public class MarqueeSelectionTool extends AbstractTool {
 		}
 		super.deactivate();
 		allChildren.clear();
+		boundsIndex = null;
 		setState(STATE_TERMINAL);
 	}
 
@@ -405,6 +543,7 @@ public class MarqueeSelectionTool extends AbstractTool {
 			EditPart editPart = (EditPart) oldEditParts.next();
 			editPart.eraseTargetFeedback(getTargetRequest());
 		}
+		selectedEditParts = null;
 	}
 
 	/**
@@ -467,6 +606,7 @@ public class MarqueeSelectionTool extends AbstractTool {
 			handleInvalidInput();
 		}
 		if (stateTransition(STATE_INITIAL, STATE_DRAG_IN_PROGRESS)) {
+			boundsIndex = null;
 			if (getCurrentInput().isModKeyDown(SWT.MOD1))
 				setSelectionMode(TOGGLE_MODE);
 			else if (getCurrentInput().isShiftKeyDown())
@@ -491,14 +631,17 @@ public class MarqueeSelectionTool extends AbstractTool {
 	}
 
 	/**
+	 * Updates the marquee feedback, and the target feedback of the edit parts
+	 * which entered or left the marquee selection.
+	 * 
 	 * @see org.eclipse.gef.tools.AbstractTool#handleDragInProgress()
 	 */
 	protected boolean handleDragInProgress() {
 		if (isInState(STATE_DRAG | STATE_DRAG_IN_PROGRESS)) {
 			showMarqueeFeedback();
-			eraseTargetFeedback();
+			Collection oldEditParts = selectedEditParts;
 			selectedEditParts = calculateMarqueeSelectedEditParts();
-			showTargetFeedback();
+			updateTargetFeedback(oldEditParts);
 		}
 		return true;
 	}
@@ -768,6 +911,8 @@ public class MarqueeSelectionTool extends AbstractTool {
 			throw new IllegalArgumentException(
 					"Invalid marquee behaviour specified."); //$NON-NLS-1$
 		marqueeBehavior = type;
+		// the candidates depend on the behavior
+		boundsIndex = null;
 	}
 
 	private void setSelectionMode(int mode) {
@@ -795,10 +940,26 @@ public class MarqueeSelectionTool extends AbstractTool {
 		marqueeFeedbackFigure.validate();
 	}
 
-	private void showTargetFeedback() {
+	/**
+	 * Erases the target feedback of the given edit parts which are no longer
+	 * selected, and shows it for the selected edit parts which were not.
+	 */
+	private void updateTargetFeedback(Collection oldEditParts) {
+		Collection newEditParts = selectedEditParts instanceof Set ? selectedEditParts
+				: new HashSet(selectedEditParts);
+		if (oldEditParts != null) {
+			for (Iterator itr = oldEditParts.iterator(); itr.hasNext();) {
+				EditPart editPart = (EditPart) itr.next();
+				if (!newEditParts.contains(editPart))
+					editPart.eraseTargetFeedback(getTargetRequest());
+			}
+			if (!(oldEditParts instanceof Set))
+				oldEditParts = new HashSet(oldEditParts);
+		}
 		for (Iterator itr = selectedEditParts.iterator(); itr.hasNext();) {
 			EditPart editPart = (EditPart) itr.next();
-			editPart.showTargetFeedback(getTargetRequest());
+			if (oldEditParts == null || !oldEditParts.contains(editPart))
+				editPart.showTargetFeedback(getTargetRequest());
 		}
 	}
 
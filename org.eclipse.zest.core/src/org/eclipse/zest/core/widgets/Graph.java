@@ -11,9 +11,10 @@ package org.eclipse.zest.core.widgets;
 
 import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.IdentityHashMap;
 import java.util.Iterator;
-import java.util.LinkedList;
 import java.util.List;
+import java.util.Map;
 
 import org.eclipse.draw2d.Animation;
 import org.eclipse.draw2d.ColorConstants;
@@ -53,7 +54,9 @@ import org.eclipse.zest.core.widgets.internal.ZestRootLayer;
 import org.eclipse.zest.layouts.InvalidLayoutConfiguration;
 import org.eclipse.zest.layouts.LayoutAlgorithm;
 import org.eclipse.zest.layouts.LayoutEntity;
+import org.eclipse.zest.layouts.LayoutExecutor;
 import org.eclipse.zest.layouts.LayoutRelationship;
+import org.eclipse.zest.layouts.LayoutSnapshot;
 import org.eclipse.zest.layouts.LayoutStyles;
 import org.eclipse.zest.layouts.algorithms.TreeLayoutAlgorithm;
 import org.eclipse.zest.layouts.constraints.LayoutConstraint;
@@ -112,6 +115,23 @@ public class Graph extends FigureCanvas implements IContainer {
 
 	private boolean hasPendingLayoutRequest;
 
+	/** The depth of nested beginUpdate() calls. */
+	private int updateDepth;
+	/** The nodes and connections whose figures wait for the update to end. */
+	private List pendingItems = new ArrayList();
+	private boolean layoutRequestedInUpdate;
+
+	private boolean asynchronousLayout;
+	private LayoutExecutor.Request layoutRequest;
+
+	/**
+	 * Counts the changes to the nodes and connections, and to their
+	 * visibility, which invalidate the cached layout inputs.
+	 */
+	private int layoutInputVersion;
+	/** Maps each list of nodes to its cached LayoutInput. */
+	private final Map layoutInputs = new IdentityHashMap();
+
 	/**
 	 * Constructor for a Graph. This widget represents the root of the graph,
 	 * and can contain graph items such as graph nodes and graph connections.
@@ -390,6 +410,10 @@ public class Graph extends FigureCanvas implements IContainer {
 	 * after the view is available.
 	 */
 	public void applyLayout() {
+		if (updateDepth > 0) {
+			layoutRequestedInUpdate = true;
+			return;
+		}
 		if (!hasPendingLayoutRequest) {
 			hasPendingLayoutRequest = true;
 			this.addRevealListener(new RevealListener() {
@@ -405,6 +429,91 @@ public class Graph extends FigureCanvas implements IContainer {
 		}
 	}
 
+	/**
+	 * Starts a batch of changes to the graph. Until the matching
+	 * {@link #endUpdate()}, the figures of the new nodes and connections are
+	 * not added to the graph's layer, and layout requests are held back. The
+	 * figures are then added in one pass, at the locations, sizes and
+	 * highlights their items have by then, and a single layout is requested if
+	 * any was. Updates may be nested.
+	 * 
+	 * @see #batch(Runnable)
+	 */
+	public void beginUpdate() {
+		updateDepth++;
+	}
+
+	/**
+	 * Ends a batch of changes started by {@link #beginUpdate()}. The outermost
+	 * call adds the pending figures and requests the held back layout.
+	 */
+	public void endUpdate() {
+		if (updateDepth == 0) {
+			throw new IllegalStateException("endUpdate without beginUpdate");
+		}
+		updateDepth--;
+		if (updateDepth > 0) {
+			return;
+		}
+		List items = pendingItems;
+		pendingItems = new ArrayList();
+		if (isDisposed()) {
+			layoutRequestedInUpdate = false;
+			return;
+		}
+		for (Iterator i = items.iterator(); i.hasNext();) {
+			GraphItem item = (GraphItem) i.next();
+			if (item.isDisposed()) {
+				continue;
+			}
+			if (item instanceof GraphConnection) {
+				// as outside of a batch, highlighted connections stay with
+				// the other connections
+				zestRootLayer.addConnection(((GraphConnection) item)
+						.getFigure());
+			} else {
+				GraphNode node = (GraphNode) item;
+				IFigure figure = node.getFigure();
+				zestRootLayer.addNode(figure);
+				node.refreshLocation();
+				if (node.isHighlighted()) {
+					zestRootLayer.highlightNode(figure);
+				}
+			}
+		}
+		if (layoutRequestedInUpdate) {
+			layoutRequestedInUpdate = false;
+			applyLayout();
+		}
+	}
+
+	/**
+	 * Returns whether a batch of changes is in progress.
+	 * 
+	 * @return true between {@link #beginUpdate()} and the matching
+	 *         {@link #endUpdate()}
+	 */
+	public boolean isUpdating() {
+		return updateDepth > 0;
+	}
+
+	/**
+	 * Runs the given changes as one batch, between {@link #beginUpdate()} and
+	 * {@link #endUpdate()}. This is much faster when creating or disposing
+	 * many nodes and connections.
+	 * 
+	 * @param changes
+	 *            the changes to make
+	 */
+	public void batch(Runnable changes) {
+		beginUpdate();
+		try {
+			changes.run();
+		} finally {
+			endUpdate();
+		}
+	}
+
 	/**
 	 * Sets the preferred size of the layout area. Size of ( -1, -1) uses the
 	 * current canvas size.
@@ -431,6 +540,40 @@ public class Graph extends FigureCanvas implements IContainer {
 		return this.layoutAlgorithm;
 	}
 
+	/**
+	 * Sets whether the layouts of this graph run in the background, on the
+	 * shared {@link LayoutExecutor}, rather than on the UI thread. The layout
+	 * then works on a snapshot of the nodes and connections, and its results
+	 * are applied back on the UI thread in one batch. A layout requested while
+	 * another is still running replaces it.
+	 * 
+	 * @param asynchronous
+	 *            true to lay out in the background
+	 */
+	public void setAsynchronousLayout(boolean asynchronous) {
+		this.asynchronousLayout = asynchronous;
+	}
+
+	/**
+	 * Returns whether the layouts of this graph run in the background.
+	 * 
+	 * @return true if the layouts run in the background
+	 */
+	public boolean isAsynchronousLayout() {
+		return this.asynchronousLayout;
+	}
+
+	/**
+	 * Cancels the background layout of this graph, if one is waiting or
+	 * running. Its results will not be applied.
+	 */
+	public void cancelLayout() {
+		if (layoutRequest != null) {
+			layoutRequest.cancel();
+			layoutRequest = null;
+		}
+	}
+
 	/**
 	 * Finds a figure at the location X, Y in the graph
 	 * 
@@ -761,6 +904,7 @@ public class Graph extends FigureCanvas implements IContainer {
 	}
 
 	private void release() {
+		cancelLayout();
 		while (nodes.size() > 0) {
 			GraphNode node = (GraphNode) nodes.get(0);
 			if (node != null) {
@@ -915,59 +1059,111 @@ public class Graph extends FigureCanvas implements IContainer {
 		return connsArray;
 	}
 
+	/**
+	 * Returns the layout relationships of the connections between the given
+	 * nodes. The array is cached until the nodes or connections change, and
+	 * must not be modified.
+	 */
 	LayoutRelationship[] getConnectionsToLayout(List nodesToLayout) {
-		// @tag zest.bug.156528-Filters.follows : make sure not to layout
-		// filtered connections, if the style says so.
-		LayoutRelationship[] entities;
-		if (ZestStyles.checkStyle(style, ZestStyles.IGNORE_INVISIBLE_LAYOUT)) {
-			LinkedList connectionList = new LinkedList();
-			for (Iterator i = this.getConnections().iterator(); i.hasNext();) {
-				GraphConnection next = (GraphConnection) i.next();
-				if (next.isVisible()
-						&& nodesToLayout.contains(next.getSource())
-						&& nodesToLayout.contains(next.getDestination())) {
-					connectionList.add(next.getLayoutRelationship());
-				}
+		LayoutInput input = getLayoutInput(nodesToLayout);
+		if (input.relationships == null) {
+			// @tag zest.bug.156528-Filters.follows : make sure not to layout
+			// filtered connections, if the style says so.
+			boolean ignoreInvisible = ZestStyles.checkStyle(style,
+					ZestStyles.IGNORE_INVISIBLE_LAYOUT);
+			Map nodeSet = new IdentityHashMap(nodesToLayout.size() * 2);
+			for (Iterator i = nodesToLayout.iterator(); i.hasNext();) {
+				nodeSet.put(i.next(), Boolean.TRUE);
 			}
-			entities = (LayoutRelationship[]) connectionList
-					.toArray(new LayoutRelationship[] {});
-		} else {
-			LinkedList nodeList = new LinkedList();
+			LayoutRelationship[] relationships = new LayoutRelationship[connections
+					.size()];
+			int count = 0;
 			for (Iterator i = this.getConnections().iterator(); i.hasNext();) {
 				GraphConnection next = (GraphConnection) i.next();
-				if (nodesToLayout.contains(next.getSource())
-						&& nodesToLayout.contains(next.getDestination())) {
-					nodeList.add(next.getLayoutRelationship());
+				if ((!ignoreInvisible || next.isVisible())
+						&& nodeSet.containsKey(next.getSource())
+						&& nodeSet.containsKey(next.getDestination())) {
+					relationships[count++] = next.getLayoutRelationship();
 				}
 			}
-			entities = (LayoutRelationship[]) nodeList
-					.toArray(new LayoutRelationship[] {});
+			if (count < relationships.length) {
+				LayoutRelationship[] trimmed = new LayoutRelationship[count];
+				System.arraycopy(relationships, 0, trimmed, 0, count);
+				relationships = trimmed;
+			}
+			input.relationships = relationships;
 		}
-		return entities;
+		return input.relationships;
 	}
 
+	/**
+	 * Returns the layout entities of the given nodes. The array is cached
+	 * until the nodes or connections change, and must not be modified.
+	 */
 	LayoutEntity[] getNodesToLayout(List nodes) {
-		// @tag zest.bug.156528-Filters.follows : make sure not to layout
-		// filtered nodes, if the style says so.
-		LayoutEntity[] entities;
-		if (ZestStyles.checkStyle(style, ZestStyles.IGNORE_INVISIBLE_LAYOUT)) {
-			LinkedList nodeList = new LinkedList();
+		LayoutInput input = getLayoutInput(nodes);
+		if (input.entities == null) {
+			// @tag zest.bug.156528-Filters.follows : make sure not to layout
+			// filtered nodes, if the style says so.
+			boolean ignoreInvisible = ZestStyles.checkStyle(style,
+					ZestStyles.IGNORE_INVISIBLE_LAYOUT);
+			LayoutEntity[] entities = new LayoutEntity[nodes.size()];
+			int count = 0;
 			for (Iterator i = nodes.iterator(); i.hasNext();) {
 				GraphNode next = (GraphNode) i.next();
-				if (next.isVisible()) {
-					nodeList.add(next.getLayoutEntity());
+				if (!ignoreInvisible || next.isVisible()) {
+					entities[count++] = next.getLayoutEntity();
 				}
 			}
-			entities = (LayoutEntity[]) nodeList.toArray(new LayoutEntity[] {});
-		} else {
-			LinkedList nodeList = new LinkedList();
-			for (Iterator i = nodes.iterator(); i.hasNext();) {
-				GraphNode next = (GraphNode) i.next();
-				nodeList.add(next.getLayoutEntity());
+			if (count < entities.length) {
+				LayoutEntity[] trimmed = new LayoutEntity[count];
+				System.arraycopy(entities, 0, trimmed, 0, count);
+				entities = trimmed;
 			}
-			entities = (LayoutEntity[]) nodeList.toArray(new LayoutEntity[] {});
+			input.entities = entities;
 		}
-		return entities;
+		return input.entities;
+	}
+
+	/**
+	 * Returns the cached layout input of the given list of nodes, discarding
+	 * it if the graph has changed since it was computed.
+	 */
+	private LayoutInput getLayoutInput(List nodes) {
+		LayoutInput input = (LayoutInput) layoutInputs.get(nodes);
+		// the sizes also catch changes made directly to the lists
+		if (input == null || input.version != layoutInputVersion
+				|| input.style != style || input.nodeCount != nodes.size()
+				|| input.connectionCount != connections.size()) {
+			input = new LayoutInput();
+			input.version = layoutInputVersion;
+			input.style = style;
+			input.nodeCount = nodes.size();
+			input.connectionCount = connections.size();
+			layoutInputs.put(nodes, input);
+		}
+		return input;
+	}
+
+	/**
+	 * Discards the cached layout inputs, after a node or connection has been
+	 * added, removed, shown or hidden.
+	 */
+	void layoutInputChanged() {
+		layoutInputVersion++;
+		layoutInputs.clear();
+	}
+
+	/**
+	 * The layout entities and relationships computed for a list of nodes.
+	 */
+	private static class LayoutInput {
+		int version;
+		int style;
+		int nodeCount;
+		int connectionCount;
+		LayoutEntity[] entities;
+		LayoutRelationship[] relationships;
 	}
 
 	void removeConnection(GraphConnection connection) {
@@ -978,6 +1174,7 @@ public class Graph extends FigureCanvas implements IContainer {
 				.getTargetContainerConnectionFigure();
 		connection.removeFigure();
 		this.getConnections().remove(connection);
+		layoutInputChanged();
 		figure2ItemMap.remove(figure);
 		if (sourceContainerConnectionFigure != null) {
 			figure2ItemMap.remove(sourceContainerConnectionFigure);
@@ -997,6 +1194,7 @@ public class Graph extends FigureCanvas implements IContainer {
 			}
 		}
 		this.getNodes().remove(node);
+		layoutInputChanged();
 		if (this.getSelection() != null) {
 			this.getSelection().remove(node);
 		}
@@ -1005,8 +1203,13 @@ public class Graph extends FigureCanvas implements IContainer {
 
 	void addConnection(GraphConnection connection, boolean addToEdgeLayer) {
 		this.getConnections().add(connection);
+		layoutInputChanged();
 		if (addToEdgeLayer) {
-			zestRootLayer.addConnection(connection.getFigure());
+			if (updateDepth > 0) {
+				pendingItems.add(connection);
+			} else {
+				zestRootLayer.addConnection(connection.getFigure());
+			}
 		}
 	}
 
@@ -1030,12 +1233,22 @@ public class Graph extends FigureCanvas implements IContainer {
 
 	void addNode(GraphNode node) {
 		this.getNodes().add(node);
-		zestRootLayer.addNode(node.getFigure());
+		layoutInputChanged();
+		if (updateDepth > 0) {
+			pendingItems.add(node);
+		} else {
+			zestRootLayer.addNode(node.getFigure());
+		}
 	}
 
 	void addNode(GraphContainer graphContainer) {
 		this.getNodes().add(graphContainer);
-		zestRootLayer.addNode(graphContainer.getFigure());
+		layoutInputChanged();
+		if (updateDepth > 0) {
+			pendingItems.add(graphContainer);
+		} else {
+			zestRootLayer.addNode(graphContainer.getFigure());
+		}
 
 	}
 
@@ -1070,7 +1283,7 @@ public class Graph extends FigureCanvas implements IContainer {
 	 */
 	void changeNodeFigure(IFigure oldValue, IFigure newFigure,
 			GraphNode graphItem) {
-		if (zestRootLayer.getChildren().contains(oldValue)) {
+		if (oldValue.getParent() == zestRootLayer) {
 			zestRootLayer.remove(oldValue);
 			figure2ItemMap.remove(oldValue);
 		}
@@ -1133,6 +1346,32 @@ public class Graph extends FigureCanvas implements IContainer {
 		LayoutRelationship[] connectionsToLayout = getConnectionsToLayout(nodes);
 		LayoutEntity[] nodesToLayout = getNodesToLayout(getNodes());
 
+		if (asynchronousLayout) {
+			// the executor stops the layout which is still running, so a
+			// previous request is only dropped here. The display is taken on
+			// the UI thread, as the graph may be disposed once the layout
+			// completes.
+			final Display display = getDisplay();
+			layoutRequest = LayoutExecutor.getDefault().submit(this,
+					layoutAlgorithm,
+					new LayoutSnapshot(nodesToLayout, connectionsToLayout), 0,
+					0, d.width, d.height, new LayoutExecutor.Callback() {
+						public void layoutCompleted(
+								final LayoutExecutor.Request request) {
+							if (display.isDisposed()) {
+								return;
+							}
+							display.asyncExec(new Runnable() {
+								public void run() {
+									applyLayoutResults(request);
+								}
+							});
+						}
+					});
+			return;
+		}
+		cancelLayout();
+
 		try {
 			if ((nodeStyle & ZestStyles.NODES_NO_LAYOUT_ANIMATION) == 0) {
 				Animation.markBegin();
@@ -1150,6 +1389,25 @@ public class Graph extends FigureCanvas implements IContainer {
 
 	}
 
+	/**
+	 * Applies the results of a background layout, unless the graph has been
+	 * disposed or another layout has been requested since.
+	 */
+	private void applyLayoutResults(LayoutExecutor.Request request) {
+		if (isDisposed() || request != layoutRequest || request.isCancelled()) {
+			return;
+		}
+		layoutRequest = null;
+		if ((nodeStyle & ZestStyles.NODES_NO_LAYOUT_ANIMATION) == 0) {
+			Animation.markBegin();
+		}
+		request.getSnapshot().apply();
+		if ((nodeStyle & ZestStyles.NODES_NO_LAYOUT_ANIMATION) == 0) {
+			Animation.run(ANIMATION_TIME);
+		}
+		getLightweightSystem().getUpdateManager().performUpdate();
+	}
+
 	interface MyRunnable extends Runnable {
 		public boolean isVisible();
 	}
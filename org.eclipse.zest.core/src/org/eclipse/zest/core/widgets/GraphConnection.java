@@ -513,6 +513,7 @@ public class GraphConnection extends GraphItem {
 	 */
 	public void setVisible(boolean visible) {
 		// graphModel.addRemoveFigure(this, visible);
+		graphModel.layoutInputChanged();
 		if (getSource().isVisible() && getDestination().isVisible() && visible) {
 			this.getFigure().setVisible(visible);
 			if (sourceContainerConnectionFigure != null) {
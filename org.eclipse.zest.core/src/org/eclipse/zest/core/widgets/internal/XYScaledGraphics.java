@@ -18,6 +18,7 @@ import java.util.Map;
 
 import org.eclipse.draw2d.FigureUtilities;
 import org.eclipse.draw2d.Graphics;
+import org.eclipse.draw2d.ScaledFontCache;
 import org.eclipse.draw2d.ScaledGraphics;
 import org.eclipse.draw2d.geometry.Point;
 import org.eclipse.draw2d.geometry.PointList;
@@ -156,6 +157,7 @@ public class XYScaledGraphics extends ScaledGraphics {
 	private Map fontCache = new HashMap();
 	private Map fontDataCache = new HashMap();
 	private FontKey fontKey = new FontKey();
+	private ScaledFontCache sharedFontCache;
 	private double fractionalX;
 	private double fractionalY;
 	private Graphics graphics;
@@ -198,13 +200,16 @@ public class XYScaledGraphics extends ScaledGraphics {
 			popState();
 		}
 
-		// Dispose fonts
+		// Release or dispose fonts
 		Iterator iter = fontCache.values().iterator();
 		while (iter.hasNext()) {
 			Font font = ((Font) iter.next());
-			font.dispose();
+			if (sharedFontCache != null)
+				sharedFontCache.releaseFont(font);
+			else
+				font.dispose();
 		}
-
+		fontCache.clear();
 	}
 
 	/** @see Graphics#drawArc(int, int, int, int, int, int) */
@@ -424,9 +429,19 @@ public class XYScaledGraphics extends ScaledGraphics {
 			return font;
 		}
 		key = new FontKey(key.font, key.height);
-		FontData data = key.font.getFontData()[0];
-		data.setHeight(key.height);
-		Font zoomedFont = createFont(data);
+		// the fonts acquired so far were all released to the same cache
+		if (fontCache.isEmpty()) {
+			Display display = Display.getCurrent();
+			sharedFontCache = display != null ? ScaledFontCache.getCache(display) : null;
+		}
+		Font zoomedFont;
+		if (sharedFontCache != null) {
+			zoomedFont = sharedFontCache.acquireFont(key.font, key.height);
+		} else {
+			FontData data = key.font.getFontData()[0];
+			data.setHeight(key.height);
+			zoomedFont = createFont(data);
+		}
 		fontCache.put(key, zoomedFont);
 		return zoomedFont;
 	}
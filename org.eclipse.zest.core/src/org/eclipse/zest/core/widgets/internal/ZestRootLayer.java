@@ -10,35 +10,66 @@
  *******************************************************************************/
 package org.eclipse.zest.core.widgets.internal;
 
+import java.util.ArrayList;
+import java.util.IdentityHashMap;
+import java.util.List;
+import java.util.Map;
+
 import org.eclipse.draw2d.FreeformLayer;
+import org.eclipse.draw2d.Graphics;
 import org.eclipse.draw2d.IFigure;
+import org.eclipse.draw2d.TreeSearch;
 
 /**
- * The root figure for Zest.  The figure is broken up into four segments, 
+ * The root figure for Zest.  The figure is broken up into four segments,
  * 1. The Connections
  * 2. The Nodes
  * 3. The Highlighted Connections
  * 4. The Highlighted Nodes
- * 
+ *
+ * The segment of each figure is kept in a map, so that adding, removing and
+ * (un)highlighting a figure only records its new segment. The children are
+ * reordered once, before they are next read, painted or searched. A figure
+ * which changes segment goes to the end of its new segment, and figures added
+ * with {@link #add(IFigure)} stay above the four segments.
+ *
  * @author Ian Bull
- * 
+ *
  */
 public class ZestRootLayer extends FreeformLayer {
 
 	public static final boolean EDGES_ON_TOP = false;
-	private int numberOfNodes = 0;
-	private int numberOfConnections = 0;
-	private int numberOfHighlightedNodes = 0;
-	private int numberOfHighlightedConnections = 0;
+
+	private static final int CONNECTIONS = 0;
+	private static final int NODES = 1;
+	private static final int HIGHLIGHTED_CONNECTIONS = 2;
+	private static final int HIGHLIGHTED_NODES = 3;
+	private static final int OTHERS = 4;
+
+	/** The segments, from bottom to top. */
+	private static final int[] SEGMENT_ORDER = EDGES_ON_TOP ? new int[] { NODES, CONNECTIONS, HIGHLIGHTED_NODES, HIGHLIGHTED_CONNECTIONS, OTHERS } : new int[] { CONNECTIONS, NODES, HIGHLIGHTED_CONNECTIONS, HIGHLIGHTED_NODES, OTHERS };
+
+	/** Maps the figures added by this layer to their Entry. */
+	private final Map entries = new IdentityHashMap();
+	/**
+	 * The figures which changed segment since the children were last ordered,
+	 * in the order they changed. A figure which changes again leaves a null
+	 * behind.
+	 */
+	private final List moved = new ArrayList();
+
+	private static class Entry {
+		int segment;
+		/** The index in the moved list, or -1. */
+		int moved = -1;
+	}
 
 	/**
 	 * Adds a node to the ZestRootLayer
 	 * @param nodeFigure The figure representing the node
 	 */
 	public void addNode(IFigure nodeFigure) {
-		int nodePosition = getNodePosition();
-		numberOfNodes++;
-		add(nodeFigure, nodePosition);
+		addToSegment(nodeFigure, NODES);
 	}
 
 	/**
@@ -46,145 +77,151 @@ public class ZestRootLayer extends FreeformLayer {
 	 * @param nodeFigure
 	 */
 	public void removeNode(IFigure nodeFigure) {
-		if (!this.getChildren().contains(nodeFigure)) {
+		if (nodeFigure.getParent() != this) {
 			throw new RuntimeException("Node not contained on the ZestRootLayer");
 		}
-		int nodePosition = this.getChildren().indexOf(nodeFigure);
-		if (nodePosition > getHighlightNodeStartPosition()) {
-			// The node is in the highlight node area
-			numberOfHighlightedNodes--;
-		} else {
-			// The node is in the node area
-			numberOfNodes--;
-		}
 		this.remove(nodeFigure);
 	}
 
 	public void removeConnection(IFigure connectionFigure) {
-		int connectionPosition = this.getChildren().indexOf(connectionFigure);
-		if (connectionPosition > getHighlightConnectionStartPosition()) {
-			// The connection is in the highlight connection area
-			numberOfHighlightedConnections--;
-		} else {
-			// The connection is in the connection area
-			numberOfConnections--;
-		}
 		this.remove(connectionFigure);
 	}
 
 	public void addConnection(IFigure connectionFigure) {
-		int connectionPosition = getConnectionPosition();
-		numberOfConnections++;
-		add(connectionFigure, connectionPosition);
+		addToSegment(connectionFigure, CONNECTIONS);
 	}
 
 	public void highlightNode(IFigure nodeFigure) {
-		this.numberOfNodes--;
-		int highlightNodePosition = getHighlightNodePosition();
-		this.numberOfHighlightedNodes++;
-		this.getChildren().remove(nodeFigure);
-		this.getChildren().add(highlightNodePosition, nodeFigure);
-		this.invalidate();
-		this.repaint();
+		moveToSegment(nodeFigure, HIGHLIGHTED_NODES);
 	}
 
 	public void highlightConnection(IFigure connectionFigure) {
-		this.numberOfConnections--;
-		int highlightConnectionPosition = getHighlightConnectionPosition();
-		this.numberOfHighlightedConnections++;
-		this.getChildren().remove(connectionFigure);
-		this.getChildren().add(highlightConnectionPosition, connectionFigure);
-		this.invalidate();
-		this.repaint();
+		moveToSegment(connectionFigure, HIGHLIGHTED_CONNECTIONS);
 	}
 
 	public void unHighlightNode(IFigure nodeFigure) {
-		int nodePosition = this.getChildren().indexOf(nodeFigure);
-		if (nodePosition < 0 || nodePosition > getHighlightNodePosition()) {
+		Entry entry = (Entry) entries.get(nodeFigure);
+		if (entry == null || entry.segment != HIGHLIGHTED_NODES) {
 			//throw new RuntimeException("Node: " + nodeFigure + " not currently Highlighted");
 			return;
 		}
-		this.numberOfHighlightedNodes--;
-		nodePosition = getNodePosition();
-		this.numberOfNodes++;
-		this.getChildren().remove(nodeFigure);
-		this.getChildren().add(nodePosition, nodeFigure);
-		this.invalidate();
-		this.repaint();
+		moveToSegment(nodeFigure, NODES);
 	}
 
 	public void unHighlightConnection(IFigure connectionFigure) {
-		int connectionPosition = this.getChildren().indexOf(connectionFigure);
-		if (connectionPosition < 0 || connectionPosition > getHighlightConnectionPosition()) {
+		Entry entry = (Entry) entries.get(connectionFigure);
+		if (entry == null || entry.segment != HIGHLIGHTED_CONNECTIONS) {
 			//throw new RuntimeException("Connection: " + connectionFigure + " not currently Highlighted");
 			return;
 		}
-		this.numberOfHighlightedConnections--;
-		this.numberOfConnections++;
-		connectionPosition = getConnectionPosition();
-		this.getChildren().remove(connectionFigure);
-		if (connectionPosition > this.getChildren().size()) {
-			this.getChildren().add(connectionFigure);
-		} else {
-			this.getChildren().add(connectionPosition, connectionFigure);
-		}
-		this.invalidate();
-		this.repaint();
+		moveToSegment(connectionFigure, CONNECTIONS);
 	}
 
-	/*
-	 * Node position is at the end of the list of nodes
-	 */
-	private int getNodePosition() {
-		if (EDGES_ON_TOP) {
-			return numberOfNodes;
+	public void remove(IFigure figure) {
+		Entry entry = (Entry) entries.remove(figure);
+		if (entry != null && entry.moved >= 0) {
+			moved.set(entry.moved, null);
 		}
-		return numberOfConnections + numberOfNodes;
+		super.remove(figure);
 	}
 
-	/*
-	 * Connection position is at the end of the list of connections
-	 */
-	private int getConnectionPosition() {
-		if (EDGES_ON_TOP) {
-			return 0 + numberOfConnections + numberOfNodes;
-		}
-		return 0 + numberOfConnections;
+	public List getChildren() {
+		orderChildren();
+		return super.getChildren();
 	}
 
-	/*
-	 * Highlight node position is at the end of the list of highlighted nodes
-	 */
-	private int getHighlightNodePosition() {
-		if (EDGES_ON_TOP) {
-			return numberOfConnections + numberOfNodes + numberOfHighlightedNodes;
-		}
-		return numberOfConnections + numberOfHighlightedConnections + numberOfNodes + numberOfHighlightedNodes;
+	public void validate() {
+		orderChildren();
+		super.validate();
+	}
+
+	public IFigure findFigureAt(int x, int y, TreeSearch search) {
+		orderChildren();
+		return super.findFigureAt(x, y, search);
+	}
+
+	public IFigure findMouseEventTargetAt(int x, int y) {
+		orderChildren();
+		return super.findMouseEventTargetAt(x, y);
+	}
+
+	protected void paintChildren(Graphics graphics) {
+		orderChildren();
+		super.paintChildren(graphics);
 	}
 
-	/*
-	 * Highlighted connection position is at the end of the list of highlighted connections
+	/**
+	 * Appends the figure to the children, and records that it belongs at the
+	 * end of the given segment.
 	 */
-	private int getHighlightConnectionPosition() {
-		if (EDGES_ON_TOP) {
-			return numberOfNodes + +numberOfConnections + numberOfHighlightedNodes + numberOfHighlightedConnections;
-		}
-		return numberOfConnections + numberOfNodes + numberOfHighlightedConnections;
+	private void addToSegment(IFigure figure, int segment) {
+		// a figure added again is first removed
+		add(figure, null, -1);
+		Entry entry = new Entry();
+		entry.segment = segment;
+		entries.put(figure, entry);
+		markMoved(figure, entry);
 	}
 
-	private int getHighlightConnectionStartPosition() {
-		if (EDGES_ON_TOP) {
-			return numberOfConnections + numberOfNodes + numberOfHighlightedNodes;
+	private void moveToSegment(IFigure figure, int segment) {
+		Entry entry = (Entry) entries.get(figure);
+		if (entry == null) {
+			return;
+		}
+		entry.segment = segment;
+		markMoved(figure, entry);
+		this.invalidate();
+		this.repaint();
+	}
 
+	private void markMoved(IFigure figure, Entry entry) {
+		if (entry.moved >= 0) {
+			moved.set(entry.moved, null);
 		}
-		return numberOfConnections + numberOfNodes;
+		entry.moved = moved.size();
+		moved.add(figure);
 	}
 
-	private int getHighlightNodeStartPosition() {
-		if (EDGES_ON_TOP) {
-			return numberOfNodes + numberOfConnections;
+	/**
+	 * Sorts the children by segment. The figures which have not moved keep
+	 * their order, and are followed in their segment by the figures which
+	 * moved there, in the order they moved.
+	 */
+	private void orderChildren() {
+		if (moved.isEmpty()) {
+			return;
+		}
+		List children = super.getChildren();
+		List[] segments = new List[SEGMENT_ORDER.length];
+		for (int i = 0; i < segments.length; i++) {
+			segments[i] = new ArrayList();
+		}
+		for (int i = 0; i < children.size(); i++) {
+			Object child = children.get(i);
+			Entry entry = (Entry) entries.get(child);
+			if (entry == null) {
+				segments[OTHERS].add(child);
+			} else if (entry.moved < 0) {
+				segments[entry.segment].add(child);
+			}
+		}
+		for (int i = 0; i < moved.size(); i++) {
+			Object figure = moved.get(i);
+			if (figure != null) {
+				Entry entry = (Entry) entries.get(figure);
+				entry.moved = -1;
+				segments[entry.segment].add(figure);
+			}
+		}
+		moved.clear();
+
+		int index = 0;
+		for (int i = 0; i < SEGMENT_ORDER.length; i++) {
+			List segment = segments[SEGMENT_ORDER[i]];
+			for (int j = 0; j < segment.size(); j++) {
+				children.set(index++, segment.get(j));
+			}
 		}
-		return numberOfConnections + numberOfHighlightedConnections + numberOfNodes;
 	}
 
 }
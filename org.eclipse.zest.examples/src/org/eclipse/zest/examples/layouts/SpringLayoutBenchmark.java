@@ -0,0 +1,149 @@
+/*******************************************************************************
+ * Copyright (c) 2026 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.zest.examples.layouts;
+
+import java.util.Random;
+
+import org.eclipse.zest.layouts.LayoutAlgorithm;
+import org.eclipse.zest.layouts.LayoutStyles;
+import org.eclipse.zest.layouts.algorithms.MultilevelLayoutAlgorithm;
+import org.eclipse.zest.layouts.algorithms.SpringLayoutAlgorithm;
+import org.eclipse.zest.layouts.exampleStructures.SimpleNode;
+import org.eclipse.zest.layouts.exampleStructures.SimpleRelationship;
+
+/**
+ * Compares the exact and the Barnes-Hut repulsion of the
+ * {@link SpringLayoutAlgorithm}, and the {@link MultilevelLayoutAlgorithm}, on
+ * random graphs of increasing size. The spring layouts start from the same
+ * positions. For each layout the time is printed, along
+ * with two measures of its quality:
+ * <ul>
+ * <li>edge ratio: the average length of an edge divided by the average
+ * distance between two nodes. Lower values mean related nodes are placed
+ * closer together.</li>
+ * <li>spread: the average distance from a node to its nearest neighbour,
+ * relative to the spacing of nodes evenly distributed over the layout area.
+ * Lower values mean nodes are clumped together.</li>
+ * </ul>
+ * Then both modes are run on the largest graph with 1, 2, 4 and 8 force
+ * threads, to show how the layout scales with the number of cores. The number
+ * of nodes may be passed as arguments.
+ */
+public class SpringLayoutBenchmark {
+
+	private static final int[] SIZES = { 100, 500, 1000, 2000 };
+	private static final int EDGES_PER_NODE = 2;
+	private static final int ITERATIONS = 200;
+	private static final int[] THREADS = { 1, 2, 4, 8 };
+	private static final double SIZE = 1000;
+
+	public static void main(String[] args) throws Exception {
+		int[] sizes = SIZES;
+		if (args.length > 0) {
+			sizes = new int[args.length];
+			for (int i = 0; i < args.length; i++)
+				sizes[i] = Integer.parseInt(args[i]);
+		}
+		// warm up
+		run(200, spring(SpringLayoutAlgorithm.REPULSION_EXACT, 1), null);
+		run(200, spring(SpringLayoutAlgorithm.REPULSION_BARNES_HUT, 1), null);
+		run(200, new MultilevelLayoutAlgorithm(LayoutStyles.NO_LAYOUT_NODE_RESIZING), null);
+		for (int i = 0; i < sizes.length; i++) {
+			run(sizes[i], spring(SpringLayoutAlgorithm.REPULSION_EXACT, 1), "exact, 1 thread");
+			run(sizes[i], spring(SpringLayoutAlgorithm.REPULSION_BARNES_HUT, 1), "Barnes-Hut, 1 thread");
+			run(sizes[i], new MultilevelLayoutAlgorithm(LayoutStyles.NO_LAYOUT_NODE_RESIZING), "multilevel");
+		}
+		int largest = sizes[sizes.length - 1];
+		for (int i = 0; i < THREADS.length; i++) {
+			String threads = THREADS[i] + (THREADS[i] == 1 ? " thread" : " threads");
+			run(largest, spring(SpringLayoutAlgorithm.REPULSION_EXACT, THREADS[i]), "exact, " + threads);
+			run(largest, spring(SpringLayoutAlgorithm.REPULSION_BARNES_HUT, THREADS[i]), "Barnes-Hut, " + threads);
+		}
+	}
+
+	private static SpringLayoutAlgorithm spring(int repulsion, int threads) {
+		SpringLayoutAlgorithm layout = new SpringLayoutAlgorithm(LayoutStyles.NO_LAYOUT_NODE_RESIZING);
+		layout.setRandom(false);
+		layout.setIterations(ITERATIONS);
+		layout.setSpringTimeout(0);
+		layout.setRepulsion(repulsion);
+		layout.setForceThreads(threads);
+		return layout;
+	}
+
+	/**
+	 * Lays out a random graph of the given size, and prints the results unless
+	 * the name is null.
+	 */
+	private static void run(int nodeCount, LayoutAlgorithm layout, String name) throws Exception {
+		Random random = new Random(nodeCount);
+		SimpleNode[] nodes = new SimpleNode[nodeCount];
+		for (int i = 0; i < nodeCount; i++)
+			nodes[i] = new SimpleNode("[" + i + "]", random.nextDouble() * SIZE, random.nextDouble() * SIZE, 10, 10);
+
+		// a random tree, with further random edges
+		int edgeCount = (nodeCount - 1) + nodeCount * (EDGES_PER_NODE - 1);
+		SimpleRelationship[] relationships = new SimpleRelationship[edgeCount];
+		int e = 0;
+		for (int i = 1; i < nodeCount; i++)
+			relationships[e++] = new SimpleRelationship(nodes[random.nextInt(i)], nodes[i], false);
+		while (e < edgeCount) {
+			int source = random.nextInt(nodeCount);
+			int target = random.nextInt(nodeCount);
+			if (source != target)
+				relationships[e++] = new SimpleRelationship(nodes[source], nodes[target], false);
+		}
+
+		long start = System.currentTimeMillis();
+		layout.applyLayout(nodes, relationships, 0, 0, SIZE, SIZE, false, false);
+		long time = System.currentTimeMillis() - start;
+
+		if (name != null)
+			System.out.println(nodeCount + " nodes, " + name + ": " + time + " ms, edge ratio " + format(edgeRatio(nodes, relationships, random)) + ", spread " + format(spread(nodes)));
+	}
+
+	private static double distance(SimpleNode node1, SimpleNode node2) {
+		double dx = node1.getX() - node2.getX();
+		double dy = node1.getY() - node2.getY();
+		return Math.sqrt(dx * dx + dy * dy);
+	}
+
+	private static double edgeRatio(SimpleNode[] nodes, SimpleRelationship[] relationships, Random random) {
+		double edgeLength = 0;
+		for (int i = 0; i < relationships.length; i++)
+			edgeLength += distance((SimpleNode) relationships[i].getSourceInLayout(), (SimpleNode) relationships[i].getDestinationInLayout());
+		edgeLength /= relationships.length;
+
+		double pairDistance = 0;
+		int samples = 10000;
+		for (int i = 0; i < samples; i++)
+			pairDistance += distance(nodes[random.nextInt(nodes.length)], nodes[random.nextInt(nodes.length)]);
+		pairDistance /= samples;
+		return edgeLength / pairDistance;
+	}
+
+	private static double spread(SimpleNode[] nodes) {
+		double total = 0;
+		for (int i = 0; i < nodes.length; i++) {
+			double nearest = Double.MAX_VALUE;
+			for (int j = 0; j < nodes.length; j++)
+				if (i != j)
+					nearest = Math.min(nearest, distance(nodes[i], nodes[j]));
+			total += nearest;
+		}
+		return total / nodes.length / Math.sqrt(SIZE * SIZE / nodes.length);
+	}
+
+	private static String format(double value) {
+		return String.valueOf(Math.round(value * 1000) / 1000.0);
+	}
+
+}
@@ -0,0 +1,149 @@
+/*******************************************************************************
+ * Copyright (c) 2026 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.zest.examples.layouts;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import org.eclipse.zest.layouts.LayoutAlgorithm;
+import org.eclipse.zest.layouts.LayoutStyles;
+import org.eclipse.zest.layouts.algorithms.HorizontalTreeLayoutAlgorithm;
+import org.eclipse.zest.layouts.algorithms.TidyTreeLayoutAlgorithm;
+import org.eclipse.zest.layouts.algorithms.TreeLayoutAlgorithm;
+import org.eclipse.zest.layouts.exampleStructures.SimpleNode;
+import org.eclipse.zest.layouts.exampleStructures.SimpleRelationship;
+
+/**
+ * Compares the {@link TreeLayoutAlgorithm} and the
+ * {@link TidyTreeLayoutAlgorithm} on random organisation charts of increasing
+ * size, in which each manager has a few reports and the boxes have the width
+ * of a name. For each layout the time is printed, along with two measures of
+ * its quality:
+ * <ul>
+ * <li>node scale: the average size of a node after the layout, relative to
+ * its size before. The layouts shrink the nodes so that the chart fits the
+ * bounds, and higher values mean a more readable chart.</li>
+ * <li>overlaps: the fraction of the nodes which overlap the next node of
+ * their level.</li>
+ * </ul>
+ * The number of nodes may be passed as arguments.
+ */
+public class TreeLayoutBenchmark {
+
+	private static final int[] SIZES = { 1000, 10000, 100000 };
+	private static final int MIN_REPORTS = 2;
+	private static final int MAX_REPORTS = 8;
+	private static final double SIZE = 1000;
+
+	public static void main(String[] args) throws Exception {
+		int[] sizes = SIZES;
+		if (args.length > 0) {
+			sizes = new int[args.length];
+			for (int i = 0; i < args.length; i++)
+				sizes[i] = Integer.parseInt(args[i]);
+		}
+		// warm up
+		run(1000, new TreeLayoutAlgorithm(LayoutStyles.NONE), null);
+		run(1000, new TidyTreeLayoutAlgorithm(LayoutStyles.NONE), null);
+		for (int i = 0; i < sizes.length; i++) {
+			run(sizes[i], new TreeLayoutAlgorithm(LayoutStyles.NONE), "tree, vertical");
+			run(sizes[i], new HorizontalTreeLayoutAlgorithm(LayoutStyles.NONE), "tree, horizontal");
+			run(sizes[i], new TidyTreeLayoutAlgorithm(LayoutStyles.NONE), "tidy tree, vertical");
+			TidyTreeLayoutAlgorithm horizontal = new TidyTreeLayoutAlgorithm(LayoutStyles.NONE);
+			horizontal.setOrientation(TidyTreeLayoutAlgorithm.ORIENTATION_HORIZONTAL);
+			run(sizes[i], horizontal, "tidy tree, horizontal");
+		}
+	}
+
+	/**
+	 * Lays out a random organisation chart of the given size, and prints the
+	 * results unless the name is null.
+	 */
+	private static void run(int nodeCount, LayoutAlgorithm layout, String name) throws Exception {
+		Random random = new Random(nodeCount);
+		SimpleNode[] nodes = new SimpleNode[nodeCount];
+		double[] widths = new double[nodeCount];
+		for (int i = 0; i < nodeCount; i++) {
+			widths[i] = 40 + random.nextInt(80);
+			nodes[i] = new SimpleNode("[" + i + "]", 0, 0, widths[i], 20);
+		}
+
+		// each manager, in order, gets a random number of reports
+		SimpleRelationship[] relationships = new SimpleRelationship[nodeCount - 1];
+		int manager = 0;
+		int next = 1;
+		while (next < nodeCount) {
+			int reports = MIN_REPORTS + random.nextInt(MAX_REPORTS - MIN_REPORTS + 1);
+			for (int r = 0; r < reports && next < nodeCount; r++, next++)
+				relationships[next - 1] = new SimpleRelationship(nodes[manager], nodes[next], false);
+			manager++;
+		}
+
+		long start = System.currentTimeMillis();
+		layout.applyLayout(nodes, relationships, 0, 0, SIZE, SIZE, false, false);
+		long time = System.currentTimeMillis() - start;
+
+		if (name != null) {
+			double scale = 0;
+			for (int i = 0; i < nodeCount; i++)
+				scale += nodes[i].getWidth() / widths[i];
+			scale /= nodeCount;
+			boolean horizontal = layout instanceof HorizontalTreeLayoutAlgorithm || (layout instanceof TidyTreeLayoutAlgorithm && ((TidyTreeLayoutAlgorithm) layout).getOrientation() == TidyTreeLayoutAlgorithm.ORIENTATION_HORIZONTAL);
+			System.out.println(nodeCount + " nodes, " + name + ": " + time + " ms, node scale " + format(scale) + ", overlaps " + format(overlaps(nodes, horizontal)));
+		}
+	}
+
+	private static double overlaps(SimpleNode[] nodes, final boolean horizontal) {
+		// the nodes of a level have the same center
+		Map levels = new HashMap();
+		for (int i = 0; i < nodes.length; i++) {
+			SimpleNode node = nodes[i];
+			Double level = new Double(horizontal ? node.getX() + node.getWidth() / 2 : node.getY() + node.getHeight() / 2);
+			List list = (List) levels.get(level);
+			if (list == null) {
+				list = new ArrayList();
+				levels.put(level, list);
+			}
+			list.add(node);
+		}
+
+		int overlaps = 0;
+		for (Iterator iter = levels.values().iterator(); iter.hasNext();) {
+			SimpleNode[] level = (SimpleNode[]) ((List) iter.next()).toArray(new SimpleNode[0]);
+			Arrays.sort(level, new Comparator() {
+				public int compare(Object o1, Object o2) {
+					return Double.compare(start((SimpleNode) o1, horizontal), start((SimpleNode) o2, horizontal));
+				}
+			});
+			for (int i = 0; i + 1 < level.length; i++) {
+				double end = start(level[i], horizontal) + (horizontal ? level[i].getHeight() : level[i].getWidth());
+				if (end > start(level[i + 1], horizontal))
+					overlaps++;
+			}
+		}
+		return (double) overlaps / nodes.length;
+	}
+
+	private static double start(SimpleNode node, boolean horizontal) {
+		return horizontal ? node.getY() : node.getX();
+	}
+
+	private static String format(double value) {
+		return String.valueOf(Math.round(value * 100000) / 100000.0);
+	}
+
+}
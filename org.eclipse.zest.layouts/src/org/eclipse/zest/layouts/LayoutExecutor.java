@@ -0,0 +1,388 @@
+/*******************************************************************************
+ * Copyright (c) 2026 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.zest.layouts;
+
+import java.util.HashMap;
+import java.util.Iterator;
+import java.util.LinkedList;
+import java.util.Map;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Runs layouts on a bounded pool of background threads, so that the thread
+ * which owns the graph, such as the UI thread, stays responsive while large
+ * graphs are laid out.
+ * <p>
+ * Each layout is submitted for a key, usually the graph, with a
+ * {@link LayoutSnapshot} of its entities. Requests for the same key are
+ * coalesced: a new request replaces the one still waiting, and stops the one
+ * running, so that only the latest layout of a graph is completed. Requests for
+ * the same key never run at the same time. Once a layout completes, the
+ * {@link Callback} is told on the pool thread, and is expected to hand the
+ * snapshot back to the owning thread to {@link LayoutSnapshot#apply() apply}
+ * it, checking first that the request has not been cancelled meanwhile.
+ * <p>
+ * A layout which fails counts as cancelled. Exceptions thrown by a layout or a
+ * callback are passed to {@link #handleException(Request, Throwable)}, which
+ * logs them, and the thread goes on with the next request. The threads are
+ * daemon threads, started when needed, and a thread which dies is replaced.
+ */
+public class LayoutExecutor {
+
+	/**
+	 * Told when a layout completes.
+	 */
+	public interface Callback {
+
+		/**
+		 * Called on the pool thread once the layout of the request has
+		 * completed without being cancelled.
+		 *
+		 * @param request
+		 *            the completed request
+		 */
+		void layoutCompleted(Request request);
+	}
+
+	/**
+	 * A layout submitted to the executor.
+	 */
+	public static final class Request {
+
+		private static final int WAITING = 0;
+		private static final int RUNNING = 1;
+		private static final int COMPLETED = 2;
+		private static final int CANCELLED = 3;
+
+		private final Object key;
+		private final LayoutAlgorithm algorithm;
+		private final LayoutSnapshot snapshot;
+		private final double x;
+		private final double y;
+		private final double width;
+		private final double height;
+		private final Callback callback;
+		private LayoutExecutor executor;
+		private int state = WAITING;
+
+		Request(Object key, LayoutAlgorithm algorithm, LayoutSnapshot snapshot, double x, double y, double width, double height, Callback callback) {
+			this.key = key;
+			this.algorithm = algorithm;
+			this.snapshot = snapshot;
+			this.x = x;
+			this.y = y;
+			this.width = width;
+			this.height = height;
+			this.callback = callback;
+		}
+
+		public Object getKey() {
+			return key;
+		}
+
+		public LayoutAlgorithm getAlgorithm() {
+			return algorithm;
+		}
+
+		public LayoutSnapshot getSnapshot() {
+			return snapshot;
+		}
+
+		/**
+		 * Cancels this request. A waiting request is dropped, and a running
+		 * one is asked to stop. The callback is not called afterwards.
+		 */
+		public void cancel() {
+			executor.cancelRequest(this);
+		}
+
+		/**
+		 * Returns whether this request has been cancelled, either directly or
+		 * by a later request for the same key.
+		 *
+		 * @return true if the request has been cancelled
+		 */
+		public boolean isCancelled() {
+			synchronized (executor.lock) {
+				return state == CANCELLED;
+			}
+		}
+
+		/**
+		 * Returns whether the layout of this request has completed.
+		 *
+		 * @return true if the layout has completed
+		 */
+		public boolean isCompleted() {
+			synchronized (executor.lock) {
+				return state == COMPLETED;
+			}
+		}
+	}
+
+	private static final Logger LOGGER = Logger.getLogger("org.eclipse.zest.layouts");
+
+	private static LayoutExecutor defaultExecutor;
+
+	private final Object lock = new Object();
+	private final int maximumThreads;
+	private final String name;
+	/** The waiting requests, in order. */
+	private final LinkedList waiting = new LinkedList();
+	/** Maps the keys to their running requests. */
+	private final Map running = new HashMap();
+	private int threadCount;
+	private int idleThreads;
+	private boolean disposed;
+
+	/**
+	 * Returns the executor shared by all graphs, whose threads are bounded by
+	 * the number of processors, less one for the UI thread, with at most 4.
+	 *
+	 * @return the shared executor
+	 */
+	public static synchronized LayoutExecutor getDefault() {
+		if (defaultExecutor == null) {
+			int processors = Runtime.getRuntime().availableProcessors();
+			defaultExecutor = new LayoutExecutor(Math.max(1, Math.min(4, processors - 1)), "Zest Layout");
+		}
+		return defaultExecutor;
+	}
+
+	/**
+	 * Creates an executor with at most the given number of threads.
+	 *
+	 * @param maximumThreads
+	 *            the maximum number of threads
+	 * @param name
+	 *            the name of the threads
+	 */
+	public LayoutExecutor(int maximumThreads, String name) {
+		if (maximumThreads < 1)
+			throw new IllegalArgumentException("Thread count must be at least 1");
+		this.maximumThreads = maximumThreads;
+		this.name = name;
+	}
+
+	/**
+	 * Submits a layout of the given snapshot, replacing the waiting request
+	 * and stopping the running request for the same key.
+	 *
+	 * @param key
+	 *            the key whose requests are coalesced, usually the graph
+	 * @param algorithm
+	 *            the layout algorithm, which must not be used elsewhere until
+	 *            the request completes
+	 * @param snapshot
+	 *            the entities and relationships to lay out
+	 * @param x
+	 *            the left side of the layout bounds
+	 * @param y
+	 *            the top side of the layout bounds
+	 * @param width
+	 *            the width of the layout bounds
+	 * @param height
+	 *            the height of the layout bounds
+	 * @param callback
+	 *            told when the layout completes
+	 * @return the request
+	 */
+	public Request submit(Object key, LayoutAlgorithm algorithm, LayoutSnapshot snapshot, double x, double y, double width, double height, Callback callback) {
+		Request request = new Request(key, algorithm, snapshot, x, y, width, height, callback);
+		request.executor = this;
+		synchronized (lock) {
+			if (disposed)
+				throw new IllegalStateException("Layout executor has been disposed");
+			cancelRequests(key);
+			waiting.addLast(request);
+			if (idleThreads > 0)
+				lock.notifyAll();
+			else if (threadCount < maximumThreads)
+				startThread();
+		}
+		return request;
+	}
+
+	/**
+	 * Returns the number of threads of this executor which are alive.
+	 *
+	 * @return the number of threads
+	 */
+	public int getThreadCount() {
+		synchronized (lock) {
+			return threadCount;
+		}
+	}
+
+	/**
+	 * Cancels the waiting and running requests for the given key.
+	 *
+	 * @param key
+	 *            the key
+	 */
+	public void cancel(Object key) {
+		synchronized (lock) {
+			cancelRequests(key);
+		}
+	}
+
+	/**
+	 * Cancels all requests and stops the threads once their layouts have
+	 * stopped. The executor can not be used afterwards.
+	 */
+	public void dispose() {
+		synchronized (lock) {
+			disposed = true;
+			while (!waiting.isEmpty())
+				((Request) waiting.removeFirst()).state = Request.CANCELLED;
+			for (Iterator iter = running.values().iterator(); iter.hasNext();)
+				stop((Request) iter.next());
+			lock.notifyAll();
+		}
+	}
+
+	void cancelRequest(Request request) {
+		synchronized (lock) {
+			if (request.state == Request.WAITING) {
+				waiting.remove(request);
+				request.state = Request.CANCELLED;
+			} else if (request.state == Request.RUNNING) {
+				stop(request);
+			}
+		}
+	}
+
+	private void cancelRequests(Object key) {
+		for (Iterator iter = waiting.iterator(); iter.hasNext();) {
+			Request request = (Request) iter.next();
+			if (request.key.equals(key)) {
+				iter.remove();
+				request.state = Request.CANCELLED;
+			}
+		}
+		Request request = (Request) running.get(key);
+		if (request != null)
+			stop(request);
+	}
+
+	/**
+	 * Called on the pool thread when the layout or the callback of a request
+	 * throws an exception. The default implementation logs it to the
+	 * <code>org.eclipse.zest.layouts</code> logger. Exceptions thrown by this
+	 * method end the thread, which is then replaced.
+	 *
+	 * @param request
+	 *            the request whose layout or callback failed
+	 * @param exception
+	 *            the exception
+	 */
+	protected void handleException(Request request, Throwable exception) {
+		LOGGER.log(Level.SEVERE, "Layout of " + request.key + " failed", exception);
+	}
+
+	private void startThread() {
+		threadCount++;
+		Thread thread = new Thread(new Worker(), name + " " + threadCount);
+		thread.setDaemon(true);
+		thread.setPriority(Thread.MIN_PRIORITY);
+		thread.start();
+	}
+
+	private void stop(Request request) {
+		request.state = Request.CANCELLED;
+		// only sets a flag when the layout runs on another thread, and a
+		// layout which has not started yet is simply not applied
+		if (request.algorithm.isRunning())
+			request.algorithm.stop();
+	}
+
+	/**
+	 * Takes the first waiting request whose key has no running request, or
+	 * returns null once the executor is disposed.
+	 */
+	private Request take() {
+		synchronized (lock) {
+			while (!disposed) {
+				for (Iterator iter = waiting.iterator(); iter.hasNext();) {
+					Request request = (Request) iter.next();
+					if (!running.containsKey(request.key)) {
+						iter.remove();
+						request.state = Request.RUNNING;
+						running.put(request.key, request);
+						return request;
+					}
+				}
+				idleThreads++;
+				try {
+					lock.wait();
+				} catch (InterruptedException e) {
+					// keep waiting until disposed
+				} finally {
+					idleThreads--;
+				}
+			}
+			return null;
+		}
+	}
+
+	private void run(Request request) {
+		LayoutSnapshot snapshot = request.snapshot;
+		boolean completed = false;
+		Throwable exception = null;
+		try {
+			request.algorithm.applyLayout(snapshot.getEntities(), snapshot.getRelationships(), request.x, request.y, request.width, request.height, false, false);
+			completed = true;
+		} catch (Throwable e) {
+			exception = e;
+		} finally {
+			synchronized (lock) {
+				running.remove(request.key);
+				if (request.state == Request.RUNNING)
+					request.state = completed ? Request.COMPLETED : Request.CANCELLED;
+				else
+					completed = false;
+				// a request for the same key may be waiting for this one
+				lock.notifyAll();
+			}
+		}
+		if (exception != null) {
+			handleException(request, exception);
+			return;
+		}
+		if (completed) {
+			try {
+				request.callback.layoutCompleted(request);
+			} catch (Throwable e) {
+				handleException(request, e);
+			}
+		}
+	}
+
+	private class Worker implements Runnable {
+
+		public void run() {
+			try {
+				Request request;
+				while ((request = take()) != null)
+					LayoutExecutor.this.run(request);
+			} finally {
+				synchronized (lock) {
+					threadCount--;
+					// replace this thread if it died with requests waiting
+					if (!disposed && !waiting.isEmpty() && threadCount < maximumThreads)
+						startThread();
+				}
+			}
+		}
+	}
+
+}
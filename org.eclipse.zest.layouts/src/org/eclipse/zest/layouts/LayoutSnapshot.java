@@ -0,0 +1,274 @@
+/*******************************************************************************
+ * Copyright (c) 2026 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.zest.layouts;
+
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+import org.eclipse.zest.layouts.constraints.BasicEdgeConstraints;
+import org.eclipse.zest.layouts.constraints.BasicEntityConstraint;
+import org.eclipse.zest.layouts.constraints.EntityPriorityConstraint;
+import org.eclipse.zest.layouts.constraints.LabelLayoutConstraint;
+import org.eclipse.zest.layouts.constraints.LayoutConstraint;
+
+/**
+ * A copy of the entities and relationships of a layout, which a layout
+ * algorithm can use on another thread while the originals stay untouched.
+ * <p>
+ * The snapshot is taken on the thread which owns the originals, such as the UI
+ * thread: it copies their locations and sizes, and the basic, priority and
+ * label constraints of the entities and the basic constraints of the
+ * relationships. Other constraints are left cleared. Once the layout is done,
+ * {@link #apply()} copies the results back to the originals in one batch, on
+ * the owning thread again.
+ * <p>
+ * The copied entities return the graph data of the originals, and are ordered
+ * as the originals are, so comparators and filters work unchanged as long as
+ * they do not need the owning thread.
+ */
+public class LayoutSnapshot {
+
+	private final LayoutEntity[] originalEntities;
+	private final LayoutRelationship[] originalRelationships;
+	private final SnapshotEntity[] entities;
+	private final SnapshotRelationship[] relationships;
+
+	/**
+	 * Takes a snapshot of the given entities and relationships. The end points
+	 * of each relationship must be among the entities.
+	 *
+	 * @param entities
+	 *            the entities to lay out
+	 * @param relationships
+	 *            the relationships to consider
+	 */
+	public LayoutSnapshot(LayoutEntity[] entities, LayoutRelationship[] relationships) {
+		this.originalEntities = entities;
+		this.originalRelationships = relationships;
+		this.entities = new SnapshotEntity[entities.length];
+		this.relationships = new SnapshotRelationship[relationships.length];
+
+		Map copies = new IdentityHashMap(entities.length * 2);
+		for (int i = 0; i < entities.length; i++) {
+			this.entities[i] = new SnapshotEntity(entities[i]);
+			copies.put(entities[i], this.entities[i]);
+		}
+		for (int i = 0; i < relationships.length; i++) {
+			LayoutRelationship relationship = relationships[i];
+			SnapshotEntity source = (SnapshotEntity) copies.get(relationship.getSourceInLayout());
+			SnapshotEntity destination = (SnapshotEntity) copies.get(relationship.getDestinationInLayout());
+			if (source == null || destination == null)
+				throw new IllegalArgumentException("The relationships don't contain the entities");
+			this.relationships[i] = new SnapshotRelationship(relationship, source, destination);
+		}
+	}
+
+	/**
+	 * Returns the copies of the entities, in the order they were given.
+	 *
+	 * @return the entities to pass to a layout algorithm
+	 */
+	public LayoutEntity[] getEntities() {
+		return entities;
+	}
+
+	/**
+	 * Returns the copies of the relationships, in the order they were given.
+	 *
+	 * @return the relationships to pass to a layout algorithm
+	 */
+	public LayoutRelationship[] getRelationships() {
+		return relationships;
+	}
+
+	/**
+	 * Copies the locations and sizes set by the layout, and the bend points of
+	 * the relationships, back to the originals. This must be called on the
+	 * thread which owns the originals, once the layout is done.
+	 */
+	public void apply() {
+		for (int i = 0; i < relationships.length; i++) {
+			SnapshotRelationship relationship = relationships[i];
+			if (relationship.bendPointsCleared)
+				originalRelationships[i].clearBendPoints();
+			if (relationship.bendPoints != null)
+				originalRelationships[i].setBendPoints(relationship.bendPoints);
+		}
+		for (int i = 0; i < entities.length; i++) {
+			SnapshotEntity entity = entities[i];
+			if (entity.sizeChanged)
+				originalEntities[i].setSizeInLayout(entity.width, entity.height);
+			if (entity.locationChanged)
+				originalEntities[i].setLocationInLayout(entity.x, entity.y);
+		}
+	}
+
+	private static class SnapshotEntity implements LayoutEntity {
+
+		private final LayoutEntity original;
+		private final Object graphData;
+		private final BasicEntityConstraint basicConstraint = new BasicEntityConstraint();
+		private final EntityPriorityConstraint priorityConstraint = new EntityPriorityConstraint();
+		private final LabelLayoutConstraint labelConstraint = new LabelLayoutConstraint();
+		private double x;
+		private double y;
+		private double width;
+		private double height;
+		private boolean locationChanged;
+		private boolean sizeChanged;
+		private Object layoutInformation;
+
+		SnapshotEntity(LayoutEntity original) {
+			this.original = original;
+			this.graphData = original.getGraphData();
+			this.x = original.getXInLayout();
+			this.y = original.getYInLayout();
+			this.width = original.getWidthInLayout();
+			this.height = original.getHeightInLayout();
+			labelConstraint.clear();
+			original.populateLayoutConstraint(basicConstraint);
+			original.populateLayoutConstraint(priorityConstraint);
+			original.populateLayoutConstraint(labelConstraint);
+		}
+
+		public void setLocationInLayout(double x, double y) {
+			this.x = x;
+			this.y = y;
+			locationChanged = true;
+		}
+
+		public void setSizeInLayout(double width, double height) {
+			this.width = width;
+			this.height = height;
+			sizeChanged = true;
+		}
+
+		public double getXInLayout() {
+			return x;
+		}
+
+		public double getYInLayout() {
+			return y;
+		}
+
+		public double getWidthInLayout() {
+			return width;
+		}
+
+		public double getHeightInLayout() {
+			return height;
+		}
+
+		public Object getLayoutInformation() {
+			return layoutInformation;
+		}
+
+		public void setLayoutInformation(Object internalEntity) {
+			this.layoutInformation = internalEntity;
+		}
+
+		public void populateLayoutConstraint(LayoutConstraint constraint) {
+			if (constraint instanceof BasicEntityConstraint) {
+				BasicEntityConstraint basic = (BasicEntityConstraint) constraint;
+				basic.hasPreferredLocation = basicConstraint.hasPreferredLocation;
+				basic.preferredX = basicConstraint.preferredX;
+				basic.preferredY = basicConstraint.preferredY;
+				basic.hasPreferredSize = basicConstraint.hasPreferredSize;
+				basic.preferredWidth = basicConstraint.preferredWidth;
+				basic.preferredHeight = basicConstraint.preferredHeight;
+			} else if (constraint instanceof EntityPriorityConstraint) {
+				((EntityPriorityConstraint) constraint).priority = priorityConstraint.priority;
+			} else if (constraint instanceof LabelLayoutConstraint) {
+				LabelLayoutConstraint label = (LabelLayoutConstraint) constraint;
+				label.label = labelConstraint.label;
+				label.pointSize = labelConstraint.pointSize;
+			}
+		}
+
+		public int compareTo(Object o) {
+			if (o instanceof SnapshotEntity)
+				return original.compareTo(((SnapshotEntity) o).original);
+			return original.compareTo(o);
+		}
+
+		public Object getGraphData() {
+			return graphData;
+		}
+
+		public void setGraphData(Object o) {
+			// the graph data belongs to the original
+		}
+
+		public String toString() {
+			return String.valueOf(graphData);
+		}
+	}
+
+	private static class SnapshotRelationship implements LayoutRelationship {
+
+		private final Object graphData;
+		private final SnapshotEntity source;
+		private final SnapshotEntity destination;
+		private final BasicEdgeConstraints basicConstraint = new BasicEdgeConstraints();
+		private LayoutBendPoint[] bendPoints;
+		private boolean bendPointsCleared;
+		private Object layoutInformation;
+
+		SnapshotRelationship(LayoutRelationship original, SnapshotEntity source, SnapshotEntity destination) {
+			this.graphData = original.getGraphData();
+			this.source = source;
+			this.destination = destination;
+			original.populateLayoutConstraint(basicConstraint);
+		}
+
+		public LayoutEntity getSourceInLayout() {
+			return source;
+		}
+
+		public LayoutEntity getDestinationInLayout() {
+			return destination;
+		}
+
+		public void setLayoutInformation(Object layoutInformation) {
+			this.layoutInformation = layoutInformation;
+		}
+
+		public Object getLayoutInformation() {
+			return layoutInformation;
+		}
+
+		public void setBendPoints(LayoutBendPoint[] bendPoints) {
+			this.bendPoints = bendPoints;
+		}
+
+		public void clearBendPoints() {
+			bendPoints = null;
+			bendPointsCleared = true;
+		}
+
+		public void populateLayoutConstraint(LayoutConstraint constraint) {
+			if (constraint instanceof BasicEdgeConstraints) {
+				BasicEdgeConstraints basic = (BasicEdgeConstraints) constraint;
+				basic.isBiDirectional = basicConstraint.isBiDirectional;
+				basic.weight = basicConstraint.weight;
+			}
+		}
+
+		public Object getGraphData() {
+			return graphData;
+		}
+
+		public void setGraphData(Object o) {
+			// the graph data belongs to the original
+		}
+	}
+
+}
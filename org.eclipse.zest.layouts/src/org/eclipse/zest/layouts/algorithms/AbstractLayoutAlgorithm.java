@@ -15,8 +15,12 @@ import java.util.Arrays;
 import java.util.Calendar;
 import java.util.Collection;
 import java.util.Comparator;
+import java.util.IdentityHashMap;
 import java.util.Iterator;
 import java.util.List;
+import java.util.Map;
+import java.util.SortedSet;
+import java.util.TreeSet;
 
 import org.eclipse.zest.layouts.Filter;
 import org.eclipse.zest.layouts.InvalidLayoutConfiguration;
@@ -59,7 +63,6 @@ public abstract class AbstractLayoutAlgorithm implements LayoutAlgorithm, Stoppa
 	public final static int MIN_ENTITY_SIZE = 5;
 	private final static int MIN_TIME_DELAY_BETWEEN_PROGRESS_EVENTS = 1;
 
-	private Thread creationThread = null;
 	protected Comparator comparator;
 	protected Filter filter;
 	private List progressListeners;
@@ -110,7 +113,10 @@ public abstract class AbstractLayoutAlgorithm implements LayoutAlgorithm, Stoppa
 
 	//protected boolean cancelled = false;
 
-	protected boolean layoutStopped = true;
+	protected volatile boolean layoutStopped = true;
+
+	/** The thread running the current layout, or null. */
+	private volatile Thread layoutThread;
 
 	protected int layout_styles = 0;
 
@@ -122,7 +128,6 @@ public abstract class AbstractLayoutAlgorithm implements LayoutAlgorithm, Stoppa
 	 * @see LayoutStyles
 	 */
 	public AbstractLayoutAlgorithm(int styles) {
-		this.creationThread = Thread.currentThread();
 		this.progressListeners = new ArrayList();
 		this.lastProgressEventFired = Calendar.getInstance();
 		this.widthToHeightRatio = 1.0;
@@ -349,18 +354,29 @@ public abstract class AbstractLayoutAlgorithm implements LayoutAlgorithm, Stoppa
 	 * Returns true if the layout algorithm is running
 	 * @return boolean if the layout algorithm is running
 	 */
-	public synchronized boolean isRunning() {
+	public boolean isRunning() {
 		return !layoutStopped;
 	}
 
 	/**
 	 * Stops the current layout from running.
 	 * All layout algorithms should constantly check isLayoutRunning
+	 * <p>
+	 * When called from another thread than the one running the layout, this
+	 * only asks the layout to stop and returns at once. The running thread
+	 * ends the layout as soon as it checks the request.
 	 */
-	public synchronized void stop() {
-		layoutStopped = true;
-		postLayoutAlgorithm(internalNodes, internalRelationships);
-		fireProgressEnded(getTotalNumberOfLayoutSteps());
+	public void stop() {
+		Thread thread = layoutThread;
+		if (thread != null && thread != Thread.currentThread()) {
+			layoutStopped = true;
+			return;
+		}
+		synchronized (this) {
+			layoutStopped = true;
+			postLayoutAlgorithm(internalNodes, internalRelationships);
+			fireProgressEnded(getTotalNumberOfLayoutSteps());
+		}
 	}
 
 	//	/**
@@ -437,10 +453,11 @@ public abstract class AbstractLayoutAlgorithm implements LayoutAlgorithm, Stoppa
 	protected abstract int getCurrentLayoutStep();
 
 	/**
-	 * This actually applies the layout
+	 * This actually applies the layout. It may be called from any thread, such
+	 * as the threads of a {@link org.eclipse.zest.layouts.LayoutExecutor}, and
+	 * runs one layout at a time.
 	 */
 	public synchronized void applyLayout(final LayoutEntity[] entitiesToLayout, final LayoutRelationship[] relationshipsToConsider, final double x, final double y, final double width, final double height, boolean asynchronous, boolean continuous) throws InvalidLayoutConfiguration {
-		checkThread();
 		this.internalAsynchronous = asynchronous;
 		this.internalContinuous = continuous;
 
@@ -450,6 +467,11 @@ public abstract class AbstractLayoutAlgorithm implements LayoutAlgorithm, Stoppa
 
 		clearBendPoints(relationshipsToConsider);
 
+		// set before the layout counts as running, so that stop() called from
+		// another thread never waits for the layout to end
+		if (!asynchronous) {
+			layoutThread = Thread.currentThread();
+		}
 		this.layoutStopped = false;
 
 		// when an algorithm starts, reset the progress event
@@ -459,12 +481,17 @@ public abstract class AbstractLayoutAlgorithm implements LayoutAlgorithm, Stoppa
 			Thread thread = new Thread(new Runnable() {
 
 				public void run() {
-					setupLayout(entitiesToLayout, relationshipsToConsider, x, y, width, height);
-					preLayoutAlgorithm(internalNodes, internalRelationships, internalX, internalY, internalWidth, internalHeight);
-					fireProgressStarted(getTotalNumberOfLayoutSteps());
-
-					applyLayoutInternal(internalNodes, internalRelationships, internalX, internalY, internalWidth, internalHeight);
-					stop();
+					layoutThread = Thread.currentThread();
+					try {
+						setupLayout(entitiesToLayout, relationshipsToConsider, x, y, width, height);
+						preLayoutAlgorithm(internalNodes, internalRelationships, internalX, internalY, internalWidth, internalHeight);
+						fireProgressStarted(getTotalNumberOfLayoutSteps());
+
+						applyLayoutInternal(internalNodes, internalRelationships, internalX, internalY, internalWidth, internalHeight);
+						stop();
+					} finally {
+						layoutThread = null;
+					}
 				}
 
 			});
@@ -474,12 +501,16 @@ public abstract class AbstractLayoutAlgorithm implements LayoutAlgorithm, Stoppa
 
 			// If we are running synchronously then we have to stop this at some
 			// point? right?
-			setupLayout(entitiesToLayout, relationshipsToConsider, x, y, width, height);
-			preLayoutAlgorithm(internalNodes, internalRelationships, internalX, internalY, internalWidth, internalHeight);
-			fireProgressStarted(getTotalNumberOfLayoutSteps());
-
-			applyLayoutInternal(internalNodes, internalRelationships, internalX, internalY, internalWidth, internalHeight);
-			stop();
+			try {
+				setupLayout(entitiesToLayout, relationshipsToConsider, x, y, width, height);
+				preLayoutAlgorithm(internalNodes, internalRelationships, internalX, internalY, internalWidth, internalHeight);
+				fireProgressStarted(getTotalNumberOfLayoutSteps());
+
+				applyLayoutInternal(internalNodes, internalRelationships, internalX, internalY, internalWidth, internalHeight);
+				stop();
+			} finally {
+				layoutThread = null;
+			}
 		}
 
 	}
@@ -617,26 +648,20 @@ public abstract class AbstractLayoutAlgorithm implements LayoutAlgorithm, Stoppa
 	 * Allows other classes in this package to use this method to verify the input
 	 */
 	public static boolean verifyInput(LayoutEntity[] entitiesToLayout, LayoutRelationship[] relationshipsToConsider) {
-		boolean stillValid = true;
+		if (relationshipsToConsider.length == 0) {
+			return true;
+		}
+		Map entities = new IdentityHashMap(entitiesToLayout.length * 2);
+		for (int i = 0; i < entitiesToLayout.length; i++) {
+			entities.put(entitiesToLayout[i], entitiesToLayout[i]);
+		}
 		for (int i = 0; i < relationshipsToConsider.length; i++) {
 			LayoutRelationship relationship = relationshipsToConsider[i];
-			LayoutEntity source = relationship.getSourceInLayout();
-			LayoutEntity destination = relationship.getDestinationInLayout();
-			boolean containsSrc = false;
-			boolean containsDest = false;
-			int j = 0;
-			while (j < entitiesToLayout.length && !(containsSrc && containsDest)) {
-				if (entitiesToLayout[j].equals(source)) {
-					containsSrc = true;
-				}
-				if (entitiesToLayout[j].equals(destination)) {
-					containsDest = true;
-				}
-				j++;
+			if (!entities.containsKey(relationship.getSourceInLayout()) || !entities.containsKey(relationship.getDestinationInLayout())) {
+				return false;
 			}
-			stillValid = containsSrc && containsDest;
 		}
-		return stillValid;
+		return true;
 	}
 
 	/**
@@ -905,29 +930,80 @@ public abstract class AbstractLayoutAlgorithm implements LayoutAlgorithm, Stoppa
 	private DisplayIndependentDimension getMinimumDistance(InternalNode[] entitiesToLayout) {
 		DisplayIndependentDimension horAndVertdistance = new DisplayIndependentDimension(Double.MAX_VALUE, Double.MAX_VALUE);
 		double minDistance = Double.MAX_VALUE; // the minimum distance between all the nodes
-		//TODO: Very Slow!
-		for (int i = 0; i < entitiesToLayout.length; i++) {
-			InternalNode layoutEntity1 = entitiesToLayout[i];
-			double x1 = layoutEntity1.getInternalX();
-			double y1 = layoutEntity1.getInternalY();
-			for (int j = i + 1; j < entitiesToLayout.length; j++) {
-				InternalNode layoutEntity2 = entitiesToLayout[j];
-				double x2 = layoutEntity2.getInternalX();
-				double y2 = layoutEntity2.getInternalY();
+		// Sweep the nodes from left to right, only comparing each node with
+		// the nodes to its left which are closer than the minimum distance
+		// found so far, both horizontally and vertically. The nodes which are
+		// horizontally close enough are kept sorted vertically. Among pairs at
+		// the same distance, the pair of lowest indices is chosen, as when
+		// comparing every pair.
+		final InternalNode[] entities = entitiesToLayout;
+		Integer[] order = new Integer[entities.length];
+		for (int i = 0; i < order.length; i++)
+			order[i] = new Integer(i);
+		Arrays.sort(order, new Comparator() {
+			public int compare(Object o1, Object o2) {
+				double x1 = entities[((Integer) o1).intValue()].getInternalX();
+				double x2 = entities[((Integer) o2).intValue()].getInternalX();
+				return Double.compare(x1, x2);
+			}
+		});
+		SortedSet active = new TreeSet();
+		int left = 0;
+		int minFirst = -1, minSecond = -1;
+		for (int a = 0; a < order.length; a++) {
+			int i = order[a].intValue();
+			double x1 = entities[i].getInternalX();
+			double y1 = entities[i].getInternalY();
+			for (; left < a; left++) {
+				int j = order[left].intValue();
+				if (x1 - entities[j].getInternalX() <= minDistance)
+					break;
+				active.remove(new SweepEntry(entities[j].getInternalY(), j));
+			}
+			Iterator iter = active.subSet(new SweepEntry(y1 - minDistance, -1), new SweepEntry(y1 + minDistance, Integer.MAX_VALUE)).iterator();
+			while (iter.hasNext()) {
+				int j = ((SweepEntry) iter.next()).index;
+				double x2 = entities[j].getInternalX();
+				double y2 = entities[j].getInternalY();
 				double distanceX = Math.abs(x1 - x2);
 				double distanceY = Math.abs(y1 - y2);
 				double distance = Math.sqrt(Math.pow(distanceX, 2) + Math.pow(distanceY, 2));
 
-				if (distance < minDistance) {
+				int first = Math.min(i, j), second = Math.max(i, j);
+				if (distance < minDistance || (distance == minDistance && (first < minFirst || (first == minFirst && second < minSecond)))) {
 					minDistance = distance;
+					minFirst = first;
+					minSecond = second;
 					horAndVertdistance.width = distanceX;
 					horAndVertdistance.height = distanceY;
 				}
 			}
+			active.add(new SweepEntry(y1, i));
 		}
 		return horAndVertdistance;
 	}
 
+	/**
+	 * A node in the sweep of {@link #getMinimumDistance(InternalNode[])},
+	 * ordered by its vertical position, then by its index.
+	 */
+	private static class SweepEntry implements Comparable {
+		final double y;
+		final int index;
+
+		SweepEntry(double y, int index) {
+			this.y = y;
+			this.index = index;
+		}
+
+		public int compareTo(Object o) {
+			SweepEntry other = (SweepEntry) o;
+			if (y != other.y)
+				return y < other.y ? -1 : 1;
+			return index < other.index ? -1 : (index == other.index ? 0 : 1);
+		}
+	}
+
 	/**
 	 * Set the width to height ratio you want the entities to use
 	 */
@@ -1025,10 +1101,4 @@ public abstract class AbstractLayoutAlgorithm implements LayoutAlgorithm, Stoppa
 		return progressListeners.size();
 	}
 
-	private void checkThread() {
-		if (this.creationThread != Thread.currentThread()) {
-			throw new RuntimeException("Invalid Thread Access.");
-		}
-	}
-
 }
@@ -0,0 +1,351 @@
+/*******************************************************************************
+ * Copyright (c) 2026 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.zest.layouts.algorithms;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import org.eclipse.zest.layouts.LayoutStyles;
+import org.eclipse.zest.layouts.algorithms.internal.QuadTree;
+import org.eclipse.zest.layouts.algorithms.internal.SparseGraph;
+import org.eclipse.zest.layouts.dataStructures.DisplayIndependentRectangle;
+import org.eclipse.zest.layouts.dataStructures.InternalNode;
+import org.eclipse.zest.layouts.dataStructures.InternalRelationship;
+
+/**
+ * A force directed layout for large graphs. The graph is first coarsened
+ * repeatedly by merging pairs of related nodes, preferring the pairs with the
+ * heaviest relationships, until it has only a few nodes or stops shrinking.
+ * The coarsest graph is laid out from random positions; then each finer graph
+ * starts from the positions of the nodes it was merged into, and is refined
+ * with a few iterations of the same forces as the
+ * {@link SpringLayoutAlgorithm} with Barnes-Hut repulsion. As the coarse
+ * levels have already placed the nodes roughly, each level only needs a small
+ * number of iterations, and the layout takes time O(n log n) overall.
+ * <p>
+ * Random placements use a fixed seed, so the same graph always gives the same
+ * layout.
+ */
+public class MultilevelLayoutAlgorithm extends AbstractLayoutAlgorithm {
+
+	/**
+	 * The default number of iterations at each level.
+	 */
+	public static final int DEFAULT_ITERATIONS = 50;
+
+	/**
+	 * The coarsest graph is laid out with this many times the number of
+	 * iterations of the other levels.
+	 */
+	private static final int COARSEST_ITERATIONS_FACTOR = 4;
+
+	/**
+	 * Graphs with at most this many nodes are not coarsened further.
+	 */
+	private static final int COARSEST_SIZE = 16;
+
+	/**
+	 * Coarsening stops when a level has more than this fraction of the nodes
+	 * of the level below.
+	 */
+	private static final double MIN_REDUCTION = 0.8;
+
+	private static final double MIN_DISTANCE = 0.001;
+
+	private static final double THETA = 0.8;
+
+	private static final double STRAIN = SpringLayoutAlgorithm.DEFAULT_SPRING_STRAIN;
+
+	private static final double LENGTH = SpringLayoutAlgorithm.DEFAULT_SPRING_LENGTH;
+
+	private static final double GRAVITATION = SpringLayoutAlgorithm.DEFAULT_SPRING_GRAVITATION;
+
+	/**
+	 * The largest distance a node may move in one direction in the first
+	 * iteration of a level. The distance decreases linearly over the
+	 * iterations of the level, so that the nodes settle.
+	 */
+	private static final double MAX_MOVEMENT = 0.2;
+
+	/**
+	 * One level of the coarsening.
+	 */
+	private static class Level {
+		final SparseGraph graph;
+
+		/**
+		 * The node of the next coarser level into which each node was merged,
+		 * or null for the coarsest level.
+		 */
+		int[] parents;
+
+		double[] x, y;
+
+		Level(SparseGraph graph) {
+			this.graph = graph;
+		}
+	}
+
+	private int iterations = DEFAULT_ITERATIONS;
+
+	private List levels;
+
+	private int totalSteps;
+
+	private int currentStep;
+
+	/**
+	 * Creates a multilevel layout with the given styles.
+	 *
+	 * @param styles
+	 * @see LayoutStyles
+	 */
+	public MultilevelLayoutAlgorithm(int styles) {
+		super(styles);
+	}
+
+	/**
+	 * Creates a multilevel layout with no style.
+	 */
+	public MultilevelLayoutAlgorithm() {
+		this(LayoutStyles.NONE);
+	}
+
+	/**
+	 * Sets the number of iterations used to refine each level. The coarsest
+	 * level uses more.
+	 *
+	 * @param iterations
+	 *            The number of iterations.
+	 */
+	public void setIterations(int iterations) {
+		if (iterations < 1)
+			throw new IllegalArgumentException("The number of iterations must be at least 1");
+		this.iterations = iterations;
+	}
+
+	/**
+	 * Returns the number of iterations used to refine each level.
+	 *
+	 * @return The number of iterations.
+	 */
+	public int getIterations() {
+		return iterations;
+	}
+
+	public void setLayoutArea(double x, double y, double width, double height) {
+		throw new RuntimeException("Operation not implemented");
+	}
+
+	protected boolean isValidConfiguration(boolean asynchronous, boolean continuous) {
+		return !continuous;
+	}
+
+	protected int getCurrentLayoutStep() {
+		return currentStep;
+	}
+
+	protected int getTotalNumberOfLayoutSteps() {
+		return totalSteps;
+	}
+
+	protected void preLayoutAlgorithm(InternalNode[] entitiesToLayout, InternalRelationship[] relationshipsToConsider, double x, double y, double width, double height) {
+		levels = new ArrayList();
+		Random random = new Random(0);
+		Level level = new Level(SparseGraph.create(entitiesToLayout, relationshipsToConsider, 1));
+		levels.add(level);
+		while (level.graph.getNodeCount() > COARSEST_SIZE) {
+			Level coarser = coarsen(level, random);
+			if (coarser.graph.getNodeCount() > MIN_REDUCTION * level.graph.getNodeCount()) {
+				level.parents = null;
+				break;
+			}
+			levels.add(coarser);
+			level = coarser;
+		}
+		totalSteps = iterations * (levels.size() - 1 + COARSEST_ITERATIONS_FACTOR);
+		currentStep = 0;
+	}
+
+	protected void postLayoutAlgorithm(InternalNode[] entitiesToLayout, InternalRelationship[] relationshipsToConsider) {
+		levels = null;
+	}
+
+	protected void applyLayoutInternal(InternalNode[] entitiesToLayout, InternalRelationship[] relationshipsToConsider, double boundsX, double boundsY, double boundsWidth, double boundsHeight) {
+		if (entitiesToLayout.length == 0)
+			return;
+		// stopping the layout clears the levels
+		List levelList = levels;
+		Random random = new Random(0);
+		QuadTree quadTree = new QuadTree();
+
+		Level coarsest = (Level) levelList.get(levelList.size() - 1);
+		int count = coarsest.graph.getNodeCount();
+		double side = Math.sqrt(count) * LENGTH;
+		coarsest.x = new double[count];
+		coarsest.y = new double[count];
+		for (int i = 0; i < count; i++) {
+			coarsest.x[i] = random.nextDouble() * side;
+			coarsest.y[i] = random.nextDouble() * side;
+		}
+		refine(coarsest, iterations * COARSEST_ITERATIONS_FACTOR, quadTree);
+
+		for (int l = levelList.size() - 2; l >= 0 && !layoutStopped; l--) {
+			Level level = (Level) levelList.get(l);
+			Level coarser = (Level) levelList.get(l + 1);
+			interpolate(level, coarser, random);
+			coarser.x = coarser.y = null;
+			refine(level, iterations, quadTree);
+		}
+
+		if (layoutStopped)
+			return;
+		Level finest = (Level) levelList.get(0);
+		for (int i = 0; i < entitiesToLayout.length; i++)
+			entitiesToLayout[i].setInternalLocation(finest.x[i], finest.y[i]);
+		defaultFitWithinBounds(entitiesToLayout, new DisplayIndependentRectangle(boundsX, boundsY, boundsWidth, boundsHeight));
+		updateLayoutLocations(entitiesToLayout);
+		fireProgressEvent(totalSteps, totalSteps);
+	}
+
+	/**
+	 * Merges the nodes of the given level in pairs. The nodes are visited in a
+	 * random order, and each node which has not been merged yet is merged with
+	 * the unmerged neighbour to which it has the heaviest edge, relative to
+	 * the degrees of the two nodes, so that hubs are not merged first. The
+	 * edges between the merged nodes are merged in turn.
+	 */
+	private static Level coarsen(Level level, Random random) {
+		SparseGraph graph = level.graph;
+		int count = graph.getNodeCount();
+		int[] start = graph.getStart();
+		int[] adjacency = graph.getAdjacency();
+		double[] weights = graph.getWeights();
+
+		int[] order = new int[count];
+		for (int i = 0; i < count; i++)
+			order[i] = i;
+		for (int i = count - 1; i > 0; i--) {
+			int j = random.nextInt(i + 1);
+			int swap = order[i];
+			order[i] = order[j];
+			order[j] = swap;
+		}
+
+		int[] parents = new int[count];
+		for (int i = 0; i < count; i++)
+			parents[i] = -1;
+		int coarseCount = 0;
+		for (int n = 0; n < count; n++) {
+			int i = order[n];
+			if (parents[i] != -1)
+				continue;
+			int degreeI = start[i + 1] - start[i];
+			int match = -1;
+			double best = 0;
+			for (int k = start[i]; k < start[i + 1]; k++) {
+				int j = adjacency[k];
+				if (parents[j] != -1)
+					continue;
+				double score = weights[k] / (degreeI + start[j + 1] - start[j]);
+				if (score > best) {
+					best = score;
+					match = j;
+				}
+			}
+			parents[i] = coarseCount;
+			if (match != -1)
+				parents[match] = coarseCount;
+			coarseCount++;
+		}
+		level.parents = parents;
+
+		int edgeCount = adjacency.length;
+		int[] sources = new int[edgeCount];
+		int[] targets = new int[edgeCount];
+		double[] edgeWeights = new double[edgeCount];
+		int e = 0;
+		for (int i = 0; i < count; i++) {
+			for (int k = start[i]; k < start[i + 1]; k++) {
+				int j = adjacency[k];
+				// each edge is in the rows of both of its nodes
+				if (j < i)
+					continue;
+				sources[e] = parents[i];
+				targets[e] = parents[j];
+				edgeWeights[e++] = weights[k];
+			}
+		}
+		return new Level(new SparseGraph(coarseCount, sources, targets, edgeWeights, e));
+	}
+
+	/**
+	 * Places each node of the given level near the node it was merged into.
+	 * The coarser layout is scaled so that the nodes keep the same density.
+	 */
+	private static void interpolate(Level level, Level coarser, Random random) {
+		int count = level.graph.getNodeCount();
+		double scale = Math.sqrt((double) count / coarser.graph.getNodeCount());
+		level.x = new double[count];
+		level.y = new double[count];
+		for (int i = 0; i < count; i++) {
+			int parent = level.parents[i];
+			level.x[i] = coarser.x[parent] * scale + (random.nextDouble() - 0.5) * LENGTH;
+			level.y[i] = coarser.y[parent] * scale + (random.nextDouble() - 0.5) * LENGTH;
+		}
+	}
+
+	/**
+	 * Performs the given number of iterations of the spring forces on the
+	 * given level.
+	 */
+	private void refine(Level level, int levelIterations, QuadTree quadTree) {
+		int count = level.graph.getNodeCount();
+		int[] start = level.graph.getStart();
+		int[] adjacency = level.graph.getAdjacency();
+		double[] weights = level.graph.getWeights();
+		double[] x = level.x;
+		double[] y = level.y;
+		double[] forcesX = new double[count];
+		double[] forcesY = new double[count];
+		double[] force = new double[2];
+
+		for (int iteration = 0; iteration < levelIterations && !layoutStopped; iteration++) {
+			quadTree.build(x, y, count);
+			for (int i = 0; i < count; i++) {
+				quadTree.computeRepulsion(i, THETA, GRAVITATION, MIN_DISTANCE, force);
+				double fx = force[0];
+				double fy = force[1];
+				for (int k = start[i]; k < start[i + 1]; k++) {
+					int j = adjacency[k];
+					double dx = x[i] - x[j];
+					double dy = y[i] - y[j];
+					double distance = Math.max(MIN_DISTANCE, Math.sqrt(dx * dx + dy * dy));
+					// related nodes attract and do not repel each other
+					double f = STRAIN * Math.log(distance / LENGTH) * weights[k] + GRAVITATION / (distance * distance);
+					fx -= f * dx / distance;
+					fy -= f * dy / distance;
+				}
+				forcesX[i] = fx;
+				forcesY[i] = fy;
+			}
+
+			double maxMovement = MAX_MOVEMENT * (levelIterations - iteration) / levelIterations;
+			for (int i = 0; i < count; i++) {
+				x[i] += Math.max(-maxMovement, Math.min(maxMovement, forcesX[i]));
+				y[i] += Math.max(-maxMovement, Math.min(maxMovement, forcesY[i]));
+			}
+			fireProgressEvent(++currentStep, totalSteps);
+		}
+	}
+
+}
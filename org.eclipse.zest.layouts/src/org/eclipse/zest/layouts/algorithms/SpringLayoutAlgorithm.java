@@ -14,6 +14,9 @@ import java.util.HashMap;
 import java.util.Map;
 
 import org.eclipse.zest.layouts.LayoutStyles;
+import org.eclipse.zest.layouts.algorithms.internal.QuadTree;
+import org.eclipse.zest.layouts.algorithms.internal.SparseGraph;
+import org.eclipse.zest.layouts.algorithms.internal.WorkerGroup;
 import org.eclipse.zest.layouts.dataStructures.DisplayIndependentRectangle;
 import org.eclipse.zest.layouts.dataStructures.InternalNode;
 import org.eclipse.zest.layouts.dataStructures.InternalRelationship;
@@ -85,6 +88,25 @@ public class SpringLayoutAlgorithm extends ContinuousLayoutAlgorithm {
 	 */
 	public static final double DEFAULT_SPRING_GRAVITATION = 1.0f;
 
+	/**
+	 * The repulsion mode in which the repulsion between every pair of nodes is
+	 * computed exactly. This takes time quadratic in the number of nodes.
+	 */
+	public static final int REPULSION_EXACT = 0;
+
+	/**
+	 * The repulsion mode in which the repulsion from distant groups of nodes is
+	 * approximated with a quadtree, as in the Barnes-Hut method. This takes time
+	 * O(n log n) in the number of nodes, plus time linear in the number of
+	 * related pairs of nodes.
+	 */
+	public static final int REPULSION_BARNES_HUT = 1;
+
+	/**
+	 * The default value for the Barnes-Hut approximation parameter.
+	 */
+	public static final double DEFAULT_BARNES_HUT_THETA = 0.8;
+
 	/**
 	 * The variable can be customized to set the number of iterations used.
 	 */
@@ -134,22 +156,32 @@ public class SpringLayoutAlgorithm extends ContinuousLayoutAlgorithm {
 	private static double sprGravitation = DEFAULT_SPRING_GRAVITATION;
 
 	/**
-	 * The largest movement of all vertices that has occured in the most recent
-	 * iteration.
+	 * The way in which the repulsion between nodes is computed.
 	 */
-	private double largestMovement = 0;
+	private int repulsion = REPULSION_EXACT;
+
+	/**
+	 * The Barnes-Hut approximation parameter.
+	 */
+	private double theta = DEFAULT_BARNES_HUT_THETA;
+
+	/**
+	 * The number of threads used to compute the forces and positions.
+	 */
+	private int forceThreads = 1;
 
 	/**
-	 * Maps a src and dest object to the number of relations between them. Key
-	 * is src.toString() + dest.toString(), value is an Integer
+	 * The number of blocks the rows of the exact force computation are divided
+	 * into. It does not depend on the number of threads, so that the forces
+	 * are always summed in the same order.
 	 */
-	private Map srcDestToNumRelsMap;
+	private static final int FORCE_BLOCKS = 16;
 
 	/**
-	 * Maps a src and dest object to the average weight of the relations between
-	 * them. Key is src.toString() + dest.toString(), value is a Double
+	 * The largest movement of all vertices that has occured in the most recent
+	 * iteration.
 	 */
-	private Map srcDestToRelsAvgWeightMap;
+	private double largestMovement = 0;
 
 	/**
 	 * Maps a relationship type to a weight. Key is a string, value is a Double
@@ -158,9 +190,20 @@ public class SpringLayoutAlgorithm extends ContinuousLayoutAlgorithm {
 
 	private int iteration;
 
-	private int[][] srcDestToNumRels;
+	/**
+	 * The nodes related to each node, in compressed sparse row form: the
+	 * nodes related to node i are at indices <code>adjacencyStart[i]</code>
+	 * to <code>adjacencyStart[i + 1] - 1</code> of <code>adjacency</code>.
+	 */
+	private int[] adjacencyStart;
+
+	private int[] adjacency;
 
-	private double[][] srcDestToRelsAvgWeight;
+	/**
+	 * The strength of the attraction between each pair of related nodes, in
+	 * the same order as <code>adjacency</code>.
+	 */
+	private double[] adjacencyWeights;
 
 	private double[] tempLocationsX;
 
@@ -172,6 +215,23 @@ public class SpringLayoutAlgorithm extends ContinuousLayoutAlgorithm {
 
 	private boolean[] anchors;
 
+	private QuadTree quadTree;
+
+	private WorkerGroup workers;
+
+	/**
+	 * The forces accumulated by each block of rows on the nodes of the other
+	 * rows, the attraction of one node to each of the others used by each
+	 * thread, and the largest movement of the nodes moved by each thread.
+	 */
+	private double[][] partForcesX;
+
+	private double[][] partForcesY;
+
+	private double[][] partRowWeights;
+
+	private double[] partMovements;
+
 	private DisplayIndependentRectangle bounds = null;
 
 	Date date = null;
@@ -181,8 +241,6 @@ public class SpringLayoutAlgorithm extends ContinuousLayoutAlgorithm {
 	 */
 	public SpringLayoutAlgorithm(int styles) {
 		super(styles);
-		srcDestToNumRelsMap = new HashMap();
-		srcDestToRelsAvgWeightMap = new HashMap();
 		date = new Date();
 	}
 
@@ -296,6 +354,81 @@ public class SpringLayoutAlgorithm extends ContinuousLayoutAlgorithm {
 		return sprGravitation;
 	}
 
+	/**
+	 * Sets the way in which the repulsion between nodes is computed, either
+	 * {@link #REPULSION_EXACT} or {@link #REPULSION_BARNES_HUT}. In both modes
+	 * the attraction is only computed between related nodes. The approximate
+	 * mode is much faster on large graphs.
+	 * 
+	 * @param repulsion
+	 *            The repulsion mode.
+	 */
+	public void setRepulsion(int repulsion) {
+		if (repulsion != REPULSION_EXACT && repulsion != REPULSION_BARNES_HUT)
+			throw new IllegalArgumentException("Unknown repulsion mode: " + repulsion);
+		this.repulsion = repulsion;
+	}
+
+	/**
+	 * Returns the way in which the repulsion between nodes is computed.
+	 * 
+	 * @return The repulsion mode.
+	 */
+	public int getRepulsion() {
+		return repulsion;
+	}
+
+	/**
+	 * Sets the Barnes-Hut approximation parameter. A group of nodes is treated
+	 * as a single node when the size of the area containing it divided by its
+	 * distance is less than theta. Smaller values are more accurate and
+	 * slower; <code>0</code> gives the exact repulsion. Only used when the
+	 * repulsion mode is {@link #REPULSION_BARNES_HUT}.
+	 * 
+	 * @param theta
+	 *            The approximation parameter.
+	 */
+	public void setBarnesHutTheta(double theta) {
+		if (theta < 0)
+			throw new IllegalArgumentException("Theta can not be negative!");
+		this.theta = theta;
+	}
+
+	/**
+	 * Returns the Barnes-Hut approximation parameter.
+	 * 
+	 * @return The approximation parameter.
+	 */
+	public double getBarnesHutTheta() {
+		return theta;
+	}
+
+	/**
+	 * Sets the number of threads used to compute the forces on the nodes and
+	 * their new positions in each iteration. The default value is 1, which
+	 * computes everything on the calling thread. With a larger value, the
+	 * nodes are divided among that many threads, each of which accumulates
+	 * its own forces. The forces are summed in the same order on any number
+	 * of threads, so the layout does not depend on the number of threads.
+	 * 
+	 * @param count
+	 *            The number of threads.
+	 */
+	public void setForceThreads(int count) {
+		if (count < 1)
+			throw new IllegalArgumentException("Thread count must be at least 1");
+		forceThreads = count;
+	}
+
+	/**
+	 * Returns the number of threads used to compute the forces on the nodes.
+	 * 
+	 * @return The number of threads.
+	 */
+	public int getForceThreads() {
+		return forceThreads;
+	}
+
 	/**
 	 * Sets the number of iterations to be used.
 	 * 
@@ -365,9 +498,16 @@ public class SpringLayoutAlgorithm extends ContinuousLayoutAlgorithm {
 		forcesX = null;
 		forcesY = null;
 		anchors = null;
+		adjacencyStart = null;
+		adjacency = null;
+		adjacencyWeights = null;
+		quadTree = null;
+		disposeWorkers();
+		partForcesX = null;
+		partForcesY = null;
+		partRowWeights = null;
+		partMovements = null;
 		setDefaultConditions();
-		srcDestToNumRelsMap = new HashMap();
-		srcDestToRelsAvgWeightMap = new HashMap();
 		relTypeToWeightMap = new HashMap();
 	}
 
@@ -388,13 +528,19 @@ public class SpringLayoutAlgorithm extends ContinuousLayoutAlgorithm {
 		for (int i = 0; i < entitiesToLayout.length; i++) {
 			anchors[i] = DEFAULT_ANCHOR;
 		}
-		for (int i = 0; i < relationshipsToConsider.length; i++) {
-			InternalRelationship layoutRelationship = relationshipsToConsider[i];
-			addRelation(layoutRelationship);
+
+		// the threads of a layout which did not end are not reused
+		disposeWorkers();
+		if (forceThreads > 1) {
+			workers = new WorkerGroup(forceThreads, "SpringLayoutAlgorithm");
+			partMovements = new double[forceThreads];
 		}
+		partForcesX = new double[FORCE_BLOCKS][entitiesToLayout.length];
+		partForcesY = new double[FORCE_BLOCKS][entitiesToLayout.length];
+		partRowWeights = new double[forceThreads][entitiesToLayout.length];
 
 		// do the calculations
-		preCompute(entitiesToLayout);
+		preCompute(entitiesToLayout, relationshipsToConsider);
 		startTime = date.getTime();
 	}
 
@@ -403,57 +549,26 @@ public class SpringLayoutAlgorithm extends ContinuousLayoutAlgorithm {
 	}
 
 	/**
-	 * Adds a simple relation between two nodes to the relation repository.
-	 * 
-	 * @param layoutRelationship
-	 *            The simple relation to be added
-	 * @throws java.lang.NullPointerExcetption
-	 *             If <code>sr</code> is null
-	 * @see SimpleRelation
-	 */
-	private void addRelation(InternalRelationship layoutRelationship) {
-		if (layoutRelationship == null) {
-			throw new IllegalArgumentException("The arguments can not be null!");
-		} else {
-			double weight = layoutRelationship.getWeight();
-			weight = (weight <= 0 ? 0.1 : weight);
-			String key1 = layoutRelationship.getSource().toString() + layoutRelationship.getDestination().toString();
-			String key2 = layoutRelationship.getDestination().toString() + layoutRelationship.getSource().toString();
-			String[] keys = { key1, key2 };
-			for (int i = 0; i < keys.length; i++) {
-				String key = keys[i];
-				Integer count = (Integer) srcDestToNumRelsMap.get(key);
-				Double avgWeight = (Double) srcDestToRelsAvgWeightMap.get(key);
-				if (count == null) {
-					count = new Integer(1);
-					avgWeight = new Double(weight);
-				} else {
-					int newCount = count.intValue() + 1;
-					double newAverage = (avgWeight.doubleValue() * count.doubleValue() + weight) / newCount;
-					avgWeight = new Double(newAverage);
-					count = new Integer(newCount);
-				}
-				srcDestToNumRelsMap.put(key, count);
-				srcDestToRelsAvgWeightMap.put(key, avgWeight);
-			}
+	 * Runs the iterations of the layout, and stops the worker threads once
+	 * they are done, even if an iteration fails.
+	 */
+	protected void applyLayoutInternal(InternalNode[] entitiesToLayout, InternalRelationship[] relationshipsToConsider, double x, double y, double width, double height) {
+		try {
+			super.applyLayoutInternal(entitiesToLayout, relationshipsToConsider, x, y, width, height);
+		} finally {
+			disposeWorkers();
 		}
 	}
 
-	private void preCompute(InternalNode[] entitiesToLayout) {
-		// count number of relationships between all nodes and the average
-		// weight between them
-		srcDestToNumRels = new int[entitiesToLayout.length][entitiesToLayout.length];
-		srcDestToRelsAvgWeight = new double[entitiesToLayout.length][entitiesToLayout.length];
-
-		for (int i = 0; i < entitiesToLayout.length - 1; i++) {
-			InternalNode layoutEntity1 = entitiesToLayout[i];
-			for (int j = i + 1; j < entitiesToLayout.length; j++) {
-				InternalNode layoutEntity2 = entitiesToLayout[j];
-				srcDestToNumRels[i][j] = numRelations(layoutEntity1, layoutEntity2);
-				srcDestToNumRels[i][j] += numRelations(layoutEntity2, layoutEntity1);
-				srcDestToRelsAvgWeight[i][j] = avgWeight(layoutEntity1, layoutEntity2);
-			}
+	private void disposeWorkers() {
+		if (workers != null) {
+			workers.dispose();
+			workers = null;
 		}
+	}
+
+	private void preCompute(InternalNode[] entitiesToLayout, InternalRelationship[] relationshipsToConsider) {
+		buildAdjacency(entitiesToLayout, relationshipsToConsider);
 
 		if (sprRandom)
 			placeRandomly(entitiesToLayout); // put vertices in random places
@@ -464,6 +579,24 @@ public class SpringLayoutAlgorithm extends ContinuousLayoutAlgorithm {
 		largestMovement = Double.MAX_VALUE;
 	}
 
+	/**
+	 * Builds the adjacency of the nodes from the relationships. Several
+	 * relationships between the same two nodes, in either direction, are
+	 * merged into one pair whose strength is the number of relationships
+	 * multiplied by their average weight, counting each relationship once from
+	 * each of its nodes. Relationships from a node to itself, or to a node
+	 * which is not laid out, are ignored.
+	 * 
+	 * @throws IllegalArgumentException
+	 *             If a relationship is null
+	 */
+	private void buildAdjacency(InternalNode[] entitiesToLayout, InternalRelationship[] relationshipsToConsider) {
+		SparseGraph graph = SparseGraph.create(entitiesToLayout, relationshipsToConsider, 2);
+		adjacencyStart = graph.getStart();
+		adjacency = graph.getAdjacency();
+		adjacencyWeights = graph.getWeights();
+	}
+
 	// TODO: This is a complete Clone! (and not in a good way)
 	protected DisplayIndependentRectangle getLayoutBoundsTemp(InternalNode[] entitiesToLayout, boolean includeNodeSize) {
 		double rightSide = Double.MIN_VALUE;
@@ -608,78 +741,153 @@ public class SpringLayoutAlgorithm extends ContinuousLayoutAlgorithm {
 	 * computed force will be stored in the data repository
 	 */
 	protected void computeForces(InternalNode[] entitiesToLayout) {
-
-		// initialize all forces to zero
-		for (int i = 0; i < entitiesToLayout.length; i++) {
-			forcesX[i] = 0.0;
-			forcesY[i] = 0.0;
+		if (repulsion == REPULSION_BARNES_HUT) {
+			computeApproximateForces(entitiesToLayout);
+			return;
 		}
+		computeExactForces(entitiesToLayout);
+	}
+
+	/**
+	 * Computes the force for each node from every pair of nodes, dividing the
+	 * pairs into rows: row i holds the pairs of node i with the nodes after
+	 * it. The force given to node j by row i is the opposite of the force
+	 * accumulated by node i so far, so it depends on all the rows before it.
+	 * It can be written in terms of the sums of the pair forces along each row
+	 * and each column: the threads compute these sums, and the forces are then
+	 * combined on the calling thread in a single pass over the nodes.
+	 * <p>
+	 * The rows are divided into {@link #FORCE_BLOCKS} blocks, each with its own
+	 * column sums, which are added up in the order of the blocks. As neither
+	 * the blocks nor the order depend on the number of threads, neither does
+	 * the result.
+	 */
+	private void computeExactForces(final InternalNode[] entitiesToLayout) {
+		final int count = entitiesToLayout.length;
+		runInParts(new WorkerGroup.Task() {
+			public void run(int part, int partCount) {
+				double[] weights = partRowWeights[part];
+				for (int block = part; block < FORCE_BLOCKS; block += partCount)
+					computeBlockForces(entitiesToLayout, block, weights);
+			}
+		});
+		if (count > 0)
+			forcesX[count - 1] = forcesY[count - 1] = 0;
+
+		// the force given by the earlier rows to node j is minus the sum of
+		// the forces of those nodes before row j, and of the column sums up to j
+		double earlierX = 0, earlierY = 0;
+		double columnsX = 0, columnsY = 0;
+		for (int j = 0; j < count; j++) {
+			for (int block = 0; block < FORCE_BLOCKS; block++) {
+				columnsX += partForcesX[block][j];
+				columnsY += partForcesY[block][j];
+			}
+			double givenX = -earlierX - columnsX;
+			double givenY = -earlierY - columnsY;
+			forcesX[j] += givenX;
+			forcesY[j] += givenY;
+			earlierX += givenX;
+			earlierY += givenY;
+		}
+	}
 
-		// TODO: Again really really slow!
-
-		for (int i = 0; i < entitiesToLayout.length - 1; i++) {
+	/**
+	 * Computes the row sums of the pair forces for the rows of the given block,
+	 * and the column sums of the block.
+	 */
+	private void computeBlockForces(InternalNode[] entitiesToLayout, int block, double[] weights) {
+		int count = entitiesToLayout.length;
+		double[] columnX = partForcesX[block];
+		double[] columnY = partForcesY[block];
+		for (int j = 0; j < count; j++)
+			columnX[j] = columnY[j] = 0;
+		// rows get shorter, so each block takes every FORCE_BLOCKS-th row
+		for (int i = block; i < count - 1; i += FORCE_BLOCKS) {
 			InternalNode sourceEntity = entitiesToLayout[i];
+			for (int k = adjacencyStart[i]; k < adjacencyStart[i + 1]; k++)
+				weights[adjacency[k]] = adjacencyWeights[k];
+			double rowX = 0, rowY = 0;
+			for (int j = i + 1; j < count; j++) {
+				if (entitiesToLayout[j].equals(sourceEntity))
+					continue;
+				double dx = tempLocationsX[i] - tempLocationsX[j];
+				double dy = tempLocationsY[i] - tempLocationsY[j];
+				double distance = Math.sqrt(dx * dx + dy * dy);
+				double distance_sq = distance * distance;
+				distance = Math.max(MIN_DISTANCE, distance);
+				double f;
+				if (weights[j] > 0)
+					f = -sprStrain * Math.log(distance / sprLength) * weights[j];
+				else
+					f = sprGravitation / (distance_sq);
+				double fx = f * dx / distance;
+				double fy = f * dy / distance;
+				rowX += fx;
+				rowY += fy;
+				columnX[j] += fx;
+				columnY[j] += fy;
+			}
+			for (int k = adjacencyStart[i]; k < adjacencyStart[i + 1]; k++)
+				weights[adjacency[k]] = 0;
+			forcesX[i] = rowX;
+			forcesY[i] = rowY;
+		}
+	}
 
-			double srcLocationX = tempLocationsX[i];
-			double srcLocationY = tempLocationsY[i];
-			double fx = forcesX[i]; // force in x direction
-			double fy = forcesY[i]; // force in y direction
-
-			for (int j = i + 1; j < entitiesToLayout.length; j++) {
-				InternalNode destinationEntity = entitiesToLayout[j];
-
-				if (!destinationEntity.equals(sourceEntity)) {
-					double destLocationX = tempLocationsX[j];
-					double destLocationY = tempLocationsY[j];
-					double dx = srcLocationX - destLocationX;
-					double dy = srcLocationY - destLocationY;
-					double distance = Math.sqrt(dx * dx + dy * dy);
-					double distance_sq = distance * distance;
-					// make sure distance and distance squared not too small
-					distance = Math.max(MIN_DISTANCE, distance);
-
-					// If there are relationships between srcObj and destObj
-					// then decrease force on srcObj (a pull) in direction of destObj
-					// If no relation between srcObj and destObj then increase
-					// force on srcObj (a push) from direction of destObj.
-					int numRels = srcDestToNumRels[i][j];
-					double avgWeight = srcDestToRelsAvgWeight[i][j];
-					if (numRels > 0) {
-						// nodes are pulled towards each other
-						double f = sprStrain * Math.log(distance / sprLength) * numRels * avgWeight;
-
-						fx = fx - (f * dx / distance);
-						fy = fy - (f * dy / distance);
-
-					} else {
-						// nodes are repelled from each other
-						//double f = Math.min(100, sprGravitation / (distance*distance));
-						double f = sprGravitation / (distance_sq);
-						fx = fx + (f * dx / distance);
-						fy = fy + (f * dy / distance);
+	/**
+	 * Computes the force for each node, approximating the repulsion between
+	 * all nodes with a quadtree. To the repulsion on each node, the attraction
+	 * of its related nodes is added and their repulsion, which does not apply
+	 * to related nodes, is removed. Each node sums its own forces, so the
+	 * result does not depend on the number of threads.
+	 */
+	private void computeApproximateForces(final InternalNode[] entitiesToLayout) {
+		final int count = entitiesToLayout.length;
+		if (quadTree == null)
+			quadTree = new QuadTree();
+		quadTree.build(tempLocationsX, tempLocationsY, count);
+		runInParts(new WorkerGroup.Task() {
+			public void run(int part, int partCount) {
+				double[] force = new double[2];
+				int end = partEnd(count, part, partCount);
+				for (int i = partEnd(count, part - 1, partCount); i < end; i++) {
+					quadTree.computeRepulsion(i, theta, sprGravitation, MIN_DISTANCE, force);
+					double fx = force[0];
+					double fy = force[1];
+					for (int k = adjacencyStart[i]; k < adjacencyStart[i + 1]; k++) {
+						int j = adjacency[k];
+						double dx = tempLocationsX[i] - tempLocationsX[j];
+						double dy = tempLocationsY[i] - tempLocationsY[j];
+						double distance = Math.max(MIN_DISTANCE, Math.sqrt(dx * dx + dy * dy));
+						double f = sprStrain * Math.log(distance / sprLength) * adjacencyWeights[k] + sprGravitation / (distance * distance);
+						fx -= f * dx / distance;
+						fy -= f * dy / distance;
 					}
-
-					// According to Newton, "for every action, there is an equal
-					// and opposite reaction."
-					// so give the dest an opposite force
-					forcesX[j] = forcesX[j] - fx;
-					forcesY[j] = forcesY[j] - fy;
+					forcesX[i] = fx;
+					forcesY[i] = fy;
 				}
 			}
+		});
+	}
 
-			/*
-			 * //make sure forces aren't too big if (fx > 0 ) fx = Math.min(fx,
-			 * 10*sprMove); else fx = Math.max(fx, -10*sprMove); if (fy > 0) fy =
-			 * Math.min(fy, 10*sprMove); else fy = Math.max(fy, -10*sprMove);
-			 */
-			forcesX[i] = fx;
-			forcesY[i] = fy;
-			// Remove the src object from the list of destinations since
-			// we've already calculated the force from it on all other
-			// objects.
-			// dests.remove(srcObj);
+	/**
+	 * Runs the given task on the worker threads if there are any, otherwise as
+	 * a single part on the calling thread.
+	 */
+	private void runInParts(WorkerGroup.Task task) {
+		if (workers == null)
+			task.run(0, 1);
+		else
+			workers.run(task);
+	}
 
-		}
+	/**
+	 * Returns the end of the given part of a range divided into equal parts,
+	 * or 0 for part -1.
+	 */
+	private static int partEnd(int count, int part, int partCount) {
+		return (int) ((long) count * (part + 1) / partCount);
 	}
 
 	/**
@@ -687,38 +895,57 @@ public class SpringLayoutAlgorithm extends ContinuousLayoutAlgorithm {
 	 * The computed position will be stored in the data repository. position =
 	 * position + sprMove * force
 	 */
-	protected void computePositions(InternalNode[] entitiesToLayout) {
-		for (int i = 0; i < entitiesToLayout.length; i++) {
-			if (!anchors[i] || entitiesToLayout[i].hasPreferredLocation()) {
-				double oldX = tempLocationsX[i];
-				double oldY = tempLocationsY[i];
-				double deltaX = sprMove * forcesX[i];
-				double deltaY = sprMove * forcesY[i];
-
-				// constrain movement, so that nodes don't shoot way off to the edge
-				double maxMovement = 0.2d * sprMove;
-				if (deltaX >= 0) {
-					deltaX = Math.min(deltaX, maxMovement);
-				} else {
-					deltaX = Math.max(deltaX, -maxMovement);
-				}
-				if (deltaY >= 0) {
-					deltaY = Math.min(deltaY, maxMovement);
-				} else {
-					deltaY = Math.max(deltaY, -maxMovement);
-				}
+	protected void computePositions(final InternalNode[] entitiesToLayout) {
+		if (workers == null) {
+			for (int i = 0; i < entitiesToLayout.length; i++)
+				largestMovement = Math.max(largestMovement, computePosition(entitiesToLayout, i));
+			return;
+		}
+		final int count = entitiesToLayout.length;
+		workers.run(new WorkerGroup.Task() {
+			public void run(int part, int partCount) {
+				double movement = 0;
+				int end = partEnd(count, part, partCount);
+				for (int i = partEnd(count, part - 1, partCount); i < end; i++)
+					movement = Math.max(movement, computePosition(entitiesToLayout, i));
+				partMovements[part] = movement;
+			}
+		});
+		for (int part = 0; part < forceThreads; part++)
+			largestMovement = Math.max(largestMovement, partMovements[part]);
+	}
 
-				largestMovement = Math.max(largestMovement, Math.abs(deltaX));
-				largestMovement = Math.max(largestMovement, Math.abs(deltaY));
+	/**
+	 * Moves one node according to its force, and returns the largest
+	 * horizontal or vertical distance it moved.
+	 */
+	private double computePosition(InternalNode[] entitiesToLayout, int i) {
+		if (!anchors[i] || entitiesToLayout[i].hasPreferredLocation()) {
+			double oldX = tempLocationsX[i];
+			double oldY = tempLocationsY[i];
+			double deltaX = sprMove * forcesX[i];
+			double deltaY = sprMove * forcesY[i];
 
-				double newX = oldX + deltaX;
-				double newY = oldY + deltaY;
-				tempLocationsX[i] = newX;
-				tempLocationsY[i] = newY;
+			// constrain movement, so that nodes don't shoot way off to the edge
+			double maxMovement = 0.2d * sprMove;
+			if (deltaX >= 0) {
+				deltaX = Math.min(deltaX, maxMovement);
+			} else {
+				deltaX = Math.max(deltaX, -maxMovement);
+			}
+			if (deltaY >= 0) {
+				deltaY = Math.min(deltaY, maxMovement);
+			} else {
+				deltaY = Math.max(deltaY, -maxMovement);
 			}
 
+			double newX = oldX + deltaX;
+			double newY = oldY + deltaY;
+			tempLocationsX[i] = newX;
+			tempLocationsY[i] = newY;
+			return Math.max(Math.abs(deltaX), Math.abs(deltaY));
 		}
-
+		return 0;
 	}
 
 	/**
@@ -756,38 +983,6 @@ public class SpringLayoutAlgorithm extends ContinuousLayoutAlgorithm {
 		}
 	}
 
-	/**
-	 * Examines the number of specified relation between the <code>src</code>
-	 * and the <code>dest</code> that exist in this
-	 * SpringLayoutAlgorithm's relation repository.
-	 * 
-	 * @param src
-	 *            The source part of the relaton to be examined.
-	 * @param dest
-	 *            The destination part of the relation to be examined.
-	 * @return The number of relations between src and dest.
-	 */
-	private int numRelations(Object src, Object dest) {
-		String key = src.toString() + dest.toString();
-		Integer count = (Integer) srcDestToNumRelsMap.get(key);
-		int intCount = (count == null) ? 0 : count.intValue();
-		return intCount;
-	}
-
-	/**
-	 * Returns the average weight between a src and dest object.
-	 * 
-	 * @param src
-	 * @param dest
-	 * @return The average weight between the given src and dest nodes
-	 */
-	private double avgWeight(Object src, Object dest) {
-		String key = src.toString() + dest.toString();
-		Double avgWeight = (Double) srcDestToRelsAvgWeightMap.get(key);
-		double doubleWeight = (avgWeight == null) ? 1 : avgWeight.doubleValue();
-		return doubleWeight;
-	}
-
 	protected boolean isValidConfiguration(boolean asynchronous, boolean continueous) {
 		if (asynchronous && continueous)
 			return true;
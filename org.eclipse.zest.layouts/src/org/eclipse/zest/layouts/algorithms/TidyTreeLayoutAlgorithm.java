@@ -0,0 +1,545 @@
+/*******************************************************************************
+ * Copyright (c) 2026 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.zest.layouts.algorithms;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+import org.eclipse.zest.layouts.LayoutStyles;
+import org.eclipse.zest.layouts.dataStructures.DisplayIndependentRectangle;
+import org.eclipse.zest.layouts.dataStructures.InternalNode;
+import org.eclipse.zest.layouts.dataStructures.InternalRelationship;
+
+/**
+ * A compact layered tree layout, using Walker's algorithm in the linear time
+ * version of Buchheim, Juenger and Leipert. Each subtree is placed as close as
+ * possible to the subtrees to its left, parents are centered above their
+ * children, and identical subtrees are drawn identically. The size of the
+ * nodes is taken into account: siblings are separated by the given spacing
+ * plus half their widths, and each level is as deep as its deepest node.
+ * <p>
+ * The tree is made of the relationships from each node to the nodes it is
+ * the first to reach, visiting the nodes breadth first from those without a
+ * relationship to them. The other relationships are ignored, and nodes which
+ * are only reachable through a cycle start a tree of their own. Children are
+ * ordered by the comparator if one is set, and otherwise by the order of the
+ * relationships. The trees of a forest are placed side by side.
+ * <p>
+ * The layout keeps the size of the nodes, and the whole layout is scaled to
+ * fit the bounds without changing its aspect ratio.
+ */
+public class TidyTreeLayoutAlgorithm extends AbstractLayoutAlgorithm {
+
+	/**
+	 * The roots are at the top, and the levels go down.
+	 */
+	public static final int ORIENTATION_VERTICAL = 0;
+
+	/**
+	 * The roots are on the left, and the levels go right.
+	 */
+	public static final int ORIENTATION_HORIZONTAL = 1;
+
+	/**
+	 * The default space between two nodes of the same level.
+	 */
+	public static final double DEFAULT_NODE_SPACING = 10;
+
+	/**
+	 * The default space between two levels.
+	 */
+	public static final double DEFAULT_LEVEL_SPACING = 40;
+
+	private static final int TOTAL_STEPS = 4;
+
+	private int orientation = ORIENTATION_VERTICAL;
+
+	private double nodeSpacing = DEFAULT_NODE_SPACING;
+
+	private double levelSpacing = DEFAULT_LEVEL_SPACING;
+
+	private DisplayIndependentRectangle layoutBounds;
+
+	private int currentStep;
+
+	/**
+	 * The tree, with an extra node whose children are the roots. The children
+	 * of node i are at indices childStart[i] to childStart[i + 1] - 1 of
+	 * children.
+	 */
+	private int[] parents;
+	private int[] childStart;
+	private int[] children;
+	private int[] depths;
+
+	/**
+	 * The size of each node along a level, and across the levels.
+	 */
+	private double[] breadths;
+	private double[] extents;
+
+	// the state of Walker's algorithm
+	private double[] prelims;
+	private double[] mods;
+	private double[] shifts;
+	private double[] changes;
+	private int[] threads;
+	private int[] ancestors;
+	private int[] numbers;
+
+	/**
+	 * Creates a vertical tidy tree layout with the given styles.
+	 *
+	 * @param styles
+	 * @see LayoutStyles
+	 */
+	public TidyTreeLayoutAlgorithm(int styles) {
+		super(styles);
+		resizeEntitiesAfterLayout = false;
+	}
+
+	/**
+	 * Creates a vertical tidy tree layout with no style.
+	 */
+	public TidyTreeLayoutAlgorithm() {
+		this(LayoutStyles.NONE);
+	}
+
+	/**
+	 * Sets the direction of the levels of the tree.
+	 *
+	 * @param orientation
+	 *            {@link #ORIENTATION_VERTICAL} or
+	 *            {@link #ORIENTATION_HORIZONTAL}
+	 */
+	public void setOrientation(int orientation) {
+		if (orientation != ORIENTATION_VERTICAL && orientation != ORIENTATION_HORIZONTAL)
+			throw new IllegalArgumentException("Invalid orientation: " + orientation);
+		this.orientation = orientation;
+	}
+
+	/**
+	 * Returns the direction of the levels of the tree.
+	 *
+	 * @return {@link #ORIENTATION_VERTICAL} or {@link #ORIENTATION_HORIZONTAL}
+	 */
+	public int getOrientation() {
+		return orientation;
+	}
+
+	/**
+	 * Sets the space between two nodes of the same level, in the units of the
+	 * size of the nodes.
+	 *
+	 * @param nodeSpacing
+	 *            The space, which must not be negative.
+	 */
+	public void setNodeSpacing(double nodeSpacing) {
+		if (nodeSpacing < 0)
+			throw new IllegalArgumentException("The spacing must not be negative");
+		this.nodeSpacing = nodeSpacing;
+	}
+
+	/**
+	 * Returns the space between two nodes of the same level.
+	 *
+	 * @return The space.
+	 */
+	public double getNodeSpacing() {
+		return nodeSpacing;
+	}
+
+	/**
+	 * Sets the space between two levels, in the units of the size of the
+	 * nodes.
+	 *
+	 * @param levelSpacing
+	 *            The space, which must not be negative.
+	 */
+	public void setLevelSpacing(double levelSpacing) {
+		if (levelSpacing < 0)
+			throw new IllegalArgumentException("The spacing must not be negative");
+		this.levelSpacing = levelSpacing;
+	}
+
+	/**
+	 * Returns the space between two levels.
+	 *
+	 * @return The space.
+	 */
+	public double getLevelSpacing() {
+		return levelSpacing;
+	}
+
+	public void setLayoutArea(double x, double y, double width, double height) {
+		throw new RuntimeException("Operation not implemented");
+	}
+
+	protected boolean isValidConfiguration(boolean asynchronous, boolean continuous) {
+		return !continuous;
+	}
+
+	protected int getCurrentLayoutStep() {
+		return currentStep;
+	}
+
+	protected int getTotalNumberOfLayoutSteps() {
+		return TOTAL_STEPS;
+	}
+
+	protected void preLayoutAlgorithm(InternalNode[] entitiesToLayout, InternalRelationship[] relationshipsToConsider, double x, double y, double width, double height) {
+		currentStep = 0;
+		layoutBounds = new DisplayIndependentRectangle(x, y, width, height);
+		buildTree(entitiesToLayout, relationshipsToConsider);
+
+		int count = entitiesToLayout.length;
+		boolean vertical = orientation == ORIENTATION_VERTICAL;
+		breadths = new double[count + 1];
+		extents = new double[count + 1];
+		for (int i = 0; i < count; i++) {
+			InternalNode node = entitiesToLayout[i];
+			double nodeWidth = node.getLayoutEntity().getWidthInLayout();
+			double nodeHeight = node.getLayoutEntity().getHeightInLayout();
+			node.setInternalSize(nodeWidth, nodeHeight);
+			breadths[i] = vertical ? nodeWidth : nodeHeight;
+			extents[i] = vertical ? nodeHeight : nodeWidth;
+		}
+	}
+
+	protected void postLayoutAlgorithm(InternalNode[] entitiesToLayout, InternalRelationship[] relationshipsToConsider) {
+		updateLayoutLocations(entitiesToLayout);
+		setCurrentStep(4);
+		parents = childStart = children = depths = null;
+		breadths = extents = null;
+	}
+
+	protected void applyLayoutInternal(InternalNode[] entitiesToLayout, InternalRelationship[] relationshipsToConsider, double boundsX, double boundsY, double boundsWidth, double boundsHeight) {
+		if (entitiesToLayout.length == 0)
+			return;
+		setCurrentStep(1);
+		int count = entitiesToLayout.length;
+		prelims = new double[count + 1];
+		mods = new double[count + 1];
+		shifts = new double[count + 1];
+		changes = new double[count + 1];
+		threads = new int[count + 1];
+		ancestors = new int[count + 1];
+		Arrays.fill(threads, -1);
+		for (int i = 0; i <= count; i++)
+			ancestors[i] = i;
+		firstWalk(count);
+		setCurrentStep(2);
+		double[] positions = secondWalk(count);
+		prelims = mods = shifts = changes = null;
+		threads = ancestors = numbers = null;
+
+		double[] levels = getLevelPositions(count);
+		for (int i = 0; i < count; i++) {
+			double position = positions[i];
+			double level = levels[depths[i]];
+			if (orientation == ORIENTATION_VERTICAL)
+				entitiesToLayout[i].setInternalLocation(position, level);
+			else
+				entitiesToLayout[i].setInternalLocation(level, position);
+		}
+		setCurrentStep(3);
+		defaultFitWithinBounds(entitiesToLayout, layoutBounds);
+	}
+
+	private void setCurrentStep(int step) {
+		currentStep = step;
+		fireProgressEvent(step, TOTAL_STEPS);
+	}
+
+	/**
+	 * Finds the tree of each node, visiting the nodes breadth first from the
+	 * roots, and orders the children of each node. The extra node, whose
+	 * index is the number of nodes, is the parent of the roots.
+	 */
+	private void buildTree(final InternalNode[] entities, InternalRelationship[] relationships) {
+		int count = entities.length;
+		Map indices = new IdentityHashMap(count * 2);
+		for (int i = 0; i < count; i++)
+			indices.put(entities[i], new Integer(i));
+
+		int[] sources = new int[relationships.length];
+		int[] targets = new int[relationships.length];
+		int[] outStart = new int[count + 1];
+		boolean[] hasParent = new boolean[count];
+		for (int r = 0; r < relationships.length; r++) {
+			Integer source = (Integer) indices.get(relationships[r].getSource());
+			Integer target = (Integer) indices.get(relationships[r].getDestination());
+			if (source == null || target == null || source.intValue() == target.intValue()) {
+				sources[r] = -1;
+				continue;
+			}
+			sources[r] = source.intValue();
+			targets[r] = target.intValue();
+			outStart[sources[r] + 1]++;
+			hasParent[targets[r]] = true;
+		}
+		for (int i = 0; i < count; i++)
+			outStart[i + 1] += outStart[i];
+		int[] outTargets = new int[outStart[count]];
+		int[] next = new int[count];
+		System.arraycopy(outStart, 0, next, 0, count);
+		for (int r = 0; r < relationships.length; r++) {
+			if (sources[r] != -1)
+				outTargets[next[sources[r]]++] = targets[r];
+		}
+
+		// visit the nodes breadth first, from the nodes without a parent,
+		// then from the first node of each cycle which was not reached
+		parents = new int[count + 1];
+		depths = new int[count + 1];
+		Arrays.fill(parents, -2);
+		parents[count] = -1;
+		depths[count] = -1;
+		int[] queue = new int[count];
+		int tail = 0;
+		for (int pass = 0; pass < 2; pass++) {
+			for (int root = 0; root < count; root++) {
+				if (parents[root] != -2 || (pass == 0 && hasParent[root]))
+					continue;
+				parents[root] = count;
+				depths[root] = 0;
+				int head = tail;
+				queue[tail++] = root;
+				for (; head < tail; head++) {
+					int i = queue[head];
+					for (int k = outStart[i]; k < outStart[i + 1]; k++) {
+						int child = outTargets[k];
+						if (parents[child] == -2) {
+							parents[child] = i;
+							depths[child] = depths[i] + 1;
+							queue[tail++] = child;
+						}
+					}
+				}
+			}
+		}
+
+		// the children of each node, in the order they were reached
+		childStart = new int[count + 2];
+		for (int i = 0; i < count; i++)
+			childStart[parents[i] + 1]++;
+		for (int i = 0; i <= count; i++)
+			childStart[i + 1] += childStart[i];
+		children = new int[count];
+		next = new int[count + 1];
+		System.arraycopy(childStart, 0, next, 0, count + 1);
+		for (int k = 0; k < count; k++) {
+			int i = queue[k];
+			children[next[parents[i]]++] = i;
+		}
+
+		if (comparator != null) {
+			Comparator childComparator = new Comparator() {
+				public int compare(Object o1, Object o2) {
+					return comparator.compare(entities[((Integer) o1).intValue()], entities[((Integer) o2).intValue()]);
+				}
+			};
+			for (int i = 0; i <= count; i++) {
+				int childCount = childStart[i + 1] - childStart[i];
+				if (childCount < 2)
+					continue;
+				Integer[] order = new Integer[childCount];
+				for (int k = 0; k < childCount; k++)
+					order[k] = new Integer(children[childStart[i] + k]);
+				Arrays.sort(order, childComparator);
+				for (int k = 0; k < childCount; k++)
+					children[childStart[i] + k] = order[k].intValue();
+			}
+		}
+
+		numbers = new int[count + 1];
+		for (int i = 0; i <= count; i++)
+			for (int k = childStart[i]; k < childStart[i + 1]; k++)
+				numbers[children[k]] = k - childStart[i];
+	}
+
+	/**
+	 * Computes the preliminary position of each node relative to its parent,
+	 * visiting the children before their parent. This is the first walk of
+	 * Walker's algorithm, without recursion.
+	 */
+	private void firstWalk(int root) {
+		int[] stack = new int[root + 1];
+		int[] cursors = new int[root + 1];
+		int[] defaultAncestors = new int[root + 1];
+		int depth = 0;
+		stack[depth++] = root;
+		while (depth > 0) {
+			int v = stack[depth - 1];
+			if (childStart[v] + cursors[v] < childStart[v + 1]) {
+				int w = children[childStart[v] + cursors[v]++];
+				if (cursors[v] == 1)
+					defaultAncestors[v] = w;
+				stack[depth++] = w;
+				continue;
+			}
+			depth--;
+
+			int leftSibling = getLeftSibling(v);
+			if (childStart[v] == childStart[v + 1]) {
+				prelims[v] = leftSibling == -1 ? 0 : prelims[leftSibling] + getDistance(leftSibling, v);
+			} else {
+				executeShifts(v);
+				double midpoint = (prelims[children[childStart[v]]] + prelims[children[childStart[v + 1] - 1]]) / 2;
+				if (leftSibling == -1) {
+					prelims[v] = midpoint;
+				} else {
+					prelims[v] = prelims[leftSibling] + getDistance(leftSibling, v);
+					mods[v] = prelims[v] - midpoint;
+				}
+			}
+			int parent = parents[v];
+			if (parent != -1)
+				defaultAncestors[parent] = apportion(v, defaultAncestors[parent]);
+		}
+	}
+
+	/**
+	 * Moves the subtree of the given node away from the subtrees of its left
+	 * siblings, so that their contours are separated, and spreads the move
+	 * over the siblings in between.
+	 */
+	private int apportion(int v, int defaultAncestor) {
+		int leftSibling = getLeftSibling(v);
+		if (leftSibling == -1)
+			return defaultAncestor;
+		// the inner and outer contours of the right subtree (p) and of the
+		// left siblings (m)
+		int vip = v, vop = v;
+		int vim = leftSibling;
+		int vom = children[childStart[parents[v]]];
+		double sip = mods[vip], sop = mods[vop], sim = mods[vim], som = mods[vom];
+		while (getNextRight(vim) != -1 && getNextLeft(vip) != -1) {
+			vim = getNextRight(vim);
+			vip = getNextLeft(vip);
+			vom = getNextLeft(vom);
+			vop = getNextRight(vop);
+			ancestors[vop] = v;
+			double shift = (prelims[vim] + sim) - (prelims[vip] + sip) + getDistance(vim, vip);
+			if (shift > 0) {
+				int ancestor = parents[ancestors[vim]] == parents[v] ? ancestors[vim] : defaultAncestor;
+				moveSubtree(ancestor, v, shift);
+				sip += shift;
+				sop += shift;
+			}
+			sim += mods[vim];
+			sip += mods[vip];
+			som += mods[vom];
+			sop += mods[vop];
+		}
+		if (getNextRight(vim) != -1 && getNextRight(vop) == -1) {
+			threads[vop] = getNextRight(vim);
+			mods[vop] += sim - sop;
+		}
+		if (getNextLeft(vip) != -1 && getNextLeft(vom) == -1) {
+			threads[vom] = getNextLeft(vip);
+			mods[vom] += sip - som;
+			defaultAncestor = v;
+		}
+		return defaultAncestor;
+	}
+
+	private void moveSubtree(int left, int right, double shift) {
+		double change = shift / (numbers[right] - numbers[left]);
+		changes[right] -= change;
+		shifts[right] += shift;
+		changes[left] += change;
+		prelims[right] += shift;
+		mods[right] += shift;
+	}
+
+	/**
+	 * Applies the moves recorded by {@link #moveSubtree(int, int, double)} to
+	 * the children of the given node.
+	 */
+	private void executeShifts(int v) {
+		double shift = 0;
+		double change = 0;
+		for (int k = childStart[v + 1] - 1; k >= childStart[v]; k--) {
+			int w = children[k];
+			prelims[w] += shift;
+			mods[w] += shift;
+			change += changes[w];
+			shift += shifts[w] + change;
+		}
+	}
+
+	/**
+	 * Returns the final position of each node along its level, adding up the
+	 * modifiers of its ancestors.
+	 */
+	private double[] secondWalk(int root) {
+		double[] positions = new double[root + 1];
+		double[] sums = new double[root + 1];
+		int[] stack = new int[root + 1];
+		int depth = 0;
+		stack[depth++] = root;
+		while (depth > 0) {
+			int v = stack[--depth];
+			positions[v] = prelims[v] + sums[v];
+			for (int k = childStart[v]; k < childStart[v + 1]; k++) {
+				sums[children[k]] = sums[v] + mods[v];
+				stack[depth++] = children[k];
+			}
+		}
+		return positions;
+	}
+
+	/**
+	 * Returns the position of the middle of each level, each level being as
+	 * deep as its deepest node.
+	 */
+	private double[] getLevelPositions(int count) {
+		int levelCount = 0;
+		for (int i = 0; i < count; i++)
+			levelCount = Math.max(levelCount, depths[i] + 1);
+		double[] levelExtents = new double[levelCount];
+		for (int i = 0; i < count; i++)
+			levelExtents[depths[i]] = Math.max(levelExtents[depths[i]], extents[i]);
+		double[] levels = new double[levelCount];
+		double position = 0;
+		for (int d = 0; d < levelCount; d++) {
+			levels[d] = position + levelExtents[d] / 2;
+			position += levelExtents[d] + levelSpacing;
+		}
+		return levels;
+	}
+
+	private double getDistance(int left, int right) {
+		return (breadths[left] + breadths[right]) / 2 + nodeSpacing;
+	}
+
+	private int getLeftSibling(int v) {
+		if (parents[v] == -1 || numbers[v] == 0)
+			return -1;
+		return children[childStart[parents[v]] + numbers[v] - 1];
+	}
+
+	private int getNextLeft(int v) {
+		if (childStart[v] < childStart[v + 1])
+			return children[childStart[v]];
+		return threads[v];
+	}
+
+	private int getNextRight(int v) {
+		if (childStart[v] < childStart[v + 1])
+			return children[childStart[v + 1] - 1];
+		return threads[v];
+	}
+
+}
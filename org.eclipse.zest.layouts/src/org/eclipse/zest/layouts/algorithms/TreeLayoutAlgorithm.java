@@ -11,40 +11,32 @@ package org.eclipse.zest.layouts.algorithms;
 
 import java.util.ArrayList;
 import java.util.Arrays;
-import java.util.Collection;
-import java.util.Collections;
 import java.util.Comparator;
-import java.util.HashSet;
-import java.util.Iterator;
+import java.util.IdentityHashMap;
 import java.util.List;
-import java.util.Set;
+import java.util.Map;
 
 import org.eclipse.zest.layouts.LayoutStyles;
 import org.eclipse.zest.layouts.dataStructures.DisplayIndependentRectangle;
 import org.eclipse.zest.layouts.dataStructures.InternalNode;
 import org.eclipse.zest.layouts.dataStructures.InternalRelationship;
-import org.eclipse.zest.layouts.exampleStructures.SimpleRelationship;
 
 /**
  * The TreeLayoutAlgorithm class implements a simple algorithm to
  * arrange graph nodes in a layered vertical tree-like layout. 
  * 
- * This is by no means an efficiently coded algorithm.
+ * The relationships are indexed once before the layout, and all the
+ * traversals use explicit stacks rather than recursion, so that deep trees
+ * do not overflow the call stack. On a forest the layout takes time linear
+ * in the number of nodes and relationships; the graphs which are not forests
+ * take longer, as nodes reached along several paths are visited once per path
+ * to give the same layout.
  *
  * @version  2.0
  * @author   Casey Best and Rob Lintern (version 1.0 by Jingwei Wu)
  */
 public class TreeLayoutAlgorithm extends AbstractLayoutAlgorithm {
 
-	private final static double DEFAULT_WEIGHT = 0;
-	private final static boolean DEFAULT_MARKED = false;
-
-	private final static boolean AS_DESTINATION = false;
-	private final static boolean AS_SOURCE = true;
-
-	private final static int NUM_DESCENDENTS_INDEX = 0;
-	private final static int NUM_LEVELS_INDEX = 1;
-
 	private ArrayList treeRoots;
 
 	private double boundsX;
@@ -53,11 +45,43 @@ public class TreeLayoutAlgorithm extends AbstractLayoutAlgorithm {
 	private double boundsHeight;
 	private DisplayIndependentRectangle layoutBounds = null;
 
-	private List[] parentLists;
-	private List[] childrenLists;
+	/**
+	 * The destinations of the relationships from node i are at indices
+	 * outStart[i] to outStart[i + 1] - 1 of outTargets, in the order of the
+	 * relationships.
+	 */
+	private int[] outStart;
+	private int[] outTargets;
+
+	/**
+	 * The source of the first relationship to each node, or -1.
+	 */
+	private int[] firstParents;
+
+	private int[][] parentLists;
+	private int[] parentCounts;
+	private int[][] childrenLists;
 	private double[] weights;
 	private boolean[] markedArr;
 
+	/**
+	 * Cached results of the traversals, or -1 if not computed yet.
+	 */
+	private int[] numDescendents;
+	private int[] numLeaves;
+	private int[] levels;
+
+	/**
+	 * The nodes visited by the current traversal are marked with the current
+	 * stamp.
+	 */
+	private int[] seen;
+	private int seenStamp;
+
+	private int[] stack;
+	private int[] cursors;
+	private int[] values;
+
 	/////////////////////////////////////////////////////////////////////////
 	/////                        Constructors                           /////
 	/////////////////////////////////////////////////////////////////////////
@@ -111,17 +135,61 @@ public class TreeLayoutAlgorithm extends AbstractLayoutAlgorithm {
 		// Filter unwanted entities and relationships
 		//super.applyLayout (entitiesToLayout, relationshipsToConsider, boundsX, boundsY, boundsWidth, boundsHeight);
 
-		parentLists = new List[entitiesToLayout.length];
-		childrenLists = new List[entitiesToLayout.length];
-		weights = new double[entitiesToLayout.length];
-		markedArr = new boolean[entitiesToLayout.length];
-		for (int i = 0; i < entitiesToLayout.length; i++) {
-			parentLists[i] = new ArrayList();
-			childrenLists[i] = new ArrayList();
-			weights[i] = DEFAULT_WEIGHT;
-			markedArr[i] = DEFAULT_MARKED;
+		int count = entitiesToLayout.length;
+		Map indices = new IdentityHashMap(count * 2);
+		for (int i = 0; i < count; i++) {
+			indices.put(entitiesToLayout[i], new Integer(i));
+		}
+
+		int[] sources = new int[relationshipsToConsider.length];
+		int[] inDegrees = new int[count];
+		outStart = new int[count + 1];
+		outTargets = new int[relationshipsToConsider.length];
+		firstParents = new int[count];
+		Arrays.fill(firstParents, -1);
+		for (int r = 0; r < relationshipsToConsider.length; r++) {
+			InternalRelationship rel = relationshipsToConsider[r];
+			sources[r] = indexOfInternalNode(indices, rel.getSource());
+			outTargets[r] = indexOfInternalNode(indices, rel.getDestination());
+			outStart[sources[r] + 1]++;
+			if (inDegrees[outTargets[r]]++ == 0) {
+				firstParents[outTargets[r]] = sources[r];
+			}
+		}
+		for (int i = 0; i < count; i++) {
+			outStart[i + 1] += outStart[i];
+		}
+		// sort the destinations by source, keeping the order of the relationships
+		int[] targets = outTargets;
+		int[] next = new int[count];
+		System.arraycopy(outStart, 0, next, 0, count);
+		outTargets = new int[targets.length];
+		for (int r = 0; r < targets.length; r++) {
+			outTargets[next[sources[r]]++] = targets[r];
+		}
+
+		parentLists = new int[count][];
+		parentCounts = new int[count];
+		childrenLists = new int[count][];
+		weights = new double[count];
+		markedArr = new boolean[count];
+		for (int i = 0; i < count; i++) {
+			parentLists[i] = new int[inDegrees[i]];
 		}
 
+		numDescendents = new int[count];
+		numLeaves = new int[count];
+		levels = new int[count];
+		Arrays.fill(numDescendents, -1);
+		Arrays.fill(numLeaves, -1);
+		Arrays.fill(levels, -1);
+		seen = new int[count];
+		seenStamp = 0;
+		stack = new int[count + 1];
+		cursors = new int[count + 1];
+		values = new int[count + 1];
+		computeTreeValues(inDegrees);
+
 		this.boundsHeight = height;
 		this.boundsWidth = width;
 		this.boundsX = x;
@@ -138,9 +206,9 @@ public class TreeLayoutAlgorithm extends AbstractLayoutAlgorithm {
 
 			//List roots = new ArrayList();
 			treeRoots = new ArrayList();
-			buildForest(treeRoots, entitiesToLayout, relationshipsToConsider);
+			int[] rootIndices = buildForest(treeRoots, entitiesToLayout);
 			fireProgressEvent(2, totalProgress);
-			computePositions(treeRoots, entitiesToLayout);
+			computePositions(rootIndices, entitiesToLayout);
 			fireProgressEvent(3, totalProgress);
 			defaultFitWithinBounds(entitiesToLayout, layoutBounds);
 
@@ -159,268 +227,312 @@ public class TreeLayoutAlgorithm extends AbstractLayoutAlgorithm {
 		return treeRoots;
 	}
 
-	/**
-	 * Finds all the relationships in which the node <code>obj<code>
-	 * plays the specified <code>role</code>.
-	 * @param entity The node that concerns the relations to be found.
-	 * @param role The role played by the <code>obj</code>. Its type
-	 * must be of <code>ACTOR_ROLE</code> or <code>ACTEE_ROLE</code>.
-	 * @see SimpleRelationship
-	 */
-	private Collection findRelationships(Object entity, boolean objectAsSource, InternalRelationship[] relationshipsToConsider) {
-		Collection foundRels = new ArrayList();
-		for (int i = 0; i < relationshipsToConsider.length; i++) {
-			InternalRelationship rel = relationshipsToConsider[i];
-			if (objectAsSource && rel.getSource().equals(entity)) {
-				foundRels.add(rel);
-			} else if (!objectAsSource && rel.getDestination().equals(entity)) {
-				foundRels.add(rel);
-			}
-		}
-		return foundRels;
-	}
-
-	/**
-	 * Finds the relation that has the lowest index in the relation
-	 * repository in which the node <code>obj<code> plays the specified
-	 * <code>role</code>.
-	 * @param obj The node that concerns the relations to be found.
-	 * @param role The role played by the <code>obj</code>. Its type must
-	 * be of <code>ACTOR_ROLE</code> or <code>ACTEE_ROLE</code>.
-	 * @see SimpleRelationship
-	 * @see SimpleRelationship#ACTOR_ROLE
-	 * @see SimpleRelationship#ACTEE_ROLE
-	 */
-	private InternalRelationship findRelationship(Object entity, boolean objectAsSource, InternalRelationship[] relationshipsToConsider) {
-		InternalRelationship relationship = null;
-		for (int i = 0; i < relationshipsToConsider.length && relationship == null; i++) {
-			InternalRelationship possibleRel = relationshipsToConsider[i];
-			if (objectAsSource && possibleRel.getSource().equals(entity)) {
-				relationship = possibleRel;
-			} else if (!objectAsSource && possibleRel.getDestination().equals(entity)) {
-				relationship = possibleRel;
-			}
-		}
-		return relationship;
-	}
-
 	/////////////////////////////////////////////////////////////////////////
 	/////                        Private Methods                        /////
 	/////////////////////////////////////////////////////////////////////////
 
 	/**
-	 * Builds the tree forest that is used to calculate positions
-	 * for each node in this TreeLayoutAlgorithm.
-	 */
-	private void buildForest(List roots, InternalNode[] entities, InternalRelationship[] relationships) {
-		List unplacedEntities = new ArrayList(Arrays.asList(entities));
-		buildForestRecursively(roots, unplacedEntities, entities, relationships);
-	}
-
-	/**
-	 * Builds the forest recursively. All entities
-	 * will be placed somewhere in the forest. 
+	 * Fills in ahead the cached values of the nodes which are the root of a
+	 * tree, that is a subgraph in which every node but the root has a single
+	 * relationship to it, from its parent. Within such a tree the values of
+	 * a node follow from those of its children, so that they take linear time
+	 * for a whole forest. The other nodes are computed when needed.
 	 */
-	private void buildForestRecursively(List roots, List unplacedEntities, InternalNode[] entities, InternalRelationship[] relationships) {
-		if (unplacedEntities.size() == 0) {
-			return; // no more entities to place
+	private void computeTreeValues(int[] inDegrees) {
+		int count = inDegrees.length;
+		boolean[] isTree = new boolean[count];
+		// 0: not visited, 1: on the stack, 2: done
+		byte[] states = new byte[count];
+		for (int root = 0; root < count; root++) {
+			if (states[root] != 0) {
+				continue;
+			}
+			int depth = 0;
+			states[root] = 1;
+			stack[depth] = root;
+			cursors[depth++] = outStart[root];
+			while (depth > 0) {
+				int i = stack[depth - 1];
+				if (cursors[depth - 1] < outStart[i + 1]) {
+					int child = outTargets[cursors[depth - 1]++];
+					if (states[child] == 0) {
+						states[child] = 1;
+						stack[depth] = child;
+						cursors[depth++] = outStart[child];
+					}
+					continue;
+				}
+				depth--;
+				// a child still on the stack means a cycle
+				boolean tree = true;
+				int descendents = outStart[i + 1] - outStart[i];
+				int leaves = descendents == 0 ? 1 : 0;
+				for (int k = outStart[i]; k < outStart[i + 1] && tree; k++) {
+					int child = outTargets[k];
+					tree = inDegrees[child] == 1 && states[child] == 2 && isTree[child];
+					descendents += numDescendents[child];
+					leaves += numLeaves[child];
+				}
+				states[i] = 2;
+				if (tree) {
+					isTree[i] = true;
+					numDescendents[i] = descendents;
+					numLeaves[i] = leaves;
+				}
+			}
 		}
 
-		// get the first entity in the list of unplaced entities, find its root, and build this root's tree
-		InternalNode layoutEntity = (InternalNode) unplacedEntities.get(0);
-		InternalNode rootEntity = findRootObjectRecursive(layoutEntity, new HashSet(), relationships);
-		int rootEntityIndex = indexOfInternalNode(entities, rootEntity);
-		buildTreeRecursively(rootEntity, rootEntityIndex, 0, entities, relationships);
-		roots.add(rootEntity);
-
-		// now see which nodes are left to be placed in a tree somewhere
-		List unmarkedCopy = new ArrayList(unplacedEntities);
-		for (Iterator iter = unmarkedCopy.iterator(); iter.hasNext();) {
-			InternalNode tmpEntity = (InternalNode) iter.next();
-			int tmpEntityIndex = indexOfInternalNode(entities, tmpEntity);
-			boolean isMarked = markedArr[tmpEntityIndex];
-			if (isMarked) {
-				unplacedEntities.remove(tmpEntity);
+		// the level of a node whose ancestors form a single chain is its depth
+		int[] queue = new int[count];
+		int tail = 0;
+		for (int i = 0; i < count; i++) {
+			if (inDegrees[i] == 0) {
+				levels[i] = 0;
+				queue[tail++] = i;
 			}
 		}
-		buildForestRecursively(roots, unplacedEntities, entities, relationships);
-	}
-
-	/**
-	 * Finds the root node that can be treated as the root of a tree.
-	 * The found root node should be one of the unmarked nodes.
-	 */
-	private InternalNode findRootObjectRecursive(InternalNode currentEntity, Set seenAlready, InternalRelationship[] relationshipsToConsider) {
-		InternalNode rootEntity = null;
-		InternalRelationship rel = findRelationship(currentEntity, AS_DESTINATION, relationshipsToConsider);
-		if (rel == null) {
-			rootEntity = currentEntity;
-		} else {
-			InternalNode parentEntity = rel.getSource();
-			if (!seenAlready.contains(parentEntity)) {
-				seenAlready.add(parentEntity);
-				rootEntity = findRootObjectRecursive(parentEntity, seenAlready, relationshipsToConsider);
-			} else {
-				rootEntity = currentEntity;
+		for (int head = 0; head < tail; head++) {
+			int i = queue[head];
+			for (int k = outStart[i]; k < outStart[i + 1]; k++) {
+				int child = outTargets[k];
+				if (inDegrees[child] == 1) {
+					levels[child] = levels[i] + 1;
+					queue[tail++] = child;
+				}
 			}
 		}
-		return rootEntity;
 	}
 
 	/**
-	 * Builds a tree of the passed in entity.
-	 * The entity will pass a weight value to all of its children recursively.
+	 * Builds the tree forest that is used to calculate positions
+	 * for each node in this TreeLayoutAlgorithm. All entities
+	 * will be placed somewhere in the forest.
+	 *
+	 * @return the indices of the roots
 	 */
-	private void buildTreeRecursively(InternalNode layoutEntity, int i, double weight, InternalNode[] entities, final InternalRelationship[] relationships) {
-		// No need to do further computation!
-		if (layoutEntity == null) {
-			return;
-		}
-
-		// A marked entity means that it has been added to the
-		// forest, and its weight value needs to be modified.		
-		if (markedArr[i]) {
-			modifyWeightRecursively(layoutEntity, i, weight, new HashSet(), entities, relationships);
-			return; //No need to do further computation.
-		}
-
-		// Mark this entity, set its weight value and create a new tree node.
-		markedArr[i] = true;
-		weights[i] = weight;
-
-		// collect the children of this entity and put them in order
-		Collection rels = findRelationships(layoutEntity, AS_SOURCE, relationships);
-		List children = new ArrayList();
-		for (Iterator iter = rels.iterator(); iter.hasNext();) {
-			InternalRelationship layoutRel = (InternalRelationship) iter.next();
-			InternalNode childEntity = layoutRel.getDestination();
-			children.add(childEntity);
-		}
-
+	private int[] buildForest(List roots, final InternalNode[] entities) {
+		int count = entities.length;
+		Comparator childComparator;
 		if (comparator != null) {
-			Collections.sort(children, comparator);
+			childComparator = new Comparator() {
+				public int compare(Object o1, Object o2) {
+					return comparator.compare(entities[((Integer) o1).intValue()], entities[((Integer) o2).intValue()]);
+				}
+			};
 		} else {
-			// sort the children by level, then by number of descendents, then by number of children
-			// TODO: SLOW
-			Collections.sort(children, new Comparator() {
+			// sort the children by number of descendents, the largest first
+			childComparator = new Comparator() {
 				public int compare(Object o1, Object o2) {
-					InternalNode node1 = (InternalNode) o1;
-					InternalNode node2 = (InternalNode) o2;
-					int[] numDescendentsAndLevel1 = new int[2];
-					int[] numDescendentsAndLevel2 = new int[2];
-					int level1 = numDescendentsAndLevel1[NUM_LEVELS_INDEX];
-					int level2 = numDescendentsAndLevel2[NUM_LEVELS_INDEX];
-					if (level1 == level2) {
-						getNumDescendentsAndLevel(node1, relationships, numDescendentsAndLevel1);
-						getNumDescendentsAndLevel(node2, relationships, numDescendentsAndLevel2);
-						int numDescendents1 = numDescendentsAndLevel1[NUM_DESCENDENTS_INDEX];
-						int numDescendents2 = numDescendentsAndLevel2[NUM_DESCENDENTS_INDEX];
-						if (numDescendents1 == numDescendents2) {
-							int numChildren1 = getNumChildren(node1, relationships);
-							int numChildren2 = getNumChildren(node1, relationships);
-							return numChildren2 - numChildren1;
-						} else {
-							return numDescendents2 - numDescendents1;
-						}
-					} else {
-						return level2 - level1;
-					}
-					//return getNumChildren(node2, relationships) - getNumChildren(node1, relationships);
+					return numDescendents[((Integer) o2).intValue()] - numDescendents[((Integer) o1).intValue()];
 				}
-			});
+			};
 		}
 
-		// map children to this parent, and vice versa
-		for (Iterator iter = children.iterator(); iter.hasNext();) {
-			InternalNode childEntity = (InternalNode) iter.next();
-			int childEntityIndex = indexOfInternalNode(entities, childEntity);
-			if (!childrenLists[i].contains(childEntity)) {
-				childrenLists[i].add(childEntity);
+		int[] treeStack = new int[count];
+		int[] childCursors = new int[count];
+		int[][] sortedChildren = new int[count][];
+		double[] treeWeights = new double[count];
+		int[] rootIndices = new int[count];
+		int firstUnplaced = 0;
+		while (true) {
+			// get the first unplaced entity, find its root, and build this root's tree
+			while (firstUnplaced < count && markedArr[firstUnplaced]) {
+				firstUnplaced++;
 			}
-			if (!parentLists[childEntityIndex].contains(layoutEntity)) {
-				parentLists[childEntityIndex].add(layoutEntity);
+			if (firstUnplaced == count) {
+				break;
 			}
-		}
+			int root = findRoot(firstUnplaced);
+
+			// The entity passes its weight plus one to all of its children,
+			// depth first.
+			int depth = 0;
+			int i = root;
+			double weight = 0;
+			while (true) {
+				if (markedArr[i]) {
+					// A marked entity means that it has been added to the
+					// forest, and its weight value needs to be modified.
+					modifyWeight(i, weight);
+				} else {
+					markedArr[i] = true;
+					weights[i] = weight;
+					treeWeights[i] = weight;
+					sortedChildren[i] = getSortedChildren(i, childComparator);
+					addChildren(i, sortedChildren[i]);
+					childCursors[i] = 0;
+					treeStack[depth++] = i;
+				}
 
-		for (Iterator iter = children.iterator(); iter.hasNext();) {
-			InternalNode childEntity = (InternalNode) iter.next();
-			int childEntityIndex = indexOfInternalNode(entities, childEntity);
-			buildTreeRecursively(childEntity, childEntityIndex, weight + 1, entities, relationships);
+				i = -1;
+				while (depth > 0) {
+					int parent = treeStack[depth - 1];
+					if (childCursors[parent] < sortedChildren[parent].length) {
+						i = sortedChildren[parent][childCursors[parent]++];
+						weight = treeWeights[parent] + 1;
+						break;
+					}
+					sortedChildren[parent] = null;
+					depth--;
+				}
+				if (i == -1) {
+					break;
+				}
+			}
+			rootIndices[roots.size()] = root;
+			roots.add(entities[root]);
 		}
-	}
 
-	private int getNumChildren(InternalNode layoutEntity, InternalRelationship[] relationships) {
-		return findRelationships(layoutEntity, AS_SOURCE, relationships).size();
+		int[] result = new int[roots.size()];
+		System.arraycopy(rootIndices, 0, result, 0, result.length);
+		return result;
 	}
 
-	private void getNumDescendentsAndLevel(InternalNode layoutEntity, InternalRelationship[] relationships, int[] numDescendentsAndLevel) {
-		getNumDescendentsAndLevelRecursive(layoutEntity, relationships, new HashSet(), numDescendentsAndLevel, 0);
+	/**
+	 * Finds the root node that can be treated as the root of a tree, by
+	 * following the first relationship to each node until a node without one
+	 * or a node already seen.
+	 */
+	private int findRoot(int i) {
+		int stamp = ++seenStamp;
+		while (firstParents[i] != -1 && seen[firstParents[i]] != stamp) {
+			i = firstParents[i];
+			seen[i] = stamp;
+		}
+		return i;
 	}
 
-	private void getNumDescendentsAndLevelRecursive(InternalNode layoutEntity, InternalRelationship[] relationships, Set seenAlready, int[] numDescendentsAndLevel, int currentLevel) {
-		if (seenAlready.contains(layoutEntity)) {
-			return;
+	/**
+	 * Returns the destinations of the relationships from the given node, once
+	 * for each relationship, in the order of the comparator. The sort is
+	 * stable, so equal children keep the order of their relationships.
+	 */
+	private int[] getSortedChildren(int i, Comparator childComparator) {
+		int start = outStart[i];
+		int[] children = new int[outStart[i + 1] - start];
+		System.arraycopy(outTargets, start, children, 0, children.length);
+		if (children.length < 2) {
+			return children;
 		}
-		seenAlready.add(layoutEntity);
-		numDescendentsAndLevel[NUM_LEVELS_INDEX] = Math.max(numDescendentsAndLevel[NUM_LEVELS_INDEX], currentLevel);
-		Collection rels = findRelationships(layoutEntity, AS_SOURCE, relationships);
-		for (Iterator iter = rels.iterator(); iter.hasNext();) {
-			InternalRelationship layoutRel = (InternalRelationship) iter.next();
-			InternalNode childEntity = layoutRel.getDestination();
-			numDescendentsAndLevel[NUM_DESCENDENTS_INDEX]++;
-			getNumDescendentsAndLevelRecursive(childEntity, relationships, seenAlready, numDescendentsAndLevel, currentLevel + 1);
-
+		Integer[] order = new Integer[children.length];
+		for (int k = 0; k < children.length; k++) {
+			if (comparator == null) {
+				getNumDescendents(children[k]);
+			}
+			order[k] = new Integer(children[k]);
+		}
+		Arrays.sort(order, childComparator);
+		for (int k = 0; k < children.length; k++) {
+			children[k] = order[k].intValue();
 		}
+		return children;
 	}
 
 	/**
-	 * Modifies the weight value of the marked node recursively.
+	 * Maps the children to their parent, and the parent to its children.
 	 */
-	private void modifyWeightRecursively(InternalNode layoutEntity, int i, double weight, Set descendentsSeenSoFar, InternalNode[] entities, InternalRelationship[] relationships) {
-		// No need to do further computation!
-		if (layoutEntity == null) {
-			return;
+	private void addChildren(int i, int[] children) {
+		int stamp = ++seenStamp;
+		int childCount = 0;
+		int[] distinctChildren = new int[children.length];
+		for (int k = 0; k < children.length; k++) {
+			int child = children[k];
+			if (seen[child] != stamp) {
+				seen[child] = stamp;
+				distinctChildren[childCount++] = child;
+				parentLists[child][parentCounts[child]++] = i;
+			}
 		}
-
-		if (descendentsSeenSoFar.contains(layoutEntity)) {
-			return; //No need to do further computation.
+		if (childCount < children.length) {
+			int[] trimmed = new int[childCount];
+			System.arraycopy(distinctChildren, 0, trimmed, 0, childCount);
+			distinctChildren = trimmed;
 		}
+		childrenLists[i] = distinctChildren;
+	}
 
-		descendentsSeenSoFar.add(layoutEntity);
-		// No need to do further computation!
-		if (weight < weights[i]) {
-			return;
+	/**
+	 * Returns the number of relationships from the given node and from all
+	 * the nodes it leads to.
+	 */
+	private int getNumDescendents(int i) {
+		if (numDescendents[i] == -1) {
+			int stamp = ++seenStamp;
+			int result = 0;
+			int depth = 0;
+			seen[i] = stamp;
+			stack[depth++] = i;
+			while (depth > 0) {
+				int node = stack[--depth];
+				for (int k = outStart[node]; k < outStart[node + 1]; k++) {
+					int child = outTargets[k];
+					result++;
+					if (seen[child] != stamp) {
+						seen[child] = stamp;
+						stack[depth++] = child;
+					}
+				}
+			}
+			numDescendents[i] = result;
 		}
+		return numDescendents[i];
+	}
 
-		weights[i] = weight;
-		Collection rels = findRelationships(layoutEntity, AS_SOURCE, relationships);
+	/**
+	 * Modifies the weight value of the marked node and of its descendents,
+	 * visiting each of them at most once.
+	 */
+	private void modifyWeight(int i, double weight) {
+		int stamp = ++seenStamp;
+		int depth = 0;
+		while (true) {
+			if (seen[i] != stamp) {
+				seen[i] = stamp;
+				// the weight grows by one with each level of the traversal
+				double nodeWeight = weight + depth;
+				if (nodeWeight >= weights[i]) {
+					weights[i] = nodeWeight;
+					stack[depth] = i;
+					cursors[depth++] = outStart[i];
+				}
+			}
 
-		for (Iterator iter = rels.iterator(); iter.hasNext();) {
-			InternalRelationship tmpRel = (InternalRelationship) iter.next();
-			InternalNode tmpEntity = tmpRel.getDestination();
-			int tmpEntityIndex = indexOfInternalNode(entities, tmpEntity);
-			modifyWeightRecursively(tmpEntity, tmpEntityIndex, weight + 1, descendentsSeenSoFar, entities, relationships);
+			i = -1;
+			while (depth > 0) {
+				int node = stack[depth - 1];
+				if (cursors[depth - 1] < outStart[node + 1]) {
+					i = outTargets[cursors[depth - 1]++];
+					break;
+				}
+				depth--;
+			}
+			if (i == -1) {
+				return;
+			}
 		}
 	}
 
 	/**
-	 * Gets the maxium weight of a tree in the forest of this TreeLayoutAlgorithm.
+	 * Gets the maxium weight of a tree in the forest of this
+	 * TreeLayoutAlgorithm, which is the largest weight of a leaf in it.
 	 */
-	private double getMaxiumWeightRecursive(InternalNode layoutEntity, int i, Set seenAlready, InternalNode[] entities) {
+	private double getMaximumWeight(int root) {
+		int stamp = ++seenStamp;
 		double result = 0;
-		if (seenAlready.contains(layoutEntity)) {
-			return result;
-		}
-		seenAlready.add(layoutEntity);
-		List children = childrenLists[i];
-		if (children.isEmpty()) {
-			result = weights[i];
-		} else {
-			//TODO: SLOW
-			for (Iterator iter = children.iterator(); iter.hasNext();) {
-				InternalNode childEntity = (InternalNode) iter.next();
-				int childEntityIndex = indexOfInternalNode(entities, childEntity);
-				result = Math.max(result, getMaxiumWeightRecursive(childEntity, childEntityIndex, seenAlready, entities));
+		int depth = 0;
+		seen[root] = stamp;
+		stack[depth++] = root;
+		while (depth > 0) {
+			int i = stack[--depth];
+			int[] children = childrenLists[i];
+			if (children.length == 0) {
+				result = Math.max(result, weights[i]);
+			}
+			for (int k = 0; k < children.length; k++) {
+				if (seen[children[k]] != stamp) {
+					seen[children[k]] = stamp;
+					stack[depth++] = children[k];
+				}
 			}
 		}
 		return result;
@@ -430,45 +542,67 @@ public class TreeLayoutAlgorithm extends AbstractLayoutAlgorithm {
 	 * Computes positions for each node in this TreeLayoutAlgorithm by
 	 * referencing the forest that holds those nodes.
 	 */
-	private void computePositions(List roots, InternalNode[] entities) {
+	private void computePositions(int[] rootIndices, InternalNode[] entities) {
 		// No need to do further computation!
-		if (roots.size() == 0) {
+		if (rootIndices.length == 0) {
 			return;
 		}
 
+		int count = entities.length;
 		int totalLeafCount = 0;
 		double maxWeight = 0;
-		for (int i = 0; i < roots.size(); i++) {
-			InternalNode rootEntity = (InternalNode) roots.get(i);
-			int rootEntityIndex = indexOfInternalNode(entities, rootEntity);
-			totalLeafCount = totalLeafCount + getNumberOfLeaves(rootEntity, rootEntityIndex, entities);
-			maxWeight = Math.max(maxWeight, getMaxiumWeightRecursive(rootEntity, rootEntityIndex, new HashSet(), entities) + 1.0);
+		for (int r = 0; r < rootIndices.length; r++) {
+			totalLeafCount = totalLeafCount + getNumberOfLeaves(rootIndices[r]);
+			maxWeight = Math.max(maxWeight, getMaximumWeight(rootIndices[r]) + 1.0);
 		}
 
 		double width = 1.0 / totalLeafCount;
 		double height = 1.0 / maxWeight;
 
+		// each tree is traversed depth first, each node being placed after
+		// the leaves of the children before it
+		int[] placed = new int[count];
+		int[] treeStack = new int[count];
+		int[] childCursors = new int[count];
+		int[] positions = new int[count];
+		int[] childPositions = new int[count];
 		int leafCountSoFar = 0;
+		for (int r = 0; r < rootIndices.length; r++) {
+			int depth = 0;
+			int i = rootIndices[r];
+			int relativePosition = leafCountSoFar;
+			while (true) {
+				if (placed[i] != r + 1) {
+					placed[i] = r + 1;
+					computePosition(entities[i], i, relativePosition, width, height);
+					treeStack[depth] = i;
+					childCursors[depth] = 0;
+					positions[depth] = relativePosition;
+					childPositions[depth++] = 0;
+				}
 
-		//TODO: SLOW!
-		for (int i = 0; i < roots.size(); i++) {
-			InternalNode rootEntity = (InternalNode) roots.get(i);
-			int rootEntityIndex = indexOfInternalNode(entities, rootEntity);
-			computePositionRecursively(rootEntity, rootEntityIndex, leafCountSoFar, width, height, new HashSet(), entities);
-			leafCountSoFar = leafCountSoFar + getNumberOfLeaves(rootEntity, rootEntityIndex, entities);
+				i = -1;
+				while (depth > 0) {
+					int[] children = childrenLists[treeStack[depth - 1]];
+					if (childCursors[depth - 1] < children.length) {
+						i = children[childCursors[depth - 1]++];
+						relativePosition = positions[depth - 1] + childPositions[depth - 1];
+						childPositions[depth - 1] += getNumberOfLeaves(i);
+						break;
+					}
+					depth--;
+				}
+				if (i == -1) {
+					break;
+				}
+			}
+			leafCountSoFar = leafCountSoFar + getNumberOfLeaves(rootIndices[r]);
 		}
 	}
 
-	/**
-	 * Computes positions recursively until the leaf nodes are reached.
-	 */
-	private void computePositionRecursively(InternalNode layoutEntity, int i, int relativePosition, double width, double height, Set seenAlready, InternalNode[] entities) {
-		if (seenAlready.contains(layoutEntity)) {
-			return;
-		}
-		seenAlready.add(layoutEntity);
-		double level = getLevel(layoutEntity, i, entities);
-		int breadth = getNumberOfLeaves(layoutEntity, i, entities);
+	private void computePosition(InternalNode layoutEntity, int i, int relativePosition, double width, double height) {
+		double level = getLevel(i);
+		int breadth = getNumberOfLeaves(i);
 		double absHPosition = relativePosition + breadth / 2.0;
 		double absVPosition = (level + 0.5);
 
@@ -477,78 +611,91 @@ public class TreeLayoutAlgorithm extends AbstractLayoutAlgorithm {
 		double weight = weights[i];
 		posy = posy + height * (weight - level);
 		layoutEntity.setInternalLocation(posx, posy);
-
-		int relativeCount = 0;
-		List children = childrenLists[i];
-		//TODO: Slow
-		for (Iterator iter = children.iterator(); iter.hasNext();) {
-			InternalNode childEntity = (InternalNode) iter.next();
-			int childEntityIndex = indexOfInternalNode(entities, childEntity);
-			computePositionRecursively(childEntity, childEntityIndex, relativePosition + relativeCount, width, height, seenAlready, entities);
-			relativeCount = relativeCount + getNumberOfLeaves(childEntity, childEntityIndex, entities);
-		}
 	}
 
-	private int getNumberOfLeaves(InternalNode layoutEntity, int i, InternalNode[] entities) {
-		return getNumberOfLeavesRecursive(layoutEntity, i, new HashSet(), entities);
-	}
-
-	private int getNumberOfLeavesRecursive(InternalNode layoutEntity, int i, Set seen, InternalNode[] entities) {
-		int numLeaves = 0;
-		List children = childrenLists[i];
-		if (children.size() == 0) {
-			numLeaves = 1;
-		} else {
-			//TODO: SLOW!
-			for (Iterator iter = children.iterator(); iter.hasNext();) {
-				InternalNode childEntity = (InternalNode) iter.next();
-				if (!seen.contains(childEntity)) {
-					seen.add(childEntity);
-					int childEntityIndex = indexOfInternalNode(entities, childEntity);
-					numLeaves += getNumberOfLeavesRecursive(childEntity, childEntityIndex, seen, entities);
-				} else {
-					numLeaves = 1;
+	/**
+	 * Returns the number of leaves under the given node. A child already
+	 * counted under another child counts as a single leaf, and resets the
+	 * count of its siblings before it.
+	 */
+	private int getNumberOfLeaves(int i) {
+		if (numLeaves[i] == -1) {
+			int stamp = ++seenStamp;
+			int depth = 0;
+			stack[depth] = i;
+			cursors[depth] = 0;
+			values[depth++] = 0;
+			while (true) {
+				int[] children = childrenLists[stack[depth - 1]];
+				if (cursors[depth - 1] < children.length) {
+					int child = children[cursors[depth - 1]++];
+					if (seen[child] == stamp) {
+						values[depth - 1] = 1;
+					} else if (childrenLists[child].length == 0) {
+						seen[child] = stamp;
+						values[depth - 1]++;
+					} else {
+						seen[child] = stamp;
+						stack[depth] = child;
+						cursors[depth] = 0;
+						values[depth++] = 0;
+					}
+					continue;
 				}
+				depth--;
+				if (depth == 0) {
+					break;
+				}
+				values[depth - 1] += values[depth];
 			}
+			numLeaves[i] = values[0];
 		}
-		return numLeaves;
-	}
-
-	private int getLevel(InternalNode layoutEntity, int i, InternalNode[] entities) {
-		return getLevelRecursive(layoutEntity, i, new HashSet(), entities);
-	}
-
-	private int getLevelRecursive(InternalNode layoutEntity, int i, Set seen, InternalNode[] entities) {
-		if (seen.contains(layoutEntity)) {
-			return 0;
-		}
-		seen.add(layoutEntity);
-		List parents = parentLists[i];
-		int maxParentLevel = 0;
-		for (Iterator iter = parents.iterator(); iter.hasNext();) {
-			InternalNode parentEntity = (InternalNode) iter.next();
-			int parentEntityIndex = indexOfInternalNode(entities, parentEntity);
-			int parentLevel = getLevelRecursive(parentEntity, parentEntityIndex, seen, entities) + 1;
-			maxParentLevel = Math.max(maxParentLevel, parentLevel);
-		}
-		return maxParentLevel;
+		return numLeaves[i];
 	}
 
 	/**
-	 * Note: Use this as little as possible!
-	 * TODO limit the use of this method 
-	 * @param nodes
-	 * @param nodeToFind
-	 * @return
+	 * Returns the length of the longest path of parents from the given node,
+	 * visiting each parent at most once.
 	 */
-	private int indexOfInternalNode(InternalNode[] nodes, InternalNode nodeToFind) {
-		for (int i = 0; i < nodes.length; i++) {
-			InternalNode node = nodes[i];
-			if (node.equals(nodeToFind)) {
-				return i;
+	private int getLevel(int i) {
+		if (levels[i] == -1) {
+			int stamp = ++seenStamp;
+			int depth = 0;
+			seen[i] = stamp;
+			stack[depth] = i;
+			cursors[depth] = 0;
+			values[depth++] = 0;
+			while (true) {
+				int node = stack[depth - 1];
+				if (cursors[depth - 1] < parentCounts[node]) {
+					int parent = parentLists[node][cursors[depth - 1]++];
+					if (seen[parent] == stamp) {
+						values[depth - 1] = Math.max(values[depth - 1], 1);
+					} else {
+						seen[parent] = stamp;
+						stack[depth] = parent;
+						cursors[depth] = 0;
+						values[depth++] = 0;
+					}
+					continue;
+				}
+				depth--;
+				if (depth == 0) {
+					break;
+				}
+				values[depth - 1] = Math.max(values[depth - 1], values[depth] + 1);
 			}
+			levels[i] = values[0];
+		}
+		return levels[i];
+	}
+
+	private int indexOfInternalNode(Map indices, InternalNode nodeToFind) {
+		Integer index = (Integer) indices.get(nodeToFind);
+		if (index == null) {
+			throw new RuntimeException("Couldn't find index of internal node: " + nodeToFind);
 		}
-		throw new RuntimeException("Couldn't find index of internal node: " + nodeToFind);
+		return index.intValue();
 	}
 
 	protected boolean isValidConfiguration(boolean asynchronous, boolean continueous) {
@@ -0,0 +1,239 @@
+/*******************************************************************************
+ * Copyright (c) 2026 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.zest.layouts.algorithms.internal;
+
+/**
+ * A quadtree over a set of points, used to approximate the repulsion between
+ * all pairs of nodes in a force directed layout with the Barnes-Hut method.
+ * Each cell records the number of points it contains and their center of mass.
+ * A group of points whose cell appears small enough from a given point, as
+ * controlled by the parameter theta, is treated as a single point at its center
+ * of mass, so that the repulsion on one point costs O(log n) instead of O(n).
+ * <p>
+ * The tree is stored in flat arrays which are reused each time the tree is
+ * rebuilt. Once built, the repulsion on different points may be computed by
+ * several threads at once.
+ */
+public class QuadTree {
+
+	/**
+	 * Cells are not split beyond this depth, so that points at the same
+	 * location end up in the same leaf.
+	 */
+	private static final int MAX_DEPTH = 24;
+
+	/**
+	 * The size of the stack of cells to visit, which holds at most three
+	 * siblings from each level above the current cell and its four children.
+	 */
+	private static final int STACK_SIZE = 4 * (MAX_DEPTH + 1);
+
+	private int cellCount;
+	private double[] cellX, cellY, cellSize;
+	private double[] massX, massY;
+	private int[] mass;
+	private int[] firstChild;
+	private int[] body;
+	private int[] leafOf = new int[0];
+	private double[] xs, ys;
+
+	/**
+	 * Creates an empty tree.
+	 */
+	public QuadTree() {
+		allocate(64);
+	}
+
+	private void allocate(int capacity) {
+		double[] newCellX = new double[capacity];
+		double[] newCellY = new double[capacity];
+		double[] newCellSize = new double[capacity];
+		double[] newMassX = new double[capacity];
+		double[] newMassY = new double[capacity];
+		int[] newMass = new int[capacity];
+		int[] newFirstChild = new int[capacity];
+		int[] newBody = new int[capacity];
+		if (cellX != null) {
+			System.arraycopy(cellX, 0, newCellX, 0, cellCount);
+			System.arraycopy(cellY, 0, newCellY, 0, cellCount);
+			System.arraycopy(cellSize, 0, newCellSize, 0, cellCount);
+			System.arraycopy(massX, 0, newMassX, 0, cellCount);
+			System.arraycopy(massY, 0, newMassY, 0, cellCount);
+			System.arraycopy(mass, 0, newMass, 0, cellCount);
+			System.arraycopy(firstChild, 0, newFirstChild, 0, cellCount);
+			System.arraycopy(body, 0, newBody, 0, cellCount);
+		}
+		cellX = newCellX;
+		cellY = newCellY;
+		cellSize = newCellSize;
+		massX = newMassX;
+		massY = newMassY;
+		mass = newMass;
+		firstChild = newFirstChild;
+		body = newBody;
+	}
+
+	private int addCell(double x, double y, double size) {
+		if (cellCount == cellX.length)
+			allocate(cellCount * 2);
+		int cell = cellCount++;
+		cellX[cell] = x;
+		cellY[cell] = y;
+		cellSize[cell] = size;
+		massX[cell] = massY[cell] = 0;
+		mass[cell] = 0;
+		firstChild[cell] = -1;
+		body[cell] = -1;
+		return cell;
+	}
+
+	/**
+	 * Rebuilds the tree over the given points.
+	 * 
+	 * @param x
+	 *            the x coordinates of the points
+	 * @param y
+	 *            the y coordinates of the points
+	 * @param count
+	 *            the number of points
+	 */
+	public void build(double[] x, double[] y, int count) {
+		xs = x;
+		ys = y;
+		cellCount = 0;
+		if (leafOf.length < count)
+			leafOf = new int[count];
+		if (count == 0)
+			return;
+
+		double minX = Double.MAX_VALUE, minY = Double.MAX_VALUE;
+		double maxX = -Double.MAX_VALUE, maxY = -Double.MAX_VALUE;
+		for (int i = 0; i < count; i++) {
+			minX = Math.min(minX, x[i]);
+			minY = Math.min(minY, y[i]);
+			maxX = Math.max(maxX, x[i]);
+			maxY = Math.max(maxY, y[i]);
+		}
+		double size = Math.max(maxX - minX, maxY - minY);
+		// leave room so that the largest coordinates fall inside the root
+		addCell(minX, minY, size * 1.0001 + Double.MIN_VALUE);
+		for (int i = 0; i < count; i++)
+			insert(i);
+		for (int cell = 0; cell < cellCount; cell++) {
+			if (mass[cell] > 0) {
+				massX[cell] /= mass[cell];
+				massY[cell] /= mass[cell];
+			}
+		}
+	}
+
+	private void insert(int b) {
+		double x = xs[b], y = ys[b];
+		int cell = 0;
+		for (int depth = 0;; depth++) {
+			mass[cell]++;
+			massX[cell] += x;
+			massY[cell] += y;
+			if (firstChild[cell] == -1) {
+				if (mass[cell] == 1) {
+					body[cell] = b;
+					break;
+				}
+				if (depth == MAX_DEPTH)
+					break;
+				// split the leaf and move its point down
+				int existing = body[cell];
+				body[cell] = -1;
+				double half = cellSize[cell] / 2;
+				firstChild[cell] = addCell(cellX[cell], cellY[cell], half);
+				addCell(cellX[cell] + half, cellY[cell], half);
+				addCell(cellX[cell], cellY[cell] + half, half);
+				addCell(cellX[cell] + half, cellY[cell] + half, half);
+				int child = childFor(cell, xs[existing], ys[existing]);
+				mass[child] = 1;
+				massX[child] = xs[existing];
+				massY[child] = ys[existing];
+				body[child] = existing;
+				leafOf[existing] = child;
+			}
+			cell = childFor(cell, x, y);
+		}
+		leafOf[b] = cell;
+	}
+
+	private int childFor(int cell, double x, double y) {
+		double half = cellSize[cell] / 2;
+		int child = firstChild[cell];
+		if (x >= cellX[cell] + half)
+			child += 1;
+		if (y >= cellY[cell] + half)
+			child += 2;
+		return child;
+	}
+
+	/**
+	 * Computes the repulsion on one of the points from all the others. The
+	 * repulsion between two points is <code>strength / d^2</code>, where d is
+	 * their distance, directed away from the other point. Points in the same
+	 * leaf as the given point are ignored, as the direction of their repulsion
+	 * is undefined.
+	 * 
+	 * @param i
+	 *            the index of the point
+	 * @param theta
+	 *            the ratio of cell size to distance below which a cell is
+	 *            treated as a single point; <code>0</code> gives the exact
+	 *            result
+	 * @param strength
+	 *            the strength of the repulsion
+	 * @param minDistance
+	 *            the minimum distance considered between points
+	 * @param force
+	 *            an array of length 2 which receives the x and y components of
+	 *            the force
+	 */
+	public void computeRepulsion(int i, double theta, double strength, double minDistance, double[] force) {
+		double x = xs[i], y = ys[i];
+		double fx = 0, fy = 0;
+		double theta2 = theta * theta;
+		double minDistance2 = minDistance * minDistance;
+		int ownLeaf = leafOf[i];
+		int[] stack = new int[STACK_SIZE];
+		int top = 0;
+		if (cellCount > 0)
+			stack[top++] = 0;
+		while (top > 0) {
+			int cell = stack[--top];
+			if (mass[cell] == 0 || cell == ownLeaf)
+				continue;
+			double dx = x - massX[cell];
+			double dy = y - massY[cell];
+			double d2 = dx * dx + dy * dy;
+			if (firstChild[cell] == -1 || cellSize[cell] * cellSize[cell] < theta2 * d2) {
+				if (d2 == 0)
+					continue;
+				d2 = Math.max(d2, minDistance2);
+				double f = strength * mass[cell] / (d2 * Math.sqrt(d2));
+				fx += f * dx;
+				fy += f * dy;
+			} else {
+				int child = firstChild[cell];
+				stack[top++] = child;
+				stack[top++] = child + 1;
+				stack[top++] = child + 2;
+				stack[top++] = child + 3;
+			}
+		}
+		force[0] = fx;
+		force[1] = fy;
+	}
+
+}
@@ -0,0 +1,187 @@
+/*******************************************************************************
+ * Copyright (c) 2026 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.zest.layouts.algorithms.internal;
+
+import java.util.IdentityHashMap;
+import java.util.Map;
+
+import org.eclipse.zest.layouts.dataStructures.InternalNode;
+import org.eclipse.zest.layouts.dataStructures.InternalRelationship;
+
+/**
+ * An undirected weighted graph over the nodes 0 to n - 1, stored in compressed
+ * sparse row form: the neighbours of node i are at indices
+ * <code>getStart()[i]</code> to <code>getStart()[i + 1] - 1</code> of
+ * {@link #getAdjacency()}, and the weights of the edges to them at the same
+ * indices of {@link #getWeights()}. Each edge appears once in the row of each
+ * of its nodes. Several edges between the same two nodes are merged into one,
+ * whose weight is the sum of their weights, and edges from a node to itself
+ * are ignored. Memory and construction time are linear in the number of nodes
+ * and edges.
+ */
+public class SparseGraph {
+
+	private final int nodeCount;
+	private final int[] start;
+	private final int[] adjacency;
+	private final double[] weights;
+
+	/**
+	 * Creates a graph from a list of edges. An edge whose source is
+	 * <code>-1</code> is ignored.
+	 *
+	 * @param nodeCount
+	 *            the number of nodes
+	 * @param sources
+	 *            the source of each edge
+	 * @param targets
+	 *            the target of each edge
+	 * @param edgeWeights
+	 *            the weight of each edge
+	 * @param edgeCount
+	 *            the number of edges
+	 */
+	public SparseGraph(int nodeCount, int[] sources, int[] targets, double[] edgeWeights, int edgeCount) {
+		this.nodeCount = nodeCount;
+		int[] degrees = new int[nodeCount];
+		for (int e = 0; e < edgeCount; e++) {
+			if (sources[e] == -1 || sources[e] == targets[e])
+				continue;
+			degrees[sources[e]]++;
+			degrees[targets[e]]++;
+		}
+
+		int[] rowStart = new int[nodeCount + 1];
+		for (int i = 0; i < nodeCount; i++)
+			rowStart[i + 1] = rowStart[i] + degrees[i];
+		int[] entries = new int[rowStart[nodeCount]];
+		double[] entryWeights = new double[rowStart[nodeCount]];
+		int[] next = degrees;
+		System.arraycopy(rowStart, 0, next, 0, nodeCount);
+		for (int e = 0; e < edgeCount; e++) {
+			int source = sources[e];
+			int target = targets[e];
+			if (source == -1 || source == target)
+				continue;
+			entries[next[source]] = target;
+			entryWeights[next[source]++] = edgeWeights[e];
+			entries[next[target]] = source;
+			entryWeights[next[target]++] = edgeWeights[e];
+		}
+
+		// merge the entries for the same pair of nodes, compacting the rows
+		int[] position = next;
+		for (int i = 0; i < nodeCount; i++)
+			position[i] = -1;
+		int write = 0;
+		for (int i = 0; i < nodeCount; i++) {
+			int begin = write;
+			for (int k = rowStart[i]; k < rowStart[i + 1]; k++) {
+				int j = entries[k];
+				if (position[j] >= begin) {
+					entryWeights[position[j]] += entryWeights[k];
+				} else {
+					position[j] = write;
+					entries[write] = j;
+					entryWeights[write++] = entryWeights[k];
+				}
+			}
+			rowStart[i] = begin;
+		}
+		rowStart[nodeCount] = write;
+
+		start = rowStart;
+		adjacency = entries;
+		weights = entryWeights;
+	}
+
+	/**
+	 * Creates the graph of the given relationships between the given nodes.
+	 * Each relationship is an edge whose weight is its weight as returned by
+	 * {@link InternalRelationship#getWeight()}, or 0.1 if that is not
+	 * positive, multiplied by the given factor. Relationships to nodes which
+	 * are not in the array are ignored.
+	 *
+	 * @param nodes
+	 *            the nodes
+	 * @param relationships
+	 *            the relationships
+	 * @param factor
+	 *            the factor applied to the weight of every relationship
+	 * @return the graph
+	 * @throws IllegalArgumentException
+	 *             If a relationship is null
+	 */
+	public static SparseGraph create(InternalNode[] nodes, InternalRelationship[] relationships, double factor) {
+		Map indices = new IdentityHashMap(nodes.length * 2);
+		for (int i = 0; i < nodes.length; i++)
+			indices.put(nodes[i], new Integer(i));
+
+		int[] sources = new int[relationships.length];
+		int[] targets = new int[relationships.length];
+		double[] edgeWeights = new double[relationships.length];
+		for (int e = 0; e < relationships.length; e++) {
+			InternalRelationship relationship = relationships[e];
+			if (relationship == null)
+				throw new IllegalArgumentException("The arguments can not be null!");
+			Integer source = (Integer) indices.get(relationship.getSource());
+			Integer target = (Integer) indices.get(relationship.getDestination());
+			if (source == null || target == null) {
+				sources[e] = -1;
+				continue;
+			}
+			sources[e] = source.intValue();
+			targets[e] = target.intValue();
+			double weight = relationship.getWeight();
+			edgeWeights[e] = factor * (weight <= 0 ? 0.1 : weight);
+		}
+		return new SparseGraph(nodes.length, sources, targets, edgeWeights, relationships.length);
+	}
+
+	/**
+	 * Returns the number of nodes.
+	 *
+	 * @return the number of nodes
+	 */
+	public int getNodeCount() {
+		return nodeCount;
+	}
+
+	/**
+	 * Returns the start of the row of each node in the adjacency, followed by
+	 * the total length of the adjacency.
+	 *
+	 * @return the row starts, of length n + 1
+	 */
+	public int[] getStart() {
+		return start;
+	}
+
+	/**
+	 * Returns the neighbours of all the nodes, row after row.
+	 *
+	 * @return the adjacency
+	 */
+	public int[] getAdjacency() {
+		return adjacency;
+	}
+
+	/**
+	 * Returns the weight of the edge to each neighbour, in the same order as
+	 * {@link #getAdjacency()}.
+	 *
+	 * @return the weights
+	 */
+	public double[] getWeights() {
+		return weights;
+	}
+
+}
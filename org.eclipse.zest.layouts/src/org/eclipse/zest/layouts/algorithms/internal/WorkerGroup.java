@@ -0,0 +1,179 @@
+/*******************************************************************************
+ * Copyright (c) 2026 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.zest.layouts.algorithms.internal;
+
+/**
+ * A fixed group of threads which repeatedly run the parts of a task together,
+ * such as the force computation of each iteration of a layout. The calling
+ * thread runs the first part of the task and the worker threads run the
+ * others, so that a group of one thread runs everything on the calling thread.
+ * The worker threads are kept between tasks, and must be stopped with
+ * {@link #dispose()}.
+ */
+public class WorkerGroup {
+
+	/**
+	 * A task divided into a fixed number of parts.
+	 */
+	public interface Task {
+
+		/**
+		 * Runs one part of the task.
+		 *
+		 * @param part
+		 *            the index of the part, from 0 to partCount - 1
+		 * @param partCount
+		 *            the number of parts
+		 */
+		void run(int part, int partCount);
+	}
+
+	private final Object lock = new Object();
+	private final Thread[] threads;
+	private Task task;
+	private int generation;
+	private int running;
+	private boolean disposed;
+	private Throwable failure;
+
+	/**
+	 * Creates a group of the given number of threads, including the calling
+	 * thread.
+	 *
+	 * @param threadCount
+	 *            the number of threads
+	 * @param name
+	 *            the name of the worker threads
+	 */
+	public WorkerGroup(int threadCount, String name) {
+		if (threadCount < 1)
+			throw new IllegalArgumentException("Thread count must be at least 1");
+		threads = new Thread[threadCount - 1];
+		for (int i = 0; i < threads.length; i++) {
+			threads[i] = new Thread(new Worker(i + 1), name + " " + (i + 1));
+			threads[i].setDaemon(true);
+			threads[i].start();
+		}
+	}
+
+	/**
+	 * Returns the number of threads in this group, including the calling
+	 * thread.
+	 *
+	 * @return the number of threads
+	 */
+	public int getThreadCount() {
+		return threads.length + 1;
+	}
+
+	/**
+	 * Runs every part of the given task, and returns once they have all
+	 * completed. If a part throws an exception, it is rethrown on the calling
+	 * thread.
+	 *
+	 * @param task
+	 *            the task
+	 */
+	public void run(Task task) {
+		synchronized (lock) {
+			if (disposed)
+				throw new IllegalStateException("Worker group has been disposed");
+			this.task = task;
+			failure = null;
+			running = threads.length;
+			generation++;
+			lock.notifyAll();
+		}
+
+		try {
+			task.run(0, getThreadCount());
+		} catch (RuntimeException e) {
+			failed(e);
+		} catch (Error e) {
+			failed(e);
+		}
+
+		boolean interrupted = false;
+		synchronized (lock) {
+			while (running > 0) {
+				try {
+					lock.wait();
+				} catch (InterruptedException e) {
+					interrupted = true;
+				}
+			}
+			this.task = null;
+		}
+		if (interrupted)
+			Thread.currentThread().interrupt();
+
+		if (failure instanceof RuntimeException)
+			throw (RuntimeException) failure;
+		if (failure instanceof Error)
+			throw (Error) failure;
+	}
+
+	/**
+	 * Stops the worker threads. The group can not be used afterwards.
+	 */
+	public void dispose() {
+		synchronized (lock) {
+			disposed = true;
+			lock.notifyAll();
+		}
+	}
+
+	private void failed(Throwable t) {
+		synchronized (lock) {
+			if (failure == null)
+				failure = t;
+		}
+	}
+
+	private class Worker implements Runnable {
+
+		private final int part;
+
+		Worker(int part) {
+			this.part = part;
+		}
+
+		public void run() {
+			int seen = 0;
+			while (true) {
+				Task current;
+				synchronized (lock) {
+					while (generation == seen && !disposed) {
+						try {
+							lock.wait();
+						} catch (InterruptedException e) {
+							// keep waiting until disposed
+						}
+					}
+					if (disposed)
+						return;
+					seen = generation;
+					current = task;
+				}
+				try {
+					current.run(part, getThreadCount());
+				} catch (Throwable t) {
+					failed(t);
+				}
+				synchronized (lock) {
+					if (--running == 0)
+						lock.notifyAll();
+				}
+			}
+		}
+	}
+
+}
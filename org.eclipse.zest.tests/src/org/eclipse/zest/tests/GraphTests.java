@@ -8,16 +8,25 @@
  *******************************************************************************/
 package org.eclipse.zest.tests;
 
+import java.util.Collections;
+import java.util.List;
+
 import junit.framework.TestCase;
 
 import org.eclipse.draw2d.Figure;
 import org.eclipse.swt.SWT;
+import org.eclipse.swt.widgets.Display;
 import org.eclipse.swt.widgets.Shell;
 import org.eclipse.zest.core.widgets.Graph;
 import org.eclipse.zest.core.widgets.GraphConnection;
 import org.eclipse.zest.core.widgets.GraphItem;
 import org.eclipse.zest.core.widgets.GraphNode;
+import org.eclipse.zest.core.widgets.ZestStyles;
 import org.eclipse.zest.core.widgets.internal.ZestRootLayer;
+import org.eclipse.zest.layouts.InvalidLayoutConfiguration;
+import org.eclipse.zest.layouts.LayoutEntity;
+import org.eclipse.zest.layouts.LayoutRelationship;
+import org.eclipse.zest.layouts.algorithms.GridLayoutAlgorithm;
 
 /**
  * General tests for the {@link Graph} class.
@@ -121,4 +130,221 @@ public class GraphTests extends TestCase {
 
 	}
 
+	/**
+	 * The layout input must be recomputed when nodes and connections are
+	 * added, removed, shown or hidden.
+	 */
+	public void testLayoutInputFollowsChanges() {
+		Graph graph = new Graph(shell, ZestStyles.IGNORE_INVISIBLE_LAYOUT);
+		graph.setPreferredSize(300, 300);
+		shell.open();
+		GraphNode a = new GraphNode(graph, STYLE);
+		GraphNode b = new GraphNode(graph, STYLE);
+		new GraphConnection(graph, STYLE, a, b);
+		assertLayoutInput(graph, 2, 1);
+		// unchanged, from the cache
+		assertLayoutInput(graph, 2, 1);
+
+		GraphNode c = new GraphNode(graph, STYLE);
+		GraphConnection bc = new GraphConnection(graph, STYLE, b, c);
+		assertLayoutInput(graph, 3, 2);
+
+		bc.setVisible(false);
+		assertLayoutInput(graph, 3, 1);
+		c.setVisible(false);
+		assertLayoutInput(graph, 2, 1);
+		// showing the node shows its connection again
+		c.setVisible(true);
+		assertLayoutInput(graph, 3, 2);
+		b.setVisible(false);
+		assertLayoutInput(graph, 2, 0);
+		b.setVisible(true);
+		assertLayoutInput(graph, 3, 2);
+
+		bc.dispose();
+		assertLayoutInput(graph, 3, 1);
+		c.dispose();
+		assertLayoutInput(graph, 2, 1);
+	}
+
+	/**
+	 * Applies a layout to the graph, and checks the number of entities and
+	 * relationships it was given.
+	 */
+	private void assertLayoutInput(Graph graph, int entityCount,
+			int relationshipCount) {
+		RecordingLayoutAlgorithm algorithm = new RecordingLayoutAlgorithm();
+		graph.setLayoutAlgorithm(algorithm, true);
+		dispatchEvents(algorithm, 1, 10000);
+		assertEquals(1, algorithm.layoutCount);
+		assertEquals(entityCount, algorithm.entityCount);
+		assertEquals(relationshipCount, algorithm.relationshipCount);
+	}
+
+	public void testNestedBatches() {
+		ZestRootLayer layer = getZestRootLayer();
+		graph.beginUpdate();
+		graph.beginUpdate();
+		GraphNode node = new GraphNode(graph, STYLE);
+		graph.endUpdate();
+		assertTrue(graph.isUpdating());
+		assertNull(node.getNodeFigure().getParent());
+		graph.endUpdate();
+		assertFalse(graph.isUpdating());
+		assertSame(layer, node.getNodeFigure().getParent());
+		try {
+			graph.endUpdate();
+			fail("endUpdate() without beginUpdate() should fail");
+		} catch (IllegalStateException e) {
+			// expected
+		}
+	}
+
+	public void testNestedBatchRunnables() {
+		final GraphNode[] added = new GraphNode[1];
+		graph.batch(new Runnable() {
+			public void run() {
+				graph.batch(new Runnable() {
+					public void run() {
+						added[0] = new GraphNode(graph, STYLE);
+					}
+				});
+				assertTrue(graph.isUpdating());
+				assertNull(added[0].getNodeFigure().getParent());
+			}
+		});
+		assertFalse(graph.isUpdating());
+		assertSame(getZestRootLayer(), added[0].getNodeFigure().getParent());
+	}
+
+	public void testBatchEndsOnException() {
+		try {
+			graph.batch(new Runnable() {
+				public void run() {
+					new GraphNode(graph, STYLE);
+					throw new IllegalArgumentException();
+				}
+			});
+			fail("The exception should be thrown");
+		} catch (IllegalArgumentException e) {
+			// expected
+		}
+		assertFalse(graph.isUpdating());
+		assertEquals(4, getZestRootLayer().getChildren().size());
+	}
+
+	public void testDisposeDuringBatch() {
+		ZestRootLayer layer = getZestRootLayer();
+		graph.beginUpdate();
+		GraphNode node = new GraphNode(graph, STYLE);
+		GraphConnection added = new GraphConnection(graph, STYLE, nodes[0],
+				node);
+		node.dispose();
+		assertTrue(added.isDisposed());
+		// also disposes the connection of the graph
+		nodes[1].dispose();
+		graph.endUpdate();
+
+		assertEquals(Collections.singletonList(nodes[0]), graph.getNodes());
+		assertTrue(graph.getConnections().isEmpty());
+		assertEquals(Collections.singletonList(nodes[0].getNodeFigure()), layer
+				.getChildren());
+		assertNull(node.getNodeFigure().getParent());
+	}
+
+	public void testDisposeGraphDuringBatch() {
+		graph.beginUpdate();
+		GraphNode node = new GraphNode(graph, STYLE);
+		graph.dispose();
+		graph.endUpdate();
+		assertTrue(node.isDisposed());
+		assertFalse(graph.isUpdating());
+	}
+
+	public void testHighlightDuringBatch() {
+		ZestRootLayer layer = getZestRootLayer();
+		graph.beginUpdate();
+		GraphNode highlighted = new GraphNode(graph, STYLE);
+		GraphNode unhighlighted = new GraphNode(graph, STYLE);
+		GraphConnection added = new GraphConnection(graph, STYLE, highlighted,
+				unhighlighted);
+		highlighted.highlight();
+		unhighlighted.highlight();
+		unhighlighted.unhighlight();
+		added.highlight();
+		graph.endUpdate();
+
+		List children = layer.getChildren();
+		assertEquals(6, children.size());
+		// the highlighted node is on top of all the others
+		assertSame(highlighted.getNodeFigure(), children.get(5));
+		// as outside of a batch, a highlighted connection stays below the
+		// nodes
+		connection.highlight();
+		children = layer.getChildren();
+		int firstNode = children.indexOf(nodes[0].getNodeFigure());
+		assertTrue(children.indexOf(connection.getConnectionFigure()) < firstNode);
+		assertTrue(children.indexOf(added.getConnectionFigure()) < firstNode);
+		assertTrue(children.indexOf(unhighlighted.getNodeFigure()) > firstNode);
+		assertSame(highlighted.getNodeFigure(), children.get(5));
+	}
+
+	public void testLayoutDeferredUntilBatchEnds() {
+		graph.setPreferredSize(300, 300);
+		shell.open();
+		RecordingLayoutAlgorithm algorithm = new RecordingLayoutAlgorithm();
+		graph.beginUpdate();
+		graph.setLayoutAlgorithm(algorithm, true);
+		new GraphNode(graph, STYLE);
+		graph.applyLayout();
+		dispatchEvents(algorithm, 1, 200);
+		assertEquals(0, algorithm.layoutCount);
+
+		graph.endUpdate();
+		dispatchEvents(algorithm, 1, 10000);
+		// no other layout follows
+		dispatchEvents(algorithm, 2, 200);
+		assertEquals(1, algorithm.layoutCount);
+		assertEquals(3, algorithm.entityCount);
+	}
+
+	private ZestRootLayer getZestRootLayer() {
+		return (ZestRootLayer) nodes[0].getNodeFigure().getParent();
+	}
+
+	/**
+	 * Runs the event loop until the algorithm has been applied the given
+	 * number of times, or the time runs out.
+	 */
+	private void dispatchEvents(RecordingLayoutAlgorithm algorithm,
+			int layoutCount, long timeout) {
+		Display display = shell.getDisplay();
+		long end = System.currentTimeMillis() + timeout;
+		while (algorithm.layoutCount < layoutCount
+				&& System.currentTimeMillis() < end) {
+			display.readAndDispatch();
+		}
+	}
+
+	/**
+	 * A grid layout which records how many times it is applied, and the number
+	 * of entities and relationships it was last applied to.
+	 */
+	private static class RecordingLayoutAlgorithm extends GridLayoutAlgorithm {
+		int layoutCount;
+		int entityCount = -1;
+		int relationshipCount = -1;
+
+		public synchronized void applyLayout(LayoutEntity[] entitiesToLayout,
+				LayoutRelationship[] relationshipsToConsider, double x,
+				double y, double width, double height, boolean asynchronous,
+				boolean continuous) throws InvalidLayoutConfiguration {
+			layoutCount++;
+			entityCount = entitiesToLayout.length;
+			relationshipCount = relationshipsToConsider.length;
+			super.applyLayout(entitiesToLayout, relationshipsToConsider, x, y,
+					width, height, asynchronous, continuous);
+		}
+	}
+
 }
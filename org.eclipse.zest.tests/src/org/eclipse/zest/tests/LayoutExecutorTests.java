@@ -0,0 +1,278 @@
+/*******************************************************************************
+ * Copyright (c) 2026 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.zest.tests;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import junit.framework.TestCase;
+
+import org.eclipse.zest.layouts.LayoutExecutor;
+import org.eclipse.zest.layouts.LayoutSnapshot;
+import org.eclipse.zest.layouts.algorithms.AbstractLayoutAlgorithm;
+import org.eclipse.zest.layouts.dataStructures.InternalNode;
+import org.eclipse.zest.layouts.dataStructures.InternalRelationship;
+import org.eclipse.zest.layouts.exampleStructures.SimpleNode;
+import org.eclipse.zest.layouts.exampleStructures.SimpleRelationship;
+
+/**
+ * Tests for the {@link LayoutExecutor}.
+ */
+public class LayoutExecutorTests extends TestCase {
+
+	private static final long TIMEOUT = 10000;
+
+	/**
+	 * A layout which can wait until it is released or, unless it ignores
+	 * stops, stopped, and then throw the given exception.
+	 */
+	private static class TestLayout extends AbstractLayoutAlgorithm {
+		private final Object monitor = new Object();
+		private final boolean blocking;
+		private final Throwable failure;
+		private boolean started;
+		private boolean released;
+		boolean ignoresStop;
+
+		TestLayout(boolean blocking, Throwable failure) {
+			super(0);
+			this.blocking = blocking;
+			this.failure = failure;
+		}
+
+		void awaitStarted() throws InterruptedException {
+			long end = System.currentTimeMillis() + TIMEOUT;
+			synchronized (monitor) {
+				while (!started && System.currentTimeMillis() < end)
+					monitor.wait(10);
+				assertTrue("Layout did not start", started);
+			}
+		}
+
+		void release() {
+			synchronized (monitor) {
+				released = true;
+				monitor.notifyAll();
+			}
+		}
+
+		protected void applyLayoutInternal(InternalNode[] entitiesToLayout, InternalRelationship[] relationshipsToConsider, double boundsX, double boundsY, double boundsWidth, double boundsHeight) {
+			synchronized (monitor) {
+				started = true;
+				monitor.notifyAll();
+				try {
+					while (blocking && !released && (ignoresStop || !layoutStopped))
+						monitor.wait(10);
+				} catch (InterruptedException e) {
+					return;
+				}
+			}
+			if (failure instanceof RuntimeException)
+				throw (RuntimeException) failure;
+			if (failure instanceof Error)
+				throw (Error) failure;
+		}
+
+		public void setLayoutArea(double x, double y, double width, double height) {
+		}
+
+		protected boolean isValidConfiguration(boolean asynchronous, boolean continuous) {
+			return true;
+		}
+
+		protected void preLayoutAlgorithm(InternalNode[] entitiesToLayout, InternalRelationship[] relationshipsToConsider, double x, double y, double width, double height) {
+		}
+
+		protected void postLayoutAlgorithm(InternalNode[] entitiesToLayout, InternalRelationship[] relationshipsToConsider) {
+		}
+
+		protected int getTotalNumberOfLayoutSteps() {
+			return 1;
+		}
+
+		protected int getCurrentLayoutStep() {
+			return 0;
+		}
+	}
+
+	/**
+	 * Records the completed requests, and the exceptions passed to
+	 * {@link LayoutExecutor#handleException(LayoutExecutor.Request, Throwable)}.
+	 */
+	private static class TestExecutor extends LayoutExecutor implements LayoutExecutor.Callback {
+		final List completed = new ArrayList();
+		final List exceptions = new ArrayList();
+		boolean rethrow;
+
+		TestExecutor(int maximumThreads) {
+			super(maximumThreads, "Test Layout");
+		}
+
+		public void layoutCompleted(Request request) {
+			synchronized (this) {
+				completed.add(request);
+				notifyAll();
+			}
+		}
+
+		protected void handleException(Request request, Throwable exception) {
+			synchronized (this) {
+				exceptions.add(exception);
+				notifyAll();
+			}
+			if (rethrow)
+				throw new Error("Handler failed");
+		}
+
+		synchronized void awaitCompleted(int count) throws InterruptedException {
+			long end = System.currentTimeMillis() + TIMEOUT;
+			while (completed.size() < count && System.currentTimeMillis() < end)
+				wait(10);
+			assertEquals(count, completed.size());
+		}
+
+		synchronized void awaitExceptions(int count) throws InterruptedException {
+			long end = System.currentTimeMillis() + TIMEOUT;
+			while (exceptions.size() < count && System.currentTimeMillis() < end)
+				wait(10);
+			assertEquals(count, exceptions.size());
+		}
+
+		Request submit(Object key, TestLayout layout, Callback callback) {
+			SimpleNode[] nodes = { new SimpleNode("0", 0, 0, 10, 10), new SimpleNode("1", 20, 20, 10, 10) };
+			SimpleRelationship[] relationships = { new SimpleRelationship(nodes[0], nodes[1], false) };
+			return submit(key, layout, new LayoutSnapshot(nodes, relationships), 0, 0, 100, 100, callback);
+		}
+
+		Request submit(Object key, TestLayout layout) {
+			return submit(key, layout, this);
+		}
+	}
+
+	private TestExecutor executor;
+
+	protected void tearDown() throws Exception {
+		if (executor != null)
+			executor.dispose();
+	}
+
+	public void testThrowingCallback() throws Exception {
+		executor = new TestExecutor(1);
+		final RuntimeException failure = new RuntimeException("Callback failed");
+		LayoutExecutor.Request first = executor.submit("a", new TestLayout(false, null), new LayoutExecutor.Callback() {
+			public void layoutCompleted(LayoutExecutor.Request request) {
+				throw failure;
+			}
+		});
+		executor.awaitExceptions(1);
+		assertSame(failure, executor.exceptions.get(0));
+		assertTrue(first.isCompleted());
+
+		// the thread goes on with the next request
+		LayoutExecutor.Request second = executor.submit("a", new TestLayout(false, null));
+		executor.awaitCompleted(1);
+		assertSame(second, executor.completed.get(0));
+		assertEquals(1, executor.getThreadCount());
+	}
+
+	public void testThrowingLayout() throws Exception {
+		executor = new TestExecutor(1);
+		Error failure = new Error("Layout failed");
+		LayoutExecutor.Request first = executor.submit("a", new TestLayout(false, failure));
+		LayoutExecutor.Request second = executor.submit("b", new TestLayout(false, null));
+		executor.awaitCompleted(1);
+		assertSame(second, executor.completed.get(0));
+		assertEquals(1, executor.exceptions.size());
+		assertSame(failure, executor.exceptions.get(0));
+		assertTrue(first.isCancelled());
+		assertEquals(1, executor.getThreadCount());
+	}
+
+	public void testSupersedeByKey() throws Exception {
+		executor = new TestExecutor(2);
+		TestLayout running = new TestLayout(true, null);
+		running.ignoresStop = true;
+		LayoutExecutor.Request first = executor.submit("a", running);
+		running.awaitStarted();
+
+		// stops the running request, and waits for it to end although a
+		// thread is idle
+		TestLayout replaced = new TestLayout(false, null);
+		LayoutExecutor.Request second = executor.submit("a", replaced);
+		assertFalse(running.isRunning());
+		// replaces the waiting request
+		LayoutExecutor.Request third = executor.submit("a", new TestLayout(false, null));
+		Thread.sleep(100);
+		assertFalse(third.isCompleted());
+		running.release();
+		executor.awaitCompleted(1);
+
+		assertSame(third, executor.completed.get(0));
+		assertTrue(first.isCancelled());
+		assertTrue(second.isCancelled());
+		assertTrue(third.isCompleted());
+		assertFalse(replaced.started);
+		assertEquals(0, executor.exceptions.size());
+	}
+
+	public void testCancelByKey() throws Exception {
+		executor = new TestExecutor(1);
+		TestLayout running = new TestLayout(true, null);
+		LayoutExecutor.Request first = executor.submit("a", running);
+		running.awaitStarted();
+		LayoutExecutor.Request waiting = executor.submit("b", new TestLayout(true, null));
+		LayoutExecutor.Request other = executor.submit("c", new TestLayout(false, null));
+
+		// the waiting request is cancelled first, so that it never starts
+		waiting.cancel();
+		executor.cancel("a");
+		executor.awaitCompleted(1);
+		assertSame(other, executor.completed.get(0));
+		assertTrue(first.isCancelled());
+		assertTrue(waiting.isCancelled());
+
+		// a cancelled key can be submitted again
+		LayoutExecutor.Request again = executor.submit("a", new TestLayout(false, null));
+		executor.awaitCompleted(2);
+		assertSame(again, executor.completed.get(1));
+	}
+
+	public void testPoolRecovery() throws Exception {
+		executor = new TestExecutor(1);
+		executor.rethrow = true;
+		TestLayout failing = new TestLayout(true, new RuntimeException("Layout failed"));
+		executor.submit("a", failing);
+		failing.awaitStarted();
+		LayoutExecutor.Request waiting = executor.submit("b", new TestLayout(false, null));
+
+		// the exception handler ends the only thread, which is replaced as a
+		// request is waiting
+		failing.release();
+		executor.awaitCompleted(1);
+		assertSame(waiting, executor.completed.get(0));
+		assertEquals(1, executor.exceptions.size());
+		assertEquals(1, executor.getThreadCount());
+
+		// and the pool keeps running later requests
+		executor.rethrow = false;
+		LayoutExecutor.Request later = executor.submit("a", new TestLayout(false, null));
+		executor.awaitCompleted(2);
+		assertSame(later, executor.completed.get(1));
+		assertEquals(1, executor.getThreadCount());
+
+		executor.dispose();
+		long end = System.currentTimeMillis() + TIMEOUT;
+		while (executor.getThreadCount() > 0 && System.currentTimeMillis() < end)
+			Thread.sleep(10);
+		assertEquals(0, executor.getThreadCount());
+	}
+
+}
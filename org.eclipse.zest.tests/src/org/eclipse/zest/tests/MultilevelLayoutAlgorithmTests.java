@@ -0,0 +1,219 @@
+/*******************************************************************************
+ * Copyright (c) 2026 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.zest.tests;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import junit.framework.TestCase;
+
+import org.eclipse.zest.layouts.LayoutStyles;
+import org.eclipse.zest.layouts.algorithms.MultilevelLayoutAlgorithm;
+import org.eclipse.zest.layouts.exampleStructures.SimpleNode;
+import org.eclipse.zest.layouts.exampleStructures.SimpleRelationship;
+
+/**
+ * Tests for the {@link MultilevelLayoutAlgorithm}.
+ */
+public class MultilevelLayoutAlgorithmTests extends TestCase {
+
+	private static final int ITERATIONS = 10;
+
+	private static final double X = 50;
+	private static final double Y = 30;
+	private static final double WIDTH = 400;
+	private static final double HEIGHT = 300;
+
+	/**
+	 * Records the layout step reported when each progress event is fired, and
+	 * stops the layout at the given step.
+	 */
+	private static class RecordingLayout extends MultilevelLayoutAlgorithm {
+		final List steps = new ArrayList();
+		int totalSteps;
+		int stopAt = -1;
+
+		RecordingLayout() {
+			super(LayoutStyles.NO_LAYOUT_NODE_RESIZING);
+			setIterations(ITERATIONS);
+		}
+
+		protected void fireProgressEvent(int currentStep, int totalNumberOfSteps) {
+			assertFalse(layoutStopped);
+			steps.add(new Integer(currentStep));
+			totalSteps = totalNumberOfSteps;
+			super.fireProgressEvent(currentStep, totalNumberOfSteps);
+			if (currentStep == stopAt)
+				stop();
+		}
+	}
+
+	private static SimpleNode[] createNodes(int count) {
+		SimpleNode[] nodes = new SimpleNode[count];
+		for (int i = 0; i < count; i++)
+			nodes[i] = new SimpleNode(String.valueOf(i), 1, 2, 10, 10);
+		return nodes;
+	}
+
+	private static SimpleRelationship[] toArray(List relationships) {
+		return (SimpleRelationship[]) relationships
+				.toArray(new SimpleRelationship[relationships.size()]);
+	}
+
+	private static void layout(RecordingLayout layout, SimpleNode[] nodes,
+			SimpleRelationship[] relationships) throws Exception {
+		layout.applyLayout(nodes, relationships, X, Y, WIDTH, HEIGHT, false,
+				false);
+	}
+
+	/**
+	 * Returns a chain of the given nodes.
+	 */
+	private static SimpleRelationship[] chain(SimpleNode[] nodes) {
+		List relationships = new ArrayList();
+		for (int i = 1; i < nodes.length; i++)
+			relationships.add(new SimpleRelationship(nodes[i - 1], nodes[i],
+					false));
+		return toArray(relationships);
+	}
+
+	private static void assertInBounds(SimpleNode[] nodes) {
+		for (int i = 0; i < nodes.length; i++) {
+			SimpleNode node = nodes[i];
+			assertTrue(node.getXInLayout() >= X);
+			assertTrue(node.getYInLayout() >= Y);
+			assertTrue(node.getXInLayout() + node.getWidthInLayout() <= X
+					+ WIDTH);
+			assertTrue(node.getYInLayout() + node.getHeightInLayout() <= Y
+					+ HEIGHT);
+		}
+	}
+
+	/**
+	 * Checks that every iteration of every level was performed, followed by
+	 * the final step, and returns the number of levels.
+	 */
+	private static int assertAllSteps(RecordingLayout layout) {
+		assertEquals(layout.totalSteps + 1, layout.steps.size());
+		for (int i = 0; i < layout.totalSteps; i++)
+			assertEquals(new Integer(i + 1), layout.steps.get(i));
+		assertEquals(new Integer(layout.totalSteps), layout.steps
+				.get(layout.totalSteps));
+		// the coarsest level has four times the iterations of the others
+		assertEquals(0, layout.totalSteps % ITERATIONS);
+		return layout.totalSteps / ITERATIONS - 3;
+	}
+
+	public void testNoNodes() throws Exception {
+		RecordingLayout layout = new RecordingLayout();
+		layout(layout, new SimpleNode[0], new SimpleRelationship[0]);
+		assertTrue(layout.steps.isEmpty());
+	}
+
+	public void testOneNode() throws Exception {
+		SimpleNode[] nodes = createNodes(1);
+		RecordingLayout layout = new RecordingLayout();
+		layout(layout, nodes, new SimpleRelationship[0]);
+		assertInBounds(nodes);
+		assertEquals(1, assertAllSteps(layout));
+	}
+
+	public void testTwoNodes() throws Exception {
+		SimpleNode[] nodes = createNodes(2);
+		RecordingLayout layout = new RecordingLayout();
+		layout(layout, nodes, chain(nodes));
+		assertInBounds(nodes);
+		assertEquals(1, assertAllSteps(layout));
+		assertTrue(nodes[0].getXInLayout() != nodes[1].getXInLayout()
+				|| nodes[0].getYInLayout() != nodes[1].getYInLayout());
+	}
+
+	public void testCoarsening() throws Exception {
+		SimpleNode[] nodes = createNodes(256);
+		RecordingLayout layout = new RecordingLayout();
+		layout(layout, nodes, chain(nodes));
+		assertInBounds(nodes);
+		assertTrue(assertAllSteps(layout) >= 4);
+	}
+
+	public void testDisconnectedStopsCoarsening() throws Exception {
+		// no node can be merged
+		SimpleNode[] nodes = createNodes(200);
+		RecordingLayout layout = new RecordingLayout();
+		layout(layout, nodes, new SimpleRelationship[0]);
+		assertInBounds(nodes);
+		assertEquals(1, assertAllSteps(layout));
+
+		// the pairs are merged once, and can not be merged further
+		List relationships = new ArrayList();
+		for (int i = 0; i < nodes.length; i += 2)
+			relationships.add(new SimpleRelationship(nodes[i], nodes[i + 1],
+					false));
+		layout = new RecordingLayout();
+		layout(layout, nodes, toArray(relationships));
+		assertInBounds(nodes);
+		assertEquals(2, assertAllSteps(layout));
+	}
+
+	public void testStop() throws Exception {
+		SimpleNode[] nodes = createNodes(256);
+		SimpleRelationship[] relationships = chain(nodes);
+		RecordingLayout layout = new RecordingLayout();
+		layout(layout, nodes, relationships);
+		int totalSteps = layout.totalSteps;
+
+		// while laying out the coarsest level, at its end, and halfway
+		int[] stops = { 1, ITERATIONS * 4, totalSteps / 2 + 1 };
+		for (int i = 0; i < stops.length; i++) {
+			nodes = createNodes(256);
+			layout = new RecordingLayout();
+			layout.stopAt = stops[i];
+			layout(layout, nodes, chain(nodes));
+			assertEquals(stops[i], layout.steps.size());
+			assertEquals(new Integer(stops[i]), layout.steps
+					.get(stops[i] - 1));
+			// the nodes are only moved once the layout is complete
+			for (int n = 0; n < nodes.length; n++) {
+				assertEquals(1, nodes[n].getXInLayout(), 0);
+				assertEquals(2, nodes[n].getYInLayout(), 0);
+			}
+		}
+	}
+
+	public void testFitsWithinBounds() throws Exception {
+		Random random = new Random(0);
+		SimpleNode[] nodes = createNodes(300);
+		List relationships = new ArrayList();
+		for (int i = 1; i < nodes.length; i++) {
+			relationships.add(new SimpleRelationship(nodes[random.nextInt(i)],
+					nodes[i], false));
+			if (random.nextInt(3) == 0)
+				relationships.add(new SimpleRelationship(nodes[i],
+						nodes[random.nextInt(nodes.length)], false));
+		}
+		layout(new RecordingLayout(), nodes, toArray(relationships));
+		assertInBounds(nodes);
+		double[] locations = new double[nodes.length * 2];
+		for (int i = 0; i < nodes.length; i++) {
+			locations[i * 2] = nodes[i].getXInLayout();
+			locations[i * 2 + 1] = nodes[i].getYInLayout();
+		}
+
+		// the same graph always gives the same layout
+		layout(new RecordingLayout(), nodes, toArray(relationships));
+		for (int i = 0; i < nodes.length; i++) {
+			assertEquals(locations[i * 2], nodes[i].getXInLayout(), 0);
+			assertEquals(locations[i * 2 + 1], nodes[i].getYInLayout(), 0);
+		}
+	}
+
+}
@@ -0,0 +1,199 @@
+/*******************************************************************************
+ * Copyright (c) 2026 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.zest.tests;
+
+import java.util.Random;
+
+import junit.framework.TestCase;
+
+import org.eclipse.zest.layouts.algorithms.internal.QuadTree;
+
+/**
+ * Tests the Barnes-Hut approximation of the {@link QuadTree} against the exact
+ * repulsion between all pairs of points.
+ */
+public class QuadTreeTests extends TestCase {
+
+	private static final double STRENGTH = 2.5;
+	private static final double MIN_DISTANCE = 0.5;
+
+	private final QuadTree tree = new QuadTree();
+	private final double[] force = new double[2];
+
+	/**
+	 * Returns the repulsion on the given point from every other point at a
+	 * different location.
+	 */
+	private static double[] exactRepulsion(double[] x, double[] y, int count,
+			int i) {
+		double fx = 0, fy = 0;
+		for (int j = 0; j < count; j++) {
+			double dx = x[i] - x[j];
+			double dy = y[i] - y[j];
+			double d2 = dx * dx + dy * dy;
+			if (d2 == 0)
+				continue;
+			d2 = Math.max(d2, MIN_DISTANCE * MIN_DISTANCE);
+			double f = STRENGTH / (d2 * Math.sqrt(d2));
+			fx += f * dx;
+			fy += f * dy;
+		}
+		return new double[] { fx, fy };
+	}
+
+	/**
+	 * Returns the sum of the errors of the approximated forces relative to the
+	 * sum of the magnitudes of the exact forces.
+	 */
+	private double relativeError(double[] x, double[] y, int count,
+			double theta) {
+		tree.build(x, y, count);
+		double error = 0, total = 0;
+		for (int i = 0; i < count; i++) {
+			double[] exact = exactRepulsion(x, y, count, i);
+			tree.computeRepulsion(i, theta, STRENGTH, MIN_DISTANCE, force);
+			error += Math.sqrt(square(force[0] - exact[0])
+					+ square(force[1] - exact[1]));
+			total += Math.sqrt(square(exact[0]) + square(exact[1]));
+		}
+		return total == 0 ? error : error / total;
+	}
+
+	private static double square(double value) {
+		return value * value;
+	}
+
+	private static double[] random(Random random, int count, double range) {
+		double[] values = new double[count];
+		for (int i = 0; i < count; i++)
+			values[i] = random.nextDouble() * range - range / 2;
+		return values;
+	}
+
+	public void testEmptyAndSinglePoint() {
+		tree.build(new double[0], new double[0], 0);
+		tree.build(new double[] { 3 }, new double[] { 4 }, 1);
+		tree.computeRepulsion(0, 0.8, STRENGTH, MIN_DISTANCE, force);
+		assertEquals(0, force[0], 0);
+		assertEquals(0, force[1], 0);
+	}
+
+	public void testExactWithZeroTheta() {
+		for (int seed = 0; seed < 10; seed++) {
+			Random random = new Random(seed);
+			int count = 1 + random.nextInt(300);
+			double[] x = random(random, count, 1000);
+			double[] y = random(random, count, 1000);
+			// some points closer than the minimum distance
+			for (int i = 0; i + 1 < count; i += 17) {
+				x[i + 1] = x[i] + 0.1;
+				y[i + 1] = y[i];
+			}
+			assertEquals(0, relativeError(x, y, count, 0), 1e-9);
+		}
+	}
+
+	public void testApproximationWithDefaultTheta() {
+		Random random = new Random(1);
+		int count = 2000;
+		double[] x = random(random, count, 1000);
+		double[] y = random(random, count, 1000);
+		double error = relativeError(x, y, count, 0.8);
+		assertTrue(error < 0.03);
+		assertTrue(relativeError(x, y, count, 0.3) < error);
+
+		// dense clusters, whose points are closer than the minimum distance
+		for (int i = 0; i < count / 2; i++) {
+			x[i] = x[i] / 50 + 200;
+			y[i] = y[i] / 50 - 300;
+		}
+		assertTrue(relativeError(x, y, count, 0.8) < 0.1);
+		assertEquals(0, relativeError(x, y, count, 0), 1e-9);
+	}
+
+	public void testCoincidentPoints() {
+		Random random = new Random(2);
+		int count = 50;
+		double[] x = random(random, count, 100);
+		double[] y = random(random, count, 100);
+		// points at the same location are split down to the maximum depth,
+		// and do not repel each other
+		for (int i = 0; i < 10; i++) {
+			x[i] = 12.5;
+			y[i] = -7.25;
+		}
+		x[10] = x[11];
+		y[10] = y[11];
+		assertEquals(0, relativeError(x, y, count, 0), 1e-9);
+		assertTrue(relativeError(x, y, count, 0.8) < 0.05);
+
+		// all points at the same location
+		for (int i = 0; i < count; i++) {
+			x[i] = 1;
+			y[i] = 2;
+		}
+		tree.build(x, y, count);
+		for (int i = 0; i < count; i++) {
+			tree.computeRepulsion(i, 0.8, STRENGTH, MIN_DISTANCE, force);
+			assertEquals(0, force[0], 0);
+			assertEquals(0, force[1], 0);
+		}
+	}
+
+	public void testMaximumDepth() {
+		// pairs of points far closer than the root cell divided 2^24 times
+		// share a leaf, and ignore each other
+		int count = 40;
+		double[] x = new double[count];
+		double[] y = new double[count];
+		Random random = new Random(3);
+		for (int i = 0; i < count; i += 2) {
+			x[i] = random.nextDouble() * 1e6;
+			y[i] = random.nextDouble() * 1e6;
+			x[i + 1] = x[i] + 1e-6;
+			y[i + 1] = y[i];
+		}
+		tree.build(x, y, count);
+		for (int i = 0; i < count; i++) {
+			double[] exact = exactRepulsion(x, y, count, i);
+			// the neighbor's repulsion, limited by the minimum distance
+			int neighbor = i ^ 1;
+			double dx = x[i] - x[neighbor];
+			double f = STRENGTH
+					/ (MIN_DISTANCE * MIN_DISTANCE * MIN_DISTANCE);
+			tree.computeRepulsion(i, 0, STRENGTH, MIN_DISTANCE, force);
+			assertEquals(exact[0] - f * dx, force[0], 1e-12);
+			assertEquals(exact[1], force[1], 1e-12);
+		}
+
+		// a nearly degenerate tree, deeper than the maximum depth, whose
+		// deepest points share a leaf and only miss their tiny repulsion
+		count = 30;
+		x = new double[count];
+		y = new double[count];
+		for (int i = 0; i < count; i++)
+			x[i] = y[i] = Math.pow(2, -i);
+		assertEquals(0, relativeError(x, y, count, 0), 1e-6);
+		assertTrue(relativeError(x, y, count, 0.8) < 0.05);
+	}
+
+	public void testRebuild() {
+		Random random = new Random(4);
+		// the arrays grow, and are reused for a smaller tree
+		double[] x = random(random, 1000, 500);
+		double[] y = random(random, 1000, 500);
+		assertEquals(0, relativeError(x, y, 1000, 0), 1e-9);
+		x = random(random, 20, 500);
+		y = random(random, 20, 500);
+		assertEquals(0, relativeError(x, y, 20, 0), 1e-9);
+	}
+
+}
@@ -0,0 +1,143 @@
+/*******************************************************************************
+ * Copyright (c) 2026 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.zest.tests;
+
+import java.util.Random;
+
+import junit.framework.TestCase;
+
+import org.eclipse.zest.layouts.algorithms.internal.SparseGraph;
+import org.eclipse.zest.layouts.dataStructures.InternalNode;
+import org.eclipse.zest.layouts.dataStructures.InternalRelationship;
+import org.eclipse.zest.layouts.exampleStructures.SimpleNode;
+import org.eclipse.zest.layouts.exampleStructures.SimpleRelationship;
+
+/**
+ * Tests the compressed sparse rows of the {@link SparseGraph}.
+ */
+public class SparseGraphTests extends TestCase {
+
+	private static void assertRow(SparseGraph graph, int node,
+			int[] neighbors, double[] weights) {
+		int start = graph.getStart()[node];
+		assertEquals(neighbors.length, graph.getStart()[node + 1] - start);
+		for (int k = 0; k < neighbors.length; k++) {
+			assertEquals(neighbors[k], graph.getAdjacency()[start + k]);
+			assertEquals(weights[k], graph.getWeights()[start + k], 0);
+		}
+	}
+
+	public void testEmpty() {
+		SparseGraph graph = new SparseGraph(0, new int[0], new int[0],
+				new double[0], 0);
+		assertEquals(0, graph.getNodeCount());
+		assertEquals(1, graph.getStart().length);
+		assertEquals(0, graph.getStart()[0]);
+
+		graph = new SparseGraph(3, new int[0], new int[0], new double[0], 0);
+		assertEquals(3, graph.getNodeCount());
+		for (int i = 0; i < 3; i++)
+			assertRow(graph, i, new int[0], new double[0]);
+	}
+
+	public void testDuplicateBidirectionalAndSelfEdges() {
+		int[] sources = { 0, 1, 0, 2, 1, -1, 3, 2 };
+		int[] targets = { 1, 0, 1, 2, 2, 0, 3, 1 };
+		double[] weights = { 1, 2, 4, 8, 16, 32, 64, 128 };
+		// the last edge is not part of the list
+		SparseGraph graph = new SparseGraph(5, sources, targets, weights, 7);
+		assertEquals(5, graph.getNodeCount());
+		assertEquals(6, graph.getStart().length);
+		assertEquals(0, graph.getStart()[0]);
+		// both directions and the repeated edge are merged into one pair, the
+		// self edges and the ignored edge are dropped
+		assertRow(graph, 0, new int[] { 1 }, new double[] { 7 });
+		assertRow(graph, 1, new int[] { 0, 2 }, new double[] { 7, 16 });
+		assertRow(graph, 2, new int[] { 1 }, new double[] { 16 });
+		assertRow(graph, 3, new int[0], new double[0]);
+		assertRow(graph, 4, new int[0], new double[0]);
+		assertEquals(4, graph.getStart()[5]);
+	}
+
+	public void testSameAsMatrix() {
+		for (int seed = 0; seed < 20; seed++) {
+			Random random = new Random(seed);
+			int nodeCount = 1 + random.nextInt(30);
+			int edgeCount = random.nextInt(100);
+			int[] sources = new int[edgeCount];
+			int[] targets = new int[edgeCount];
+			double[] weights = new double[edgeCount];
+			double[][] matrix = new double[nodeCount][nodeCount];
+			for (int e = 0; e < edgeCount; e++) {
+				sources[e] = random.nextInt(nodeCount);
+				targets[e] = random.nextInt(nodeCount);
+				weights[e] = 1 + random.nextInt(10);
+				if (sources[e] != targets[e]) {
+					matrix[sources[e]][targets[e]] += weights[e];
+					matrix[targets[e]][sources[e]] += weights[e];
+				}
+			}
+			SparseGraph graph = new SparseGraph(nodeCount, sources, targets,
+					weights, edgeCount);
+
+			int[] start = graph.getStart();
+			assertEquals(0, start[0]);
+			for (int i = 0; i < nodeCount; i++) {
+				assertTrue(start[i] <= start[i + 1]);
+				boolean[] seen = new boolean[nodeCount];
+				int neighbors = 0;
+				for (int k = start[i]; k < start[i + 1]; k++) {
+					int j = graph.getAdjacency()[k];
+					assertFalse("seed " + seed, seen[j]);
+					seen[j] = true;
+					assertEquals(matrix[i][j], graph.getWeights()[k], 0);
+				}
+				for (int j = 0; j < nodeCount; j++)
+					if (matrix[i][j] > 0)
+						neighbors++;
+				assertEquals("seed " + seed, neighbors, start[i + 1] - start[i]);
+			}
+		}
+	}
+
+	public void testCreate() {
+		InternalNode[] nodes = new InternalNode[3];
+		for (int i = 0; i < nodes.length; i++)
+			nodes[i] = new InternalNode(new SimpleNode(String.valueOf(i)));
+		InternalNode other = new InternalNode(new SimpleNode("other"));
+		InternalRelationship[] relationships = {
+				relationship(nodes[0], nodes[1]),
+				relationship(nodes[1], nodes[0]),
+				relationship(nodes[2], nodes[2]),
+				relationship(nodes[2], other),
+				relationship(nodes[1], nodes[2]) };
+		SparseGraph graph = SparseGraph.create(nodes, relationships, 3);
+		assertEquals(3, graph.getNodeCount());
+		assertRow(graph, 0, new int[] { 1 }, new double[] { 6 });
+		assertRow(graph, 1, new int[] { 0, 2 }, new double[] { 6, 3 });
+		assertRow(graph, 2, new int[] { 1 }, new double[] { 3 });
+
+		try {
+			SparseGraph.create(nodes, new InternalRelationship[] { null }, 1);
+			fail();
+		} catch (IllegalArgumentException e) {
+			// expected
+		}
+	}
+
+	private static InternalRelationship relationship(InternalNode source,
+			InternalNode destination) {
+		return new InternalRelationship(new SimpleRelationship(source
+				.getLayoutEntity(), destination.getLayoutEntity(), false),
+				source, destination);
+	}
+
+}
@@ -0,0 +1,169 @@
+/*******************************************************************************
+ * Copyright (c) 2026 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.zest.tests;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import junit.framework.TestCase;
+
+import org.eclipse.zest.layouts.LayoutStyles;
+import org.eclipse.zest.layouts.algorithms.SpringLayoutAlgorithm;
+import org.eclipse.zest.layouts.exampleStructures.SimpleNode;
+import org.eclipse.zest.layouts.exampleStructures.SimpleRelationship;
+
+/**
+ * Tests for the repulsion modes of the {@link SpringLayoutAlgorithm}.
+ */
+public class SpringLayoutAlgorithmTests extends TestCase {
+
+	private static final double WIDTH = 500;
+	private static final double HEIGHT = 400;
+
+	protected void tearDown() throws Exception {
+		// the number of iterations and the random placement are shared by all
+		// spring layouts
+		SpringLayoutAlgorithm layout = new SpringLayoutAlgorithm();
+		layout.setIterations(SpringLayoutAlgorithm.DEFAULT_SPRING_ITERATIONS);
+		layout.setRandom(SpringLayoutAlgorithm.DEFAULT_SPRING_RANDOM);
+	}
+
+	/**
+	 * Creates a spring layout which starts from the given locations of the
+	 * nodes and performs the given number of iterations.
+	 */
+	private static SpringLayoutAlgorithm createLayout(int iterations) {
+		SpringLayoutAlgorithm layout = new SpringLayoutAlgorithm(
+				LayoutStyles.NO_LAYOUT_NODE_RESIZING);
+		layout.setRandom(false);
+		layout.setIterations(iterations);
+		return layout;
+	}
+
+	/**
+	 * Lays out a random graph, and returns the locations of its nodes.
+	 */
+	private static double[] layout(SpringLayoutAlgorithm layout, long seed,
+			int count) throws Exception {
+		Random random = new Random(seed);
+		SimpleNode[] nodes = new SimpleNode[count];
+		for (int i = 0; i < count; i++)
+			nodes[i] = new SimpleNode(String.valueOf(i), random
+					.nextInt((int) WIDTH), random.nextInt((int) HEIGHT), 10, 10);
+		List relationships = new ArrayList();
+		for (int i = 1; i < count; i++) {
+			relationships.add(new SimpleRelationship(nodes[random.nextInt(i)],
+					nodes[i], false));
+			if (random.nextInt(4) == 0)
+				relationships.add(new SimpleRelationship(nodes[i],
+						nodes[random.nextInt(count)], false));
+		}
+		layout.applyLayout(nodes, (SimpleRelationship[]) relationships
+				.toArray(new SimpleRelationship[relationships.size()]), 0, 0,
+				WIDTH, HEIGHT, false, false);
+
+		double[] locations = new double[count * 2];
+		for (int i = 0; i < count; i++) {
+			SimpleNode node = nodes[i];
+			assertTrue(node.getXInLayout() >= 0);
+			assertTrue(node.getYInLayout() >= 0);
+			assertTrue(node.getXInLayout() + node.getWidthInLayout() <= WIDTH);
+			assertTrue(node.getYInLayout() + node.getHeightInLayout() <= HEIGHT);
+			locations[i * 2] = node.getXInLayout();
+			locations[i * 2 + 1] = node.getYInLayout();
+		}
+		return locations;
+	}
+
+	private static void assertLocations(double[] expected, double[] actual,
+			double delta) {
+		assertEquals(expected.length, actual.length);
+		for (int i = 0; i < expected.length; i++)
+			assertEquals("coordinate " + i, expected[i], actual[i], delta);
+	}
+
+	public void testBarnesHutInBounds() throws Exception {
+		for (int count = 0; count < 4; count++) {
+			SpringLayoutAlgorithm layout = createLayout(50);
+			layout.setRepulsion(SpringLayoutAlgorithm.REPULSION_BARNES_HUT);
+			layout(layout, count, count);
+		}
+		SpringLayoutAlgorithm layout = createLayout(300);
+		layout.setRepulsion(SpringLayoutAlgorithm.REPULSION_BARNES_HUT);
+		layout(layout, 7, 150);
+	}
+
+	public void testBarnesHutCloseToExact() throws Exception {
+		SpringLayoutAlgorithm exact = createLayout(3);
+		double[] expected = layout(exact, 1, 80);
+		SpringLayoutAlgorithm approximate = createLayout(3);
+		approximate.setRepulsion(SpringLayoutAlgorithm.REPULSION_BARNES_HUT);
+		approximate.setBarnesHutTheta(0);
+		assertLocations(expected, layout(approximate, 1, 80), 1e-6);
+	}
+
+	public void testBarnesHutSameForAnyThreadCount() throws Exception {
+		SpringLayoutAlgorithm layout = createLayout(100);
+		layout.setRepulsion(SpringLayoutAlgorithm.REPULSION_BARNES_HUT);
+		double[] expected = layout(layout, 2, 120);
+		for (int threads = 2; threads <= 4; threads++) {
+			layout = createLayout(100);
+			layout.setRepulsion(SpringLayoutAlgorithm.REPULSION_BARNES_HUT);
+			layout.setForceThreads(threads);
+			assertLocations(expected, layout(layout, 2, 120), 0);
+		}
+	}
+
+	public void testExactSameForAnyThreadCount() throws Exception {
+		double[] expected = layout(createLayout(20), 3, 90);
+		SpringLayoutAlgorithm layout = createLayout(20);
+		layout.setForceThreads(4);
+		assertLocations(expected, layout(layout, 3, 90), 0);
+	}
+
+	public void testWorkerThreadsStopped() throws Exception {
+		SpringLayoutAlgorithm layout = createLayout(10);
+		layout.setForceThreads(4);
+		layout(layout, 4, 30);
+		layout.setRepulsion(SpringLayoutAlgorithm.REPULSION_BARNES_HUT);
+		layout(layout, 5, 30);
+		Thread[] threads = new Thread[Thread.activeCount() + 10];
+		int count = Thread.enumerate(threads);
+		for (int i = 0; i < count; i++) {
+			if (threads[i].getName().startsWith("SpringLayoutAlgorithm")) {
+				threads[i].join(5000);
+				assertFalse(threads[i].isAlive());
+			}
+		}
+	}
+
+	public void testInvalidSettings() {
+		SpringLayoutAlgorithm layout = new SpringLayoutAlgorithm();
+		try {
+			layout.setRepulsion(2);
+			fail();
+		} catch (IllegalArgumentException e) {
+			// expected
+		}
+		try {
+			layout.setBarnesHutTheta(-1);
+			fail();
+		} catch (IllegalArgumentException e) {
+			// expected
+		}
+		assertEquals(SpringLayoutAlgorithm.REPULSION_EXACT, layout
+				.getRepulsion());
+		assertEquals(SpringLayoutAlgorithm.DEFAULT_BARNES_HUT_THETA, layout
+				.getBarnesHutTheta(), 0);
+	}
+
+}
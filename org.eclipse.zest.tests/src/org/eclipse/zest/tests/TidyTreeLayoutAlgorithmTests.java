@@ -0,0 +1,137 @@
+/*******************************************************************************
+ * Copyright (c) 2026 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.zest.tests;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+import junit.framework.TestCase;
+
+import org.eclipse.zest.layouts.LayoutStyles;
+import org.eclipse.zest.layouts.algorithms.TidyTreeLayoutAlgorithm;
+import org.eclipse.zest.layouts.exampleStructures.SimpleNode;
+import org.eclipse.zest.layouts.exampleStructures.SimpleRelationship;
+
+/**
+ * Tests for the {@link TidyTreeLayoutAlgorithm}.
+ */
+public class TidyTreeLayoutAlgorithmTests extends TestCase {
+
+	private static final double BOUNDS = 100000;
+
+	/**
+	 * Records the layout step reported when each progress event is fired.
+	 */
+	private static class RecordingLayout extends TidyTreeLayoutAlgorithm {
+		final List steps = new ArrayList();
+
+		RecordingLayout() {
+			super(LayoutStyles.NO_LAYOUT_NODE_RESIZING);
+		}
+
+		protected void fireProgressEvent(int currentStep, int totalNumberOfSteps) {
+			assertEquals(currentStep, getCurrentLayoutStep());
+			assertEquals(totalNumberOfSteps, getTotalNumberOfLayoutSteps());
+			steps.add(new Integer(currentStep));
+			super.fireProgressEvent(currentStep, totalNumberOfSteps);
+		}
+	}
+
+	public void testNoNodes() throws Exception {
+		RecordingLayout layout = new RecordingLayout();
+		layout.applyLayout(new SimpleNode[0], new SimpleRelationship[0], 0, 0,
+				BOUNDS, BOUNDS, false, false);
+		assertEquals(1, layout.steps.size());
+		assertEquals(new Integer(4), layout.steps.get(0));
+	}
+
+	public void testOneNode() throws Exception {
+		SimpleNode node = new SimpleNode("0", 7, 7, 30, 20);
+		RecordingLayout layout = new RecordingLayout();
+		layout.applyLayout(new SimpleNode[] { node },
+				new SimpleRelationship[0], 0, 0, 400, 300, false, false);
+		assertEquals(30, node.getWidthInLayout(), 0);
+		assertEquals(20, node.getHeightInLayout(), 0);
+		assertInBounds(node, 400, 300);
+		assertSteps(layout);
+	}
+
+	public void testOneNodeWithSelfRelationship() throws Exception {
+		SimpleNode node = new SimpleNode("0", 7, 7, 30, 20);
+		new RecordingLayout().applyLayout(new SimpleNode[] { node },
+				new SimpleRelationship[] { new SimpleRelationship(node, node,
+						false) }, 0, 0, 400, 300, false, false);
+		assertInBounds(node, 400, 300);
+	}
+
+	public void testForestsDoNotOverlap() throws Exception {
+		for (int seed = 0; seed < 20; seed++) {
+			Random random = new Random(seed);
+			int count = 2 + random.nextInt(60);
+			SimpleNode[] nodes = new SimpleNode[count];
+			for (int i = 0; i < count; i++)
+				nodes[i] = new SimpleNode(String.valueOf(i), 0, 0,
+						5 + random.nextInt(80), 5 + random.nextInt(40));
+			// each node has at most one parent among the nodes before it,
+			// and about a third of them start a tree of their own
+			List relationships = new ArrayList();
+			for (int i = 1; i < count; i++) {
+				if (random.nextInt(3) != 0)
+					relationships.add(new SimpleRelationship(nodes[random
+							.nextInt(i)], nodes[i], false));
+			}
+			for (int orientation = 0; orientation < 2; orientation++) {
+				RecordingLayout layout = new RecordingLayout();
+				layout.setOrientation(orientation);
+				layout.applyLayout(nodes, (SimpleRelationship[]) relationships
+						.toArray(new SimpleRelationship[relationships.size()]),
+						0, 0, BOUNDS, BOUNDS, false, false);
+				assertNoOverlaps(nodes, "seed " + seed);
+				for (int i = 0; i < count; i++)
+					assertInBounds(nodes[i], BOUNDS, BOUNDS);
+				assertSteps(layout);
+			}
+		}
+	}
+
+	private static void assertSteps(RecordingLayout layout) {
+		assertEquals(4, layout.steps.size());
+		for (int i = 0; i < 4; i++)
+			assertEquals(new Integer(i + 1), layout.steps.get(i));
+	}
+
+	private static void assertInBounds(SimpleNode node, double width,
+			double height) {
+		assertTrue(node.getXInLayout() >= 0);
+		assertTrue(node.getYInLayout() >= 0);
+		assertTrue(node.getXInLayout() + node.getWidthInLayout() <= width);
+		assertTrue(node.getYInLayout() + node.getHeightInLayout() <= height);
+	}
+
+	private static void assertNoOverlaps(SimpleNode[] nodes, String message) {
+		for (int i = 0; i < nodes.length; i++) {
+			for (int j = i + 1; j < nodes.length; j++) {
+				boolean overlaps = nodes[i].getXInLayout() < nodes[j]
+						.getXInLayout() + nodes[j].getWidthInLayout()
+						&& nodes[j].getXInLayout() < nodes[i].getXInLayout()
+								+ nodes[i].getWidthInLayout()
+						&& nodes[i].getYInLayout() < nodes[j].getYInLayout()
+								+ nodes[j].getHeightInLayout()
+						&& nodes[j].getYInLayout() < nodes[i].getYInLayout()
+								+ nodes[i].getHeightInLayout();
+				assertFalse(message + ": nodes " + i + " and " + j
+						+ " overlap", overlaps);
+			}
+		}
+	}
+
+}
@@ -0,0 +1,157 @@
+/*******************************************************************************
+ * Copyright (c) 2026 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.zest.tests;
+
+import java.util.Comparator;
+
+import junit.framework.TestCase;
+
+import org.eclipse.zest.layouts.LayoutStyles;
+import org.eclipse.zest.layouts.algorithms.AbstractLayoutAlgorithm;
+import org.eclipse.zest.layouts.algorithms.TreeLayoutAlgorithm;
+import org.eclipse.zest.layouts.dataStructures.InternalNode;
+import org.eclipse.zest.layouts.exampleStructures.SimpleNode;
+import org.eclipse.zest.layouts.exampleStructures.SimpleRelationship;
+
+/**
+ * Tests for the {@link TreeLayoutAlgorithm}.
+ */
+public class TreeLayoutAlgorithmTests extends TestCase {
+
+	private static final double BOUNDS = 100000;
+
+	private static SimpleNode[] createNodes(int count) {
+		SimpleNode[] nodes = new SimpleNode[count];
+		for (int i = 0; i < count; i++)
+			nodes[i] = new SimpleNode(String.valueOf(i), 0, 0, 10, 10);
+		return nodes;
+	}
+
+	/**
+	 * Returns a relationship between each pair of nodes given by their
+	 * indices.
+	 */
+	private static SimpleRelationship[] relationships(SimpleNode[] nodes,
+			int[][] pairs) {
+		SimpleRelationship[] relationships = new SimpleRelationship[pairs.length];
+		for (int i = 0; i < pairs.length; i++)
+			relationships[i] = new SimpleRelationship(nodes[pairs[i][0]],
+					nodes[pairs[i][1]], false);
+		return relationships;
+	}
+
+	private static TreeLayoutAlgorithm layout(SimpleNode[] nodes,
+			SimpleRelationship[] relationships, Comparator comparator)
+			throws Exception {
+		TreeLayoutAlgorithm layout = new TreeLayoutAlgorithm(
+				LayoutStyles.NO_LAYOUT_NODE_RESIZING);
+		if (comparator != null)
+			layout.setComparator(comparator);
+		layout.applyLayout(nodes, relationships, 0, 0, BOUNDS, BOUNDS, false,
+				false);
+		for (int i = 0; i < nodes.length; i++) {
+			assertTrue(nodes[i].getXInLayout() >= 0);
+			assertTrue(nodes[i].getYInLayout() >= 0);
+			assertTrue(nodes[i].getXInLayout() + nodes[i].getWidthInLayout() <= BOUNDS);
+			assertTrue(nodes[i].getYInLayout() + nodes[i].getHeightInLayout() <= BOUNDS);
+		}
+		return layout;
+	}
+
+	public void testDeepChain() throws Exception {
+		// far deeper than a recursive traversal could go
+		int count = 50000;
+		SimpleNode[] nodes = createNodes(count);
+		int[][] pairs = new int[count - 1][];
+		for (int i = 1; i < count; i++)
+			pairs[i - 1] = new int[] { i - 1, i };
+		TreeLayoutAlgorithm layout = layout(nodes,
+				relationships(nodes, pairs), null);
+		assertEquals(1, layout.getRoots().size());
+		for (int i = 1; i < count; i++) {
+			assertEquals(nodes[0].getXInLayout(), nodes[i].getXInLayout(), 0);
+			assertTrue(nodes[i].getYInLayout() > nodes[i - 1].getYInLayout());
+		}
+	}
+
+	public void testDirectedAcyclicGraph() throws Exception {
+		// a diamond, whose bottom node is also below a longer path
+		SimpleNode[] nodes = createNodes(6);
+		layout(nodes, relationships(nodes, new int[][] { { 0, 1 }, { 0, 2 },
+				{ 1, 3 }, { 2, 3 }, { 2, 4 }, { 4, 5 }, { 5, 3 } }), null);
+		assertTrue(nodes[0].getYInLayout() < nodes[1].getYInLayout());
+		assertEquals(nodes[1].getYInLayout(), nodes[2].getYInLayout(), 0);
+		assertTrue(nodes[2].getYInLayout() < nodes[4].getYInLayout());
+		assertTrue(nodes[4].getYInLayout() < nodes[5].getYInLayout());
+		// the shared node is placed below the longest path to it
+		assertTrue(nodes[5].getYInLayout() < nodes[3].getYInLayout());
+	}
+
+	public void testCycle() throws Exception {
+		SimpleNode[] nodes = createNodes(5);
+		TreeLayoutAlgorithm layout = layout(nodes, relationships(nodes,
+				new int[][] { { 0, 1 }, { 1, 2 }, { 2, 0 }, { 2, 3 } }), null);
+		assertEquals(2, layout.getRoots().size());
+		assertSame(nodes[4], ((InternalNode) layout.getRoots().get(1))
+				.getLayoutEntity());
+		// the cycle is broken at the first node, which becomes the root
+		assertSame(nodes[0], ((InternalNode) layout.getRoots().get(0))
+				.getLayoutEntity());
+		assertTrue(nodes[0].getYInLayout() < nodes[1].getYInLayout());
+		assertTrue(nodes[1].getYInLayout() < nodes[2].getYInLayout());
+	}
+
+	public void testChildOrder() throws Exception {
+		// by default the children with the most descendents come first
+		SimpleNode[] nodes = createNodes(6);
+		SimpleRelationship[] relationships = relationships(nodes, new int[][] {
+				{ 0, 1 }, { 0, 2 }, { 0, 3 }, { 3, 4 }, { 3, 5 } });
+		layout(nodes, relationships, null);
+		assertTrue(nodes[3].getXInLayout() < nodes[1].getXInLayout());
+		assertTrue(nodes[1].getXInLayout() < nodes[2].getXInLayout());
+
+		// the comparator orders the children instead
+		layout(nodes, relationships, new Comparator() {
+			public int compare(Object o1, Object o2) {
+				return ((String) ((SimpleNode) o2).getRealObject())
+						.compareTo((String) ((SimpleNode) o1).getRealObject());
+			}
+		});
+		assertTrue(nodes[3].getXInLayout() < nodes[2].getXInLayout());
+		assertTrue(nodes[2].getXInLayout() < nodes[1].getXInLayout());
+		assertTrue(nodes[5].getXInLayout() < nodes[4].getXInLayout());
+	}
+
+	public void testVerifyInput() {
+		SimpleNode[] nodes = createNodes(3);
+		SimpleRelationship[] relationships = relationships(nodes, new int[][] {
+				{ 0, 1 }, { 1, 2 } });
+		assertTrue(AbstractLayoutAlgorithm.verifyInput(nodes, relationships));
+		assertTrue(AbstractLayoutAlgorithm.verifyInput(new SimpleNode[0],
+				new SimpleRelationship[0]));
+
+		// every relationship is checked, against the entities themselves
+		SimpleNode[] others = { new SimpleNode("other"),
+				new SimpleNode(nodes[2].getRealObject()) };
+		for (int i = 0; i < others.length; i++) {
+			relationships = new SimpleRelationship[] {
+					new SimpleRelationship(nodes[0], others[i], false),
+					new SimpleRelationship(nodes[0], nodes[1], false) };
+			assertFalse(AbstractLayoutAlgorithm.verifyInput(nodes,
+					relationships));
+			relationships[0] = new SimpleRelationship(others[i], nodes[0],
+					false);
+			assertFalse(AbstractLayoutAlgorithm.verifyInput(nodes,
+					relationships));
+		}
+	}
+
+}
@@ -0,0 +1,180 @@
+/*******************************************************************************
+ * Copyright (c) 2026 IBM Corporation and others.
+ * All rights reserved. This program and the accompanying materials
+ * are made available under the terms of the Eclipse Public License v1.0
+ * which accompanies this distribution, and is available at
+ * http://www.eclipse.org/legal/epl-v10.html
+ *
+ * Contributors:
+ *     IBM Corporation - initial API and implementation
+ *******************************************************************************/
+package org.eclipse.zest.tests;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import junit.framework.TestCase;
+
+import org.eclipse.draw2d.Figure;
+import org.eclipse.draw2d.Graphics;
+import org.eclipse.draw2d.IFigure;
+import org.eclipse.draw2d.SWTGraphics;
+import org.eclipse.draw2d.geometry.Rectangle;
+import org.eclipse.swt.graphics.GC;
+import org.eclipse.swt.graphics.Image;
+import org.eclipse.swt.widgets.Display;
+import org.eclipse.zest.core.widgets.internal.ZestRootLayer;
+
+/**
+ * Tests the order in which the {@link ZestRootLayer} paints and hit-tests its
+ * children, as they are highlighted, unhighlighted and removed.
+ */
+public class ZestRootLayerTests extends TestCase {
+
+	private ZestRootLayer layer;
+
+	private List painted;
+
+	private Image image;
+
+	/**
+	 * A figure which records when it is painted. All the figures have the
+	 * same bounds, so that the topmost one is found at any of their points.
+	 */
+	private class TestFigure extends Figure {
+		private final String name;
+
+		TestFigure(String name) {
+			this.name = name;
+			setBounds(new Rectangle(0, 0, 10, 10));
+		}
+
+		public void paint(Graphics graphics) {
+			painted.add(this);
+		}
+
+		public String toString() {
+			return name;
+		}
+	}
+
+	protected void setUp() throws Exception {
+		layer = new ZestRootLayer();
+		layer.setBounds(new Rectangle(0, 0, 100, 100));
+		painted = new ArrayList();
+		image = new Image(Display.getDefault(), 100, 100);
+	}
+
+	protected void tearDown() throws Exception {
+		image.dispose();
+	}
+
+	public void testOrder() {
+		IFigure n1 = new TestFigure("n1");
+		IFigure c1 = new TestFigure("c1");
+		IFigure n2 = new TestFigure("n2");
+		IFigure c2 = new TestFigure("c2");
+		layer.addNode(n1);
+		layer.addConnection(c1);
+		layer.addNode(n2);
+		layer.addConnection(c2);
+		assertOrder(new IFigure[] { c1, c2, n1, n2 });
+
+		layer.highlightNode(n1);
+		assertOrder(new IFigure[] { c1, c2, n2, n1 });
+
+		// highlighted connections are below highlighted nodes
+		layer.highlightConnection(c1);
+		assertOrder(new IFigure[] { c2, n2, c1, n1 });
+
+		// an unhighlighted figure goes to the end of its segment
+		layer.unHighlightNode(n1);
+		assertOrder(new IFigure[] { c2, n2, n1, c1 });
+
+		layer.removeNode(n2);
+		assertOrder(new IFigure[] { c2, n1, c1 });
+
+		layer.unHighlightConnection(c1);
+		assertOrder(new IFigure[] { c2, c1, n1 });
+
+		layer.removeConnection(c2);
+		assertOrder(new IFigure[] { c1, n1 });
+	}
+
+	public void testSeveralChangesBeforePaint() {
+		IFigure n1 = new TestFigure("n1");
+		IFigure n2 = new TestFigure("n2");
+		IFigure n3 = new TestFigure("n3");
+		IFigure c1 = new TestFigure("c1");
+		layer.addNode(n1);
+		layer.addNode(n2);
+		layer.addNode(n3);
+		layer.addConnection(c1);
+		assertOrder(new IFigure[] { c1, n1, n2, n3 });
+
+		// only the last segment of each figure counts
+		layer.highlightNode(n1);
+		layer.highlightNode(n2);
+		layer.unHighlightNode(n1);
+		layer.highlightConnection(c1);
+		layer.removeNode(n3);
+		layer.highlightNode(n1);
+		assertOrder(new IFigure[] { c1, n2, n1 });
+	}
+
+	public void testOthersStayOnTop() {
+		IFigure other = new TestFigure("other");
+		IFigure n1 = new TestFigure("n1");
+		IFigure c1 = new TestFigure("c1");
+		layer.add(other);
+		layer.addNode(n1);
+		layer.addConnection(c1);
+		assertOrder(new IFigure[] { c1, n1, other });
+
+		layer.highlightNode(n1);
+		layer.highlightConnection(c1);
+		assertOrder(new IFigure[] { c1, n1, other });
+
+		layer.remove(other);
+		layer.unHighlightNode(n1);
+		assertOrder(new IFigure[] { n1, c1 });
+	}
+
+	public void testAddAgain() {
+		IFigure n1 = new TestFigure("n1");
+		IFigure n2 = new TestFigure("n2");
+		layer.addNode(n1);
+		layer.addNode(n2);
+		layer.highlightNode(n1);
+		assertOrder(new IFigure[] { n2, n1 });
+
+		// a figure added again is no longer highlighted
+		layer.addNode(n1);
+		assertOrder(new IFigure[] { n2, n1 });
+		layer.highlightNode(n2);
+		assertOrder(new IFigure[] { n1, n2 });
+		assertEquals(2, layer.getChildren().size());
+	}
+
+	/**
+	 * Checks the order of the children, the order in which they are painted,
+	 * and that the topmost one is found at their location.
+	 */
+	private void assertOrder(IFigure[] expected) {
+		painted.clear();
+		GC gc = new GC(image);
+		SWTGraphics graphics = new SWTGraphics(gc);
+		try {
+			layer.paint(graphics);
+		} finally {
+			graphics.dispose();
+			gc.dispose();
+		}
+		assertEquals(Arrays.asList(expected), painted);
+
+		assertSame(expected[expected.length - 1], layer.findFigureAt(5, 5));
+		assertEquals(Arrays.asList(expected), layer.getChildren());
+	}
+
+}
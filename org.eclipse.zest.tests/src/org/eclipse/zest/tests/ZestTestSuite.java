@@ -28,5 +28,13 @@ public class ZestTestSuite extends TestSuite {
 		addTest(new TestSuite(GraphTests.class));
 		addTest(new TestSuite(GraphSelectionTests.class));
 		addTest(new TestSuite(GraphViewerTests.class));
+		addTest(new TestSuite(TidyTreeLayoutAlgorithmTests.class));
+		addTest(new TestSuite(LayoutExecutorTests.class));
+		addTest(new TestSuite(ZestRootLayerTests.class));
+		addTest(new TestSuite(QuadTreeTests.class));
+		addTest(new TestSuite(SpringLayoutAlgorithmTests.class));
+		addTest(new TestSuite(SparseGraphTests.class));
+		addTest(new TestSuite(MultilevelLayoutAlgorithmTests.class));
+		addTest(new TestSuite(TreeLayoutAlgorithmTests.class));
 	}
 }